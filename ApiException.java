@@ -0,0 +1,18 @@
+package ucc.payment.system.server;
+
+/**
+ * Erreur d'API, rendue au client avec son statut HTTP et un code stable.
+ */
+public class ApiException extends RuntimeException {
+    private final int status;
+    private final String code;
+
+    public ApiException(int status, String code, String message) {
+        super(message);
+        this.status = status;
+        this.code = code;
+    }
+
+    public int getStatus() { return status; }
+    public String getCode() { return code; }
+}
@@ -0,0 +1,456 @@
+package ucc.payment.system.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ucc.payment.system.AppContext;
+import ucc.payment.system.UserManager;
+import ucc.payment.system.audit.AuditLog;
+import ucc.payment.system.gateway.OperatorGateway;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.payment.DuplicatePaymentException;
+import ucc.payment.system.payment.PaymentRepository;
+import ucc.payment.system.payment.PaymentRow;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.security.RoleDirectory;
+import ucc.payment.system.session.Session;
+import ucc.payment.system.session.SessionManager;
+import ucc.payment.system.util.Json;
+import ucc.payment.system.util.ValidationException;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Mode serveur sans interface : API JSON (inscription, connexion, paiement) sur le
+ * serveur HTTP intégré au JDK, un thread virtuel par requête.
+ *
+ * <p>Les réponses ont toujours une longueur fixe (Content-Length) : les connexions
+ * HTTP/1.1 restent ouvertes (keep-alive) et les requêtes enchaînées sur une même
+ * connexion (pipelining) sont traitées dans l'ordre.
+ *
+ * <p>La connexion renvoie un jeton de session ; les requêtes authentifiées le passent
+ * dans l'en-tête {@code Authorization: Bearer <jeton>} (validation en mémoire, sans
+ * hashage) ou, à défaut, fournissent email et mot de passe dans le corps.
+ *
+ * <ul>
+ *   <li>POST /api/register {name, email, password, promotion, faculty}</li>
+ *   <li>POST /api/login {email, password} → {token, ...}</li>
+ *   <li>POST /api/logout (jeton)</li>
+ *   <li>POST /api/password {current_password, new_password} (jeton ou email/password)</li>
+ *   <li>POST /api/payments {amount, method} (jeton ou email/password)</li>
+ *   <li>GET /api/payments/{transactionId} (jeton) : paiement de l'étudiant, ou de tout
+ *       étudiant pour un admin ; 404 sinon</li>
+ *   <li>GET /api/history?limit=&amp;after= (jeton) → {payments: [...], next} : paiements de
+ *       l'étudiant, du plus récent au plus ancien ; {@code next} est le curseur de la page
+ *       suivante (null à la fin)</li>
+ *   <li>GET /metrics (jeton admin, format texte Prometheus), GET /health</li>
+ * </ul>
+ */
+public class ApiServer implements AutoCloseable {
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String TEXT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int DEFAULT_HISTORY_LIMIT = 20;
+    private static final int MAX_HISTORY_LIMIT = 100;
+
+    private final HttpServer server;
+    private final ExecutorService executor = VirtualThreads.newExecutor("http");
+    private final UserManager userManager;
+    private final PaymentService paymentService;
+    private final AuditLog auditLog;
+    private final OperatorGateway gateway;
+    private final SessionManager sessions;
+    private final PaymentRepository history;
+    private final RoleDirectory roles;
+
+    public ApiServer(AppContext context, InetSocketAddress address) throws IOException {
+        this.userManager = context.getUserManager();
+        this.paymentService = context.getPaymentService();
+        this.auditLog = context.getAuditLog();
+        this.gateway = context.getGateway();
+        this.sessions = context.getSessionManager();
+        this.history = context.getPaymentHistory();
+        this.roles = context.getRoleDirectory();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+
+        route("POST", "/api/register", "register", this::register);
+        route("POST", "/api/login", "login", this::login);
+        route("POST", "/api/logout", "logout", this::logout);
+        route("POST", "/api/password", "password", this::changePassword);
+        route("POST", "/api/payments", "pay", this::pay);
+        route("GET", "/api/payments/", "payment_status", this::paymentStatus);
+        route("GET", "/api/history", "history", this::history);
+        route("GET", "/metrics", "metrics", this::metrics);
+        route("GET", "/health", "health", exchange -> Response.json(200, Json.object("status", "ok")));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Arrête d'accepter des connexions et laisse une seconde aux requêtes en cours.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private Response register(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        // Mêmes choix que les listes du formulaire d'inscription
+        String promotion = required(body, "promotion");
+        if (!ReferenceData.PROMOTIONS.contains(promotion)) {
+            throw new ApiException(400, "invalid_promotion", "Promotion inconnue : " + promotion);
+        }
+        String faculty = required(body, "faculty");
+        if (!ReferenceData.FACULTIES.contains(faculty)) {
+            throw new ApiException(400, "invalid_faculty", "Filière inconnue : " + faculty);
+        }
+        Student student = new Student(body.get("name"), body.get("email"), body.get("password"),
+            promotion, faculty);
+        try {
+            userManager.addUser(student);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(409, "duplicate_email", e.getMessage());
+        }
+        auditLog.log(student.getEmail(), "REGISTER", "channel", "http",
+            "promotion", student.getPromotion(), "faculty", student.getFaculty());
+        return Response.json(201, studentJson(student));
+    }
+
+    private Response login(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        Student student = authenticate(body);
+        Session session = sessions.open(student);
+        auditLog.log(student.getEmail(), "LOGIN", "channel", "http");
+        return Response.json(200, Json.object("token", session.getToken(), "email", student.getEmail(),
+            "name", student.getName(), "promotion", student.getPromotion(), "faculty", student.getFaculty()));
+    }
+
+    private Response logout(HttpExchange exchange) {
+        String token = bearerToken(exchange);
+        if (token == null) {
+            throw new ApiException(401, "missing_token", "Jeton de session manquant");
+        }
+        Student student = sessions.resume(token);
+        sessions.invalidate(token);
+        if (student != null) {
+            auditLog.log(student.getEmail(), "LOGOUT", "channel", "http");
+        }
+        return new Response(204, JSON_TYPE, "");
+    }
+
+    private Response changePassword(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        Student student = authenticate(exchange, body);
+        String newPassword = required(body, "new_password");
+        if (!userManager.changePassword(student.getEmail(), required(body, "current_password"), newPassword)) {
+            throw new ApiException(401, "invalid_credentials", "Mot de passe actuel incorrect");
+        }
+        Student updated = userManager.find(student.getEmail());
+        int closed = sessions.invalidateAll(updated.getEmail());
+        auditLog.log(updated.getEmail(), "PASSWORD_CHANGED", "channel", "http", "sessions_closed", closed);
+        // Nouvelle session pour le client qui vient de changer son mot de passe
+        Session session = sessions.open(updated);
+        return Response.json(200, Json.object("token", session.getToken()));
+    }
+
+    private Response pay(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        Student student = authenticate(exchange, body);
+        BigDecimal amount;
+        PaymentMethod method;
+        try {
+            amount = new BigDecimal(required(body, "amount"));
+            method = PaymentMethod.fromLabel(required(body, "method"));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "invalid_payment", e.getMessage());
+        }
+        Payment payment;
+        try {
+            payment = paymentService.submitPayment(student, amount, method).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DuplicatePaymentException) {
+                throw new ApiException(409, "duplicate_payment", cause.getMessage());
+            }
+            if (cause instanceof IllegalArgumentException) {
+                throw new ApiException(400, "invalid_payment", cause.getMessage());
+            }
+            throw e;
+        }
+        if (method.isMobileMoney()) {
+            gateway.requestPayment(payment);
+        }
+        auditLog.log(student.getEmail(), "PAYMENT_CREATED", "channel", "http",
+            "transaction_id", payment.getTransactionId(), "amount", payment.getAmount(),
+            "method", payment.getMethod().name());
+        return Response.json(201, paymentJson(payment));
+    }
+
+    /**
+     * Un paiement d'un autre étudiant est signalé comme inconnu (404), sans révéler
+     * qu'il existe.
+     */
+    private Response paymentStatus(HttpExchange exchange) throws IOException {
+        Student student = sessionStudent(exchange);
+        String path = exchange.getRequestURI().getPath();
+        String transactionId = path.substring("/api/payments/".length());
+        Payment payment = paymentService.find(transactionId);
+        if (payment == null
+                || (!payment.getStudentEmail().equals(student.getEmail()) && !roles.isAdmin(student.getEmail()))) {
+            throw new ApiException(404, "unknown_transaction", "Transaction inconnue : " + transactionId);
+        }
+        return Response.json(200, paymentJson(payment));
+    }
+
+    private Response history(HttpExchange exchange) throws IOException {
+        Student student = sessionStudent(exchange);
+        Map<String, String> query = queryParams(exchange);
+        int limit;
+        PaymentRow after;
+        try {
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_HISTORY_LIMIT;
+            after = query.containsKey("after") ? parseCursor(query.get("after")) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "invalid_query", "Paramètre limit ou after invalide");
+        }
+        if (limit < 1 || limit > MAX_HISTORY_LIMIT) {
+            throw new ApiException(400, "invalid_query", "limit doit être entre 1 et " + MAX_HISTORY_LIMIT);
+        }
+
+        List<PaymentRow> rows = history.history(student.getEmail(), after, limit);
+        StringBuilder json = new StringBuilder(64 + rows.size() * 192).append("{\"payments\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            PaymentRow row = rows.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(Json.object("transaction_id", row.getTransactionId(), "amount", row.getAmount(),
+                "method", row.getMethod().getLabel(), "status", row.getStatus().getDbValue(),
+                "payment_date", row.getPaymentDate().toString(),
+                "verification", row.getVerification() == null ? null : row.getVerification().getDbValue()));
+        }
+        json.append("],\"next\":");
+        Json.appendValue(json, rows.size() < limit ? null : cursor(rows.get(rows.size() - 1)));
+        return Response.json(200, json.append('}').toString());
+    }
+
+    /**
+     * Curseur de pagination : "secondes.nanosecondes.payment_id" de la dernière ligne.
+     */
+    private static String cursor(PaymentRow row) {
+        Instant date = row.getPaymentDate();
+        return date.getEpochSecond() + "." + date.getNano() + "." + row.getPaymentId();
+    }
+
+    private static PaymentRow parseCursor(String cursor) {
+        String[] parts = cursor.split("\\.");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Curseur invalide : " + cursor);
+        }
+        return PaymentRow.position(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+            Long.parseLong(parts[2]));
+    }
+
+    /**
+     * Paramètres de la requête (sans valeurs répétées ; les valeurs ne sont pas décodées,
+     * les paramètres attendus n'ont pas de caractères réservés).
+     */
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Authentifie par jeton de session si l'en-tête est présent, sinon par email et
+     * mot de passe. Un jeton invalide ou expiré est refusé sans repli.
+     */
+    private Student authenticate(HttpExchange exchange, Map<String, String> body) {
+        String token = bearerToken(exchange);
+        if (token == null) {
+            return authenticate(body);
+        }
+        Student student = sessions.resume(token);
+        if (student == null) {
+            throw new ApiException(401, "invalid_token", "Session expirée ou invalide");
+        }
+        return student;
+    }
+
+    /**
+     * Étudiant de la session du jeton ; pas de repli sur email et mot de passe.
+     */
+    private Student sessionStudent(HttpExchange exchange) {
+        if (bearerToken(exchange) == null) {
+            throw new ApiException(401, "missing_token", "Jeton de session manquant");
+        }
+        return authenticate(exchange, Map.of());
+    }
+
+    private Response metrics(HttpExchange exchange) throws IOException {
+        Student student = sessionStudent(exchange);
+        if (!roles.isAdmin(student.getEmail())) {
+            throw new ApiException(403, "forbidden", "Réservé aux administrateurs");
+        }
+        return new Response(200, TEXT_TYPE, MetricsRegistry.shared().scrape());
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        String token = header.substring(7).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private Student authenticate(Map<String, String> body) {
+        Student student = userManager.authenticate(required(body, "email"), required(body, "password"));
+        if (student == null) {
+            auditLog.log(body.get("email"), "LOGIN_FAILED", "channel", "http", "email", body.get("email"));
+            throw new ApiException(401, "invalid_credentials", "Identifiants incorrects");
+        }
+        return student;
+    }
+
+    private void route(String method, String path, String name, Endpoint endpoint) {
+        LatencyHistogram latency = MetricsRegistry.shared()
+            .histogram("ucc_http_" + name + "_seconds", "Requête HTTP " + method + " " + path);
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            try {
+                Response response;
+                if (!method.equals(exchange.getRequestMethod())) {
+                    response = error(405, "method_not_allowed", "Méthode non autorisée");
+                } else if (!path.endsWith("/") && !path.equals(exchange.getRequestURI().getPath())) {
+                    response = error(404, "not_found", "Ressource introuvable");
+                } else {
+                    response = dispatch(endpoint, exchange);
+                }
+                send(exchange, response);
+            } finally {
+                exchange.close();
+                latency.recordSince(start);
+            }
+        });
+    }
+
+    private static Response dispatch(Endpoint endpoint, HttpExchange exchange) {
+        try {
+            return endpoint.handle(exchange);
+        } catch (ApiException e) {
+            return error(e.getStatus(), e.getCode(), e.getMessage());
+        } catch (ValidationException e) {
+            return Response.json(400, Json.object("error", e.getError().name(),
+                "field", e.getError().getField().name(), "message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return error(503, "overloaded", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return error(400, "invalid_request", e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur HTTP " + exchange.getRequestURI() + " : " + e);
+            return error(500, "internal_error", "Erreur interne");
+        }
+    }
+
+    private static Response error(int status, String code, String message) {
+        return Response.json(status, Json.object("error", code, "message", message));
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        exchange.sendResponseHeaders(response.status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> readJson(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new ApiException(413, "body_too_large", "Requête trop volumineuse");
+        }
+        return Json.parseObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static String required(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.isEmpty()) {
+            throw new ApiException(400, "missing_field", "Champ obligatoire : " + field);
+        }
+        return value;
+    }
+
+    private static String studentJson(Student student) {
+        return Json.object("email", student.getEmail(), "name", student.getName(),
+            "promotion", student.getPromotion(), "faculty", student.getFaculty());
+    }
+
+    private static String paymentJson(Payment payment) {
+        return Json.object("transaction_id", payment.getTransactionId(),
+            "student", payment.getStudentEmail(), "amount", payment.getAmount(),
+            "method", payment.getMethod().getLabel(), "status", payment.getStatus().getDbValue(),
+            "payment_date", payment.getPaymentDate().toString());
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class Response {
+        final int status;
+        final String contentType;
+        final String body;
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response json(int status, String body) {
+            return new Response(status, JSON_TYPE, body);
+        }
+    }
+}
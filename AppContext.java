@@ -0,0 +1,60 @@
+package ucc.payment.system;
+
+import ucc.payment.system.audit.AuditLog;
+import ucc.payment.system.fees.FeeLedger;
+import ucc.payment.system.gateway.OperatorGateway;
+import ucc.payment.system.payment.CachedPaymentRepository;
+import ucc.payment.system.payment.PaymentBrowser;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.reconciliation.ReconciliationEngine;
+import ucc.payment.system.search.StudentSearchIndex;
+import ucc.payment.system.security.RoleDirectory;
+import ucc.payment.system.session.SessionManager;
+
+/**
+ * Services partagés de l'application, transmis aux fenêtres.
+ */
+public class AppContext {
+    private final UserManager userManager;
+    private final PaymentService paymentService;
+    private final ReconciliationEngine reconciliationEngine;
+    private final AuditLog auditLog;
+    private final RoleDirectory roleDirectory;
+    private final OperatorGateway gateway;
+    private final SessionManager sessionManager;
+    private final FeeLedger feeLedger;
+    private final PaymentBrowser paymentBrowser;
+    private final StudentSearchIndex studentSearch;
+    private final CachedPaymentRepository paymentHistory;
+
+    public AppContext(UserManager userManager, PaymentService paymentService,
+                      ReconciliationEngine reconciliationEngine, AuditLog auditLog,
+                      RoleDirectory roleDirectory, OperatorGateway gateway,
+                      SessionManager sessionManager, FeeLedger feeLedger,
+                      PaymentBrowser paymentBrowser, StudentSearchIndex studentSearch,
+                      CachedPaymentRepository paymentHistory) {
+        this.userManager = userManager;
+        this.paymentService = paymentService;
+        this.reconciliationEngine = reconciliationEngine;
+        this.auditLog = auditLog;
+        this.roleDirectory = roleDirectory;
+        this.gateway = gateway;
+        this.sessionManager = sessionManager;
+        this.feeLedger = feeLedger;
+        this.paymentBrowser = paymentBrowser;
+        this.studentSearch = studentSearch;
+        this.paymentHistory = paymentHistory;
+    }
+
+    public UserManager getUserManager() { return userManager; }
+    public PaymentService getPaymentService() { return paymentService; }
+    public ReconciliationEngine getReconciliationEngine() { return reconciliationEngine; }
+    public AuditLog getAuditLog() { return auditLog; }
+    public RoleDirectory getRoleDirectory() { return roleDirectory; }
+    public OperatorGateway getGateway() { return gateway; }
+    public SessionManager getSessionManager() { return sessionManager; }
+    public FeeLedger getFeeLedger() { return feeLedger; }
+    public PaymentBrowser getPaymentBrowser() { return paymentBrowser; }
+    public StudentSearchIndex getStudentSearch() { return studentSearch; }
+    public CachedPaymentRepository getPaymentHistory() { return paymentHistory; }
+}
@@ -0,0 +1,47 @@
+package ucc.payment.system.audit;
+
+import ucc.payment.system.util.Json;
+
+import java.time.Instant;
+
+/**
+ * Entrée du journal d'activité (une ligne de activity_logs), prête à être écrite :
+ * les détails sont déjà sérialisés en JSON par le consommateur.
+ */
+public class AuditEvent {
+    private final String studentEmail;
+    private final String action;
+    private final Instant actionDate;
+    private final String detailsJson;
+
+    public AuditEvent(String studentEmail, String action, Instant actionDate, String detailsJson) {
+        this.studentEmail = studentEmail;
+        this.action = action;
+        this.actionDate = actionDate;
+        this.detailsJson = detailsJson;
+    }
+
+    // Getters
+    public String getStudentEmail() { return studentEmail; }
+    public String getAction() { return action; }
+    public Instant getActionDate() { return actionDate; }
+    public String getDetailsJson() { return detailsJson; }
+
+    /**
+     * Ligne JSON complète (fichier local) : l'événement et ses détails imbriqués.
+     */
+    public String toJsonLine() {
+        StringBuilder json = new StringBuilder(96 + detailsJson.length()).append("{\"student\":");
+        Json.appendString(json, studentEmail == null ? "" : studentEmail);
+        json.append(",\"action\":");
+        Json.appendString(json, action);
+        json.append(",\"action_date\":");
+        Json.appendString(json, actionDate.toString());
+        return json.append(",\"details\":").append(detailsJson).append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Activité[%s, %s, %s, %s]", actionDate, studentEmail, action, detailsJson);
+    }
+}
@@ -0,0 +1,222 @@
+package ucc.payment.system.audit;
+
+import ucc.payment.system.util.Json;
+import ucc.payment.system.util.MpscRingBuffer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal d'activité asynchrone (table activity_logs).
+ *
+ * <p>Les fenêtres publient dans une file circulaire bornée sans verrou : {@link #log}
+ * ne fait ni E/S ni sérialisation et ne bloque pas l'EDT (sauf politique BLOCK).
+ * Un thread consommateur unique construit le JSON des détails et écrit par lots,
+ * dès que le lot est plein ou que le délai de vidage est écoulé.
+ */
+public class AuditLog implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final long DEFAULT_FLUSH_MILLIS = 200;
+    private static final int SAMPLE_RATE = 16;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int BLOCK_SPINS = 100;
+
+    private final AuditSink sink;
+    private final OverflowPolicy policy;
+    private final MpscRingBuffer<Pending> buffer;
+    private final int highWaterMark;
+    private final int maxBatch;
+    private final long flushNanos;
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    public AuditLog(AuditSink sink, OverflowPolicy policy) {
+        this(sink, policy, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * @param capacity    taille de la file (arrondie à la puissance de deux supérieure)
+     * @param maxBatch    nombre maximal d'événements par écriture
+     * @param flushMillis délai maximal entre la publication d'un événement et son écriture
+     */
+    public AuditLog(AuditSink sink, OverflowPolicy policy, int capacity, int maxBatch, long flushMillis) {
+        this.sink = sink;
+        this.policy = policy;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.highWaterMark = buffer.capacity() / 4 * 3;
+        this.maxBatch = maxBatch;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.consumer = new Thread(this::consume, "audit-log-writer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Publie un événement.
+     * @param studentEmail étudiant concerné (peut être null, ex. connexion refusée d'un email inconnu)
+     * @param keyValues    détails sous forme de paires clé, valeur
+     * @return false si l'événement a été abandonné ou écarté par échantillonnage
+     */
+    public boolean log(String studentEmail, String action, Object... keyValues) {
+        Pending event = new Pending(studentEmail, action, Instant.now(), keyValues);
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        if (policy == OverflowPolicy.SAMPLE && buffer.size() >= highWaterMark
+                && sampleCounter.incrementAndGet() % SAMPLE_RATE != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        if (buffer.offer(event) || (policy == OverflowPolicy.BLOCK && offerBlocking(event))) {
+            published.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Attend une place tant que le consommateur tourne ; abandonne s'il s'est arrêté
+     * (personne ne viderait plus la file).
+     */
+    private boolean offerBlocking(Pending event) {
+        int spins = 0;
+        while (running && consumer.isAlive()) {
+            if (buffer.offer(event)) {
+                return true;
+            }
+            if (++spins < BLOCK_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        return false;
+    }
+
+    // Getters des compteurs
+    public long getPublished() { return published.sum(); }
+    public long getDropped() { return dropped.sum(); }
+    public long getSampledOut() { return sampledOut.sum(); }
+    public long getWritten() { return written.sum(); }
+    public long getFailed() { return failed.sum(); }
+    public int getPending() { return buffer.size(); }
+    public OverflowPolicy getPolicy() { return policy; }
+
+    /**
+     * Arrête la publication, écrit les événements restants puis ferme la destination.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            System.err.println("Fermeture du journal d'activité impossible : " + e.getMessage());
+        }
+    }
+
+    private void consume() {
+        List<AuditEvent> batch = new ArrayList<>(maxBatch);
+        long deadline = 0;
+        while (true) {
+            try {
+                boolean wasEmpty = batch.isEmpty();
+                int drained = buffer.drain(pending -> addEvent(batch, pending), maxBatch - batch.size());
+                if (wasEmpty && !batch.isEmpty()) {
+                    deadline = System.nanoTime() + flushNanos;
+                }
+                boolean stopping = !running;
+                if (batch.size() >= maxBatch
+                        || (!batch.isEmpty() && (stopping || System.nanoTime() - deadline >= 0))) {
+                    flush(batch);
+                } else if (drained == 0) {
+                    if (stopping && buffer.isEmpty()) {
+                        return;
+                    }
+                    long wait = batch.isEmpty() ? IDLE_PARK_NANOS : deadline - System.nanoTime();
+                    LockSupport.parkNanos(Math.max(1, Math.min(IDLE_PARK_NANOS, wait)));
+                }
+            } catch (RuntimeException e) {
+                // Le lot en cours est perdu, le consommateur continue
+                failed.add(batch.size());
+                batch.clear();
+                System.err.println("Journal d'activité : lot abandonné : " + e);
+            }
+        }
+    }
+
+    /**
+     * Sérialise un événement ; une erreur l'écarte sans interrompre le consommateur
+     * (une exception dans drain désynchroniserait la file).
+     */
+    private void addEvent(List<AuditEvent> batch, Pending pending) {
+        try {
+            batch.add(pending.toEvent());
+        } catch (RuntimeException e) {
+            failed.increment();
+            System.err.println("Événement " + pending.action + " du journal d'activité ignoré : " + e);
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        try {
+            sink.writeBatch(batch);
+            written.add(batch.size());
+        } catch (IOException | RuntimeException e) {
+            // Le journal d'activité ne doit jamais interrompre l'application
+            failed.add(batch.size());
+            System.err.println("Écriture du journal d'activité impossible : " + e.getMessage());
+        }
+        batch.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Journal d'activité[%s, publiés=%d, écrits=%d, abandonnés=%d, échantillonnés=%d, échecs=%d]",
+            policy, getPublished(), getWritten(), getDropped(), getSampledOut(), getFailed());
+    }
+
+    /**
+     * Événement tel que publié par un producteur ; sérialisé par le consommateur.
+     */
+    private static final class Pending {
+        final String studentEmail;
+        final String action;
+        final Instant actionDate;
+        final Object[] keyValues;
+
+        Pending(String studentEmail, String action, Instant actionDate, Object[] keyValues) {
+            this.studentEmail = studentEmail;
+            this.action = action;
+            this.actionDate = actionDate;
+            this.keyValues = keyValues;
+        }
+
+        AuditEvent toEvent() {
+            return new AuditEvent(studentEmail, action, actionDate, Json.object(keyValues));
+        }
+    }
+}
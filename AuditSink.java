@@ -0,0 +1,15 @@
+package ucc.payment.system.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination des lots d'événements d'activité.
+ */
+public interface AuditSink extends AutoCloseable {
+
+    void writeBatch(List<AuditEvent> events) throws IOException;
+
+    @Override
+    default void close() throws IOException {}
+}
@@ -0,0 +1,156 @@
+package ucc.payment.system.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regroupe les écritures concurrentes en lots : un seul thread d'écriture vide la file
+ * et transmet jusqu'à maxBatchSize éléments par appel au {@link BatchSink}.
+ * Sous charge, les lots se forment naturellement ; maxDelayMillis permet d'attendre
+ * un peu pour remplir un lot quand la file est presque vide.
+ *
+ * @param <T> type des éléments écrits
+ */
+public class BatchingWriter<T> implements AutoCloseable {
+
+    /**
+     * Destination des lots (base de données, fichier...).
+     */
+    @FunctionalInterface
+    public interface BatchSink<T> {
+        void write(List<T> batch) throws Exception;
+    }
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final BlockingQueue<Entry<T>> queue;
+    private final BatchSink<T> sink;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    public BatchingWriter(String name, int maxBatchSize, long maxDelayMillis, int capacity,
+                          BatchSink<T> sink) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.writerThread = new Thread(this::run, name);
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Met un élément en file. Bloque si la file est pleine (contre-pression).
+     * @return un futur terminé quand le lot contenant l'élément a été écrit
+     */
+    public CompletableFuture<Void> submit(T item) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Écrivain fermé"));
+        }
+        Entry<T> entry = new Entry<>(item);
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entry.future.completeExceptionally(e);
+        }
+        return entry.future;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    /**
+     * Écrit les éléments restants puis arrête le thread d'écriture.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Entry<T>> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Entry<T> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                lingerForMore(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void lingerForMore(List<Entry<T>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize && !closed) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Entry<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void flush(List<Entry<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Entry<T> entry : batch) {
+            items.add(entry.item);
+        }
+        try {
+            sink.write(items);
+            for (Entry<T> entry : batch) {
+                entry.future.complete(null);
+            }
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            // Lot refusé en bloc : chaque élément est réécrit seul, un élément invalide
+            // n'échoue que pour lui-même
+            for (Entry<T> entry : batch) {
+                try {
+                    sink.write(List.of(entry.item));
+                    entry.future.complete(null);
+                } catch (Exception itemError) {
+                    entry.future.completeExceptionally(itemError);
+                }
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+}
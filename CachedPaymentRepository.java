@@ -0,0 +1,160 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.Student;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Historique lu à travers un cache par étudiant : les {@value #CACHED_ROWS} paiements les
+ * plus récents sont gardés en mémoire, et les consultations répétées (bouton "Vérifier
+ * les Paiements", API) ne refont pas la requête. Les pages plus anciennes sont lues
+ * directement dans le {@link PaymentRepository} sous-jacent.
+ *
+ * <p>Une création ou un changement de statut ({@link PaymentListener}) efface l'entrée de
+ * l'étudiant ; les vérifications écrites par le rapprochement n'étant pas notifiées, une
+ * entrée expire aussi après {@code ucc.payment.history.cache.seconds} secondes, et
+ * {@link #invalidateAll} efface tout après un rapprochement. Une lecture commencée avant
+ * une invalidation n'est pas gardée (numéro de génération par groupe d'étudiants).
+ */
+public class CachedPaymentRepository implements PaymentRepository, PaymentListener {
+    public static final int CACHED_ROWS = 50;
+    public static final int DEFAULT_MAX_STUDENTS = 10_000;
+    public static final long DEFAULT_TTL_SECONDS = 60;
+    private static final int GENERATION_STRIPES = 256;
+
+    private static final Counter HITS = MetricsRegistry.shared()
+        .counter("ucc_payment_history_cache_hits_total", "Historiques servis depuis le cache");
+    private static final Counter MISSES = MetricsRegistry.shared()
+        .counter("ucc_payment_history_cache_misses_total", "Historiques lus dans le registre");
+    private static final LatencyHistogram LOAD_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_payment_history_load_seconds", "Lecture d'un historique dans le registre");
+
+    private final PaymentRepository delegate;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public CachedPaymentRepository(PaymentRepository delegate) {
+        this(delegate, Integer.getInteger("ucc.payment.history.cache.students", DEFAULT_MAX_STUDENTS),
+            TimeUnit.SECONDS.toNanos(Long.getLong("ucc.payment.history.cache.seconds", DEFAULT_TTL_SECONDS)));
+    }
+
+    /**
+     * @param maxStudents nombre d'étudiants gardés (les moins récemment consultés sont oubliés)
+     * @param ttlNanos    durée de vie d'une entrée
+     */
+    public CachedPaymentRepository(PaymentRepository delegate, int maxStudents, long ttlNanos) {
+        this.delegate = delegate;
+        this.ttlNanos = ttlNanos;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxStudents;
+            }
+        });
+    }
+
+    @Override
+    public List<PaymentRow> history(String email, PaymentRow after, int limit) throws IOException {
+        String key = Student.normalizeEmail(email);
+        Entry entry = entries.get(key);
+        if (entry == null || System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entry = load(key);
+        } else {
+            HITS.increment();
+        }
+
+        List<PaymentRow> rows = entry.rows;
+        int from = 0;
+        if (after != null) {
+            // Première ligne plus ancienne que le curseur
+            while (from < rows.size() && rows.get(from).compareKey(after) >= 0) {
+                from++;
+            }
+        }
+        int to = Math.min(rows.size(), from + limit);
+        if (to - from < limit && !entry.complete) {
+            // La page dépasse les lignes gardées
+            MISSES.increment();
+            return delegate.history(key, after, limit);
+        }
+        return new ArrayList<>(rows.subList(from, to));
+    }
+
+    @Override
+    public void paymentChanged(Payment previous, Payment current) {
+        invalidate(current.getStudentEmail());
+    }
+
+    /**
+     * Oublie l'historique d'un étudiant.
+     */
+    public void invalidate(String email) {
+        String key = Student.normalizeEmail(email);
+        generations.incrementAndGet(stripe(key));
+        entries.remove(key);
+    }
+
+    /**
+     * Oublie tous les historiques (après un rapprochement, qui vérifie des paiements de
+     * nombreux étudiants).
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    /** Nombre d'étudiants en cache. */
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry load(String key) throws IOException {
+        MISSES.increment();
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        long start = System.nanoTime();
+        List<PaymentRow> rows = delegate.history(key, null, CACHED_ROWS);
+        LOAD_LATENCY.recordSince(start);
+        Entry entry = new Entry(List.copyOf(rows), rows.size() < CACHED_ROWS, start);
+        // Invalidé pendant la lecture : la réponse sert une fois, sans être gardée
+        if (generations.get(stripe) == generation) {
+            entries.put(key, entry);
+            if (generations.get(stripe) != generation) {
+                entries.remove(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    private static int stripe(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private static final class Entry {
+        final List<PaymentRow> rows;
+        // Toutes les lignes de l'étudiant sont gardées
+        final boolean complete;
+        final long loadedAt;
+
+        Entry(List<PaymentRow> rows, boolean complete, long loadedAt) {
+            this.rows = rows;
+            this.complete = complete;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
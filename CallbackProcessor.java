@@ -0,0 +1,174 @@
+package ucc.payment.system.gateway;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applique les notifications des opérateurs aux paiements, de façon idempotente
+ * par transaction_id.
+ *
+ * <ul>
+ *   <li>chaque opérateur a son propre pool : un opérateur lent ne retarde pas les autres ;</li>
+ *   <li>les notifications d'une même transaction sont chaînées et appliquées dans
+ *       l'ordre d'arrivée, celles de transactions différentes en parallèle ;</li>
+ *   <li>un doublon d'une notification encore en file est fusionné avec elle ;</li>
+ *   <li>une notification "pending" ou déjà appliquée est ignorée ; un statut final
+ *       contradictoire est compté comme conflit et laisse le paiement inchangé ;</li>
+ *   <li>une notification arrivée avant l'enregistrement du paiement est réessayée.</li>
+ * </ul>
+ */
+public class CallbackProcessor implements AutoCloseable {
+    private static final int WORKERS_PER_OPERATOR = 2;
+    private static final int MAX_UNKNOWN_RETRIES = 3;
+    private static final long UNKNOWN_RETRY_MILLIS = 200;
+
+    private final PaymentService paymentService;
+    private final Map<PaymentMethod, ExecutorService> operators = new EnumMap<>(PaymentMethod.class);
+    private final ConcurrentHashMap<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public CallbackProcessor(PaymentService paymentService) {
+        this.paymentService = paymentService;
+        for (PaymentMethod method : PaymentMethod.values()) {
+            if (method.isMobileMoney()) {
+                operators.put(method, Executors.newFixedThreadPool(WORKERS_PER_OPERATOR,
+                    VirtualThreads.daemonFactory("callbacks-" + method.name().toLowerCase())));
+            }
+        }
+    }
+
+    /**
+     * Reçoit une notification ; ne bloque pas (appelable depuis le thread réseau).
+     */
+    public void accept(OperatorCallback callback) {
+        received.increment();
+        if (callback.getStatus() == PaymentStatus.PENDING) {
+            // Un paiement est créé "pending" : cette notification n'apporte rien
+            ignored.increment();
+            return;
+        }
+        ExecutorService executor = operators.get(callback.getMethod());
+        if (executor == null) {
+            ignored.increment();
+            return;
+        }
+
+        String transactionId = callback.getTransactionId();
+        CompletableFuture<?>[] queued = new CompletableFuture<?>[1];
+        lanes.compute(transactionId, (id, lane) -> {
+            if (lane == null) {
+                lane = new Lane();
+            }
+            if (lane.lastQueued == callback.getStatus()) {
+                coalesced.increment();
+                return lane;
+            }
+            lane.lastQueued = callback.getStatus();
+            lane.pending++;
+            lane.tail = lane.tail.thenComposeAsync(ignoredResult -> apply(callback, 0), executor)
+                .exceptionally(error -> {
+                    // Une erreur ne doit pas bloquer les notifications suivantes de la transaction
+                    failed.increment();
+                    System.err.println("Notification non appliquée " + callback + " : " + error);
+                    return null;
+                });
+            queued[0] = lane.tail;
+            return lane;
+        });
+        // Hors de compute() : le nettoyage peut s'exécuter immédiatement et retoucher la map
+        if (queued[0] != null) {
+            queued[0].whenComplete((result, error) -> lanes.computeIfPresent(transactionId,
+                (id, lane) -> --lane.pending == 0 ? null : lane));
+        }
+    }
+
+    private CompletableFuture<Void> apply(OperatorCallback callback, int attempt) {
+        Payment current = paymentService.find(callback.getTransactionId());
+        if (current == null) {
+            if (attempt >= MAX_UNKNOWN_RETRIES) {
+                unknown.increment();
+                return CompletableFuture.completedFuture(null);
+            }
+            // Notification plus rapide que l'enregistrement du paiement : on réessaie un peu plus tard
+            return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(
+                    UNKNOWN_RETRY_MILLIS, TimeUnit.MILLISECONDS, operators.get(callback.getMethod())))
+                .thenCompose(ignoredResult -> apply(callback, attempt + 1));
+        }
+        if (current.getStatus() == callback.getStatus()) {
+            ignored.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        return paymentService.updateStatus(callback.getTransactionId(), callback.getStatus())
+            .handle((payment, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause == null) {
+                    applied.increment();
+                } else if (cause instanceof IllegalStateException && paymentService.find(
+                        callback.getTransactionId()).getStatus().isFinal()) {
+                    conflicts.increment();
+                } else {
+                    failed.increment();
+                    System.err.println("Notification non appliquée " + callback + " : " + cause.getMessage());
+                }
+                return null;
+            });
+    }
+
+    // Getters des compteurs
+    public long getReceived() { return received.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getIgnored() { return ignored.sum(); }
+    public long getApplied() { return applied.sum(); }
+    public long getConflicts() { return conflicts.sum(); }
+    public long getUnknown() { return unknown.sum(); }
+    public long getFailed() { return failed.sum(); }
+
+    /** Nombre de transactions ayant des notifications en cours de traitement. */
+    public int getInFlight() {
+        return lanes.size();
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService executor : operators.values()) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Notifications[reçues=%d, appliquées=%d, fusionnées=%d, ignorées=%d, "
+                + "conflits=%d, inconnues=%d, échecs=%d]", getReceived(), getApplied(), getCoalesced(),
+            getIgnored(), getConflicts(), getUnknown(), getFailed());
+    }
+
+    /**
+     * File d'une transaction : dernière étape de la chaîne et dernier statut mis en file.
+     * Modifiée uniquement dans compute() de la map (verrou de la case).
+     */
+    private static final class Lane {
+        CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        PaymentStatus lastQueued;
+        int pending;
+    }
+}
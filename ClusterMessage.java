@@ -0,0 +1,166 @@
+package ucc.payment.system.cluster;
+
+import ucc.payment.system.model.Student;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Message du protocole entre nœuds : requête ou réponse, identifiée par un numéro
+ * qui permet de multiplexer les appels sur une seule connexion.
+ *
+ * <p>Trame : [longueur int][numéro long][opération octet][sauts octet][nombre de champs int]
+ * puis chaque champ en [longueur int, -1 pour null][octets UTF-8].
+ */
+final class ClusterMessage {
+    // Requêtes routées vers le propriétaire de la clé (email ou jeton de session)
+    static final byte ADD_USER = 1;
+    static final byte AUTHENTICATE = 2;
+    static final byte FIND = 3;
+    static final byte CHANGE_PASSWORD = 4;
+    static final byte SESSION_OPEN = 5;
+    static final byte SESSION_RESUME = 6;
+    static final byte SESSION_INVALIDATE = 7;
+    static final byte SESSION_INVALIDATE_ALL = 8;
+    // Réplication, transfert de partition et changement de membres
+    static final byte REPLICATE = 20;
+    static final byte REPLICATE_SESSIONS = 21;
+    static final byte JOIN = 30;
+    static final byte PREPARE = 31;
+    static final byte COMMIT = 32;
+    // Réponses
+    static final byte OK = 64;
+    static final byte NOT_FOUND = 65;
+    static final byte DUPLICATE = 66;
+    static final byte ERROR = 67;
+
+    /** Sauts : requête à traiter par le nœud qui la reçoit, sans routage (réplique, repli). */
+    static final int LOCAL = -1;
+    static final int STUDENT_FIELDS = 6;
+    private static final int HEADER_SIZE = Long.BYTES + 2 + Integer.BYTES;
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private final long id;
+    private final byte op;
+    private final int hops;
+    private final String[] fields;
+
+    ClusterMessage(long id, byte op, int hops, String... fields) {
+        this.id = id;
+        this.op = op;
+        this.hops = hops;
+        this.fields = fields;
+    }
+
+    static ClusterMessage reply(byte op, String... fields) {
+        return new ClusterMessage(0, op, 0, fields);
+    }
+
+    // Getters
+    long getId() { return id; }
+    byte getOp() { return op; }
+    int getHops() { return hops; }
+    String[] getFields() { return fields; }
+
+    String field(int index) {
+        return fields[index];
+    }
+
+    /**
+     * Trame complète, prête à écrire, avec le numéro donné (celui de la requête pour une réponse).
+     */
+    ByteBuffer encode(long messageId) {
+        byte[][] bytes = new byte[fields.length][];
+        int size = HEADER_SIZE;
+        for (int i = 0; i < fields.length; i++) {
+            bytes[i] = fields[i] == null ? null : fields[i].getBytes(StandardCharsets.UTF_8);
+            size += Integer.BYTES + (bytes[i] == null ? 0 : bytes[i].length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + size);
+        buffer.putInt(size).putLong(messageId).put(op).put((byte) hops).putInt(fields.length);
+        for (byte[] field : bytes) {
+            if (field == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(field.length).put(field);
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Lit une trame (canal bloquant).
+     * @throws EOFException si la connexion est fermée entre deux trames
+     */
+    static ClusterMessage read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        if (!readFully(channel, length, true)) {
+            throw new EOFException("Connexion fermée");
+        }
+        int size = length.getInt(0);
+        if (size < HEADER_SIZE || size > MAX_FRAME_BYTES) {
+            throw new IOException("Trame invalide : " + size + " octets");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(size);
+        readFully(channel, frame, false);
+        frame.flip();
+        long id = frame.getLong();
+        byte op = frame.get();
+        int hops = frame.get();
+        int count = frame.getInt();
+        if (count < 0 || count > frame.remaining() / Integer.BYTES) {
+            throw new IOException("Trame invalide : " + count + " champs");
+        }
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            int fieldLength = frame.getInt();
+            if (fieldLength > frame.remaining()) {
+                throw new IOException("Trame tronquée");
+            }
+            if (fieldLength >= 0) {
+                fields[i] = new String(frame.array(), frame.position(), fieldLength, StandardCharsets.UTF_8);
+                frame.position(frame.position() + fieldLength);
+            }
+        }
+        return new ClusterMessage(id, op, hops, fields);
+    }
+
+    static String[] studentFields(Student student) {
+        return new String[] {student.getName(), student.getEmail(), student.getPasswordHash(),
+            student.getPromotion(), student.getFaculty(), String.valueOf(student.getCredentialVersion())};
+    }
+
+    /**
+     * Étudiant décrit par les champs à partir de {@code offset}.
+     */
+    static Student student(String[] fields, int offset) {
+        return Student.restore(fields[offset], fields[offset + 1], fields[offset + 2],
+            fields[offset + 3], fields[offset + 4], Integer.parseInt(fields[offset + 5]));
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterMessage[" + id + ", op " + op + ", " + Arrays.toString(fields) + "]";
+    }
+
+    /**
+     * @param allowEof true si une fin de flux avant le premier octet est une fermeture normale
+     * @return false si le flux s'est terminé proprement avant le premier octet
+     */
+    private static boolean readFully(ReadableByteChannel channel, ByteBuffer buffer, boolean allowEof)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (allowEof && buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("Trame tronquée");
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,737 @@
+package ucc.payment.system.cluster;
+
+import ucc.payment.system.UserManager;
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.session.Session;
+import ucc.payment.system.session.SessionManager;
+import ucc.payment.system.store.UserStore;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Nœud du mode cluster : plusieurs instances du serveur se partagent les comptes et les sessions.
+ *
+ * <p>Chaque email est attribué par hachage cohérent ({@link HashRing}) à un nœud primaire et
+ * à une réplique. Le primaire traite les inscriptions, les connexions (hashage compris) et
+ * les sessions de ses emails, et recopie chaque écriture sur la réplique avant de répondre.
+ * Un nœud qui reçoit une requête pour un email qu'il ne tient pas la transmet au primaire,
+ * ou, pour une lecture, à la réplique si le primaire ne répond pas. Les jetons de session
+ * commencent par le hash de l'email : ils se routent de la même façon.
+ *
+ * <p>Les nœuds communiquent en TCP ({@link ClusterMessage}), une connexion multiplexée par
+ * couple de nœuds. Un nouveau nœud rejoint le cluster par n'importe quel membre, qui
+ * coordonne le rééquilibrage en deux temps : PREPARE, où chaque ancien primaire copie vers
+ * leurs nouveaux propriétaires les comptes et sessions qui changent de mains en notant les
+ * écritures reçues pendant la copie, puis COMMIT, où tous passent au nouvel anneau,
+ * renvoient les écritures notées et libèrent les partitions cédées. Les nœuds rejoignent
+ * le cluster un par un.
+ *
+ * <p>Les messages entre nœuds ne sont pas authentifiés : tant qu'aucune poignée de main
+ * (secret partagé ou TLS mutuel) n'existe, les nœuds n'écoutent et ne se joignent que sur
+ * la boucle locale (plusieurs instances sur une même machine).
+ */
+public class ClusterNode implements AutoCloseable {
+
+    /**
+     * Changements de membres vus par le nœud qui coordonne l'arrivée.
+     */
+    @FunctionalInterface
+    public interface MembershipListener {
+        void nodeJoined(String joining, List<String> members, long rebalanceMillis);
+    }
+
+    private static final int COPIES = 2; // primaire + une réplique
+    private static final int MAX_HOPS = 3;
+    private static final long CALL_TIMEOUT_SECONDS = 10;
+    private static final long MEMBERSHIP_TIMEOUT_SECONDS = 600;
+    private static final int TRANSFER_BATCH = 1_000;
+    private static final char TOKEN_SEPARATOR = '.';
+
+    private static final Counter FORWARDED = MetricsRegistry.shared()
+        .counter("ucc_cluster_forwarded_total", "Requêtes transmises au nœud propriétaire de l'email");
+    private static final Counter JOINS = MetricsRegistry.shared()
+        .counter("ucc_cluster_joins_total", "Nœuds ajoutés au cluster (coordonnés par ce nœud)");
+    private static final Counter REPLICA_FAILURES = MetricsRegistry.shared()
+        .counter("ucc_cluster_replica_failures_total", "Écritures non recopiées (réplique injoignable)");
+    private static final LatencyHistogram REBALANCE_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_cluster_rebalance_seconds", "Ajout d'un nœud : copie des partitions et bascule");
+
+    private final String address;
+    private final UserManager local;
+    private final UserStore store;
+    private final SessionManager sessions;
+    private final ServerSocketChannel server;
+    private final ExecutorService executor = VirtualThreads.newExecutor("cluster-request");
+    private final Map<String, PeerConnection> peers = new ConcurrentHashMap<>();
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final Object membershipLock = new Object();
+    private final List<MembershipListener> membershipListeners = new CopyOnWriteArrayList<>();
+    // Emails écrits pendant une copie de partitions (entre PREPARE et COMMIT)
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private volatile HashRing ring;
+    private volatile HashRing nextRing;
+    private volatile boolean closed;
+
+    private ClusterNode(String address, UserManager local, SessionManager sessions) throws IOException {
+        this.address = address;
+        this.local = local;
+        this.store = local.getStore();
+        this.sessions = sessions;
+        this.ring = new HashRing(List.of(address));
+        InetSocketAddress bindAddress = PeerConnection.loopback(address);
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(bindAddress);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        VirtualThreads.daemonFactory("cluster-accept").newThread(this::acceptConnections).start();
+    }
+
+    /**
+     * Démarre un nœud.
+     * @param address adresse d'écoute host:port, sous laquelle les autres nœuds le joignent
+     * @param seed    membre par lequel rejoindre un cluster existant, ou null pour en créer un
+     * @param local   comptes tenus par ce nœud
+     * @param sessions sessions tenues par ce nœud
+     */
+    public static ClusterNode start(String address, String seed, UserManager local, SessionManager sessions)
+            throws IOException {
+        ClusterNode node = new ClusterNode(address, local, sessions);
+        if (seed != null && !seed.equals(address)) {
+            try {
+                ClusterMessage reply = node.call(seed, ClusterMessage.JOIN, 0, MEMBERSHIP_TIMEOUT_SECONDS, address);
+                node.ring = new HashRing(Arrays.asList(checked(reply).getFields()));
+            } catch (IOException | RuntimeException e) {
+                node.close();
+                throw e;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gestionnaire de comptes du cluster, à donner à l'API à la place du gestionnaire local.
+     */
+    public UserManager userManager() {
+        return new ClusteredUserManager(this);
+    }
+
+    /**
+     * Sessions du cluster, à donner à l'API à la place des sessions locales.
+     */
+    public SessionManager sessionManager() {
+        return new ClusteredSessionManager(this);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public List<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    /**
+     * Abonne un écouteur aux arrivées de nœuds coordonnées par ce nœud. Il est appelé
+     * sur le thread de la requête, une fois le nouvel anneau confirmé partout.
+     */
+    public void addMembershipListener(MembershipListener listener) {
+        membershipListeners.add(listener);
+    }
+
+    /** Comptes tenus par ce nœud (partitions primaires et répliques). */
+    public UserStore getLocalStore() {
+        return store;
+    }
+
+    /** Sessions tenues par ce nœud (partitions primaires et répliques). */
+    public int getLocalSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException e) {
+            // fermeture au mieux
+        }
+        for (SocketChannel connection : connections) {
+            closeQuietly(connection);
+        }
+        peers.values().forEach(PeerConnection::close);
+        executor.shutdownNow();
+    }
+
+    // --- Opérations routées (appelées par ClusteredUserManager et ClusteredSessionManager)
+
+    /**
+     * @throws IllegalArgumentException si l'email est déjà utilisé
+     */
+    void addUser(Student student) {
+        ClusterMessage reply = route(emailHash(student.getEmail()), ClusterMessage.ADD_USER,
+            ClusterMessage.studentFields(student));
+        if (reply.getOp() == ClusterMessage.DUPLICATE) {
+            throw new IllegalArgumentException("Un compte existe déjà pour cet email");
+        }
+    }
+
+    Student authenticate(String email, String password) {
+        return studentOrNull(route(emailHash(email), ClusterMessage.AUTHENTICATE, email, password));
+    }
+
+    Student find(String email) {
+        return studentOrNull(route(emailHash(email), ClusterMessage.FIND, email));
+    }
+
+    boolean changePassword(String email, String currentPassword, String newPassword) {
+        return route(emailHash(email), ClusterMessage.CHANGE_PASSWORD, email, currentPassword, newPassword)
+            .getOp() == ClusterMessage.OK;
+    }
+
+    /**
+     * @return le jeton de la session ouverte sur le nœud propriétaire
+     */
+    String openSession(Student student) {
+        ClusterMessage reply = route(emailHash(student.getEmail()), ClusterMessage.SESSION_OPEN, student.getEmail());
+        if (reply.getOp() != ClusterMessage.OK) {
+            throw new IllegalStateException("Compte introuvable sur son nœud : " + student.getEmail());
+        }
+        return reply.field(0);
+    }
+
+    Student resumeSession(String token) {
+        return studentOrNull(route(tokenHash(token), ClusterMessage.SESSION_RESUME, token));
+    }
+
+    void invalidateSession(String token) {
+        route(tokenHash(token), ClusterMessage.SESSION_INVALIDATE, token);
+    }
+
+    int invalidateSessions(String email) {
+        ClusterMessage reply = route(emailHash(email), ClusterMessage.SESSION_INVALIDATE_ALL, email);
+        return reply.getOp() == ClusterMessage.OK ? Integer.parseInt(reply.field(0)) : 0;
+    }
+
+    private ClusterMessage route(long keyHash, byte op, String... fields) {
+        try {
+            return checked(route(keyHash, op, 0, fields));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Partition du cluster injoignable", e);
+        }
+    }
+
+    /**
+     * Traite la requête si ce nœud est le primaire de la clé, sinon la transmet au primaire ;
+     * une lecture se replie sur la réplique si le primaire ne répond pas.
+     */
+    private ClusterMessage route(long keyHash, byte op, int hops, String... fields) throws IOException {
+        List<String> owners = ring.owners(keyHash, COPIES);
+        if (owners.get(0).equals(address)) {
+            return execute(op, fields, true);
+        }
+        FORWARDED.increment();
+        try {
+            return call(owners.get(0), op, hops + 1, CALL_TIMEOUT_SECONDS, fields);
+        } catch (IOException e) {
+            boolean read = op == ClusterMessage.AUTHENTICATE || op == ClusterMessage.FIND
+                || op == ClusterMessage.SESSION_RESUME;
+            if (!read || owners.size() < COPIES) {
+                throw e;
+            }
+            String replica = owners.get(1);
+            return replica.equals(address)
+                ? execute(op, fields, false)
+                : call(replica, op, ClusterMessage.LOCAL, CALL_TIMEOUT_SECONDS, fields);
+        }
+    }
+
+    /**
+     * Exécute une opération sur les données de ce nœud.
+     * @param replicate false pour une requête reçue d'un autre propriétaire (réplique, repli)
+     */
+    private ClusterMessage execute(byte op, String[] fields, boolean replicate) {
+        switch (op) {
+            case ClusterMessage.ADD_USER: {
+                Student student = ClusterMessage.student(fields, 0);
+                try {
+                    local.addUser(student);
+                } catch (IllegalArgumentException e) {
+                    return ClusterMessage.reply(ClusterMessage.DUPLICATE, e.getMessage());
+                }
+                written(student, replicate);
+                return ClusterMessage.reply(ClusterMessage.OK);
+            }
+            case ClusterMessage.AUTHENTICATE: {
+                Student before = store.find(fields[0]);
+                Student student = local.authenticate(fields[0], fields[1]);
+                if (student == null) {
+                    return ClusterMessage.reply(ClusterMessage.NOT_FOUND);
+                }
+                if (student != before) {
+                    // Hash remis à niveau pendant la connexion
+                    written(student, replicate);
+                }
+                return ClusterMessage.reply(ClusterMessage.OK, ClusterMessage.studentFields(student));
+            }
+            case ClusterMessage.FIND:
+                return studentReply(store.find(fields[0]));
+            case ClusterMessage.CHANGE_PASSWORD:
+                if (!local.changePassword(fields[0], fields[1], fields[2])) {
+                    return ClusterMessage.reply(ClusterMessage.NOT_FOUND);
+                }
+                written(store.find(fields[0]), replicate);
+                return ClusterMessage.reply(ClusterMessage.OK);
+            case ClusterMessage.SESSION_OPEN: {
+                Student student = store.find(fields[0]);
+                if (student == null) {
+                    return ClusterMessage.reply(ClusterMessage.NOT_FOUND);
+                }
+                Session session = sessions.open(student);
+                if (nextRing != null) {
+                    dirty.add(session.getEmail());
+                }
+                if (replicate) {
+                    toReplicas(emailHash(student.getEmail()), ClusterMessage.REPLICATE_SESSIONS,
+                        sessionFields(session));
+                }
+                return ClusterMessage.reply(ClusterMessage.OK, tokenPrefix(student.getEmail()) + session.getToken());
+            }
+            case ClusterMessage.SESSION_RESUME:
+                return studentReply(sessions.resume(localToken(fields[0])));
+            case ClusterMessage.SESSION_INVALIDATE:
+                sessions.invalidate(localToken(fields[0]));
+                if (replicate) {
+                    toReplicas(tokenHash(fields[0]), ClusterMessage.SESSION_INVALIDATE, fields[0]);
+                }
+                return ClusterMessage.reply(ClusterMessage.OK);
+            case ClusterMessage.SESSION_INVALIDATE_ALL: {
+                int closedSessions = sessions.invalidateAll(fields[0]);
+                if (replicate) {
+                    toReplicas(emailHash(fields[0]), ClusterMessage.SESSION_INVALIDATE_ALL, fields[0]);
+                }
+                return ClusterMessage.reply(ClusterMessage.OK, String.valueOf(closedSessions));
+            }
+            default:
+                return ClusterMessage.reply(ClusterMessage.ERROR, "Opération inconnue : " + op);
+        }
+    }
+
+    private void written(Student student, boolean replicate) {
+        if (nextRing != null) {
+            dirty.add(Student.normalizeEmail(student.getEmail()));
+        }
+        if (replicate) {
+            toReplicas(emailHash(student.getEmail()), ClusterMessage.REPLICATE, ClusterMessage.studentFields(student));
+        }
+    }
+
+    /**
+     * Recopie une écriture sur les autres propriétaires de la clé, y compris ceux du
+     * prochain anneau pendant un rééquilibrage. Une réplique injoignable n'empêche pas
+     * l'écriture : elle est comptée et signalée.
+     */
+    private void toReplicas(long keyHash, byte op, String... fields) {
+        Set<String> targets = new LinkedHashSet<>(ring.owners(keyHash, COPIES));
+        HashRing next = nextRing;
+        if (next != null) {
+            targets.addAll(next.owners(keyHash, COPIES));
+        }
+        targets.remove(address);
+        for (String target : targets) {
+            try {
+                checked(call(target, op, ClusterMessage.LOCAL, CALL_TIMEOUT_SECONDS, fields));
+            } catch (IOException | IllegalStateException e) {
+                REPLICA_FAILURES.increment();
+                System.err.println("Réplication vers " + target + " impossible : " + e.getMessage());
+            }
+        }
+    }
+
+    // --- Serveur
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                SocketChannel connection = server.accept();
+                connection.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.add(connection);
+                VirtualThreads.daemonFactory("cluster-connection").newThread(() -> serve(connection)).start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Connexion entrante du cluster refusée : " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit les requêtes d'une connexion ; chacune est traitée sur son propre thread et sa
+     * réponse écrite dès qu'elle est prête (les réponses peuvent se croiser).
+     */
+    private void serve(SocketChannel connection) {
+        Object writeLock = new Object();
+        try {
+            while (true) {
+                ClusterMessage request = ClusterMessage.read(connection);
+                executor.execute(() -> respond(connection, writeLock, request));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Connexion fermée par le pair ou à l'arrêt du nœud
+        } finally {
+            connections.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    private void respond(SocketChannel connection, Object writeLock, ClusterMessage request) {
+        ClusterMessage reply;
+        try {
+            reply = handle(request);
+        } catch (IOException | RuntimeException e) {
+            reply = ClusterMessage.reply(ClusterMessage.ERROR, String.valueOf(e.getMessage()));
+        }
+        ByteBuffer frame = reply.encode(request.getId());
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    connection.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            // Le demandeur est parti
+        }
+    }
+
+    private ClusterMessage handle(ClusterMessage request) throws IOException {
+        String[] fields = request.getFields();
+        switch (request.getOp()) {
+            case ClusterMessage.JOIN:
+                return coordinateJoin(fields[0]);
+            case ClusterMessage.PREPARE:
+                return prepare(fields[0], Arrays.asList(fields).subList(1, fields.length));
+            case ClusterMessage.COMMIT:
+                return commit(Arrays.asList(fields));
+            case ClusterMessage.REPLICATE:
+                for (int i = 0; i + ClusterMessage.STUDENT_FIELDS <= fields.length; i += ClusterMessage.STUDENT_FIELDS) {
+                    upsert(ClusterMessage.student(fields, i));
+                }
+                return ClusterMessage.reply(ClusterMessage.OK);
+            case ClusterMessage.REPLICATE_SESSIONS:
+                // [jeton, email, durée de vie restante en ns] par session
+                for (int i = 0; i + 2 < fields.length; i += 3) {
+                    Student student = store.find(fields[i + 1]);
+                    if (student != null) {
+                        sessions.adopt(fields[i], student, Long.parseLong(fields[i + 2]));
+                    }
+                }
+                return ClusterMessage.reply(ClusterMessage.OK);
+            default:
+                long keyHash = request.getOp() == ClusterMessage.SESSION_RESUME
+                    || request.getOp() == ClusterMessage.SESSION_INVALIDATE
+                    ? tokenHash(fields[0]) : emailHash(fields[0]);
+                if (request.getHops() == ClusterMessage.LOCAL) {
+                    return execute(request.getOp(), fields, false);
+                }
+                // Pendant une bascule, les anneaux des nœuds peuvent différer un instant
+                if (request.getHops() >= MAX_HOPS || isPrimary(ring, keyHash) || isPrimary(nextRing, keyHash)) {
+                    return execute(request.getOp(), fields, true);
+                }
+                return route(keyHash, request.getOp(), request.getHops(), fields);
+        }
+    }
+
+    private void upsert(Student student) {
+        if (store.insertIfAbsent(student)) {
+            return;
+        }
+        Student current = store.find(student.getEmail());
+        if (current != null && (!current.getPasswordHash().equals(student.getPasswordHash())
+                || current.getCredentialVersion() != student.getCredentialVersion())) {
+            store.replace(current, student);
+        }
+    }
+
+    // --- Changement de membres
+
+    /**
+     * Coordonne l'arrivée d'un nœud : PREPARE puis COMMIT sur tous les membres du nouvel
+     * anneau. Si un membre échoue à la copie, l'ancien anneau est confirmé partout.
+     */
+    private ClusterMessage coordinateJoin(String joining) throws IOException {
+        HashRing next;
+        long elapsedNanos;
+        synchronized (membershipLock) {
+            long start = System.nanoTime();
+            HashRing current = ring;
+            next = current.with(joining);
+            List<String> prepare = new ArrayList<>();
+            prepare.add(joining);
+            prepare.addAll(next.getMembers());
+            try {
+                broadcast(next, ClusterMessage.PREPARE, prepare.toArray(new String[0]));
+            } catch (IOException | IllegalStateException e) {
+                broadcast(next, ClusterMessage.COMMIT, current.getMembers().toArray(new String[0]));
+                throw new IOException("Rééquilibrage abandonné : " + e.getMessage(), e);
+            }
+            broadcast(next, ClusterMessage.COMMIT, next.getMembers().toArray(new String[0]));
+            REBALANCE_LATENCY.recordSince(start);
+            elapsedNanos = System.nanoTime() - start;
+        }
+        JOINS.increment();
+        for (MembershipListener listener : membershipListeners) {
+            try {
+                listener.nodeJoined(joining, next.getMembers(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            } catch (RuntimeException e) {
+                System.err.println("Écouteur du cluster en échec : " + e);
+            }
+        }
+        return ClusterMessage.reply(ClusterMessage.OK, next.getMembers().toArray(new String[0]));
+    }
+
+    private void broadcast(HashRing members, byte op, String[] fields) throws IOException {
+        for (String member : members.getMembers()) {
+            if (member.equals(address)) {
+                checked(handle(new ClusterMessage(0, op, ClusterMessage.LOCAL, fields)));
+            } else {
+                checked(call(member, op, ClusterMessage.LOCAL, MEMBERSHIP_TIMEOUT_SECONDS, fields));
+            }
+        }
+    }
+
+    /**
+     * Copie vers leurs nouveaux propriétaires les comptes dont ce nœud est le primaire et
+     * dont les propriétaires changent ; les écritures suivantes sont notées jusqu'au COMMIT.
+     */
+    private ClusterMessage prepare(String joining, List<String> members) throws IOException {
+        HashRing next = new HashRing(members);
+        HashRing current = ring;
+        dirty.clear();
+        nextRing = next;
+        Map<String, List<Student>> outgoing = new HashMap<>();
+        for (Student student : store.all()) {
+            long keyHash = emailHash(student.getEmail());
+            List<String> before = current.owners(keyHash, COPIES);
+            if (!before.get(0).equals(address)) {
+                continue;
+            }
+            for (String target : next.owners(keyHash, COPIES)) {
+                if (!target.equals(address) && (!before.contains(target) || target.equals(joining))) {
+                    outgoing.computeIfAbsent(target, t -> new ArrayList<>()).add(student);
+                }
+            }
+        }
+        Map<String, List<Session>> tokens = sessionsByEmail();
+        for (Map.Entry<String, List<Student>> entry : outgoing.entrySet()) {
+            transfer(entry.getKey(), entry.getValue(), tokens);
+        }
+        return ClusterMessage.reply(ClusterMessage.OK);
+    }
+
+    /**
+     * Passe au nouvel anneau, renvoie les écritures reçues pendant la copie puis libère
+     * les comptes et sessions dont ce nœud n'est plus propriétaire.
+     */
+    private ClusterMessage commit(List<String> members) {
+        HashRing next = new HashRing(members);
+        ring = next;
+        nextRing = null;
+        List<String> written = new ArrayList<>(dirty);
+        dirty.clear();
+
+        Map<String, List<Student>> outgoing = new HashMap<>();
+        for (String email : written) {
+            Student student = store.find(email);
+            if (student == null) {
+                continue;
+            }
+            for (String target : next.owners(emailHash(email), COPIES)) {
+                if (!target.equals(address)) {
+                    outgoing.computeIfAbsent(target, t -> new ArrayList<>()).add(student);
+                }
+            }
+        }
+        Map<String, List<Session>> tokens = sessionsByEmail();
+        for (Map.Entry<String, List<Student>> entry : outgoing.entrySet()) {
+            try {
+                transfer(entry.getKey(), entry.getValue(), tokens);
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Renvoi des écritures vers " + entry.getKey() + " impossible : " + e.getMessage());
+            }
+        }
+
+        for (Student student : store.all()) {
+            if (!next.owners(emailHash(student.getEmail()), COPIES).contains(address)) {
+                store.evict(student.getEmail());
+            }
+        }
+        for (Session session : sessions.all()) {
+            if (!next.owners(emailHash(session.getEmail()), COPIES).contains(address)) {
+                sessions.invalidate(session.getToken());
+            }
+        }
+        return ClusterMessage.reply(ClusterMessage.OK);
+    }
+
+    /**
+     * Envoie des comptes (par lots) puis leurs sessions à un nœud.
+     */
+    private void transfer(String target, List<Student> students, Map<String, List<Session>> tokens)
+            throws IOException {
+        for (int from = 0; from < students.size(); from += TRANSFER_BATCH) {
+            List<Student> batch = students.subList(from, Math.min(students.size(), from + TRANSFER_BATCH));
+            List<String> studentFields = new ArrayList<>(batch.size() * ClusterMessage.STUDENT_FIELDS);
+            List<String> sessionFields = new ArrayList<>();
+            for (Student student : batch) {
+                studentFields.addAll(Arrays.asList(ClusterMessage.studentFields(student)));
+                String email = Student.normalizeEmail(student.getEmail());
+                for (Session session : tokens.getOrDefault(email, List.of())) {
+                    sessionFields.addAll(Arrays.asList(sessionFields(session)));
+                }
+            }
+            checked(call(target, ClusterMessage.REPLICATE, ClusterMessage.LOCAL, MEMBERSHIP_TIMEOUT_SECONDS,
+                studentFields.toArray(new String[0])));
+            if (!sessionFields.isEmpty()) {
+                checked(call(target, ClusterMessage.REPLICATE_SESSIONS, ClusterMessage.LOCAL,
+                    MEMBERSHIP_TIMEOUT_SECONDS, sessionFields.toArray(new String[0])));
+            }
+        }
+    }
+
+    private Map<String, List<Session>> sessionsByEmail() {
+        Map<String, List<Session>> tokens = new HashMap<>();
+        for (Session session : sessions.all()) {
+            tokens.computeIfAbsent(session.getEmail(), e -> new ArrayList<>()).add(session);
+        }
+        return tokens;
+    }
+
+    /**
+     * Champs d'une session pour REPLICATE_SESSIONS : l'expiration absolue part en durée
+     * restante, les horloges System.nanoTime() des nœuds n'étant pas comparables.
+     */
+    private static String[] sessionFields(Session session) {
+        return new String[] {session.getToken(), session.getEmail(),
+            String.valueOf(session.getAbsoluteExpiryNanos() - System.nanoTime())};
+    }
+
+    // --- Utilitaires
+
+    private ClusterMessage call(String member, byte op, int hops, long timeoutSeconds, String... fields)
+            throws IOException {
+        PeerConnection connection;
+        try {
+            connection = peers.compute(member, (m, existing) -> {
+                if (existing != null && existing.isOpen()) {
+                    return existing;
+                }
+                try {
+                    return PeerConnection.open(m);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        try {
+            return connection.call(op, hops, fields).get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                ? (IOException) e.getCause()
+                : new IOException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Nœud " + member + " sans réponse après " + timeoutSeconds + " s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Appel vers " + member + " interrompu");
+        }
+    }
+
+    /**
+     * @throws IllegalStateException si le nœud distant a répondu par une erreur
+     */
+    private static ClusterMessage checked(ClusterMessage reply) {
+        if (reply.getOp() == ClusterMessage.ERROR) {
+            throw new IllegalStateException(reply.getFields().length > 0 ? reply.field(0) : "Erreur du cluster");
+        }
+        return reply;
+    }
+
+    private static ClusterMessage studentReply(Student student) {
+        return student == null
+            ? ClusterMessage.reply(ClusterMessage.NOT_FOUND)
+            : ClusterMessage.reply(ClusterMessage.OK, ClusterMessage.studentFields(student));
+    }
+
+    private static Student studentOrNull(ClusterMessage reply) {
+        return reply.getOp() == ClusterMessage.OK ? ClusterMessage.student(reply.getFields(), 0) : null;
+    }
+
+    private boolean isPrimary(HashRing candidate, long keyHash) {
+        return candidate != null && candidate.owners(keyHash, 1).get(0).equals(address);
+    }
+
+    static long emailHash(String email) {
+        return HashRing.hash(Student.normalizeEmail(email));
+    }
+
+    private static String tokenPrefix(String email) {
+        return String.format("%016x", emailHash(email)) + TOKEN_SEPARATOR;
+    }
+
+    /**
+     * Hash de l'email contenu dans un jeton du cluster ; un jeton mal formé est routé
+     * selon son propre hash (il sera refusé par le nœud qui le reçoit).
+     */
+    private static long tokenHash(String token) {
+        int separator = token.indexOf(TOKEN_SEPARATOR);
+        if (separator == 16) {
+            try {
+                return Long.parseUnsignedLong(token.substring(0, separator), 16);
+            } catch (NumberFormatException e) {
+                // jeton mal formé
+            }
+        }
+        return HashRing.hash(token);
+    }
+
+    private static String localToken(String token) {
+        return token.substring(token.indexOf(TOKEN_SEPARATOR) + 1);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // fermeture au mieux
+        }
+    }
+}
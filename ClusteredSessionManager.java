@@ -0,0 +1,51 @@
+package ucc.payment.system.cluster;
+
+import ucc.payment.system.model.Student;
+import ucc.payment.system.session.Session;
+import ucc.payment.system.session.SessionManager;
+
+/**
+ * Sessions du cluster : chaque session est tenue par le nœud propriétaire de l'email,
+ * dont le jeton porte le hash (voir {@link ClusterNode}).
+ */
+class ClusteredSessionManager extends SessionManager {
+    private final ClusterNode node;
+
+    ClusteredSessionManager(ClusterNode node) {
+        super(node.getLocalStore());
+        this.node = node;
+    }
+
+    /**
+     * Sans empreinte de reprise : la reprise au kiosque est propre au mode bureau.
+     */
+    @Override
+    public Session open(Student student, String password) {
+        return describe(node.openSession(student), student);
+    }
+
+    @Override
+    public Student resume(String token) {
+        return token == null ? null : node.resumeSession(token);
+    }
+
+    @Override
+    public void invalidate(String token) {
+        if (token != null) {
+            node.invalidateSession(token);
+        }
+    }
+
+    @Override
+    public int invalidateAll(String email) {
+        return node.invalidateSessions(email);
+    }
+
+    /**
+     * Sessions tenues par ce nœud (partitions primaires et répliques).
+     */
+    @Override
+    public int size() {
+        return node.getLocalSessionCount();
+    }
+}
@@ -0,0 +1,46 @@
+package ucc.payment.system.cluster;
+
+import ucc.payment.system.UserManager;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.util.ValidationError;
+import ucc.payment.system.util.ValidationException;
+import ucc.payment.system.util.Validators;
+
+/**
+ * Comptes du cluster : chaque opération est exécutée par le nœud propriétaire de l'email
+ * (voir {@link ClusterNode}). Le stockage hérité est celui du nœud local ; il ne contient
+ * que ses partitions.
+ */
+class ClusteredUserManager extends UserManager {
+    private final ClusterNode node;
+
+    ClusteredUserManager(ClusterNode node) {
+        super(node.getLocalStore());
+        this.node = node;
+    }
+
+    @Override
+    public Student find(String email) {
+        return node.find(email);
+    }
+
+    @Override
+    public void addUser(Student student) {
+        node.addUser(student);
+    }
+
+    @Override
+    public Student authenticate(String email, String password) {
+        return node.authenticate(email, password);
+    }
+
+    @Override
+    public boolean changePassword(String email, String currentPassword, String newPassword) {
+        // Validé ici pour que l'erreur garde son type ; le nœud propriétaire revalide
+        ValidationError error = Validators.checkPassword(newPassword);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+        return node.changePassword(email, currentPassword, newPassword);
+    }
+}
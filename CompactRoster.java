@@ -0,0 +1,515 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.security.PasswordHasher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Représentation compacte d'une liste d'étudiants, pour les effectifs de 100k+ comptes.
+ *
+ * <p>Au lieu d'un objet Student et de cinq String par étudiant :
+ * <ul>
+ *   <li>promotion et filière sont des codes d'un octet dans des dictionnaires initialisés
+ *       avec {@link ReferenceData} (une valeur hors référence y est ajoutée) ;</li>
+ *   <li>email, nom et hash du mot de passe sont rangés en UTF-8 les uns à la suite des
+ *       autres dans une arène d'octets ({@code [longueur short][octets]}, comme
+ *       {@code StudentCodec}), repérés par un décalage int par étudiant ; un hash PBKDF2
+ *       au format standard y est stocké en binaire (itérations, sel, hash : 53 octets
+ *       au lieu de ~90 caractères) et reconstruit à l'identique ;</li>
+ *   <li>la recherche par email passe par un index à adressage ouvert (int[]) sur les
+ *       octets de l'arène, sans objet par entrée.</li>
+ * </ul>
+ *
+ * <p>Les objets {@link Student} sont créés à la demande, comme vues. Un changement de hash
+ * ajoute le nouvel enregistrement en fin d'arène ; l'ancien devient de l'espace perdu,
+ * récupéré par {@link #compact()}. Lectures concurrentes, écritures exclusives.
+ */
+public class CompactRoster {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_DICTIONARY_SIZE = 255;
+    private static final byte NULL_CODE = -1;
+    private static final int AVERAGE_RECORD_BYTES = 112;
+    // Premier octet du champ hash : texte UTF-8 tel quel, ou PBKDF2 binaire
+    private static final byte HASH_TEXT = 0;
+    private static final byte HASH_PBKDF2 = 1;
+    private static final int SALT_BYTES = 16;
+    private static final int DERIVED_BYTES = 32;
+    private static final String PBKDF2_PREFIX = PasswordHasher.ALGORITHM_ID + "$";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<String> promotions = new ArrayList<>(ReferenceData.PROMOTIONS);
+    private final List<String> faculties = new ArrayList<>(ReferenceData.FACULTIES);
+
+    // Colonnes, indexées par rang d'insertion
+    private int size;
+    private int[] offsets;
+    private int[] hashes;
+    private byte[] promotionCodes;
+    private byte[] facultyCodes;
+
+    private byte[] arena;
+    private int arenaUsed;
+    private long wastedBytes;
+
+    // Index email -> rang + 1 (0 : case libre), taille puissance de 2, taux de remplissage <= 1/2
+    private int[] index;
+
+    public CompactRoster() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public CompactRoster(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        offsets = new int[capacity];
+        hashes = new int[capacity];
+        promotionCodes = new byte[capacity];
+        facultyCodes = new byte[capacity];
+        arena = new byte[capacity * AVERAGE_RECORD_BYTES];
+        index = new int[tableSizeFor(capacity * 2)];
+    }
+
+    /**
+     * Construit une liste compacte à partir des comptes d'un store.
+     */
+    public static CompactRoster of(Iterable<Student> students, int expectedSize) {
+        CompactRoster roster = new CompactRoster(expectedSize);
+        for (Student student : students) {
+            roster.add(student);
+        }
+        roster.trimToSize();
+        return roster;
+    }
+
+    /**
+     * Ajoute un étudiant.
+     * @return false si un étudiant a déjà cet email
+     */
+    public boolean add(Student student) {
+        byte[] email = utf8(Student.normalizeEmail(student.getEmail()));
+        int hash = hash(email);
+        lock.writeLock().lock();
+        try {
+            if (find(email, hash) >= 0) {
+                return false;
+            }
+            ensureRowCapacity();
+            int row = size;
+            offsets[row] = append(email, utf8(student.getName()), packHash(student.getPasswordHash()));
+            hashes[row] = hash;
+            promotionCodes[row] = encode(promotions, student.getPromotion());
+            facultyCodes[row] = encode(faculties, student.getFaculty());
+            size++;
+            if (size * 2 > index.length) {
+                rehash(index.length * 2);
+            }
+            insertIndex(row, hash);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remplace le hash du mot de passe d'un étudiant (mise à niveau, changement de mot de passe).
+     * @return false si l'email est inconnu
+     */
+    public boolean updatePasswordHash(String email, String passwordHash) {
+        byte[] key = utf8(Student.normalizeEmail(email));
+        lock.writeLock().lock();
+        try {
+            int row = find(key, hash(key));
+            if (row < 0) {
+                return false;
+            }
+            int offset = offsets[row];
+            int oldLength = recordLength(offset);
+            byte[] name = readBytes(skip(offset));
+            offsets[row] = append(key, name, packHash(passwordHash));
+            wastedBytes += oldLength;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return une vue de l'étudiant, ou null si l'email est inconnu
+     */
+    public Student find(String email) {
+        byte[] key = utf8(Student.normalizeEmail(email));
+        lock.readLock().lock();
+        try {
+            int row = find(key, hash(key));
+            return row < 0 ? null : view(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String email) {
+        byte[] key = utf8(Student.normalizeEmail(email));
+        lock.readLock().lock();
+        try {
+            return find(key, hash(key)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return une vue de l'étudiant du rang donné (ordre d'insertion)
+     */
+    public Student get(int row) {
+        lock.readLock().lock();
+        try {
+            checkRow(row);
+            return view(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Promotion du rang donné, sans créer de vue.
+     */
+    public String getPromotion(int row) {
+        lock.readLock().lock();
+        try {
+            checkRow(row);
+            return decode(promotions, promotionCodes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filière du rang donné, sans créer de vue.
+     */
+    public String getFaculty(int row) {
+        lock.readLock().lock();
+        try {
+            checkRow(row);
+            return decode(faculties, facultyCodes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Parcourt les étudiants dans l'ordre d'insertion ; chaque vue est créée à la volée.
+     */
+    public void forEach(Consumer<Student> action) {
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                action.accept(view(row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Taille des tableaux alloués, en octets (hors en-têtes d'objets).
+     */
+    public long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) offsets.length * (Integer.BYTES * 2 + 2) + arena.length
+                + (long) index.length * Integer.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Libère la capacité inutilisée des tableaux (après un chargement complet).
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            int rows = Math.max(16, size);
+            offsets = Arrays.copyOf(offsets, rows);
+            hashes = Arrays.copyOf(hashes, rows);
+            promotionCodes = Arrays.copyOf(promotionCodes, rows);
+            facultyCodes = Arrays.copyOf(facultyCodes, rows);
+            arena = Arrays.copyOf(arena, Math.max(16, arenaUsed));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Réécrit l'arène sans les enregistrements remplacés par {@link #updatePasswordHash}.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (wastedBytes == 0) {
+                return;
+            }
+            byte[] compacted = new byte[Math.max(arenaUsed - (int) wastedBytes, 16)];
+            int used = 0;
+            for (int row = 0; row < size; row++) {
+                int length = recordLength(offsets[row]);
+                System.arraycopy(arena, offsets[row], compacted, used, length);
+                offsets[row] = used;
+                used += length;
+            }
+            arena = compacted;
+            arenaUsed = used;
+            wastedBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Student view(int row) {
+        int offset = offsets[row];
+        String email = readString(offset);
+        offset = skip(offset);
+        String name = readString(offset);
+        offset = skip(offset);
+        String passwordHash = readHash(offset);
+        return Student.restore(name, email, passwordHash,
+            decode(promotions, promotionCodes[row]), decode(faculties, facultyCodes[row]));
+    }
+
+    /**
+     * @return le rang de l'email (octets UTF-8 normalisés), ou -1
+     */
+    private int find(byte[] email, int hash) {
+        int mask = index.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (hashes[row] == hash && equalsAt(offsets[row], email)) {
+                return row;
+            }
+        }
+    }
+
+    private void insertIndex(int row, int hash) {
+        int mask = index.length - 1;
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = row + 1;
+    }
+
+    private void rehash(int newLength) {
+        index = new int[newLength];
+        for (int row = 0; row < size; row++) {
+            insertIndex(row, hashes[row]);
+        }
+    }
+
+    private void ensureRowCapacity() {
+        if (size < offsets.length) {
+            return;
+        }
+        int capacity = offsets.length + (offsets.length >> 1);
+        offsets = Arrays.copyOf(offsets, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        promotionCodes = Arrays.copyOf(promotionCodes, capacity);
+        facultyCodes = Arrays.copyOf(facultyCodes, capacity);
+    }
+
+    /**
+     * Ajoute un enregistrement [email][nom][hash] en fin d'arène.
+     * @return son décalage
+     */
+    private int append(byte[] email, byte[] name, byte[] passwordHash) {
+        int length = 3 * Short.BYTES + email.length + (name == null ? 0 : name.length)
+            + (passwordHash == null ? 0 : passwordHash.length);
+        if (arenaUsed + length > arena.length) {
+            long grown = Math.max(arena.length + (arena.length >> 1), (long) arenaUsed + length);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Liste compacte pleine");
+            }
+            arena = Arrays.copyOf(arena, (int) grown);
+        }
+        int offset = arenaUsed;
+        arenaUsed = put(put(put(offset, email), name), passwordHash);
+        return offset;
+    }
+
+    private int put(int position, byte[] field) {
+        int length = field == null ? -1 : field.length;
+        if (length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Champ trop long pour la liste compacte : " + length + " octets");
+        }
+        arena[position] = (byte) (length >> 8);
+        arena[position + 1] = (byte) length;
+        if (field != null) {
+            System.arraycopy(field, 0, arena, position + 2, field.length);
+            return position + 2 + field.length;
+        }
+        return position + 2;
+    }
+
+    private int fieldLength(int position) {
+        return (short) (((arena[position] & 0xFF) << 8) | (arena[position + 1] & 0xFF));
+    }
+
+    private int skip(int position) {
+        return position + 2 + Math.max(0, fieldLength(position));
+    }
+
+    private int recordLength(int offset) {
+        return skip(skip(skip(offset))) - offset;
+    }
+
+    private String readString(int position) {
+        int length = fieldLength(position);
+        return length < 0 ? null : new String(arena, position + 2, length, StandardCharsets.UTF_8);
+    }
+
+    private String readHash(int position) {
+        int length = fieldLength(position);
+        if (length < 0) {
+            return null;
+        }
+        int start = position + 2;
+        if (arena[start] == HASH_TEXT) {
+            return new String(arena, start + 1, length - 1, StandardCharsets.UTF_8);
+        }
+        int iterations = ((arena[start + 1] & 0xFF) << 24) | ((arena[start + 2] & 0xFF) << 16)
+            | ((arena[start + 3] & 0xFF) << 8) | (arena[start + 4] & 0xFF);
+        int saltStart = start + 1 + Integer.BYTES;
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PBKDF2_PREFIX + iterations + "$"
+            + encoder.encodeToString(Arrays.copyOfRange(arena, saltStart, saltStart + SALT_BYTES)) + "$"
+            + encoder.encodeToString(Arrays.copyOfRange(arena, saltStart + SALT_BYTES,
+                saltStart + SALT_BYTES + DERIVED_BYTES));
+    }
+
+    private byte[] readBytes(int position) {
+        int length = fieldLength(position);
+        return length < 0 ? null : Arrays.copyOfRange(arena, position + 2, position + 2 + length);
+    }
+
+    private boolean equalsAt(int position, byte[] value) {
+        if (fieldLength(position) != value.length) {
+            return false;
+        }
+        return Arrays.equals(arena, position + 2, position + 2 + value.length, value, 0, value.length);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Rang " + row + " hors de la liste (" + size + ")");
+        }
+    }
+
+    private static byte encode(List<String> dictionary, String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        int code = dictionary.indexOf(value);
+        if (code < 0) {
+            if (dictionary.size() >= MAX_DICTIONARY_SIZE) {
+                throw new IllegalStateException("Trop de valeurs distinctes hors référence : " + value);
+            }
+            dictionary.add(value);
+            code = dictionary.size() - 1;
+        }
+        return (byte) code;
+    }
+
+    private static String decode(List<String> dictionary, byte code) {
+        return code == NULL_CODE ? null : dictionary.get(code & 0xFF);
+    }
+
+    // FNV-1a sur les octets UTF-8, puis brassage des bits de poids fort (index en puissance de 2)
+    private static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Encode un hash de mot de passe : binaire s'il est au format PBKDF2 standard et se
+     * reconstruit à l'identique, sinon texte UTF-8 (anciens hashs).
+     */
+    private static byte[] packHash(String passwordHash) {
+        if (passwordHash == null) {
+            return null;
+        }
+        byte[] packed = packPbkdf2(passwordHash);
+        if (packed != null) {
+            return packed;
+        }
+        byte[] text = utf8(passwordHash);
+        byte[] field = new byte[text.length + 1];
+        field[0] = HASH_TEXT;
+        System.arraycopy(text, 0, field, 1, text.length);
+        return field;
+    }
+
+    private static byte[] packPbkdf2(String passwordHash) {
+        if (!passwordHash.startsWith(PBKDF2_PREFIX)) {
+            return null;
+        }
+        String[] parts = passwordHash.split("\\$");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] derived = Base64.getDecoder().decode(parts[3]);
+            Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+            boolean exact = salt.length == SALT_BYTES && derived.length == DERIVED_BYTES
+                && Integer.toString(iterations).equals(parts[1])
+                && encoder.encodeToString(salt).equals(parts[2])
+                && encoder.encodeToString(derived).equals(parts[3]);
+            if (!exact) {
+                return null;
+            }
+            byte[] field = new byte[1 + Integer.BYTES + SALT_BYTES + DERIVED_BYTES];
+            field[0] = HASH_PBKDF2;
+            field[1] = (byte) (iterations >>> 24);
+            field[2] = (byte) (iterations >>> 16);
+            field[3] = (byte) (iterations >>> 8);
+            field[4] = (byte) iterations;
+            System.arraycopy(salt, 0, field, 1 + Integer.BYTES, SALT_BYTES);
+            System.arraycopy(derived, 0, field, 1 + Integer.BYTES + SALT_BYTES, DERIVED_BYTES);
+            return field;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int tableSizeFor(int n) {
+        return Integer.highestOneBit(Math.max(2, n) - 1) << 1;
+    }
+}
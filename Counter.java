@@ -0,0 +1,32 @@
+package ucc.payment.system.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur monotone sans verrou (LongAdder : pas de contention entre threads).
+ */
+public class Counter {
+    private final String name;
+    private final String help;
+    private final LongAdder value = new LongAdder();
+
+    public Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public String getName() { return name; }
+    public String getHelp() { return help; }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
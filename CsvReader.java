@@ -0,0 +1,161 @@
+package ucc.payment.system.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecteur CSV en flux (RFC 4180) : champs entre guillemets, guillemets doublés,
+ * retours à la ligne dans un champ, fins de ligne CRLF ou LF, BOM UTF-8 ignoré.
+ * Les lignes vides sont sautées. Le fichier n'est jamais chargé en entier.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder(64);
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    /**
+     * @param delimiter séparateur de champs (',' ou ';' pour les exports Excel en français)
+     */
+    public CsvReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Devine le séparateur d'après la ligne d'en-tête : ';' s'il est plus fréquent que ','.
+     */
+    public static char detectDelimiter(String headerLine) {
+        int commas = 0;
+        int semicolons = 0;
+        for (int i = 0; i < headerLine.length(); i++) {
+            char c = headerLine.charAt(i);
+            if (c == ',') {
+                commas++;
+            } else if (c == ';') {
+                semicolons++;
+            }
+        }
+        return semicolons > commas ? ';' : ',';
+    }
+
+    /**
+     * Lit l'enregistrement suivant.
+     * @return ses champs, ou null en fin de fichier
+     * @throws IOException en cas d'erreur de lecture ou de guillemet non fermé
+     */
+    public String[] next() throws IOException {
+        if (!started) {
+            started = true;
+            if (fill() && buffer[position] == '\uFEFF') {
+                position++;
+            }
+        }
+        List<String> fields = new ArrayList<>();
+        int c;
+        // Saute les lignes vides
+        do {
+            c = read();
+            if (c == '\n') {
+                line++;
+            }
+        } while (c == '\n' || c == '\r');
+        if (c < 0) {
+            return null;
+        }
+        recordLine = line;
+
+        field.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c < 0) {
+                    throw new IOException("Guillemet non fermé (enregistrement de la ligne " + recordLine + ")");
+                }
+                if (c == '"') {
+                    int following = peek();
+                    if (following == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c < 0) {
+                if (c == '\n') {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            } else if (c == '\r') {
+                // Ignoré : suivi de '\n' (CRLF)
+                if (peek() != '\n') {
+                    fields.add(field.toString());
+                    return fields.toArray(new String[0]);
+                }
+            } else if (c == '"' && field.length() == 0 && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Numéro de la ligne où commence le dernier enregistrement lu (à partir de 1).
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int read() throws IOException {
+        return fill() ? buffer[position++] : -1;
+    }
+
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        int n;
+        do {
+            n = in.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -1,26 +1,102 @@
 package ucc.payment.system.ui;
 
+import ucc.payment.system.AppContext;
+import ucc.payment.system.audit.AuditLog;
+import ucc.payment.system.fees.FeeLedger;
+import ucc.payment.system.fees.FeeTotals;
+import ucc.payment.system.gateway.OperatorGateway;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
 import ucc.payment.system.model.Student;
+import ucc.payment.system.payment.CachedPaymentRepository;
+import ucc.payment.system.payment.PaymentRow;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.reconciliation.ReconciliationEngine;
+import ucc.payment.system.reconciliation.ReconciliationProgress;
+import ucc.payment.system.reconciliation.StatementFormat;
+import ucc.payment.system.security.RoleDirectory;
+import ucc.payment.system.session.SessionManager;
 import ucc.payment.system.util.DialogUtils;
+import ucc.payment.system.util.StartupProfiler;
 
 import javax.swing.*;
+import javax.swing.border.Border;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Tableau de bord principal de l'application UCC Payment System.
  */
 public class Dashboard extends BaseFrame {
-    private final Student student;
+    private static final LatencyHistogram PAYMENT_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_payment_submit_seconds", "Enregistrement d'un paiement (Dashboard.handlePayment)");
+    private static final int RECENT_PAYMENTS = 5;
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.systemDefault());
     private static final Color PRIMARY_COLOR = new Color(0x2C3E50);
     private static final Color SECONDARY_COLOR = new Color(0x3498DB);
     private static final String[] SOCIAL_NETWORKS = {"facebook", "twitter", "instagram", "linkedin", "youtube", "whatsapp"};
     private static final String[] PAYMENT_METHODS = {"Orange Money", "Airtel Money", "M-Pesa", "Africell"};
 
-    public Dashboard(Student student) {
+    private final Student student;
+    private final PaymentService paymentService;
+    private final ReconciliationEngine reconciliationEngine;
+    private final AuditLog auditLog;
+    private final RoleDirectory roleDirectory;
+    private final OperatorGateway gateway;
+    private final FeeLedger feeLedger;
+    private final CachedPaymentRepository paymentHistory;
+    private final AppContext context;
+    private final String sessionToken;
+
+    // État de vérification préchargé en arrière-plan (-1 tant qu'il n'est pas connu)
+    private volatile long paymentCount = -1;
+    private volatile long pendingCount;
+    private volatile boolean admin;
+    private volatile FeeTotals balance;
+    private JButton metricsButton;
+    private JButton feesButton;
+    private JButton paymentsButton;
+    private JButton reconcileButton;
+    private StudentSearchPanel cashierSearch;
+    private JLabel balanceLabel;
+    private JLabel verificationStateLabel;
+    private JLabel recentPaymentsLabel;
+
+    public Dashboard(Student student, AppContext context, String sessionToken) {
         super("Tableau de bord - " + student.getName(), new Dimension(1000, 700));
+        long start = StartupProfiler.begin();
         this.student = student;
+        this.paymentService = context.getPaymentService();
+        this.reconciliationEngine = context.getReconciliationEngine();
+        this.auditLog = context.getAuditLog();
+        this.roleDirectory = context.getRoleDirectory();
+        this.gateway = context.getGateway();
+        this.feeLedger = context.getFeeLedger();
+        this.paymentHistory = context.getPaymentHistory();
+        this.context = context;
+        this.sessionToken = sessionToken;
         setupUI();
+        StartupProfiler.reportFirstFrame(this, "Dashboard", start);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                SwingUtilities.invokeLater(Dashboard.this::prefetchInBackground);
+            }
+        });
     }
 
     private void setupUI() {
@@ -59,6 +135,8 @@ public class Dashboard extends BaseFrame {
             "Promotion : " + student.getPromotion() + " | Filière : " + student.getFaculty(),
             14, new Color(0xBDC3C7)
         ));
+        balanceLabel = createLabel(" ", 14, new Color(0xBDC3C7));
+        panel.add(balanceLabel);
         
         return panel;
     }
@@ -67,6 +145,31 @@ public class Dashboard extends BaseFrame {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
         panel.setBackground(PRIMARY_COLOR);
         
+        // Réservé au rôle admin : affiché une fois les rôles chargés
+        metricsButton = new JButton("Métriques");
+        metricsButton.setVisible(false);
+        metricsButton.addActionListener(e -> openMetrics());
+        panel.add(metricsButton);
+
+        feesButton = new JButton("Soldes");
+        feesButton.setVisible(false);
+        feesButton.addActionListener(e -> openFeeTotals());
+        panel.add(feesButton);
+
+        paymentsButton = new JButton("Paiements");
+        paymentsButton.setVisible(false);
+        paymentsButton.addActionListener(e -> openPaymentBrowser());
+        panel.add(paymentsButton);
+
+        JButton lockButton = new JButton("Verrouiller");
+        lockButton.setToolTipText("Quitter le poste en gardant la session ouverte");
+        lockButton.addActionListener(e -> lock());
+        panel.add(lockButton);
+
+        JButton logoutButton = new JButton("Déconnexion");
+        logoutButton.addActionListener(e -> logout());
+        panel.add(logoutButton);
+
         for (String network : SOCIAL_NETWORKS) {
             panel.add(createSocialButton(network));
         }
@@ -76,8 +179,8 @@ public class Dashboard extends BaseFrame {
 
     private JComponent createMainContent() {
         JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
-        splitPane.setTopComponent(createPaymentSection());
-        splitPane.setBottomComponent(createVerificationSection());
+        splitPane.setTopComponent(new LazyPanel(this::createPaymentSection));
+        splitPane.setBottomComponent(new LazyPanel(this::createVerificationSection));
         splitPane.setDividerLocation(400);
         splitPane.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
@@ -90,8 +193,8 @@ public class Dashboard extends BaseFrame {
         
         JTabbedPane tabs = new JTabbedPane();
         tabs.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        tabs.addTab("Mobile Money", createMobileMoneyPanel());
-        tabs.addTab("Paiement Physique", createPhysicalPaymentPanel());
+        tabs.addTab("Mobile Money", new LazyPanel(this::createMobileMoneyPanel));
+        tabs.addTab("Paiement Physique", new LazyPanel(this::createPhysicalPaymentPanel));
         
         panel.add(tabs);
         return panel;
@@ -119,8 +222,14 @@ public class Dashboard extends BaseFrame {
         info.setFont(new Font("Segoe UI", Font.PLAIN, 16));
         info.setAlignmentX(Component.CENTER_ALIGNMENT);
         
+        // Réservé au rôle admin (caisse) : affiché une fois les rôles chargés
+        cashierSearch = new StudentSearchPanel(context.getStudentSearch(), feeLedger);
+        cashierSearch.setVisible(admin);
+        
         panel.add(Box.createVerticalGlue());
         panel.add(info);
+        panel.add(Box.createVerticalStrut(15));
+        panel.add(cashierSearch);
         panel.add(Box.createVerticalGlue());
         
         return panel;
@@ -130,17 +239,185 @@ public class Dashboard extends BaseFrame {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(createTitledBorder("Vérification des Paiements"));
         
-        JButton verifyBtn = new JButton("Vérifier les Paiements");
+        JButton verifyBtn = new JButton("Vérifier mes Paiements");
         verifyBtn.setFont(new Font("Segoe UI", Font.BOLD, 16));
         verifyBtn.setBackground(SECONDARY_COLOR);
         verifyBtn.setForeground(Color.WHITE);
         verifyBtn.setPreferredSize(new Dimension(250, 50));
-        verifyBtn.addActionListener(e -> DialogUtils.showInfo(this, "Fonctionnalité en développement"));
+        verifyBtn.addActionListener(e -> refreshRecentPayments());
+
+        // Réservé au rôle admin : rapprochement d'un relevé d'opérateur
+        reconcileButton = new JButton("Rapprocher un Relevé");
+        reconcileButton.setVisible(false);
+        reconcileButton.addActionListener(e -> startReconciliation());
+
+        verificationStateLabel = createLabel("", 14, PRIMARY_COLOR);
+        showVerificationState();
+        recentPaymentsLabel = createLabel("", 12, PRIMARY_COLOR);
+
+        JPanel state = new JPanel();
+        state.setLayout(new BoxLayout(state, BoxLayout.Y_AXIS));
+        state.add(verificationStateLabel);
+        state.add(recentPaymentsLabel);
+        state.add(reconcileButton);
         
         panel.add(verifyBtn, BorderLayout.CENTER);
+        panel.add(state, BorderLayout.SOUTH);
         return panel;
     }
 
+    /**
+     * Travaux lourds lancés après le premier rendu : état de vérification de l'étudiant.
+     * Les icônes sont déjà décodées en arrière-plan par {@link IconCache}.
+     */
+    private void prefetchInBackground() {
+        CompletableFuture.runAsync(() -> {
+            FeeTotals totals = feeLedger.isReady() ? feeLedger.balance(student.getEmail()) : null;
+            if (totals != null) {
+                paymentCount = totals.getPayments();
+                pendingCount = totals.getPendingPayments();
+                balance = totals;
+            } else {
+                // Soldes encore en reconstruction : décompte direct
+                long count = 0;
+                long pending = 0;
+                for (Payment payment : paymentService.all()) {
+                    if (payment.getStudentEmail().equals(student.getEmail())) {
+                        count++;
+                        if (payment.getStatus() == PaymentStatus.PENDING) {
+                            pending++;
+                        }
+                    }
+                }
+                paymentCount = count;
+                pendingCount = pending;
+            }
+
+            try {
+                admin = roleDirectory.isAdmin(student.getEmail());
+            } catch (IOException e) {
+                System.err.println("Rôles indisponibles : " + e.getMessage());
+            }
+        }).thenRunAsync(() -> {
+            showVerificationState();
+            showBalance();
+            metricsButton.setVisible(admin);
+            feesButton.setVisible(admin);
+            paymentsButton.setVisible(admin);
+            reconcileButton.setVisible(admin);
+            if (cashierSearch != null) {
+                cashierSearch.setVisible(admin);
+            }
+            refreshRecentPayments();
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Relit en arrière-plan les derniers paiements de l'étudiant et leur vérification ;
+     * le cache de l'historique répond sans requête tant qu'aucun n'a changé.
+     */
+    private void refreshRecentPayments() {
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return paymentHistory.history(student.getEmail(), null, RECENT_PAYMENTS);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).whenCompleteAsync((rows, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                System.err.println("Historique des paiements indisponible : " + cause.getMessage());
+                return;
+            }
+            showRecentPayments(rows);
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Retour à l'écran de connexion ; la session pourra être reprise avec le mot de passe
+     * tant qu'elle n'a pas expiré.
+     */
+    private void lock() {
+        auditLog.log(student.getEmail(), "SESSION_LOCKED");
+        new LoginFrame(context, sessionToken).setVisible(true);
+        dispose();
+    }
+
+    private void logout() {
+        context.getSessionManager().invalidate(sessionToken);
+        auditLog.log(student.getEmail(), "LOGOUT");
+        new LoginFrame(context).setVisible(true);
+        dispose();
+    }
+
+    private void openMetrics() {
+        if (!admin) {
+            return;
+        }
+        JDialog dialog = new JDialog(this, "Métriques de l'application", false);
+        dialog.add(new MetricsPanel(MetricsRegistry.shared()));
+        dialog.setSize(800, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private void openFeeTotals() {
+        if (!admin) {
+            return;
+        }
+        JDialog dialog = new JDialog(this, "Soldes des frais académiques", false);
+        dialog.add(new FeeTotalsPanel(feeLedger));
+        dialog.setSize(900, 500);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private void openPaymentBrowser() {
+        if (!admin) {
+            return;
+        }
+        JDialog dialog = new JDialog(this, "Registre des paiements", false);
+        dialog.add(new PaymentBrowserPanel(context.getPaymentBrowser()));
+        dialog.setSize(1100, 600);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
+
+    private void showBalance() {
+        FeeTotals totals = balance;
+        if (balanceLabel == null || totals == null) {
+            return;
+        }
+        balanceLabel.setText(String.format("Frais : %s payés sur %s, reste %s",
+            totals.getPaid(), totals.getDue(), totals.getRemaining()));
+    }
+
+    private void showVerificationState() {
+        if (verificationStateLabel == null) {
+            return;
+        }
+        verificationStateLabel.setText(paymentCount < 0
+            ? "Chargement de vos paiements..."
+            : String.format("%d paiement(s) enregistré(s), dont %d en attente", paymentCount, pendingCount));
+    }
+
+    private void showRecentPayments(List<PaymentRow> rows) {
+        if (recentPaymentsLabel == null || rows.isEmpty()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder("<html>Derniers paiements :");
+        for (PaymentRow row : rows) {
+            text.append("<br>").append(DATE_FORMAT.format(row.getPaymentDate()))
+                .append(" - ").append(row.getAmount())
+                .append(" - ").append(row.getMethod().getLabel())
+                .append(" - ").append(row.getStatus().getDbValue());
+            if (row.getVerification() != null) {
+                text.append(" (").append(row.getVerification().getDbValue()).append(")");
+            }
+        }
+        recentPaymentsLabel.setText(text.append("</html>").toString());
+    }
+
     private JPanel createFooter() {
         JPanel footer = new JPanel();
         footer.setBackground(PRIMARY_COLOR);
@@ -186,14 +463,102 @@ public class Dashboard extends BaseFrame {
         return btn;
     }
 
-    private ImageIcon loadIcon(String filename, int size) {
-        ImageIcon icon = new ImageIcon(getClass().getResource("/resources/" + filename));
-        Image img = icon.getImage().getScaledInstance(size, size, Image.SCALE_SMOOTH);
-        return new ImageIcon(img);
+    private Icon loadIcon(String filename, int size) {
+        return IconCache.shared().getIcon("/resources/" + filename, size);
     }
 
     private void handlePayment(String operator) {
-        DialogUtils.showInfo(this, "Redirection vers " + operator + "...");
+        String input = JOptionPane.showInputDialog(this,
+            "Montant à payer via " + operator + " :", "Paiement", JOptionPane.QUESTION_MESSAGE);
+        if (input == null) {
+            return;
+        }
+
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(input.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            DialogUtils.showError(this, "Montant invalide");
+            return;
+        }
+
+        long start = System.nanoTime();
+        paymentService.submitPayment(student, amount, PaymentMethod.fromLabel(operator))
+            .whenCompleteAsync((payment, error) -> {
+                PAYMENT_LATENCY.recordSince(start);
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    DialogUtils.showError(this, cause.getMessage());
+                    return;
+                }
+                gateway.requestPayment(payment);
+                auditLog.log(student.getEmail(), "PAYMENT_CREATED", "transaction_id", payment.getTransactionId(),
+                    "amount", payment.getAmount(), "method", payment.getMethod().name());
+                refreshRecentPayments();
+                DialogUtils.showInfo(this, "Paiement enregistré (transaction " + payment.getTransactionId()
+                    + ").\nEn attente de confirmation de " + operator + "...");
+            }, SwingUtilities::invokeLater);
+    }
+
+    private void startReconciliation() {
+        if (!admin) {
+            return;
+        }
+        String operator = (String) JOptionPane.showInputDialog(this, "Opérateur du relevé :",
+            "Vérification des paiements", JOptionPane.QUESTION_MESSAGE, null, PAYMENT_METHODS, PAYMENT_METHODS[0]);
+        if (operator == null) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Relevé " + operator);
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File statement = chooser.getSelectedFile();
+
+        ReconciliationProgress progress;
+        try {
+            progress = reconciliationEngine.newProgress(statement.toPath());
+        } catch (IOException e) {
+            DialogUtils.showError(this, "Relevé illisible : " + e.getMessage());
+            return;
+        }
+
+        JProgressBar bar = new JProgressBar(0, 100);
+        bar.setStringPainted(true);
+        JLabel throughput = createLabel("Démarrage...", 12, PRIMARY_COLOR);
+        JDialog dialog = new JDialog(this, "Rapprochement " + operator, false);
+        dialog.setLayout(new BorderLayout(10, 10));
+        dialog.add(bar, BorderLayout.CENTER);
+        dialog.add(throughput, BorderLayout.SOUTH);
+        dialog.setSize(450, 110);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+
+        Timer refresh = new Timer(250, e -> {
+            bar.setValue(progress.getPercent());
+            throughput.setText(String.format("%,d lignes - %,.0f lignes/s",
+                progress.getLinesProcessed(), progress.getLinesPerSecond()));
+        });
+        refresh.start();
+
+        StatementFormat format = StatementFormat.forMethod(PaymentMethod.fromLabel(operator));
+        reconciliationEngine.reconcileAsync(statement.toPath(), format, student.getEmail(), progress)
+            .whenCompleteAsync((result, error) -> {
+                refresh.stop();
+                dialog.dispose();
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    DialogUtils.showError(this, cause.getMessage());
+                    return;
+                }
+                auditLog.log(student.getEmail(), "RECONCILIATION", "operator", operator,
+                    "lines", result.getLinesProcessed(), "verified", result.getVerified(),
+                    "unverified", result.getUnverified(), "disputed", result.getDisputed());
+                paymentHistory.invalidateAll();
+                refreshRecentPayments();
+                DialogUtils.showInfo(this, "Rapprochement terminé :\n" + result);
+            }, SwingUtilities::invokeLater);
     }
 
     private void openSocialLink(String network) {
@@ -0,0 +1,70 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.Student;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Détection des demandes répétées devant le registre des paiements (double clic sur un
+ * bouton de paiement) : même étudiant, même montant et même moyen de paiement dans une
+ * courte fenêtre.
+ *
+ * <p>Les transactions rejouées (notification renvoyée par l'opérateur) sont écartées par
+ * l'index en mémoire du {@link PaymentService}, qui tient déjà tous les transaction_id.
+ */
+public class DuplicateDetector {
+    public static final long DEFAULT_WINDOW_SECONDS = 5;
+    private static final int CLEANUP_INTERVAL = 1024;
+
+    private static final Counter REPEATED_SUBMISSIONS = MetricsRegistry.shared()
+        .counter("ucc_payment_repeated_submissions_total", "Paiements identiques refusés (double soumission)");
+
+    private final long windowNanos;
+    private final Map<String, Long> submissions = new ConcurrentHashMap<>();
+    private final AtomicInteger sinceCleanup = new AtomicInteger();
+
+    public DuplicateDetector() {
+        this(TimeUnit.SECONDS.toNanos(Long.getLong("ucc.payment.dedup.window.seconds", DEFAULT_WINDOW_SECONDS)));
+    }
+
+    /**
+     * @param windowNanos fenêtre de refus d'une demande identique
+     */
+    public DuplicateDetector(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Vérifie qu'une demande identique n'a pas été soumise dans la fenêtre, puis la note.
+     * La fenêtre court depuis la première demande : des clics répétés ne la prolongent pas.
+     * @return true si la demande répète une demande récente
+     */
+    public boolean isRepeatedSubmission(String email, BigDecimal amount, PaymentMethod method) {
+        long now = System.nanoTime();
+        String key = Student.normalizeEmail(email) + '|' + amount.stripTrailingZeros().toPlainString()
+            + '|' + method.name();
+        boolean[] repeated = new boolean[1];
+        submissions.compute(key, (k, first) -> {
+            if (first != null && now - first < windowNanos) {
+                repeated[0] = true;
+                return first;
+            }
+            return now;
+        });
+        if (sinceCleanup.incrementAndGet() >= CLEANUP_INTERVAL) {
+            sinceCleanup.set(0);
+            submissions.values().removeIf(first -> now - first >= windowNanos);
+        }
+        if (repeated[0]) {
+            REPEATED_SUBMISSIONS.increment();
+        }
+        return repeated[0];
+    }
+}
@@ -0,0 +1,11 @@
+package ucc.payment.system.payment;
+
+/**
+ * Paiement refusé comme doublon : transaction déjà enregistrée, ou demande identique
+ * soumise à l'instant (double clic, renvoi d'un formulaire).
+ */
+public class DuplicatePaymentException extends IllegalArgumentException {
+    public DuplicatePaymentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,504 @@
+package ucc.payment.system.enrollment;
+
+import ucc.payment.system.UserManager;
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.security.PasswordHasher;
+import ucc.payment.system.store.UserStore;
+import ucc.payment.system.util.CsvReader;
+import ucc.payment.system.util.ValidationError;
+import ucc.payment.system.util.Validators;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Import en masse des listes d'inscription du secrétariat (CSV).
+ *
+ * <p>Le fichier est lu en flux, par lots. Chaque lot est validé et hashé en parallèle
+ * sur un ForkJoinPool (mêmes règles que {@link Student}, promotions et filières
+ * rapprochées de {@link ReferenceData}) pendant que le lot précédent est inséré en une
+ * écriture groupée ({@link UserManager#addUsers}) : les écouteurs d'inscription (journal
+ * d'activité, index de recherche, soldes des frais) voient chaque étudiant importé comme
+ * une inscription. Un email déjà inscrit est écarté avant le hashage.
+ *
+ * <p>Chaque ligne refusée est écrite dans un rapport CSV (ligne, email, code, message).
+ * Après chaque lot, un point de reprise enregistre le nombre de lignes traitées : un
+ * import interrompu reprend au lot suivant. Les lignes du lot en cours au moment de
+ * l'interruption sont retraitées et apparaissent alors comme doublons dans le rapport.
+ *
+ * <p>Colonnes reconnues (casse et accents ignorés) : nom ou prenom + postnom, email,
+ * mot_de_passe, promotion, faculte (ou leurs équivalents anglais name, first_name,
+ * last_name, password, faculty). Séparateur ',' ou ';', détecté sur l'en-tête.
+ */
+public class EnrollmentImporter implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    // Un hash coûte des dizaines de millisecondes : découpage fin entre les workers
+    private static final int SPLIT_THRESHOLD = 2;
+    private static final int HEADER_PEEK_CHARS = 8 * 1024;
+    private static final String REPORT_HEADER = "ligne,email,code,message";
+
+    private static final Counter IMPORTED = MetricsRegistry.shared()
+        .counter("ucc_imported_students_total", "Étudiants enregistrés par import CSV");
+    private static final LatencyHistogram BATCH_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_import_batch_seconds", "Insertion d'un lot importé");
+
+    private final UserManager userManager;
+    private final UserStore store;
+    private final PasswordHasher hasher;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    public EnrollmentImporter(UserManager userManager) {
+        this(userManager, PasswordHasher.getDefault(), Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param parallelism nombre de workers de validation et de hashage
+     * @param batchSize   lignes par lot (et par écriture groupée)
+     */
+    public EnrollmentImporter(UserManager userManager, PasswordHasher hasher, int parallelism, int batchSize) {
+        this.userManager = userManager;
+        this.store = userManager.getStore();
+        this.hasher = hasher;
+        this.pool = new ForkJoinPool(parallelism);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Importe un fichier CSV.
+     * @param errorReport rapport des lignes refusées (complété lors d'une reprise)
+     * @param checkpoint  point de reprise ; supprimé quand l'import se termine
+     * @param progress    appelé après chaque lot avec le bilan intermédiaire (peut être null)
+     * @throws IllegalArgumentException si l'en-tête ne contient pas les colonnes attendues
+     */
+    public ImportResult importFile(Path csv, Path errorReport, Path checkpoint,
+                                   Consumer<ImportResult> progress) throws IOException {
+        long start = System.nanoTime();
+        long resumed = readCheckpoint(checkpoint, csv);
+        Tally tally = new Tally(resumed);
+
+        try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             Writer report = openReport(errorReport, resumed > 0)) {
+            in.mark(HEADER_PEEK_CHARS);
+            char[] peek = new char[HEADER_PEEK_CHARS];
+            int peeked = Math.max(0, in.read(peek));
+            in.reset();
+            String firstLine = new String(peek, 0, peeked).split("\r?\n", 2)[0];
+
+            CsvReader reader = new CsvReader(in, CsvReader.detectDelimiter(firstLine));
+            String[] header = reader.next();
+            if (header == null) {
+                return tally.result(start);
+            }
+            Columns columns = Columns.of(header);
+            for (long i = 0; i < resumed && reader.next() != null; i++) {
+                // Lignes déjà traitées par l'exécution interrompue
+            }
+
+            Batch previous = null;
+            while (true) {
+                Batch batch = readBatch(reader);
+                if (batch != null) {
+                    // Le lot est hashé pendant que le précédent est inséré
+                    batch.outcomes = new Object[batch.size()];
+                    batch.task = pool.submit(new PrepareTask(batch, columns, 0, batch.size()));
+                }
+                if (previous != null) {
+                    commit(previous, tally, report);
+                    writeCheckpoint(checkpoint, csv, tally.resumed + tally.read);
+                    if (progress != null) {
+                        progress.accept(tally.result(start));
+                    }
+                }
+                if (batch == null) {
+                    break;
+                }
+                previous = batch;
+            }
+        }
+        Files.deleteIfExists(checkpoint);
+        return tally.result(start);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Batch readBatch(CsvReader reader) throws IOException {
+        Batch batch = null;
+        String[] fields;
+        while ((batch == null || batch.size() < batchSize) && (fields = reader.next()) != null) {
+            if (batch == null) {
+                batch = new Batch(batchSize);
+            }
+            batch.lines.add(reader.getRecordLine());
+            batch.rows.add(fields);
+        }
+        return batch;
+    }
+
+    /**
+     * Insère les étudiants valides du lot et écrit ses erreurs dans le rapport.
+     */
+    private void commit(Batch batch, Tally tally, Writer report) throws IOException {
+        batch.task.join();
+        List<Student> students = new ArrayList<>(batch.size());
+        for (Object outcome : batch.outcomes) {
+            if (outcome instanceof Student) {
+                students.add((Student) outcome);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Student> refused;
+        try {
+            refused = students.isEmpty() ? List.of() : userManager.addUsers(students);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        BATCH_LATENCY.recordSince(start);
+        Set<Student> duplicates = Collections.newSetFromMap(new IdentityHashMap<>(refused.size() * 2));
+        duplicates.addAll(refused);
+
+        for (int i = 0; i < batch.size(); i++) {
+            Object outcome = batch.outcomes[i];
+            if (outcome instanceof RowError) {
+                RowError error = (RowError) outcome;
+                if (error.code.equals(RowError.DUPLICATE)) {
+                    tally.duplicates++;
+                } else {
+                    tally.rejected++;
+                }
+                writeReportLine(report, batch.lines.get(i), error.email, error.code, error.message);
+            } else if (duplicates.contains(outcome)) {
+                // Email en double dans le fichier, ou inscrit entre-temps
+                Student student = (Student) outcome;
+                tally.duplicates++;
+                writeReportLine(report, batch.lines.get(i), student.getEmail(), RowError.DUPLICATE,
+                    RowError.DUPLICATE_MESSAGE);
+            }
+        }
+        report.flush();
+
+        int imported = students.size() - refused.size();
+        tally.imported += imported;
+        tally.read += batch.size();
+        IMPORTED.add(imported);
+    }
+
+    /**
+     * Valide une ligne puis hashe son mot de passe (thread du ForkJoinPool).
+     * @return l'étudiant prêt à insérer, ou l'erreur de la ligne
+     */
+    private Object prepare(String[] fields, Columns columns) {
+        String email = columns.get(fields, columns.email);
+        if (fields.length < columns.minimumFields) {
+            return new RowError(email, RowError.COLUMNS, "Ligne incomplète : " + fields.length
+                + " colonnes au lieu de " + columns.minimumFields);
+        }
+        String name = columns.name(fields);
+        ValidationError error = Validators.checkName(name);
+        if (error == null) {
+            error = Validators.checkEmail(email);
+        }
+        String password = columns.get(fields, columns.password);
+        if (error == null) {
+            error = Validators.checkPassword(password);
+        }
+        if (error != null) {
+            return new RowError(email, error.name(), error.getMessage());
+        }
+        String rawPromotion = columns.get(fields, columns.promotion);
+        String promotion = ReferenceData.matchPromotion(rawPromotion);
+        if (promotion == null) {
+            return new RowError(email, "PROMOTION_UNKNOWN", "Promotion inconnue : " + rawPromotion);
+        }
+        String rawFaculty = columns.get(fields, columns.faculty);
+        String faculty = ReferenceData.matchFaculty(rawFaculty);
+        if (faculty == null) {
+            return new RowError(email, "FACULTY_UNKNOWN", "Filière inconnue : " + rawFaculty);
+        }
+        // Évite un hash inutile : la vérification définitive a lieu à l'insertion
+        if (store.contains(email)) {
+            return new RowError(email, RowError.DUPLICATE, RowError.DUPLICATE_MESSAGE);
+        }
+        return Student.restore(name.trim(), Validators.normalizeEmail(email),
+            hasher.hashInCallerThread(password), promotion, faculty);
+    }
+
+    private static Writer openReport(Path errorReport, boolean append) throws IOException {
+        boolean writeHeader = !append || !Files.exists(errorReport) || Files.size(errorReport) == 0;
+        BufferedWriter writer = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        if (writeHeader) {
+            writer.write(REPORT_HEADER);
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    private static void writeReportLine(Writer report, long line, String email, String code, String message)
+            throws IOException {
+        report.write(Long.toString(line));
+        report.write(',');
+        report.write(quote(email));
+        report.write(',');
+        report.write(code);
+        report.write(',');
+        report.write(quote(message));
+        report.write(System.lineSeparator());
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == ';' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return le nombre de lignes déjà traitées, ou 0 si le point de reprise est absent
+     *         ou concerne un autre fichier
+     */
+    private static long readCheckpoint(Path checkpoint, Path csv) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint)) {
+            properties.load(in);
+        }
+        boolean sameFile = csv.toAbsolutePath().normalize().toString().equals(properties.getProperty("source"))
+            && Long.toString(Files.size(csv)).equals(properties.getProperty("size"));
+        if (!sameFile) {
+            System.err.println("Point de reprise ignoré : il concerne un autre fichier (" + checkpoint + ")");
+            return 0;
+        }
+        try {
+            return Long.parseLong(properties.getProperty("records", "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpoint, Path csv, long records) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", csv.toAbsolutePath().normalize().toString());
+        properties.setProperty("size", Long.toString(Files.size(csv)));
+        properties.setProperty("records", Long.toString(records));
+        Path tmp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            properties.store(out, "Reprise de l'import des inscriptions");
+        }
+        Files.move(tmp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lignes d'un lot et résultat de leur préparation (Student ou RowError), par indice.
+     */
+    private static final class Batch {
+        final List<Long> lines;
+        final List<String[]> rows;
+        Object[] outcomes;
+        ForkJoinTask<?> task;
+
+        Batch(int capacity) {
+            this.lines = new ArrayList<>(capacity);
+            this.rows = new ArrayList<>(capacity);
+        }
+
+        int size() {
+            return rows.size();
+        }
+    }
+
+    /**
+     * Découpe récursivement le lot entre les workers du ForkJoinPool.
+     */
+    private final class PrepareTask extends RecursiveAction {
+        private final Batch batch;
+        private final Columns columns;
+        private final int from;
+        private final int to;
+
+        PrepareTask(Batch batch, Columns columns, int from, int to) {
+            this.batch = batch;
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        batch.outcomes[i] = prepare(batch.rows.get(i), columns);
+                    } catch (RuntimeException e) {
+                        batch.outcomes[i] = new RowError(columns.get(batch.rows.get(i), columns.email),
+                            "INTERNAL_ERROR", e.toString());
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PrepareTask(batch, columns, from, middle), new PrepareTask(batch, columns, middle, to));
+        }
+    }
+
+    private static final class RowError {
+        static final String DUPLICATE = "EMAIL_DUPLICATE";
+        static final String DUPLICATE_MESSAGE = "Un compte existe déjà pour cet email";
+        static final String COLUMNS = "COLUMNS_MISSING";
+
+        final String email;
+        final String code;
+        final String message;
+
+        RowError(String email, String code, String message) {
+            this.email = email;
+            this.code = code;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Position des colonnes, résolue une fois d'après l'en-tête.
+     */
+    private static final class Columns {
+        final int name;
+        final int firstName;
+        final int lastName;
+        final int email;
+        final int password;
+        final int promotion;
+        final int faculty;
+        final int minimumFields;
+
+        private Columns(String[] header) {
+            int fullName = find(header, "nom", "name", "nom_complet", "full_name");
+            firstName = find(header, "prenom", "first_name");
+            int last = find(header, "postnom", "last_name", "nom_de_famille");
+            // Avec une colonne prénom, "nom" désigne le nom de famille
+            if (firstName >= 0 && last < 0) {
+                last = fullName;
+                fullName = -1;
+            }
+            name = fullName;
+            lastName = last;
+            email = find(header, "email", "e_mail", "courriel");
+            password = find(header, "mot_de_passe", "password");
+            promotion = find(header, "promotion");
+            faculty = find(header, "faculte", "faculty", "filiere", "faculty_code");
+            minimumFields = Math.max(Math.max(Math.max(name, firstName), Math.max(email, password)),
+                Math.max(promotion, faculty)) + 1;
+        }
+
+        static Columns of(String[] header) {
+            Columns columns = new Columns(header);
+            List<String> missing = new ArrayList<>();
+            if (columns.name < 0 && columns.firstName < 0) {
+                missing.add("nom");
+            }
+            if (columns.email < 0) {
+                missing.add("email");
+            }
+            if (columns.password < 0) {
+                missing.add("mot_de_passe");
+            }
+            if (columns.promotion < 0) {
+                missing.add("promotion");
+            }
+            if (columns.faculty < 0) {
+                missing.add("faculte");
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Colonnes manquantes dans l'en-tête : " + missing);
+            }
+            return columns;
+        }
+
+        String get(String[] fields, int index) {
+            return index >= 0 && index < fields.length ? fields[index].trim() : null;
+        }
+
+        String name(String[] fields) {
+            if (name >= 0) {
+                return get(fields, name);
+            }
+            String first = get(fields, firstName);
+            String last = get(fields, lastName);
+            return last == null || last.isEmpty() ? first : first + " " + last;
+        }
+
+        private static int find(String[] header, String... aliases) {
+            for (int i = 0; i < header.length; i++) {
+                String key = normalize(header[i]);
+                for (String alias : aliases) {
+                    if (alias.equals(key)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private static String normalize(String column) {
+            String plain = Normalizer.normalize(column.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            return plain.toLowerCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+        }
+    }
+
+    /**
+     * Compteurs de l'exécution (thread de l'appelant uniquement).
+     */
+    private static final class Tally {
+        final long resumed;
+        long read;
+        long imported;
+        long rejected;
+        long duplicates;
+
+        Tally(long resumed) {
+            this.resumed = resumed;
+        }
+
+        ImportResult result(long start) {
+            return new ImportResult(read, imported, rejected, duplicates, resumed, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package ucc.payment.system.fees;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.payment.PaymentListener;
+import ucc.payment.system.store.UserStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Soldes des frais tenus à jour au fil des paiements : par étudiant, et par groupe
+ * filière × promotion (d'où les totaux par filière, par promotion et de l'université).
+ *
+ * <p>Chaque création ou changement de statut persisté ({@link PaymentListener}) ajuste
+ * quelques compteurs en centimes : une réponse ("combien FSI L2 a-t-elle payé sur ce
+ * qu'elle doit ?") coûte une lecture de compteurs, sans parcourir les paiements. Le dû
+ * d'un groupe est son nombre d'étudiants multiplié par le montant du {@link FeeSchedule}.
+ *
+ * <p>Le dernier statut appliqué de chaque transaction est mémorisé et ne peut qu'avancer
+ * de "pending" vers un statut final : une même transition appliquée deux fois, ou une
+ * version périmée lue pendant la reconstruction, est sans effet. La reconstruction
+ * ({@link #rebuild}) peut donc tourner en parallèle pendant que les paiements arrivent.
+ *
+ * <p>Un paiement reçu avant l'inscription de son étudiant ouvre un compte "sans filière" ;
+ * à l'inscription, le compte rejoint son groupe et ses montants y sont reportés.
+ */
+public class FeeLedger implements PaymentListener {
+    private final FeeSchedule schedule;
+    private final UserStore students;
+    private final Cell[] cells = new Cell[FeeSchedule.GROUPS + 1];
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<String, PaymentStatus> applied = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public FeeLedger(FeeSchedule schedule, UserStore students) {
+        this.schedule = schedule;
+        this.students = students;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell();
+        }
+    }
+
+    /**
+     * Reconstruit les soldes à partir des comptes et du registre des paiements,
+     * en parallèle (pool commun du ForkJoin). À appeler une fois au démarrage,
+     * après l'abonnement aux paiements et aux inscriptions.
+     */
+    public void rebuild(Collection<Payment> payments) {
+        students.all().parallelStream().forEach(this::studentAdded);
+        payments.parallelStream().forEach(this::apply);
+        ready = true;
+    }
+
+    /** Vrai une fois la reconstruction terminée. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Inscription d'un étudiant : ajoute son dû à son groupe, et y reporte les paiements
+     * déjà reçus pour lui.
+     */
+    public void studentAdded(Student student) {
+        account(Student.normalizeEmail(student.getEmail()), student);
+    }
+
+    @Override
+    public void paymentChanged(Payment previous, Payment current) {
+        apply(current);
+    }
+
+    /**
+     * Situation d'un étudiant.
+     * @return null si l'étudiant n'a ni compte ni paiement connu
+     */
+    public FeeTotals balance(String email) {
+        Account account = accounts.get(Student.normalizeEmail(email));
+        if (account == null) {
+            return null;
+        }
+        return new FeeTotals(1, schedule.dueCents(account.group), account.paidCents.get(),
+            account.pendingCents.get(), account.pending.get(), account.completed.get(), account.failed.get());
+    }
+
+    /**
+     * Totaux d'une filière et d'une promotion (par exemple FSI, L2).
+     */
+    public FeeTotals totals(String faculty, String promotion) {
+        return cells[FeeSchedule.group(faculty, promotion)].snapshot(
+            schedule.dueCents(FeeSchedule.group(faculty, promotion)));
+    }
+
+    /** Totaux d'une filière, toutes promotions confondues. */
+    public FeeTotals facultyTotals(String faculty) {
+        FeeTotals sum = empty();
+        for (String promotion : ReferenceData.PROMOTIONS) {
+            sum = sum.plus(totals(faculty, promotion));
+        }
+        return sum;
+    }
+
+    /** Totaux d'une promotion, toutes filières confondues. */
+    public FeeTotals promotionTotals(String promotion) {
+        FeeTotals sum = empty();
+        for (String faculty : ReferenceData.FACULTIES) {
+            sum = sum.plus(totals(faculty, promotion));
+        }
+        return sum;
+    }
+
+    /** Totaux de l'université, y compris les paiements sans filière de référence. */
+    public FeeTotals overall() {
+        FeeTotals sum = empty();
+        for (int group = 0; group < cells.length; group++) {
+            sum = sum.plus(cells[group].snapshot(schedule.dueCents(group)));
+        }
+        return sum;
+    }
+
+    /**
+     * Contrôle de cohérence : recalcule tout à partir des comptes et des paiements
+     * donnés et compare avec les soldes tenus à jour. À lancer quand aucun paiement
+     * n'est en cours d'écriture, sinon des écarts transitoires peuvent apparaître.
+     * @return les écarts constatés (vide si tout concorde)
+     */
+    public List<String> verify(Collection<Payment> payments) {
+        FeeLedger expected = new FeeLedger(schedule, students);
+        expected.rebuild(payments);
+
+        List<String> differences = new ArrayList<>();
+        for (int group = 0; group < cells.length; group++) {
+            FeeTotals actual = cells[group].snapshot(schedule.dueCents(group));
+            FeeTotals recomputed = expected.cells[group].snapshot(schedule.dueCents(group));
+            if (!actual.sameAs(recomputed)) {
+                String name = group == FeeSchedule.UNASSIGNED ? "sans filière"
+                    : FeeSchedule.facultyOf(group) + " " + FeeSchedule.promotionOf(group);
+                differences.add(name + " : " + actual + " au lieu de " + recomputed);
+            }
+        }
+        for (Map.Entry<String, Account> entry : expected.accounts.entrySet()) {
+            FeeTotals actual = balance(entry.getKey());
+            FeeTotals recomputed = expected.balance(entry.getKey());
+            if (actual == null || !actual.sameAs(recomputed)) {
+                differences.add(entry.getKey() + " : " + actual + " au lieu de " + recomputed);
+            }
+        }
+        if (accounts.size() != expected.accounts.size()) {
+            differences.add("Comptes : " + accounts.size() + " au lieu de " + expected.accounts.size());
+        }
+        return differences;
+    }
+
+    /**
+     * Applique la version courante d'un paiement si elle fait avancer son statut.
+     */
+    void apply(Payment payment) {
+        PaymentStatus status = payment.getStatus();
+        PaymentStatus[] previous = new PaymentStatus[1];
+        boolean[] advanced = new boolean[1];
+        applied.compute(payment.getTransactionId(), (id, old) -> {
+            if (old == status || (old != null && old.isFinal())) {
+                return old;
+            }
+            previous[0] = old;
+            advanced[0] = true;
+            return status;
+        });
+        if (!advanced[0]) {
+            return;
+        }
+
+        long cents = FeeSchedule.toCents(payment.getAmount());
+        Account account = account(Student.normalizeEmail(payment.getStudentEmail()), null);
+        // Verrou du compte : son groupe peut changer à l'inscription (voir register)
+        synchronized (account) {
+            Cell cell = cells[account.group];
+            if (previous[0] == PaymentStatus.PENDING) {
+                account.pendingCents.addAndGet(-cents);
+                account.pending.decrementAndGet();
+                cell.pendingCents.add(-cents);
+                cell.pending.decrement();
+            }
+            switch (status) {
+                case PENDING:
+                    account.pendingCents.addAndGet(cents);
+                    account.pending.incrementAndGet();
+                    cell.pendingCents.add(cents);
+                    cell.pending.increment();
+                    break;
+                case COMPLETED:
+                    account.paidCents.addAndGet(cents);
+                    account.completed.incrementAndGet();
+                    cell.paidCents.add(cents);
+                    cell.completed.increment();
+                    break;
+                case FAILED:
+                    account.failed.incrementAndGet();
+                    cell.failed.increment();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Compte d'un étudiant, créé au besoin ; un étudiant inscrit est compté dans son groupe.
+     * @param student l'étudiant s'il est déjà connu de l'appelant, sinon recherché dans le store
+     */
+    private Account account(String email, Student student) {
+        Account account = accounts.get(email);
+        if (account == null) {
+            if (student == null) {
+                student = students.find(email);
+            }
+            account = accounts.computeIfAbsent(email, key -> new Account());
+        }
+        if (student != null && !account.registered) {
+            register(account, student);
+        }
+        return account;
+    }
+
+    /**
+     * Compte l'étudiant dans son groupe ; un compte ouvert sans lui (paiement reçu avant
+     * l'inscription) y reporte ses montants depuis le groupe "sans filière".
+     */
+    private void register(Account account, Student student) {
+        int group = FeeSchedule.group(student.getFaculty(), student.getPromotion());
+        synchronized (account) {
+            if (account.registered) {
+                return;
+            }
+            if (group != account.group) {
+                Cell from = cells[account.group];
+                Cell to = cells[group];
+                from.paidCents.add(-account.paidCents.get());
+                to.paidCents.add(account.paidCents.get());
+                from.pendingCents.add(-account.pendingCents.get());
+                to.pendingCents.add(account.pendingCents.get());
+                from.pending.add(-account.pending.get());
+                to.pending.add(account.pending.get());
+                from.completed.add(-account.completed.get());
+                to.completed.add(account.completed.get());
+                from.failed.add(-account.failed.get());
+                to.failed.add(account.failed.get());
+                account.group = group;
+            }
+            cells[group].students.increment();
+            account.registered = true;
+        }
+    }
+
+    private static FeeTotals empty() {
+        return new FeeTotals(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Compteurs d'un groupe filière × promotion.
+     */
+    private static final class Cell {
+        final LongAdder students = new LongAdder();
+        final LongAdder paidCents = new LongAdder();
+        final LongAdder pendingCents = new LongAdder();
+        final LongAdder pending = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        FeeTotals snapshot(long dueCentsPerStudent) {
+            long count = students.sum();
+            return new FeeTotals(count, count * dueCentsPerStudent, paidCents.sum(), pendingCents.sum(),
+                pending.sum(), completed.sum(), failed.sum());
+        }
+    }
+
+    private static final class Account {
+        // Modifiés sous le verrou du compte ; lus sans verrou pour les soldes
+        volatile int group = FeeSchedule.UNASSIGNED;
+        volatile boolean registered;
+        final AtomicLong paidCents = new AtomicLong();
+        final AtomicLong pendingCents = new AtomicLong();
+        final AtomicLong pending = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+    }
+}
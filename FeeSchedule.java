@@ -0,0 +1,83 @@
+package ucc.payment.system.fees;
+
+import ucc.payment.system.model.ReferenceData;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Barème des frais académiques par filière et promotion (table fee_schedules).
+ * Immuable ; les montants sont tenus en centimes, indexés par groupe
+ * filière × promotion de {@link ReferenceData}.
+ */
+public final class FeeSchedule {
+    static final int PROMOTIONS = ReferenceData.PROMOTIONS.size();
+    static final int GROUPS = ReferenceData.FACULTIES.size() * PROMOTIONS;
+    /** Groupe des étudiants sans filière ou promotion de référence (rien n'est dû). */
+    static final int UNASSIGNED = GROUPS;
+
+    private final long[] dueCents;
+
+    /**
+     * Barème uniforme : le même montant pour toutes les filières et promotions.
+     */
+    public FeeSchedule(BigDecimal amount) {
+        this.dueCents = new long[GROUPS + 1];
+        Arrays.fill(dueCents, 0, GROUPS, toCents(amount));
+    }
+
+    private FeeSchedule(long[] dueCents) {
+        this.dueCents = dueCents;
+    }
+
+    /**
+     * Copie du barème avec le montant d'une filière et d'une promotion.
+     * @throws IllegalArgumentException si la filière ou la promotion est inconnue
+     */
+    public FeeSchedule with(String faculty, String promotion, BigDecimal amount) {
+        int group = group(faculty, promotion);
+        if (group == UNASSIGNED) {
+            throw new IllegalArgumentException("Filière ou promotion inconnue : " + faculty + " " + promotion);
+        }
+        long[] copy = dueCents.clone();
+        copy[group] = toCents(amount);
+        return new FeeSchedule(copy);
+    }
+
+    /**
+     * @return le montant dû, ou zéro si la filière ou la promotion est inconnue
+     */
+    public BigDecimal amountDue(String faculty, String promotion) {
+        return fromCents(dueCents[group(faculty, promotion)]);
+    }
+
+    long dueCents(int group) {
+        return dueCents[group];
+    }
+
+    /**
+     * Groupe filière × promotion d'un étudiant, ou {@link #UNASSIGNED}.
+     */
+    static int group(String faculty, String promotion) {
+        int f = faculty == null ? -1 : ReferenceData.FACULTIES.indexOf(faculty);
+        int p = promotion == null ? -1 : ReferenceData.PROMOTIONS.indexOf(promotion);
+        return f < 0 || p < 0 ? UNASSIGNED : f * PROMOTIONS + p;
+    }
+
+    static String facultyOf(int group) {
+        return ReferenceData.FACULTIES.get(group / PROMOTIONS);
+    }
+
+    static String promotionOf(int group) {
+        return ReferenceData.PROMOTIONS.get(group % PROMOTIONS);
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
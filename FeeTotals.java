@@ -0,0 +1,71 @@
+package ucc.payment.system.fees;
+
+import java.math.BigDecimal;
+
+/**
+ * Situation des frais d'un étudiant ou d'un groupe (filière, promotion, université).
+ */
+public final class FeeTotals {
+    private final long students;
+    private final long dueCents;
+    private final long paidCents;
+    private final long pendingCents;
+    private final long pendingPayments;
+    private final long completedPayments;
+    private final long failedPayments;
+
+    FeeTotals(long students, long dueCents, long paidCents, long pendingCents,
+              long pendingPayments, long completedPayments, long failedPayments) {
+        this.students = students;
+        this.dueCents = dueCents;
+        this.paidCents = paidCents;
+        this.pendingCents = pendingCents;
+        this.pendingPayments = pendingPayments;
+        this.completedPayments = completedPayments;
+        this.failedPayments = failedPayments;
+    }
+
+    // Getters
+    public long getStudents() { return students; }
+    public BigDecimal getDue() { return FeeSchedule.fromCents(dueCents); }
+    public BigDecimal getPaid() { return FeeSchedule.fromCents(paidCents); }
+    public BigDecimal getPending() { return FeeSchedule.fromCents(pendingCents); }
+    public long getPendingPayments() { return pendingPayments; }
+    public long getCompletedPayments() { return completedPayments; }
+    public long getFailedPayments() { return failedPayments; }
+
+    /** Reste à payer (négatif en cas de trop-perçu). */
+    public BigDecimal getRemaining() {
+        return FeeSchedule.fromCents(dueCents - paidCents);
+    }
+
+    /** Part des frais dus déjà payée, entre 0 et 1 (ou plus en cas de trop-perçu). */
+    public double getPaidRatio() {
+        return dueCents == 0 ? 0 : (double) paidCents / dueCents;
+    }
+
+    /** Nombre de paiements enregistrés, tous statuts confondus. */
+    public long getPayments() {
+        return pendingPayments + completedPayments + failedPayments;
+    }
+
+    FeeTotals plus(FeeTotals other) {
+        return new FeeTotals(students + other.students, dueCents + other.dueCents, paidCents + other.paidCents,
+            pendingCents + other.pendingCents, pendingPayments + other.pendingPayments,
+            completedPayments + other.completedPayments,
+            failedPayments + other.failedPayments);
+    }
+
+    boolean sameAs(FeeTotals other) {
+        return students == other.students && dueCents == other.dueCents && paidCents == other.paidCents
+            && pendingCents == other.pendingCents && pendingPayments == other.pendingPayments
+            && completedPayments == other.completedPayments
+            && failedPayments == other.failedPayments;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Frais[étudiants=%d, dû=%s, payé=%s, en attente=%s, reste=%s]",
+            students, getDue(), getPaid(), getPending(), getRemaining());
+    }
+}
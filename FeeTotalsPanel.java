@@ -0,0 +1,80 @@
+package ucc.payment.system.ui;
+
+import ucc.payment.system.fees.FeeLedger;
+import ucc.payment.system.fees.FeeTotals;
+import ucc.payment.system.model.ReferenceData;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * Panneau d'administration : situation des frais par filière et promotion, et total
+ * de l'université, rafraîchie chaque seconde tant que le panneau est affiché.
+ * Les chiffres sont lus dans le {@link FeeLedger}, sans parcourir les paiements.
+ */
+public class FeeTotalsPanel extends JPanel {
+    private static final String[] COLUMNS = {"Filière", "Promotion", "Étudiants", "Dû", "Payé", "En attente", "Reste", "Payé (%)"};
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final FeeLedger ledger;
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final JLabel status = new JLabel(" ");
+    private final Timer refresh = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public FeeTotalsPanel(FeeLedger ledger) {
+        super(new BorderLayout(10, 10));
+        this.ledger = ledger;
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setRowHeight(22);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
+
+        refresh();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refresh.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        model.setRowCount(0);
+        for (String faculty : ReferenceData.FACULTIES) {
+            for (String promotion : ReferenceData.PROMOTIONS) {
+                addRow(faculty, promotion, ledger.totals(faculty, promotion));
+            }
+            addRow(faculty, "Total", ledger.facultyTotals(faculty));
+        }
+        addRow("Université", "Total", ledger.overall());
+        status.setText(ledger.isReady() ? " " : "Calcul des soldes en cours...");
+    }
+
+    private void addRow(String faculty, String promotion, FeeTotals totals) {
+        model.addRow(new Object[] {
+            faculty,
+            promotion,
+            totals.getStudents(),
+            totals.getDue(),
+            totals.getPaid(),
+            totals.getPending(),
+            totals.getRemaining(),
+            String.format("%.1f", totals.getPaidRatio() * 100)
+        });
+    }
+}
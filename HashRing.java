@@ -0,0 +1,120 @@
+package ucc.payment.system.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Anneau de hachage cohérent des nœuds du cluster (immuable).
+ *
+ * <p>Chaque nœud occupe {@value #VIRTUAL_NODES} points de l'anneau ; une clé appartient
+ * aux nœuds distincts rencontrés en tournant depuis son hash. L'ajout d'un nœud ne
+ * déplace que les clés qu'il reprend (environ 1/n), réparties sur tous les autres nœuds.
+ */
+public final class HashRing {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final List<String> members;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * @param members adresses des nœuds (host:port) ; l'ordre et les doublons sont sans effet
+     */
+    public HashRing(Collection<String> members) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Un anneau contient au moins un nœud");
+        }
+        this.members = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(members)));
+        long[][] entries = new long[this.members.size() * VIRTUAL_NODES][];
+        for (int m = 0; m < this.members.size(); m++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                entries[m * VIRTUAL_NODES + v] = new long[] {hash(this.members.get(m) + "#" + v), m};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[entries.length];
+        this.owners = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public List<String> getMembers() {
+        return members;
+    }
+
+    public boolean contains(String member) {
+        return members.contains(member);
+    }
+
+    public HashRing with(String member) {
+        List<String> next = new ArrayList<>(members);
+        next.add(member);
+        return new HashRing(next);
+    }
+
+    /**
+     * Nœuds responsables d'une clé : le primaire puis ses répliques, tous distincts.
+     * @param count nombre de nœuds voulus (borné par la taille du cluster)
+     */
+    public List<String> owners(long keyHash, int count) {
+        int wanted = Math.min(count, members.size());
+        List<String> result = new ArrayList<>(wanted);
+        int start = Arrays.binarySearch(points, keyHash);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        for (int i = 0; i < points.length && result.size() < wanted; i++) {
+            String member = members.get(owners[(start + i) % points.length]);
+            if (!result.contains(member)) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hash 64 bits d'une clé : FNV-1a sur l'UTF-8, puis mélange final de MurmurHash3
+     * pour bien répartir les clés proches (emails numérotés).
+     */
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HashRing)) {
+            return false;
+        }
+        return members.equals(((HashRing) o).members);
+    }
+
+    @Override
+    public int hashCode() {
+        return members.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "HashRing" + members;
+    }
+}
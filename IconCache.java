@@ -0,0 +1,218 @@
+package ucc.payment.system.ui;
+
+import ucc.payment.system.util.VirtualThreads;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache d'icônes partagé par tout le processus, indexé par (ressource, taille).
+ *
+ * <p>Le décodage et la mise à l'échelle se font en arrière-plan : {@link #getIcon}
+ * rend immédiatement une icône qui affiche un espace réservé puis se redessine
+ * quand l'image est prête. La mémoire est bornée (éviction LRU sur la taille
+ * des images décodées).
+ */
+public final class IconCache {
+    private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    private static final Color PLACEHOLDER_COLOR = new Color(255, 255, 255, 60);
+    private static final IconCache SHARED = new IconCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final Map<Key, CompletableFuture<BufferedImage>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ExecutorService decoder =
+        Executors.newFixedThreadPool(2, VirtualThreads.daemonFactory("icon-decoder"));
+    private long currentBytes;
+
+    public IconCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static IconCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Icône carrée de la ressource à la taille donnée ; ne bloque jamais.
+     */
+    public Icon getIcon(String resource, int size) {
+        return new AsyncIcon(getImage(resource, size), size);
+    }
+
+    /**
+     * Image décodée et mise à l'échelle ; lancée en arrière-plan au premier appel.
+     */
+    public CompletableFuture<BufferedImage> getImage(String resource, int size) {
+        Key key = new Key(resource, size);
+        CompletableFuture<BufferedImage> future;
+        boolean created = false;
+        synchronized (this) {
+            future = entries.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                entries.put(key, future);
+                created = true;
+            }
+        }
+        if (created) {
+            CompletableFuture<BufferedImage> target = future;
+            decoder.execute(() -> load(key, target));
+        }
+        return future;
+    }
+
+    /**
+     * Lance le chargement sans attendre, pour préremplir le cache.
+     */
+    public void prefetch(String resource, int size) {
+        getImage(resource, size);
+    }
+
+    private void load(Key key, CompletableFuture<BufferedImage> target) {
+        try {
+            URL url = IconCache.class.getResource(key.resource);
+            if (url == null) {
+                throw new IOException("Ressource introuvable : " + key.resource);
+            }
+            BufferedImage source = ImageIO.read(url);
+            if (source == null) {
+                throw new IOException("Format d'image non reconnu : " + key.resource);
+            }
+            BufferedImage scaled = scale(source, key.size);
+            synchronized (this) {
+                if (entries.get(key) == target) {
+                    currentBytes += bytesOf(scaled);
+                    evictIfNeeded();
+                }
+            }
+            target.complete(scaled);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                entries.remove(key, target);
+            }
+            target.completeExceptionally(e);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    // Appelé sous verrou : retire les entrées chargées les moins récemment utilisées
+    private void evictIfNeeded() {
+        Iterator<CompletableFuture<BufferedImage>> it = entries.values().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            CompletableFuture<BufferedImage> future = it.next();
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                currentBytes -= bytesOf(future.join());
+                it.remove();
+            }
+        }
+    }
+
+    private static long bytesOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+    }
+
+    private static final class Key {
+        final String resource;
+        final int size;
+
+        Key(String resource, int size) {
+            this.resource = resource;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return size == other.size && resource.equals(other.resource);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resource, size);
+        }
+    }
+
+    /**
+     * Icône de taille fixe : espace réservé tant que l'image n'est pas prête,
+     * puis redessin des composants qui l'affichent.
+     */
+    private static final class AsyncIcon implements Icon {
+        private final int size;
+        private final List<WeakReference<Component>> viewers = new ArrayList<>();
+        private volatile Image image;
+
+        AsyncIcon(CompletableFuture<BufferedImage> future, int size) {
+            this.size = size;
+            BufferedImage ready = future.getNow(null);
+            if (ready != null) {
+                image = ready;
+            } else {
+                future.thenAcceptAsync(loaded -> {
+                    image = loaded;
+                    for (WeakReference<Component> ref : viewers) {
+                        Component viewer = ref.get();
+                        if (viewer != null) {
+                            viewer.repaint();
+                        }
+                    }
+                    viewers.clear();
+                }, SwingUtilities::invokeLater);
+            }
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            Image loaded = image;
+            if (loaded != null) {
+                g.drawImage(loaded, x, y, null);
+                return;
+            }
+            // Sur l'EDT : mémorise le composant pour le redessiner au chargement
+            if (c != null && viewers.stream().noneMatch(ref -> ref.get() == c)) {
+                viewers.add(new WeakReference<>(c));
+            }
+            g.setColor(PLACEHOLDER_COLOR);
+            g.fillRoundRect(x, y, size, size, size / 4, size / 4);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return size;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return size;
+        }
+    }
+}
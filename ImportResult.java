@@ -0,0 +1,50 @@
+package ucc.payment.system.enrollment;
+
+/**
+ * Bilan (partiel ou final) d'un import d'inscriptions.
+ */
+public final class ImportResult {
+    private final long read;
+    private final long imported;
+    private final long rejected;
+    private final long duplicates;
+    private final long resumed;
+    private final long elapsedNanos;
+
+    /**
+     * @param read         enregistrements lus dans cette exécution (hors lignes reprises)
+     * @param imported     étudiants enregistrés
+     * @param rejected     lignes invalides (voir le rapport d'erreurs)
+     * @param duplicates   lignes dont l'email est déjà inscrit
+     * @param resumed      lignes déjà traitées par une exécution interrompue, sautées
+     * @param elapsedNanos durée de cette exécution
+     */
+    ImportResult(long read, long imported, long rejected, long duplicates, long resumed, long elapsedNanos) {
+        this.read = read;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.duplicates = duplicates;
+        this.resumed = resumed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Getters
+    public long getRead() { return read; }
+    public long getImported() { return imported; }
+    public long getRejected() { return rejected; }
+    public long getDuplicates() { return duplicates; }
+    public long getResumed() { return resumed; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Débit de l'exécution, en lignes traitées par seconde. */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : read * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Import[lues=%d, importées=%d, rejetées=%d, doublons=%d, reprises=%d, "
+                + "%.1f s, %.0f lignes/s]", read, imported, rejected, duplicates, resumed,
+            elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
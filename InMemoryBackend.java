@@ -0,0 +1,20 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.Student;
+
+import java.util.function.Consumer;
+
+/**
+ * Support sans persistance : les comptes ne vivent que le temps du processus.
+ */
+public class InMemoryBackend implements PersistenceBackend {
+
+    @Override
+    public void loadAll(Consumer<Student> sink) {}
+
+    @Override
+    public void save(Student student) {}
+
+    @Override
+    public void update(Student student) {}
+}
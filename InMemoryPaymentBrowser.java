@@ -0,0 +1,86 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.UserStore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parcours des paiements gardés en mémoire par le {@link PaymentService}, pour le
+ * développement sans base. Mêmes résultats que la table payments ; chaque page est
+ * un parcours complet des paiements, qui ne garde que les lignes de la page.
+ */
+public class InMemoryPaymentBrowser implements PaymentBrowser {
+    private final PaymentService payments;
+    private final UserStore students;
+    // Substitut de payment_id (SERIAL) : attribué à la première lecture, puis stable
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public InMemoryPaymentBrowser(PaymentService payments, UserStore students) {
+        this.payments = payments;
+        this.students = students;
+    }
+
+    @Override
+    public long count(PaymentFilter filter) {
+        long count = 0;
+        for (Payment payment : payments.all()) {
+            if (matches(filter, payment, students.find(payment.getStudentEmail()))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<PaymentRow> page(PaymentFilter filter, PaymentRow after, int skip, int limit) {
+        Comparator<PaymentRow> order = filter.isDescending()
+            ? (a, b) -> b.compareKey(a)
+            : PaymentRow::compareKey;
+        int wanted = skip + limit;
+        // Tas borné : la tête est la moins bien placée des lignes gardées
+        PriorityQueue<PaymentRow> kept = new PriorityQueue<>(wanted + 1, order.reversed());
+        for (Payment payment : payments.all()) {
+            Student student = students.find(payment.getStudentEmail());
+            if (!matches(filter, payment, student)) {
+                continue;
+            }
+            PaymentRow row = toRow(payment, student);
+            if (after != null && order.compare(row, after) <= 0) {
+                continue;
+            }
+            if (kept.size() < wanted) {
+                kept.add(row);
+            } else if (order.compare(row, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(row);
+            }
+        }
+        List<PaymentRow> rows = new ArrayList<>(kept);
+        rows.sort(order);
+        return skip >= rows.size() ? List.of() : new ArrayList<>(rows.subList(skip, rows.size()));
+    }
+
+    private PaymentRow toRow(Payment payment, Student student) {
+        long id = ids.computeIfAbsent(payment.getTransactionId(), key -> nextId.incrementAndGet());
+        return new PaymentRow(id, payment.getTransactionId(), payment.getStudentEmail(),
+            student == null ? "" : student.getName(), student == null ? null : student.getFaculty(),
+            payment.getAmount(), payment.getMethod(), payment.getStatus(), payment.getPaymentDate());
+    }
+
+    private static boolean matches(PaymentFilter filter, Payment payment, Student student) {
+        return (filter.getStatus() == null || filter.getStatus() == payment.getStatus())
+            && (filter.getMethod() == null || filter.getMethod() == payment.getMethod())
+            && (filter.getFaculty() == null || (student != null && filter.getFaculty().equals(student.getFaculty())))
+            && (filter.getFrom() == null || !payment.getPaymentDate().isBefore(filter.getFrom()))
+            && (filter.getTo() == null || payment.getPaymentDate().isBefore(filter.getTo()));
+    }
+}
@@ -0,0 +1,52 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.UserStore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historique tiré des paiements gardés en mémoire par le {@link PaymentService}, pour le
+ * développement sans base (sans vérifications). Chaque page parcourt tous les paiements.
+ */
+public class InMemoryPaymentRepository implements PaymentRepository {
+    private static final Comparator<PaymentRow> NEWEST_FIRST = (a, b) -> b.compareKey(a);
+
+    private final PaymentService payments;
+    private final UserStore students;
+    // Substitut de payment_id (SERIAL) : attribué à la première lecture, puis stable
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public InMemoryPaymentRepository(PaymentService payments, UserStore students) {
+        this.payments = payments;
+        this.students = students;
+    }
+
+    @Override
+    public List<PaymentRow> history(String email, PaymentRow after, int limit) {
+        String key = Student.normalizeEmail(email);
+        Student student = students.find(key);
+        List<PaymentRow> rows = new ArrayList<>();
+        for (Payment payment : payments.all()) {
+            if (!Student.normalizeEmail(payment.getStudentEmail()).equals(key)) {
+                continue;
+            }
+            long id = ids.computeIfAbsent(payment.getTransactionId(), transaction -> nextId.incrementAndGet());
+            PaymentRow row = new PaymentRow(id, payment.getTransactionId(), key,
+                student == null ? "" : student.getName(), student == null ? null : student.getFaculty(),
+                payment.getAmount(), payment.getMethod(), payment.getStatus(), payment.getPaymentDate());
+            if (after == null || NEWEST_FIRST.compare(row, after) > 0) {
+                rows.add(row);
+            }
+        }
+        rows.sort(NEWEST_FIRST);
+        return rows.size() <= limit ? rows : new ArrayList<>(rows.subList(0, limit));
+    }
+}
@@ -0,0 +1,72 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentStatus;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Support en mémoire reproduisant les contraintes de la table payments
+ * (transaction_id unique, statut modifiable seulement depuis "pending").
+ * Sert de substitut à la base pour les essais et le développement.
+ */
+public class InMemoryPaymentStore implements PaymentStore {
+    private final Map<String, Payment> rows = new ConcurrentHashMap<>();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    @Override
+    public void loadAll(Consumer<Payment> sink) {
+        rows.values().forEach(sink);
+    }
+
+    @Override
+    public synchronized void writeBatch(List<Payment> inserts, List<Payment> statusChanges) throws IOException {
+        for (Payment payment : inserts) {
+            if (rows.containsKey(payment.getTransactionId())) {
+                throw new IOException("transaction_id en double : " + payment.getTransactionId());
+            }
+        }
+        for (Payment payment : inserts) {
+            rows.put(payment.getTransactionId(), payment);
+        }
+        for (Payment change : statusChanges) {
+            rows.computeIfPresent(change.getTransactionId(), (id, row) ->
+                row.getStatus() == PaymentStatus.PENDING ? row.withStatus(change.getStatus()) : row);
+        }
+        batches.incrementAndGet();
+        rowsWritten.addAndGet(inserts.size() + statusChanges.size());
+    }
+
+    @Override
+    public Set<String> findExisting(Collection<String> transactionIds) {
+        Set<String> existing = new HashSet<>();
+        for (String transactionId : transactionIds) {
+            if (rows.containsKey(transactionId)) {
+                existing.add(transactionId);
+            }
+        }
+        return existing;
+    }
+
+    public Payment get(String transactionId) {
+        return rows.get(transactionId);
+    }
+
+    /** Nombre d'allers-retours effectués (un par lot). */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+}
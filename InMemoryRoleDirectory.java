@@ -0,0 +1,38 @@
+package ucc.payment.system.security;
+
+import ucc.payment.system.model.Role;
+import ucc.payment.system.model.Student;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rôles sans base de données : tout compte est étudiant, les administrateurs
+ * sont listés par email (propriété système ucc.admin.emails, séparés par des virgules).
+ */
+public class InMemoryRoleDirectory implements RoleDirectory {
+    private final Set<String> adminEmails;
+
+    public InMemoryRoleDirectory(Set<String> adminEmails) {
+        this.adminEmails = adminEmails.stream()
+            .map(Student::normalizeEmail)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static InMemoryRoleDirectory fromSystemProperty() {
+        String emails = System.getProperty("ucc.admin.emails", "");
+        return new InMemoryRoleDirectory(Stream.of(emails.split(","))
+            .map(String::trim)
+            .filter(email -> !email.isEmpty())
+            .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public Set<Role> rolesOf(String email) {
+        return adminEmails.contains(Student.normalizeEmail(email))
+            ? EnumSet.of(Role.STUDENT, Role.ADMIN)
+            : EnumSet.of(Role.STUDENT);
+    }
+}
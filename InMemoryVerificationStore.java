@@ -0,0 +1,25 @@
+package ucc.payment.system.reconciliation;
+
+import ucc.payment.system.model.PaymentVerification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Substitut en mémoire de la table payment_verifications.
+ */
+public class InMemoryVerificationStore implements VerificationStore {
+    private final List<PaymentVerification> rows = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void writeBatch(List<PaymentVerification> verifications) {
+        rows.addAll(verifications);
+    }
+
+    public List<PaymentVerification> getRows() {
+        synchronized (rows) {
+            return new ArrayList<>(rows);
+        }
+    }
+}
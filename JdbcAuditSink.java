@@ -0,0 +1,52 @@
+package ucc.payment.system.audit;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Écrit les événements dans la table activity_logs par batchs JDBC. student_id reste NULL
+ * pour un email absent de students (connexion refusée d'un email inconnu) ; l'email saisi
+ * figure alors dans les détails.
+ */
+public class JdbcAuditSink implements AuditSink {
+    private static final String INSERT_SQL =
+        "INSERT INTO activity_logs (student_id, action, action_date, details) "
+        + "VALUES ((SELECT student_id FROM students WHERE email = ?), ?, ?, CAST(? AS JSONB))";
+
+    private final Supplier<Connection> connections;
+
+    public JdbcAuditSink(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void writeBatch(List<AuditEvent> events) throws IOException {
+        try (Connection conn = connections.get()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (AuditEvent event : events) {
+                    stmt.setString(1, event.getStudentEmail());
+                    stmt.setString(2, event.getAction());
+                    stmt.setTimestamp(3, Timestamp.from(event.getActionDate()));
+                    stmt.setString(4, event.getDetailsJson());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Écriture du journal d'activité impossible", e);
+        }
+    }
+}
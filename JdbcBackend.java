@@ -0,0 +1,154 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.Student;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Support de persistance sur la table students du schéma (voir le fichier "java").
+ */
+public class JdbcBackend implements PersistenceBackend {
+    private static final String INSERT_SQL =
+        "INSERT INTO students (first_name, last_name, email, password_hash, promotion_id, faculty_id) "
+        + "VALUES (?, ?, ?, ?, "
+        + "(SELECT promotion_id FROM promotions WHERE promotion_name = ?), "
+        + "(SELECT faculty_id FROM faculties WHERE faculty_code = ?))";
+    private static final String SELECT_SQL =
+        "SELECT s.first_name, s.last_name, s.email, s.password_hash, p.promotion_name, f.faculty_code "
+        + "FROM students s "
+        + "LEFT JOIN promotions p ON p.promotion_id = s.promotion_id "
+        + "LEFT JOIN faculties f ON f.faculty_id = s.faculty_id "
+        + "WHERE s.is_active ORDER BY s.student_id";
+
+    private static final String UPDATE_HASH_SQL =
+        "UPDATE students SET password_hash = ? WHERE email = ?";
+    private static final String EXISTING_SQL =
+        "SELECT email FROM students WHERE email = ANY (?)";
+
+    // L'interface affiche "Médecine", le schéma utilise le code FM
+    private static final String UI_MEDICINE = "Médecine";
+    private static final String CODE_MEDICINE = "FM";
+
+    private final Supplier<Connection> connections;
+
+    /**
+     * @param connections fournit une connexion (pool, DriverManager...) ; elle est fermée après usage
+     */
+    public JdbcBackend(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void loadAll(Consumer<Student> sink) throws IOException {
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String faculty = rs.getString(6);
+                sink.accept(Student.restore(
+                    (rs.getString(1) + " " + rs.getString(2)).trim(),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getString(5),
+                    CODE_MEDICINE.equals(faculty) ? UI_MEDICINE : faculty
+                ));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Lecture des étudiants impossible", e);
+        }
+    }
+
+    @Override
+    public void save(Student student) throws IOException {
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            bindInsert(stmt, student);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("Enregistrement de l'étudiant impossible", e);
+        }
+    }
+
+    /**
+     * Insère le lot en une transaction (executeBatch) : tout le lot ou rien.
+     */
+    @Override
+    public void saveAll(List<Student> students) throws IOException {
+        try (Connection conn = connections.get()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (Student student : students) {
+                    bindInsert(stmt, student);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Enregistrement du lot d'étudiants impossible", e);
+        }
+    }
+
+    @Override
+    public void update(Student student) throws IOException {
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_HASH_SQL)) {
+            stmt.setString(1, student.getPasswordHash());
+            stmt.setString(2, student.getEmail());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("Mise à jour de l'étudiant impossible", e);
+        }
+    }
+
+    /**
+     * Une seule requête par l'index unique de email (les emails sont enregistrés normalisés).
+     */
+    @Override
+    public Set<String> findExisting(Collection<String> emails) throws IOException {
+        Set<String> existing = new HashSet<>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(EXISTING_SQL)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", emails.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(Student.normalizeEmail(rs.getString(1)));
+                }
+            }
+            return existing;
+        } catch (SQLException e) {
+            throw new IOException("Lecture des emails existants impossible", e);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement stmt, Student student) throws SQLException {
+        String name = student.getName();
+        int split = name.indexOf(' ');
+        String faculty = student.getFaculty();
+        stmt.setString(1, split < 0 ? name : name.substring(0, split));
+        stmt.setString(2, split < 0 ? "" : name.substring(split + 1).trim());
+        stmt.setString(3, student.getEmail());
+        stmt.setString(4, student.getPasswordHash());
+        stmt.setString(5, student.getPromotion());
+        stmt.setString(6, UI_MEDICINE.equals(faculty) ? CODE_MEDICINE : faculty);
+    }
+}
@@ -0,0 +1,45 @@
+package ucc.payment.system.fees;
+
+import ucc.payment.system.model.ReferenceData;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Lecture du barème depuis la table fee_schedules du schéma (voir le fichier "java").
+ */
+public final class JdbcFeeSchedules {
+    private static final String SELECT_SQL =
+        "SELECT f.faculty_code, p.promotion_name, s.amount_due FROM fee_schedules s "
+        + "JOIN faculties f ON f.faculty_id = s.faculty_id "
+        + "JOIN promotions p ON p.promotion_id = s.promotion_id";
+
+    private JdbcFeeSchedules() {}
+
+    /**
+     * @param fallback montant des groupes absents de la table
+     */
+    public static FeeSchedule load(Supplier<Connection> connections, BigDecimal fallback) throws IOException {
+        FeeSchedule schedule = new FeeSchedule(fallback);
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                // Le schéma utilise le code FM, l'interface "Médecine"
+                String faculty = ReferenceData.matchFaculty(rs.getString(1));
+                String promotion = ReferenceData.matchPromotion(rs.getString(2));
+                if (faculty != null && promotion != null) {
+                    schedule = schedule.with(faculty, promotion, rs.getBigDecimal(3));
+                }
+            }
+            return schedule;
+        } catch (SQLException e) {
+            throw new IOException("Lecture du barème des frais impossible", e);
+        }
+    }
+}
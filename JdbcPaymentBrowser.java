@@ -0,0 +1,137 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.ReferenceData;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Parcours de la table payments. Chaque page est une requête
+ * {@code WHERE (payment_date, payment_id) > (?, ?) ORDER BY payment_date, payment_id LIMIT ?}
+ * servie par l'index idx_payments_date_id (voir le fichier "java") : son coût ne dépend
+ * pas de la position dans le registre.
+ */
+public class JdbcPaymentBrowser implements PaymentBrowser {
+    private static final String SELECT_COLUMNS =
+        "SELECT p.payment_id, p.transaction_id, COALESCE(s.email, ''), COALESCE(s.first_name, ''), "
+        + "COALESCE(s.last_name, ''), f.faculty_code, p.amount, p.method_id, p.status, p.payment_date ";
+    // Jointures externes : un paiement sans étudiant (student_id NULL) reste listé
+    private static final String FROM_CLAUSE =
+        "FROM payments p LEFT JOIN students s ON s.student_id = p.student_id "
+        + "LEFT JOIN faculties f ON f.faculty_id = s.faculty_id "
+        + "WHERE p.transaction_id IS NOT NULL AND p.payment_date IS NOT NULL";
+
+    // L'interface affiche "Médecine", le schéma utilise le code FM
+    private static final String UI_MEDICINE = "Médecine";
+    private static final String CODE_MEDICINE = "FM";
+
+    private final Supplier<Connection> connections;
+
+    /**
+     * @param connections fournit une connexion (pool, DriverManager...) ; elle est fermée après usage
+     */
+    public JdbcPaymentBrowser(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public long count(PaymentFilter filter) throws IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*) " + FROM_CLAUSE + where(filter, params);
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Comptage des paiements impossible", e);
+        }
+    }
+
+    @Override
+    public List<PaymentRow> page(PaymentFilter filter, PaymentRow after, int skip, int limit) throws IOException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(FROM_CLAUSE).append(where(filter, params));
+        String direction = filter.isDescending() ? "DESC" : "ASC";
+        if (after != null) {
+            // Comparaison de lignes : une seule borne d'index, pas de OR
+            sql.append(" AND (p.payment_date, p.payment_id) ").append(filter.isDescending() ? "<" : ">").append(" (?, ?)");
+            params.add(Timestamp.from(after.getPaymentDate()));
+            params.add(after.getPaymentId());
+        }
+        sql.append(" ORDER BY p.payment_date ").append(direction).append(", p.payment_id ").append(direction)
+            .append(" LIMIT ?");
+        params.add(limit);
+        if (skip > 0) {
+            sql.append(" OFFSET ?");
+            params.add(skip);
+        }
+
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            stmt.setFetchSize(limit);
+            List<PaymentRow> rows = new ArrayList<>(limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new PaymentRow(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        (rs.getString(4) + " " + rs.getString(5)).trim(),
+                        ReferenceData.matchFaculty(rs.getString(6)),
+                        rs.getBigDecimal(7),
+                        PaymentMethod.fromMethodId(rs.getInt(8)),
+                        PaymentStatus.fromDbValue(rs.getString(9)),
+                        rs.getTimestamp(10).toInstant()
+                    ));
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new IOException("Lecture des paiements impossible", e);
+        }
+    }
+
+    private static String where(PaymentFilter filter, List<Object> params) {
+        StringBuilder where = new StringBuilder();
+        if (filter.getStatus() != null) {
+            where.append(" AND p.status = ?");
+            params.add(filter.getStatus().getDbValue());
+        }
+        if (filter.getMethod() != null) {
+            where.append(" AND p.method_id = ?");
+            params.add(filter.getMethod().getMethodId());
+        }
+        if (filter.getFaculty() != null) {
+            where.append(" AND f.faculty_code = ?");
+            params.add(UI_MEDICINE.equals(filter.getFaculty()) ? CODE_MEDICINE : filter.getFaculty());
+        }
+        if (filter.getFrom() != null) {
+            where.append(" AND p.payment_date >= ?");
+            params.add(Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            where.append(" AND p.payment_date < ?");
+            params.add(Timestamp.from(filter.getTo()));
+        }
+        return where.toString();
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.model.VerificationStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Historique lu dans les tables payments et payment_verifications. Chaque page est une
+ * requête {@code WHERE s.email = ? AND (payment_date, payment_id) < (?, ?)
+ * ORDER BY payment_date DESC, payment_id DESC LIMIT ?} servie par l'index
+ * idx_payments_student_date_id (voir le fichier "java") ; la dernière vérification de
+ * chaque ligne vient de idx_verifications_payment_date.
+ *
+ * <p>Les connexions sont gardées ouvertes (au plus {@value #MAX_CONNECTIONS}) avec leurs
+ * requêtes préparées : la même requête n'est analysée qu'une fois par connexion, et le
+ * pilote PostgreSQL passe à un plan préparé côté serveur après quelques exécutions.
+ */
+public class JdbcPaymentRepository implements PaymentRepository, AutoCloseable {
+    private static final int MAX_CONNECTIONS = 4;
+    private static final int MAX_STATEMENTS_PER_CONNECTION = 16;
+    private static final String SELECT_SQL =
+        "SELECT p.payment_id, p.transaction_id, s.email, s.first_name, s.last_name, f.faculty_code, "
+        + "p.amount, p.method_id, p.status, p.payment_date, v.verification_status "
+        + "FROM students s JOIN payments p ON p.student_id = s.student_id "
+        + "LEFT JOIN faculties f ON f.faculty_id = s.faculty_id "
+        + "LEFT JOIN LATERAL (SELECT pv.verification_status FROM payment_verifications pv "
+        + "WHERE pv.payment_id = p.payment_id "
+        + "ORDER BY pv.verification_date DESC, pv.verification_id DESC LIMIT 1) v ON TRUE "
+        + "WHERE s.email = ? AND p.transaction_id IS NOT NULL AND p.payment_date IS NOT NULL";
+    private static final String ORDER_SQL = " ORDER BY p.payment_date DESC, p.payment_id DESC LIMIT ?";
+    private static final String FIRST_PAGE_SQL = SELECT_SQL + ORDER_SQL;
+    // Comparaison de lignes : une seule borne d'index, pas de OR
+    private static final String NEXT_PAGE_SQL = SELECT_SQL + " AND (p.payment_date, p.payment_id) < (?, ?)" + ORDER_SQL;
+
+    private final Supplier<Connection> connections;
+    private final BlockingQueue<StatementCache> idle = new ArrayBlockingQueue<>(MAX_CONNECTIONS);
+    private final Semaphore permits = new Semaphore(MAX_CONNECTIONS);
+    private volatile boolean closed;
+
+    /**
+     * @param connections ouvre une connexion ; elle reste ouverte jusqu'à une erreur ou {@link #close}
+     */
+    public JdbcPaymentRepository(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public List<PaymentRow> history(String email, PaymentRow after, int limit) throws IOException {
+        StatementCache cache = borrow();
+        boolean healthy = false;
+        try {
+            PreparedStatement stmt = cache.prepare(after == null ? FIRST_PAGE_SQL : NEXT_PAGE_SQL);
+            int index = 1;
+            stmt.setString(index++, Student.normalizeEmail(email));
+            if (after != null) {
+                stmt.setTimestamp(index++, Timestamp.from(after.getPaymentDate()));
+                stmt.setLong(index++, after.getPaymentId());
+            }
+            stmt.setInt(index, limit);
+            stmt.setFetchSize(limit);
+            List<PaymentRow> rows = new ArrayList<>(Math.min(limit, 64));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String verification = rs.getString(11);
+                    rows.add(new PaymentRow(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        (rs.getString(4) + " " + rs.getString(5)).trim(),
+                        ReferenceData.matchFaculty(rs.getString(6)),
+                        rs.getBigDecimal(7),
+                        PaymentMethod.fromMethodId(rs.getInt(8)),
+                        PaymentStatus.fromDbValue(rs.getString(9)),
+                        rs.getTimestamp(10).toInstant(),
+                        verification == null ? null : VerificationStatus.fromDbValue(verification)
+                    ));
+                }
+            }
+            healthy = true;
+            return rows;
+        } catch (SQLException e) {
+            throw new IOException("Lecture de l'historique des paiements impossible", e);
+        } finally {
+            release(cache, healthy);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        StatementCache cache;
+        while ((cache = idle.poll()) != null) {
+            cache.close();
+        }
+    }
+
+    private StatementCache borrow() throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Attente d'une connexion interrompue");
+        }
+        StatementCache cache = idle.poll();
+        if (cache != null) {
+            return cache;
+        }
+        try {
+            return new StatementCache(connections.get());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw new IOException("Connexion à la base impossible", e);
+        }
+    }
+
+    /**
+     * Rend la connexion, ou la ferme après une erreur (elle sera rouverte au besoin).
+     */
+    private void release(StatementCache cache, boolean healthy) {
+        if (healthy && !closed && idle.offer(cache)) {
+            permits.release();
+            return;
+        }
+        cache.close();
+        permits.release();
+    }
+
+    /**
+     * Connexion et ses requêtes préparées, les moins récemment utilisées fermées au-delà
+     * de {@value #MAX_STATEMENTS_PER_CONNECTION}. Utilisée par un seul thread à la fois.
+     */
+    private static final class StatementCache {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements =
+            new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= MAX_STATEMENTS_PER_CONNECTION) {
+                        return false;
+                    }
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+
+        StatementCache(Connection connection) {
+            this.connection = connection;
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(sql);
+                statements.put(sql, stmt);
+            }
+            return stmt;
+        }
+
+        void close() {
+            statements.values().forEach(StatementCache::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // fermeture au mieux
+            }
+        }
+
+        private static void closeQuietly(PreparedStatement stmt) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                // fermeture au mieux
+            }
+        }
+    }
+}
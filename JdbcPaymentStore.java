@@ -0,0 +1,176 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Registre des paiements sur la table payments du schéma (voir le fichier "java").
+ * Chaque lot est écrit en une transaction avec des batchs JDBC.
+ */
+public class JdbcPaymentStore implements PaymentStore {
+    // Aucune ligne insérée si l'email est inconnu de students (voir insertAll)
+    private static final String INSERT_SQL =
+        "INSERT INTO payments (student_id, amount, payment_date, method_id, operator_id, transaction_id, status) "
+        + "SELECT s.student_id, ?, ?, ?, ?, ?, ? FROM students s WHERE s.email = ?";
+    private static final String UPDATE_STATUS_SQL =
+        "UPDATE payments SET status = ? WHERE transaction_id = ? AND status = 'pending'";
+    // Jointure externe : une ligne sans étudiant (student_id NULL) reste chargée pour que
+    // son transaction_id soit connu du registre
+    private static final String SELECT_SQL =
+        "SELECT p.transaction_id, COALESCE(s.email, ''), p.amount, p.method_id, p.status, p.payment_date "
+        + "FROM payments p LEFT JOIN students s ON s.student_id = p.student_id "
+        + "WHERE p.transaction_id IS NOT NULL ORDER BY p.payment_id";
+    private static final String EXISTING_SQL =
+        "SELECT transaction_id FROM payment_transactions WHERE transaction_id = ANY (?)";
+    private static final String ENSURE_PARTITIONS_SQL = "SELECT payments_ensure_partitions(?)";
+
+    private final Supplier<Connection> connections;
+
+    /**
+     * @param connections fournit une connexion (pool, DriverManager...) ; elle est fermée après usage
+     */
+    public JdbcPaymentStore(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * Crée les partitions annuelles de payments qui manquent, de l'année en cours à
+     * {@code yearsAhead} années plus tard (fonction payments_ensure_partitions du schéma).
+     * Sans elles, les paiements tombent dans payments_default.
+     * @return le nombre de partitions créées
+     */
+    public int ensurePartitions(int yearsAhead) throws IOException {
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(ENSURE_PARTITIONS_SQL)) {
+            stmt.setInt(1, yearsAhead);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new IOException("Création des partitions de paiements impossible", e);
+        }
+    }
+
+    @Override
+    public void loadAll(Consumer<Payment> sink) throws IOException {
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                sink.accept(new Payment(
+                    rs.getString(1),
+                    rs.getString(2),
+                    rs.getBigDecimal(3),
+                    PaymentMethod.fromMethodId(rs.getInt(4)),
+                    PaymentStatus.fromDbValue(rs.getString(5)),
+                    rs.getTimestamp(6).toInstant()
+                ));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Lecture des paiements impossible", e);
+        }
+    }
+
+    @Override
+    public void writeBatch(List<Payment> inserts, List<Payment> statusChanges) throws IOException {
+        try (Connection conn = connections.get()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                if (!inserts.isEmpty()) {
+                    insertAll(conn, inserts);
+                }
+                if (!statusChanges.isEmpty()) {
+                    updateAll(conn, statusChanges);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Écriture du lot de paiements impossible", e);
+        }
+    }
+
+    /**
+     * Une seule requête par l'index unique de payment_transactions (unicité de transaction_id
+     * sur toutes les partitions de payments).
+     */
+    @Override
+    public Set<String> findExisting(Collection<String> transactionIds) throws IOException {
+        Set<String> existing = new HashSet<>();
+        if (transactionIds.isEmpty()) {
+            return existing;
+        }
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(EXISTING_SQL)) {
+            stmt.setArray(1, conn.createArrayOf("varchar", transactionIds.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+            return existing;
+        } catch (SQLException e) {
+            throw new IOException("Lecture des transactions existantes impossible", e);
+        }
+    }
+
+    /**
+     * @throws SQLException si l'étudiant d'un paiement est absent de students : le lot
+     *                      est annulé plutôt que d'insérer un paiement sans étudiant
+     */
+    private void insertAll(Connection conn, List<Payment> payments) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            for (Payment payment : payments) {
+                stmt.setBigDecimal(1, payment.getAmount());
+                stmt.setTimestamp(2, Timestamp.from(payment.getPaymentDate()));
+                stmt.setInt(3, payment.getMethod().getMethodId());
+                if (payment.getMethod().isMobileMoney()) {
+                    stmt.setInt(4, payment.getMethod().getOperatorId());
+                } else {
+                    stmt.setNull(4, Types.INTEGER);
+                }
+                stmt.setString(5, payment.getTransactionId());
+                stmt.setString(6, payment.getStatus().getDbValue());
+                stmt.setString(7, payment.getStudentEmail());
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new SQLException("Étudiant inconnu de la base : " + payments.get(i).getStudentEmail());
+                }
+            }
+        }
+    }
+
+    private void updateAll(Connection conn, List<Payment> changes) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
+            for (Payment change : changes) {
+                stmt.setString(1, change.getStatus().getDbValue());
+                stmt.setString(2, change.getTransactionId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ucc.payment.system.security;
+
+import ucc.payment.system.model.Role;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Lit les rôles d'un compte dans les tables student_roles et roles.
+ */
+public class JdbcRoleDirectory implements RoleDirectory {
+    private static final String SELECT_SQL =
+        "SELECT r.role_name FROM roles r "
+        + "JOIN student_roles sr ON sr.role_id = r.role_id "
+        + "JOIN students s ON s.student_id = sr.student_id "
+        + "WHERE s.email = ?";
+
+    private final Supplier<Connection> connections;
+
+    public JdbcRoleDirectory(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public Set<Role> rolesOf(String email) throws IOException {
+        Set<Role> roles = EnumSet.of(Role.STUDENT);
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL)) {
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    roles.add(Role.fromDbValue(rs.getString(1)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Lecture des rôles impossible", e);
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,45 @@
+package ucc.payment.system.reconciliation;
+
+import ucc.payment.system.model.PaymentVerification;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Écrit les vérifications dans la table payment_verifications par batchs JDBC.
+ */
+public class JdbcVerificationStore implements VerificationStore {
+    private static final String INSERT_SQL =
+        "INSERT INTO payment_verifications (payment_id, verification_date, verified_by, verification_status) "
+        + "VALUES ((SELECT payment_id FROM payment_transactions WHERE transaction_id = ?), ?, ?, ?)";
+
+    private final Supplier<Connection> connections;
+
+    public JdbcVerificationStore(Supplier<Connection> connections) {
+        this.connections = connections;
+    }
+
+    @Override
+    public void writeBatch(List<PaymentVerification> verifications) throws IOException {
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            conn.setAutoCommit(false);
+            for (PaymentVerification verification : verifications) {
+                stmt.setString(1, verification.getTransactionId());
+                stmt.setTimestamp(2, Timestamp.from(verification.getVerificationDate()));
+                stmt.setString(3, verification.getVerifiedBy());
+                stmt.setString(4, verification.getStatus().getDbValue());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            throw new IOException("Écriture des vérifications impossible", e);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.Student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Persistance locale des inscriptions : journal en ajout seul projeté en mémoire
+ * (MappedByteBuffer) et snapshot compacté pour un redémarrage rapide.
+ *
+ * <p>Format d'un enregistrement du journal : [longueur int][crc32 int][données].
+ * Le fichier est pré-alloué (rempli de zéros) : une longueur nulle marque la fin.
+ * À la relecture, un enregistrement tronqué ou corrompu en fin de journal (écriture
+ * interrompue par un arrêt brutal) termine le journal et la suite est effacée ; si des
+ * enregistrements valides le suivent, le chargement échoue au lieu de les écraser.
+ *
+ * <p>Un seul processus à la fois : un verrou exclusif sur {@code students.lock} est pris
+ * à l'ouverture et rendu à la fermeture.
+ *
+ * <p>Validation groupée (group commit) : chaque {@link #save} attend que sa
+ * position soit durable, mais un seul force() couvre tous les enregistrements
+ * ajoutés entre-temps par les autres threads.
+ */
+public class JournalBackend implements PersistenceBackend {
+    private static final String JOURNAL_FILE = "students.journal";
+    private static final String SNAPSHOT_FILE = "students.snapshot";
+    private static final String LOCK_FILE = "students.lock";
+    private static final int SNAPSHOT_MAGIC = 0x55434353; // "UCCS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_MAPPING = 4 * 1024 * 1024;
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final FileChannel journal;
+    private final int compactionThreshold;
+
+    // Protégés par appendLock
+    private final Object appendLock = new Object();
+    private MappedByteBuffer mapping;
+    private int writePosition;
+    private int journalRecords;
+    private long appendedBytes; // position logique croissante, jamais remise à zéro
+
+    // Protégé par syncLock ; lu sans verrou pour le chemin rapide
+    private final Object syncLock = new Object();
+    private volatile long durablePosition;
+
+    private JournalBackend(Path directory, int compactionThreshold) throws IOException {
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+        Files.createDirectories(directory);
+        this.lockChannel = lockDirectory(directory);
+        try {
+            this.journal = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.mapping = journal.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(INITIAL_MAPPING, journal.size()));
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Verrou exclusif sur le répertoire : échoue immédiatement si une caisse, un import
+     * ou une génération de reçus l'utilise déjà. Le verrou vit tant que le canal est ouvert.
+     */
+    private static FileChannel lockDirectory(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Répertoire de données déjà utilisé par un autre processus : " + directory);
+        }
+        return channel;
+    }
+
+    /**
+     * Ouvre (ou crée) le journal et le snapshot dans le répertoire donné.
+     */
+    public static JournalBackend open(Path directory) throws IOException {
+        return new JournalBackend(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param compactionThreshold nombre d'enregistrements du journal au-delà duquel
+     *                            le chargement déclenche une compaction
+     */
+    public static JournalBackend open(Path directory, int compactionThreshold) throws IOException {
+        return new JournalBackend(directory, compactionThreshold);
+    }
+
+    /**
+     * Relit le snapshot puis rejoue le journal. Un doublon (crash pendant une
+     * compaction) est sans effet : le store indexe par email.
+     */
+    @Override
+    public void loadAll(Consumer<Student> sink) throws IOException {
+        readSnapshot(payload -> sink.accept(StudentCodec.decode(payload)));
+        synchronized (appendLock) {
+            recoverJournal(sink);
+            appendedBytes = writePosition;
+            durablePosition = appendedBytes;
+        }
+        if (journalRecords >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    @Override
+    public void save(Student student) throws IOException {
+        byte[] payload = StudentCodec.encode(student);
+        long end;
+        synchronized (appendLock) {
+            end = append(payload);
+        }
+        awaitDurable(end);
+    }
+
+    /**
+     * Ajoute tout le lot sous un seul verrou, puis attend un seul force().
+     */
+    @Override
+    public void saveAll(List<Student> students) throws IOException {
+        byte[][] payloads = new byte[students.size()][];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = StudentCodec.encode(students.get(i));
+        }
+        long end = 0;
+        synchronized (appendLock) {
+            for (byte[] payload : payloads) {
+                end = append(payload);
+            }
+        }
+        if (end > 0) {
+            awaitDurable(end);
+        }
+    }
+
+    /**
+     * Le journal est rejoué dans l'ordre : la dernière version d'un email l'emporte.
+     */
+    @Override
+    public void update(Student student) throws IOException {
+        save(student);
+    }
+
+    /**
+     * Fusionne snapshot et journal dans un nouveau snapshot puis vide le journal :
+     * seul le dernier enregistrement de chaque email (normalisé) est conservé.
+     * Les ajouts sont suspendus pendant l'opération.
+     */
+    public void compact() throws IOException {
+        synchronized (appendLock) {
+            // Copies des enregistrements : le snapshot lu est remplacé avant la fin
+            Map<String, byte[]> latest = new LinkedHashMap<>();
+            Consumer<ByteBuffer> keepLatest = payload -> {
+                byte[] bytes = new byte[payload.remaining()];
+                payload.duplicate().get(bytes);
+                String email = StudentCodec.decode(ByteBuffer.wrap(bytes)).getEmail();
+                latest.put(Student.normalizeEmail(email), bytes);
+            };
+            readSnapshot(keepLatest);
+            ByteBuffer records = mapping.duplicate();
+            records.position(0).limit(writePosition);
+            forEachRecord(records, keepLatest);
+
+            Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                SnapshotWriter writer = new SnapshotWriter(out);
+                try {
+                    for (byte[] payload : latest.values()) {
+                        writer.write(ByteBuffer.wrap(payload));
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                writer.finish();
+                out.force(true);
+            }
+            Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            zeroJournal(0, writePosition);
+            mapping.force();
+            writePosition = 0;
+            journalRecords = 0;
+            durablePosition = appendedBytes;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            mapping.force();
+        }
+        try {
+            if (journalRecords > 0) {
+                compact();
+            }
+            journal.close();
+        } finally {
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Écrit un enregistrement à la fin du journal (appendLock tenu).
+     * @return la position logique de fin de l'enregistrement
+     */
+    private long append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ensureCapacity(HEADER_SIZE + payload.length);
+        mapping.putInt(writePosition, payload.length);
+        mapping.putInt(writePosition + Integer.BYTES, (int) crc.getValue());
+        mapping.put(writePosition + HEADER_SIZE, payload);
+        writePosition += HEADER_SIZE + payload.length;
+        appendedBytes += HEADER_SIZE + payload.length;
+        journalRecords++;
+        return appendedBytes;
+    }
+
+    private void awaitDurable(long end) {
+        if (durablePosition >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            // Un autre thread a pu forcer le disque pendant l'attente du verrou
+            if (durablePosition >= end) {
+                return;
+            }
+            MappedByteBuffer current;
+            long target;
+            synchronized (appendLock) {
+                current = mapping;
+                target = appendedBytes;
+            }
+            current.force();
+            if (target > durablePosition) {
+                durablePosition = target;
+            }
+        }
+    }
+
+    private void ensureCapacity(int recordSize) throws IOException {
+        // +HEADER_SIZE : garde toujours une longueur nulle après le dernier enregistrement
+        long required = (long) writePosition + recordSize + HEADER_SIZE;
+        if (required <= mapping.capacity()) {
+            return;
+        }
+        long newSize = mapping.capacity();
+        while (newSize < required) {
+            newSize *= 2;
+        }
+        if (newSize > Integer.MAX_VALUE) {
+            throw new IOException("Journal plein : compaction nécessaire");
+        }
+        mapping.force();
+        mapping = journal.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+    }
+
+    private void recoverJournal(Consumer<Student> sink) throws IOException {
+        ByteBuffer records = mapping.duplicate();
+        journalRecords = forEachRecord(records, payload -> sink.accept(StudentCodec.decode(payload)));
+        writePosition = records.position();
+        int dirtyEnd = mapping.capacity();
+        while (dirtyEnd > writePosition && mapping.get(dirtyEnd - 1) == 0) {
+            dirtyEnd--;
+        }
+        // Un enregistrement valide après le point d'arrêt : corruption au milieu du
+        // journal, pas une fin d'écriture interrompue. Reprendre ici effacerait la suite.
+        int next = findValidRecord(writePosition + 1, dirtyEnd);
+        if (next >= 0) {
+            throw new IOException("Journal corrompu à la position " + writePosition
+                + " (enregistrement valide à " + next + ") : " + directory.resolve(JOURNAL_FILE));
+        }
+        // Efface l'enregistrement tronqué pour que les ajouts repartent d'une zone propre
+        if (dirtyEnd > writePosition) {
+            zeroJournal(writePosition, dirtyEnd);
+            mapping.force();
+        }
+    }
+
+    /**
+     * Cherche, octet par octet, un enregistrement dont la longueur tient dans la zone,
+     * le CRC concorde et les données se décodent. Ne sert qu'après un arrêt de la
+     * relecture, sur la zone non nulle qui suit.
+     * @return la position de l'enregistrement trouvé, ou -1
+     */
+    private int findValidRecord(int from, int to) {
+        CRC32 crc = new CRC32();
+        for (int start = from; start + HEADER_SIZE < to; start++) {
+            int length = mapping.getInt(start);
+            if (length <= 0 || length > to - start - HEADER_SIZE) {
+                continue;
+            }
+            ByteBuffer payload = mapping.duplicate();
+            payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != mapping.getInt(start + Integer.BYTES)) {
+                continue;
+            }
+            try {
+                StudentCodec.decode(payload);
+                return start;
+            } catch (IllegalArgumentException e) {
+                // CRC concordant par hasard : on continue
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parcourt les enregistrements valides à partir de la position du buffer et
+     * s'arrête au premier invalide ; la position indique alors la fin valide.
+     * @return le nombre d'enregistrements lus
+     */
+    private static int forEachRecord(ByteBuffer records, Consumer<ByteBuffer> consumer) {
+        int count = 0;
+        CRC32 crc = new CRC32();
+        while (records.remaining() >= HEADER_SIZE) {
+            int start = records.position();
+            int length = records.getInt(start);
+            int checksum = records.getInt(start + Integer.BYTES);
+            if (length <= 0 || length > records.limit() - start - HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer payload = records.duplicate();
+            payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            try {
+                consumer.accept(payload);
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            records.position(start + HEADER_SIZE + length);
+            count++;
+        }
+        return count;
+    }
+
+    private void readSnapshot(Consumer<ByteBuffer> consumer) throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            if (data.remaining() < 3 * Integer.BYTES
+                    || data.getInt() != SNAPSHOT_MAGIC || data.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Snapshot illisible : " + path);
+            }
+            int expected = data.getInt();
+            ByteBuffer records = data.slice();
+            int count = forEachRecord(records, consumer);
+            if (count != expected || records.remaining() != 0) {
+                throw new IOException("Snapshot corrompu : " + path);
+            }
+        }
+    }
+
+    private void zeroJournal(int from, int to) {
+        byte[] zeros = new byte[Math.min(64 * 1024, Math.max(0, to - from))];
+        for (int i = from; i < to; i += zeros.length) {
+            mapping.put(i, zeros, 0, Math.min(zeros.length, to - i));
+        }
+    }
+
+    /**
+     * Écrit un snapshot : [magic][version][nombre][enregistrements au format du journal].
+     */
+    private static final class SnapshotWriter {
+        private final FileChannel out;
+        private final ByteBuffer staging = ByteBuffer.allocateDirect(1024 * 1024);
+        private final CRC32 crc = new CRC32();
+        private int count;
+
+        SnapshotWriter(FileChannel out) throws IOException {
+            this.out = out;
+            staging.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(0);
+        }
+
+        void write(ByteBuffer payload) {
+            try {
+                if (staging.remaining() < HEADER_SIZE + payload.remaining()) {
+                    flush();
+                }
+                crc.reset();
+                crc.update(payload.duplicate());
+                staging.putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(0, count);
+            out.write(header, 2 * Integer.BYTES);
+        }
+
+        private void flush() throws IOException {
+            staging.flip();
+            while (staging.hasRemaining()) {
+                out.write(staging);
+            }
+            staging.clear();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ucc.payment.system.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON minimal, sans dépendance : écriture d'objets à partir de paires clé/valeur
+ * et lecture d'objets plats (valeurs chaîne, nombre, booléen ou null).
+ */
+public final class Json {
+
+    private Json() {}
+
+    /**
+     * Objet JSON à partir de paires clé, valeur. Les nombres et booléens sont écrits
+     * tels quels, le reste comme chaîne.
+     */
+    public static String object(Object... keyValues) {
+        StringBuilder json = new StringBuilder(32 + keyValues.length * 16).append('{');
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, String.valueOf(keyValues[i]));
+            json.append(':');
+            appendValue(json, keyValues[i + 1]);
+        }
+        return json.append('}').toString();
+    }
+
+    public static void appendValue(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    public static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Lit un objet plat. Les nombres et booléens sont rendus sous forme de texte.
+     * @throws IllegalArgumentException si le texte n'est pas un objet JSON plat valide
+     */
+    public static Map<String, String> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, String> values = new LinkedHashMap<>();
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String key = parser.readString();
+                parser.expect(':');
+                values.put(key, parser.readValue());
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return values;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("'" + c + "' attendu");
+            }
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("fin attendue");
+            }
+        }
+
+        String readValue() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("valeur attendue");
+            }
+            if (text.charAt(pos) == '"') {
+                return readString();
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || !(literal.equals("true") || literal.equals("false") || isNumber(literal))) {
+                throw error("valeur non prise en charge");
+            }
+            return literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("échappement incomplet");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("échappement invalide");
+                        }
+                        pos += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+            throw error("chaîne non terminée");
+        }
+
+        private static boolean isNumber(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                char c = literal.charAt(i);
+                if (!(c >= '0' && c <= '9') && "+-.eE".indexOf(c) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("JSON invalide (position " + pos + ") : " + reason);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ucc.payment.system.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Journal d'activité local, une ligne JSON par événement, quand aucune base n'est configurée.
+ */
+public class JsonLinesAuditSink implements AuditSink {
+    private final BufferedWriter writer;
+
+    public JsonLinesAuditSink(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void writeBatch(List<AuditEvent> events) throws IOException {
+        for (AuditEvent event : events) {
+            writer.write(event.toJsonLine());
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,130 @@
+package ucc.payment.system.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences à précision relative constante, sur le principe de HdrHistogram :
+ * chaque puissance de deux est découpée en 32 intervalles (erreur relative inférieure à 3,2 %).
+ *
+ * <p>{@link #record} est sans verrou et sans allocation : un calcul d'indice puis
+ * quelques incréments atomiques. Les percentiles se calculent sur un {@link Snapshot}.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Valeurs < 2^62 ns : 32 cases linéaires puis 58 puissances de deux de 32 cases
+    private static final int BUCKETS = SUB_BUCKETS + (62 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final String help;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public String getName() { return name; }
+    public String getHelp() { return help; }
+
+    /**
+     * Enregistre la durée écoulée depuis {@code startNanos} (valeur de System.nanoTime()).
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Copie cohérente à quelques événements près, pour le calcul des percentiles.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalNanos.get(), maxNanos.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+        return Math.min(BUCKETS - 1, SUB_BUCKETS + shift * SUB_BUCKETS + mantissa);
+    }
+
+    /** Plus grande valeur ramenée à la case donnée. */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + mantissa) << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Vue figée d'un histogramme.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * @param quantile entre 0 et 1 (0.99 pour le p99)
+         * @return la latence en nanosecondes sous laquelle se trouve cette fraction des événements
+         */
+        public long valueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        public double valueAtMillis(double quantile) {
+            return valueAt(quantile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
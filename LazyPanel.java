@@ -0,0 +1,49 @@
+package ucc.payment.system.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.util.function.Supplier;
+
+/**
+ * Panneau dont le contenu n'est construit qu'à son premier affichage
+ * (onglet sélectionné, section rendue visible).
+ */
+public class LazyPanel extends JPanel {
+    private Supplier<? extends JComponent> factory;
+
+    public LazyPanel(Supplier<? extends JComponent> factory) {
+        super(new BorderLayout());
+        this.factory = factory;
+
+        JLabel loading = new JLabel("Chargement...", SwingConstants.CENTER);
+        loading.setForeground(Color.GRAY);
+        add(loading, BorderLayout.CENTER);
+
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && isShowing()) {
+                // Laisse d'abord le cadre se peindre, puis construit le contenu
+                SwingUtilities.invokeLater(this::ensureBuilt);
+            }
+        });
+    }
+
+    /**
+     * Construit le contenu s'il ne l'est pas encore (sur l'EDT).
+     */
+    public void ensureBuilt() {
+        if (factory == null) {
+            return;
+        }
+        JComponent content = factory.get();
+        factory = null;
+        removeAll();
+        add(content, BorderLayout.CENTER);
+        revalidate();
+        repaint();
+    }
+
+    public boolean isBuilt() {
+        return factory == null;
+    }
+}
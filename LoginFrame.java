@@ -1,26 +1,55 @@
 package ucc.payment.system.ui;
 
+import ucc.payment.system.AppContext;
 import ucc.payment.system.UserManager;
+import ucc.payment.system.audit.AuditLog;
 import ucc.payment.system.model.Student;
+import ucc.payment.system.session.Session;
+import ucc.payment.system.session.SessionManager;
 import ucc.payment.system.util.DialogUtils;
+import ucc.payment.system.util.StartupProfiler;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.concurrent.CompletionException;
 
 /**
  * Fenêtre de connexion pour le système de paiement UCC.
  * Gère l'authentification des utilisateurs.
  */
 public class LoginFrame extends BaseFrame {
+    private final AppContext context;
     private final UserManager userManager;
+    private final AuditLog auditLog;
+    private final SessionManager sessions;
+    // Jeton d'une session verrouillée sur ce poste, reprise après saisie du mot de passe
+    private final String resumableToken;
     private JTextField emailField;
     private JPasswordField passwordField;
+    private JButton loginButton;
+    private JProgressBar progressBar;
 
-    public LoginFrame(UserManager userManager) {
+    // Modifié uniquement sur l'EDT : ignore les "Entrée" répétées pendant une connexion
+    private boolean loginInProgress;
+
+    public LoginFrame(AppContext context) {
+        this(context, null);
+    }
+
+    /**
+     * @param resumableToken session verrouillée à proposer de reprendre (ou null)
+     */
+    public LoginFrame(AppContext context, String resumableToken) {
         super("Connexion UCC", new Dimension(400, 350));
-        this.userManager = userManager;
+        long start = StartupProfiler.begin();
+        this.context = context;
+        this.userManager = context.getUserManager();
+        this.auditLog = context.getAuditLog();
+        this.sessions = context.getSessionManager();
+        this.resumableToken = resumableToken;
         setupUI();
+        StartupProfiler.reportFirstFrame(this, "LoginFrame", start);
     }
 
     private void setupUI() {
@@ -32,6 +61,8 @@ public class LoginFrame extends BaseFrame {
         addPasswordField(gbc);
         addLoginButton(gbc);
         addRegisterLink(gbc);
+        addProgressBar(gbc);
+        addResumeButton(gbc);
     }
 
     private GridBagConstraints createDefaultConstraints() {
@@ -94,6 +125,7 @@ public class LoginFrame extends BaseFrame {
         btn.setForeground(Color.WHITE);
         btn.setFocusPainted(false);
         btn.addActionListener(e -> handleLogin());
+        loginButton = btn;
         
         gbc.gridy = 3;
         gbc.fill = GridBagConstraints.NONE;
@@ -114,7 +146,70 @@ public class LoginFrame extends BaseFrame {
         add(link, gbc);
     }
 
+    private void addProgressBar(GridBagConstraints gbc) {
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Authentification en cours...");
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+
+        gbc.gridy = 5;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        add(progressBar, gbc);
+    }
+
+    private void addResumeButton(GridBagConstraints gbc) {
+        // Lecture seule : l'affichage ne prolonge pas la session verrouillée
+        Student student = sessions.peek(resumableToken);
+        if (student == null) {
+            return;
+        }
+        emailField.setText(student.getEmail());
+        JButton btn = new JButton("Reprendre la session de " + student.getName());
+        btn.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        btn.setFocusPainted(false);
+        btn.addActionListener(e -> resumeSession(student));
+
+        gbc.gridy = 6;
+        gbc.fill = GridBagConstraints.NONE;
+        add(btn, gbc);
+    }
+
+    /**
+     * Reprise de la session verrouillée : le mot de passe est comparé à l'empreinte
+     * gardée par la session depuis la connexion (quelques microsecondes, sur l'EDT),
+     * puis le jeton est validé et prolongé.
+     */
+    private void resumeSession(Student locked) {
+        if (loginInProgress) {
+            return;
+        }
+        String password = new String(passwordField.getPassword());
+        if (password.isEmpty()) {
+            DialogUtils.showError(this, "Saisissez votre mot de passe pour reprendre la session.");
+            return;
+        }
+
+        if (sessions.peek(resumableToken) == null) {
+            DialogUtils.showError(this, "Session expirée, veuillez vous reconnecter.");
+            return;
+        }
+        Student student = sessions.unlock(resumableToken, password);
+        if (student == null) {
+            auditLog.log(locked.getEmail(), "LOGIN_FAILED", "email", locked.getEmail());
+            DialogUtils.showError(this, "Mot de passe incorrect!");
+            return;
+        }
+        auditLog.log(student.getEmail(), "SESSION_RESUMED");
+        openDashboard(student, resumableToken);
+        dispose();
+    }
+
     private void handleLogin() {
+        if (loginInProgress) {
+            return;
+        }
+
         String email = emailField.getText().trim();
         String password = new String(passwordField.getPassword());
 
@@ -123,23 +218,51 @@ public class LoginFrame extends BaseFrame {
             return;
         }
 
-        Student student = userManager.authenticate(email, password);
+        setLoginInProgress(true);
+        userManager.authenticateAsync(email, password)
+            .whenCompleteAsync((student, error) -> onLoginCompleted(email, password, student, error),
+                SwingUtilities::invokeLater);
+    }
+
+    private void onLoginCompleted(String email, String password, Student student, Throwable error) {
+        setLoginInProgress(false);
+
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            auditLog.log(email, "LOGIN_ERROR", "error", cause.getMessage());
+            DialogUtils.showError(this, "Erreur de connexion : " + cause.getMessage());
+            return;
+        }
         if (student == null) {
+            auditLog.log(email, "LOGIN_FAILED", "email", email);
             DialogUtils.showError(this, "Identifiants incorrects!");
             return;
         }
 
-        openDashboard(student);
+        auditLog.log(student.getEmail(), "LOGIN");
+
+        // Empreinte du mot de passe gardée par la session pour la reprise après verrouillage
+        Session session = sessions.open(student, password);
+        openDashboard(student, session.getToken());
         dispose();
     }
 
+    private void setLoginInProgress(boolean inProgress) {
+        loginInProgress = inProgress;
+        loginButton.setEnabled(!inProgress);
+        emailField.setEnabled(!inProgress);
+        passwordField.setEnabled(!inProgress);
+        progressBar.setVisible(inProgress);
+        setCursor(inProgress ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
     private void openRegistration() {
-        new RegistrationFrame(userManager).setVisible(true);
+        new RegistrationFrame(context).setVisible(true);
         dispose();
     }
 
-    private void openDashboard(Student student) {
-        new Dashboard(student).setVisible(true);
+    private void openDashboard(Student student, String sessionToken) {
+        new Dashboard(student, context, sessionToken).setVisible(true);
     }
 
     private static class EnterKeyListener extends KeyAdapter {
@@ -1,7 +1,59 @@
 package ucc.payment.system;
 
+import ucc.payment.system.audit.AuditLog;
+import ucc.payment.system.audit.AuditSink;
+import ucc.payment.system.audit.JdbcAuditSink;
+import ucc.payment.system.audit.JsonLinesAuditSink;
+import ucc.payment.system.audit.OverflowPolicy;
+import ucc.payment.system.cluster.ClusterNode;
+import ucc.payment.system.enrollment.EnrollmentImporter;
+import ucc.payment.system.enrollment.ImportResult;
+import ucc.payment.system.fees.FeeLedger;
+import ucc.payment.system.fees.FeeSchedule;
+import ucc.payment.system.fees.JdbcFeeSchedules;
+import ucc.payment.system.gateway.CallbackProcessor;
+import ucc.payment.system.gateway.OperatorGateway;
+import ucc.payment.system.gateway.SimulatedGateway;
+import ucc.payment.system.offline.OfflineQueue;
+import ucc.payment.system.payment.CachedPaymentRepository;
+import ucc.payment.system.payment.InMemoryPaymentBrowser;
+import ucc.payment.system.payment.InMemoryPaymentRepository;
+import ucc.payment.system.payment.InMemoryPaymentStore;
+import ucc.payment.system.payment.JdbcPaymentBrowser;
+import ucc.payment.system.payment.JdbcPaymentRepository;
+import ucc.payment.system.payment.JdbcPaymentStore;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.payment.PaymentStore;
+import ucc.payment.system.receipt.ReceiptGenerator;
+import ucc.payment.system.receipt.ReceiptReport;
+import ucc.payment.system.receipt.ReceiptTemplate;
+import ucc.payment.system.reconciliation.InMemoryVerificationStore;
+import ucc.payment.system.reconciliation.JdbcVerificationStore;
+import ucc.payment.system.reconciliation.ReconciliationEngine;
+import ucc.payment.system.search.StudentSearchIndex;
+import ucc.payment.system.security.InMemoryRoleDirectory;
+import ucc.payment.system.security.JdbcRoleDirectory;
+import ucc.payment.system.security.PasswordHasher;
+import ucc.payment.system.server.ApiServer;
+import ucc.payment.system.session.SessionManager;
+import ucc.payment.system.store.JdbcBackend;
+import ucc.payment.system.store.JournalBackend;
+import ucc.payment.system.store.UserStore;
+import ucc.payment.system.ui.IconCache;
+import ucc.payment.system.ui.LoginFrame;
+import ucc.payment.system.util.StartupProfiler;
+
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
 
 /**
  * Point d'entrée principal de l'application de gestion des frais académiques UCC.
@@ -13,10 +65,101 @@ public class Main {
     private static final String APP_VERSION = "1.0.0";
     private static final Dimension WINDOW_SIZE = new Dimension(800, 600);
     private static final String ICON_PATH = "/resources/ucc_logo.png";
+    private static final int FRAME_ICON_SIZE = 64;
+    private static final String DATA_DIR = System.getProperty("ucc.data.dir", "data");
+    private static final String DB_URL = System.getProperty("ucc.db.url");
+    private static final String SERVER_FLAG = "--server";
+    private static final String PORT_OPTION = "--port=";
+    private static final String IMPORT_OPTION = "--import=";
+    private static final String RECEIPTS_OPTION = "--receipts=";
+    private static final String CLUSTER_OPTION = "--cluster=";
+    private static final String SEED_OPTION = "--seed=";
+    private static final int DEFAULT_PORT = 8080;
+
+    // Mode serveur : pas de boîte de dialogue, les erreurs vont sur la sortie d'erreur
+    private static boolean headless;
+    // File locale devant la base (paiements et comptes), ouverte une fois ; null sans base
+    private static OfflineQueue offlineQueue;
+    private static boolean offlineQueueOpened;
 
+    /**
+     * Lance l'application de bureau, l'API HTTP avec {@code --server [--port=8080]},
+     * l'import d'une liste d'inscriptions avec {@code --import=<fichier.csv>}, ou les reçus
+     * de tous les paiements "completed" avec {@code --receipts=<dossier>}.
+     * En mode serveur, {@code --cluster=host:port [--seed=host:port]} partage les comptes
+     * et les sessions avec d'autres instances de la même machine (adresses de la boucle
+     * locale uniquement, voir {@link ClusterNode}).
+     */
     public static void main(String[] args) {
-        setupSwingEnvironment();
-        launchApplication();
+        StartupProfiler.markMainStarted();
+        Path importFile = parseImportFile(args);
+        if (importFile != null) {
+            headless = true;
+            System.exit(runImport(importFile));
+        }
+        String receipts = parseOption(args, RECEIPTS_OPTION);
+        if (receipts != null) {
+            headless = true;
+            System.exit(runReceipts(Paths.get(receipts)));
+        }
+        Integer port = parseServerPort(args);
+        headless = port != null;
+        if (!headless) {
+            setupSwingEnvironment();
+        }
+        // Calibre le facteur de travail du hashage en arrière-plan, avant les premières connexions
+        Thread calibration = new Thread(PasswordHasher::getDefault, "password-hasher-calibration");
+        calibration.setDaemon(true);
+        calibration.start();
+        if (headless) {
+            launchServer(port, parseOption(args, CLUSTER_OPTION), parseOption(args, SEED_OPTION));
+        } else {
+            launchApplication();
+        }
+    }
+
+    /**
+     * @return le fichier à importer si {@code --import=} est présent, null sinon
+     */
+    private static Path parseImportFile(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(IMPORT_OPTION)) {
+                return Paths.get(arg.substring(IMPORT_OPTION.length()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return la valeur de l'option ({@code --nom=valeur}), null si elle est absente
+     */
+    private static String parseOption(String[] args, String option) {
+        for (String arg : args) {
+            if (arg.startsWith(option)) {
+                return arg.substring(option.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return le port d'écoute si le mode serveur est demandé, null sinon
+     */
+    private static Integer parseServerPort(String[] args) {
+        boolean server = false;
+        int port = Integer.getInteger("ucc.http.port", DEFAULT_PORT);
+        for (String arg : args) {
+            if (arg.equals(SERVER_FLAG)) {
+                server = true;
+            } else if (arg.startsWith(PORT_OPTION)) {
+                port = Integer.parseInt(arg.substring(PORT_OPTION.length()));
+            } else if (!arg.startsWith(CLUSTER_OPTION) && !arg.startsWith(SEED_OPTION)) {
+                throw new IllegalArgumentException("Option inconnue : " + arg
+                    + " (usage : " + SERVER_FLAG + " [" + PORT_OPTION + "<port>] ["
+                    + CLUSTER_OPTION + "<host:port> [" + SEED_OPTION + "<host:port>]])");
+            }
+        }
+        return server ? port : null;
     }
 
     /**
@@ -38,20 +181,435 @@ public class Main {
     }
 
     /**
-     * Lance l'application en créant et affichant la fenêtre de connexion.
+     * Lance l'application : une fenêtre de chargement s'affiche aussitôt, le contexte
+     * (comptes, paiements, journal) se construit sur un thread dédié, puis la fenêtre de
+     * connexion la remplace.
      */
     private static void launchApplication() {
         SwingUtilities.invokeLater(() -> {
             JFrame.setDefaultLookAndFeelDecorated(true);
             
-            UserManager userManager = new UserManager();
-            LoginFrame loginFrame = new LoginFrame(userManager);
-            
-            configureMainFrame(loginFrame);
-            loginFrame.setVisible(true);
+            JFrame loadingFrame = createLoadingFrame();
+            StartupProfiler.reportFirstFrame(loadingFrame, "Main.main", StartupProfiler.getMainStartNanos());
+            loadingFrame.setVisible(true);
+
+            new Thread(() -> {
+                AppContext context;
+                try {
+                    context = createContext(null, null);
+                } catch (RuntimeException e) {
+                    SwingUtilities.invokeLater(() -> {
+                        showError("Démarrage impossible", e instanceof UncheckedIOException ? e.getCause() : e);
+                        System.exit(1);
+                    });
+                    return;
+                }
+                SwingUtilities.invokeLater(() -> {
+                    LoginFrame loginFrame = new LoginFrame(context);
+                    configureMainFrame(loginFrame);
+                    loginFrame.setVisible(true);
+                    loadingFrame.dispose();
+                });
+            }, "app-context-build").start();
         });
     }
 
+    /**
+     * Fenêtre affichée pendant le chargement des comptes et des paiements.
+     */
+    private static JFrame createLoadingFrame() {
+        JFrame frame = new JFrame();
+        JLabel title = new JLabel(APP_TITLE, SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 24));
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Chargement des comptes et des paiements...");
+        progressBar.setStringPainted(true);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 20));
+        panel.setBorder(BorderFactory.createEmptyBorder(120, 60, 120, 60));
+        panel.add(title, BorderLayout.CENTER);
+        panel.add(progressBar, BorderLayout.SOUTH);
+        frame.setContentPane(panel);
+        configureMainFrame(frame);
+        return frame;
+    }
+
+    /**
+     * Lance l'API HTTP sans interface graphique ; le processus vit jusqu'à son arrêt.
+     * @param clusterAddress adresse de ce nœud dans le cluster, null hors cluster
+     * @param seed           membre existant à rejoindre, null pour créer le cluster
+     */
+    private static void launchServer(int port, String clusterAddress, String seed) {
+        // Le serveur du JDK ferme les connexions inactives au-delà de 200 par défaut
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+        }
+        try {
+            AppContext context = createContext(clusterAddress, seed);
+            ApiServer server = new ApiServer(context, new InetSocketAddress(port));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                try {
+                    context.getPaymentService().close();
+                } catch (IOException e) {
+                    System.err.println("Fermeture du registre des paiements impossible : " + e.getMessage());
+                }
+            }, "api-server-shutdown"));
+            server.start();
+            System.out.printf("%s v%s : API en écoute sur le port %d%n", APP_TITLE, APP_VERSION, server.getPort());
+        } catch (IOException | UncheckedIOException e) {
+            showError("Le serveur n'a pas pu démarrer", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Importe une liste d'inscriptions dans le store des comptes. Le rapport des lignes
+     * refusées et le point de reprise sont écrits à côté du fichier ; relancer la même
+     * commande après une interruption reprend l'import. Chaque étudiant importé est une
+     * inscription : elle est tracée dans le journal d'activité, et l'index de recherche
+     * et les soldes des frais la reprennent au prochain démarrage de l'application.
+     * @return le code de sortie du processus
+     */
+    private static int runImport(Path csv) {
+        UserManager userManager;
+        try {
+            userManager = createUserManager();
+        } catch (UncheckedIOException e) {
+            showError("Import impossible", e.getCause());
+            return 1;
+        }
+        Path report = csv.resolveSibling(csv.getFileName() + ".erreurs.csv");
+        Path checkpoint = csv.resolveSibling(csv.getFileName() + ".reprise");
+        AuditLog auditLog = createAuditLog();
+        userManager.addRegistrationListener(student -> auditLog.log(student.getEmail(), "REGISTER",
+            "promotion", student.getPromotion(), "faculty", student.getFaculty(), "source", "import"));
+        try (EnrollmentImporter importer = new EnrollmentImporter(userManager)) {
+            ImportResult result = importer.importFile(csv, report, checkpoint, progress ->
+                System.out.printf("%,d lignes traitées (%,.0f lignes/s)%n",
+                    progress.getResumed() + progress.getRead(), progress.getRowsPerSecond()));
+            System.out.println(result);
+            if (result.getRejected() + result.getDuplicates() > 0) {
+                System.out.println("Lignes refusées : voir " + report);
+            }
+            return 0;
+        } catch (IOException | IllegalArgumentException e) {
+            showError("Import impossible", e);
+            return 1;
+        }
+    }
+
+    /**
+     * Écrit le reçu de chaque paiement "completed" du registre (fin de session), avec un
+     * point d'avancement chaque seconde. Exige ucc.db.url : sans base, le registre est
+     * en mémoire et vide au démarrage.
+     * @return le code de sortie du processus
+     */
+    private static int runReceipts(Path directory) {
+        if (DB_URL == null) {
+            System.err.println("Génération des reçus impossible : --receipts lit les paiements de la base, "
+                + "définissez ucc.db.url");
+            return 1;
+        }
+        UserManager userManager;
+        try {
+            userManager = createUserManager();
+        } catch (UncheckedIOException e) {
+            showError("Génération des reçus impossible", e.getCause());
+            return 1;
+        }
+        try (PaymentService paymentService = createPaymentService();
+             ReceiptGenerator generator = new ReceiptGenerator(userManager.getStore(), directory,
+                 loadReceiptTemplate())) {
+            ReceiptReport report = generator.generateAll(paymentService.all(), progress ->
+                System.out.printf("%,d reçus écrits (%,.0f reçus/s)%n",
+                    progress.getGenerated(), progress.getReceiptsPerSecond()));
+            System.out.println(report);
+            return report.getFailed() == 0 ? 0 : 1;
+        } catch (IOException e) {
+            showError("Génération des reçus impossible", e);
+            return 1;
+        }
+    }
+
+    /**
+     * Construit les services partagés par les deux modes (bureau et serveur).
+     * En cluster, les comptes et les sessions passent par le nœud ; le registre des
+     * frais, la recherche et le navigateur de paiements ne voient que les comptes tenus
+     * par cette instance.
+     * @throws UncheckedIOException si le nœud du cluster ne peut pas démarrer
+     */
+    private static AppContext createContext(String clusterAddress, String seed) {
+        PaymentService paymentService = createPaymentService();
+        UserManager userManager = createUserManager();
+        UserManager accounts = userManager;
+        SessionManager sessions = new SessionManager(userManager.getStore());
+        if (clusterAddress != null) {
+            ClusterNode node = startClusterNode(clusterAddress, seed, userManager, sessions);
+            accounts = node.userManager();
+            sessions = node.sessionManager();
+        }
+        createReceiptGenerator(userManager, paymentService);
+        return new AppContext(accounts, paymentService,
+            new ReconciliationEngine(paymentService, DB_URL == null
+                ? new InMemoryVerificationStore()
+                : new JdbcVerificationStore(Main::openConnection)),
+            createAuditLog(),
+            DB_URL == null ? InMemoryRoleDirectory.fromSystemProperty() : new JdbcRoleDirectory(Main::openConnection),
+            createGateway(paymentService),
+            sessions,
+            createFeeLedger(userManager, paymentService),
+            DB_URL == null
+                ? new InMemoryPaymentBrowser(paymentService, userManager.getStore())
+                : new JdbcPaymentBrowser(Main::openConnection),
+            createStudentSearch(userManager),
+            createPaymentHistory(userManager, paymentService));
+    }
+
+    /**
+     * Démarre le nœud du cluster ; il est arrêté avec le processus.
+     */
+    private static ClusterNode startClusterNode(String address, String seed, UserManager local,
+                                                SessionManager sessions) {
+        try {
+            ClusterNode node = ClusterNode.start(address, seed, local, sessions);
+            Runtime.getRuntime().addShutdownHook(new Thread(node::close, "cluster-shutdown"));
+            node.addMembershipListener((joining, members, millis) -> System.out.printf(
+                "Cluster : %s ajouté, %d nœuds, rééquilibré en %d ms%n", joining, members.size(), millis));
+            System.out.printf("Cluster : nœud %s, membres %s%n", address, node.getMembers());
+            return node;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Le nœud " + address + " n'a pas pu rejoindre le cluster", e);
+        }
+    }
+
+    /**
+     * Index de recherche des étudiants pour la caisse, construit en arrière-plan
+     * puis complété à chaque inscription.
+     */
+    private static StudentSearchIndex createStudentSearch(UserManager userManager) {
+        StudentSearchIndex index = new StudentSearchIndex(userManager.getStore());
+        userManager.addRegistrationListener(index::add);
+        Thread build = new Thread(() -> index.addAll(userManager.getStore().all()), "student-search-build");
+        build.setDaemon(true);
+        build.start();
+        return index;
+    }
+
+    /**
+     * Soldes des frais : barème de la table fee_schedules si ucc.db.url est défini,
+     * sinon le montant uniforme ucc.fees.amount (500 par défaut). Les soldes sont
+     * reconstruits en arrière-plan, puis tenus à jour à chaque paiement et inscription.
+     */
+    private static FeeLedger createFeeLedger(UserManager userManager, PaymentService paymentService) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(System.getProperty("ucc.fees.amount", "500"));
+        } catch (NumberFormatException e) {
+            amount = new BigDecimal("500");
+        }
+        FeeSchedule schedule = new FeeSchedule(amount);
+        if (DB_URL != null) {
+            try {
+                schedule = JdbcFeeSchedules.load(Main::openConnection, amount);
+            } catch (IOException | IllegalStateException e) {
+                System.err.println("Barème des frais indisponible, montant uniforme utilisé : " + e.getMessage());
+            }
+        }
+        FeeLedger ledger = new FeeLedger(schedule, userManager.getStore());
+        // Abonnement avant la reconstruction : aucun paiement ne passe entre les deux
+        paymentService.addListener(ledger);
+        userManager.addRegistrationListener(ledger::studentAdded);
+        Thread rebuild = new Thread(() -> ledger.rebuild(paymentService.all()), "fee-ledger-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+        return ledger;
+    }
+
+    /**
+     * Historique des paiements par étudiant : tables payments et payment_verifications si
+     * ucc.db.url est défini, sinon le registre en mémoire ; lu à travers un cache que
+     * chaque paiement créé ou mis à jour invalide pour son étudiant.
+     */
+    private static CachedPaymentRepository createPaymentHistory(UserManager userManager,
+                                                                PaymentService paymentService) {
+        CachedPaymentRepository history = new CachedPaymentRepository(DB_URL == null
+            ? new InMemoryPaymentRepository(paymentService, userManager.getStore())
+            : new JdbcPaymentRepository(Main::openConnection));
+        paymentService.addListener(history);
+        return history;
+    }
+
+    /**
+     * Reçus écrits au passage de chaque paiement à "completed", dans ucc.receipts.dir
+     * (data/receipts par défaut).
+     */
+    private static void createReceiptGenerator(UserManager userManager, PaymentService paymentService) {
+        Path directory = Paths.get(System.getProperty("ucc.receipts.dir", Paths.get(DATA_DIR, "receipts").toString()));
+        ReceiptGenerator receipts = new ReceiptGenerator(userManager.getStore(), directory, loadReceiptTemplate());
+        paymentService.addListener(receipts);
+        // Laisse finir les reçus en cours d'écriture à l'arrêt
+        Runtime.getRuntime().addShutdownHook(new Thread(receipts::close, "receipt-generator-shutdown"));
+    }
+
+    /**
+     * Modèle de reçu du fichier ucc.receipts.template s'il est défini, sinon le modèle intégré.
+     */
+    private static ReceiptTemplate loadReceiptTemplate() {
+        String file = System.getProperty("ucc.receipts.template");
+        if (file != null) {
+            try {
+                return ReceiptTemplate.load(Paths.get(file));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Modèle de reçu illisible, modèle intégré utilisé : " + e.getMessage());
+            }
+        }
+        return ReceiptTemplate.defaultTemplate();
+    }
+
+    /**
+     * Passerelle opérateurs. Aucune intégration réelle n'existe encore : les paiements
+     * mobile money restent "pending", aucun résultat n'est inventé. Le simulateur
+     * local (résultats aléatoires) ne remplace la passerelle qu'avec
+     * -Ducc.gateway.simulated=true, pour les démonstrations et les tests.
+     */
+    private static OperatorGateway createGateway(PaymentService paymentService) {
+        if (!Boolean.getBoolean("ucc.gateway.simulated")) {
+            return payment -> { };
+        }
+        System.err.println("Passerelle simulée : les paiements mobile money reçoivent un résultat fictif");
+        CallbackProcessor callbacks = new CallbackProcessor(paymentService);
+        return new SimulatedGateway(callbacks::accept);
+    }
+
+    /**
+     * Crée le gestionnaire d'utilisateurs persistant : table students si ucc.db.url est
+     * défini (les paiements y retrouvent leur étudiant ; inscriptions et changements de
+     * mot de passe passent par la file locale), sinon journal + snapshot dans
+     * DATA_DIR. Pas de repli en mémoire : les inscriptions seraient perdues à l'arrêt,
+     * et un journal déjà ouvert par un autre processus doit arrêter ce démarrage.
+     * @throws UncheckedIOException si les comptes ne peuvent pas être ouverts ou relus
+     */
+    private static UserManager createUserManager() {
+        Path dataDir = Paths.get(DATA_DIR);
+        try {
+            OfflineQueue queue = offlineQueue();
+            UserStore store = new UserStore(DB_URL == null
+                ? JournalBackend.open(dataDir)
+                : queue == null ? new JdbcBackend(Main::openConnection) : queue.studentBackend());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Fermeture du journal impossible : " + e.getMessage());
+                }
+            }, "user-store-shutdown"));
+            return new UserManager(store);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Crée le registre des paiements : base PostgreSQL si ucc.db.url est défini,
+     * sinon un registre en mémoire. Avec la base, les écritures passent par une file
+     * locale (DATA_DIR/offline) qui prend le relais quand la base est injoignable.
+     */
+    private static PaymentService createPaymentService() {
+        if (DB_URL == null) {
+            return new PaymentService(new InMemoryPaymentStore());
+        }
+        ensurePaymentPartitions();
+        OfflineQueue queue = offlineQueue();
+        PaymentStore store = queue == null ? new JdbcPaymentStore(Main::openConnection) : queue.paymentStore();
+        try {
+            return new PaymentService(store);
+        } catch (RuntimeException e) {
+            // Pas de repli en mémoire : les paiements saisis seraient perdus à l'arrêt
+            showError("Les paiements n'ont pas pu être chargés", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Crée à l'avance les partitions de payments de l'année en cours et de la suivante.
+     * Un échec (base injoignable, schéma antérieur à payments_ensure_partitions) n'empêche
+     * pas le démarrage : les paiements vont alors dans payments_default.
+     */
+    private static void ensurePaymentPartitions() {
+        try {
+            int created = new JdbcPaymentStore(Main::openConnection).ensurePartitions(1);
+            if (created > 0) {
+                System.out.println(created + " partition(s) de paiements créée(s)");
+            }
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Partitions de paiements non vérifiées : " + e.getMessage());
+        }
+    }
+
+    /**
+     * File locale (DATA_DIR/offline) devant les tables payments et students : elle prend
+     * le relais quand la base est injoignable, y compris au démarrage.
+     * @return la file, ou null sans base ou si elle ne peut pas être ouverte (écritures
+     *         directes en base)
+     */
+    private static synchronized OfflineQueue offlineQueue() {
+        if (DB_URL == null || offlineQueueOpened) {
+            return offlineQueue;
+        }
+        offlineQueueOpened = true;
+        try {
+            OfflineQueue queue = OfflineQueue.open(Paths.get(DATA_DIR, "offline"),
+                new JdbcPaymentStore(Main::openConnection), new JdbcBackend(Main::openConnection));
+            if (queue.getPendingCount() > 0) {
+                System.out.println(queue.getPendingCount()
+                    + " opération(s) en file locale, rejouées dès que la base répond");
+            }
+            queue.addReconnectListener(
+                () -> System.out.println("Base de données de nouveau joignable : file locale rejouée"));
+            offlineQueue = queue;
+        } catch (IOException e) {
+            System.err.println("File locale indisponible, écritures directes en base : " + e.getMessage());
+        }
+        return offlineQueue;
+    }
+
+    /**
+     * Crée le journal d'activité : table activity_logs si ucc.db.url est défini,
+     * sinon fichier JSON lignes dans DATA_DIR. La politique de débordement se
+     * choisit avec ucc.audit.overflow (DROP, SAMPLE ou BLOCK ; SAMPLE par défaut).
+     */
+    private static AuditLog createAuditLog() {
+        AuditSink sink;
+        try {
+            sink = DB_URL == null
+                ? new JsonLinesAuditSink(Paths.get(DATA_DIR, "activity.log"))
+                : new JdbcAuditSink(Main::openConnection);
+        } catch (IOException e) {
+            System.err.println("Journal d'activité indisponible : " + e.getMessage());
+            sink = events -> {};
+        }
+        OverflowPolicy policy;
+        try {
+            policy = OverflowPolicy.valueOf(System.getProperty("ucc.audit.overflow", "SAMPLE"));
+        } catch (IllegalArgumentException e) {
+            policy = OverflowPolicy.SAMPLE;
+        }
+        AuditLog auditLog = new AuditLog(sink, policy);
+        Runtime.getRuntime().addShutdownHook(new Thread(auditLog::close, "audit-log-shutdown"));
+        return auditLog;
+    }
+
+    private static Connection openConnection() {
+        try {
+            return DriverManager.getConnection(DB_URL,
+                System.getProperty("ucc.db.user"), System.getProperty("ucc.db.password"));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Connexion à la base impossible", e);
+        }
+    }
+
     /**
      * Configure la fenêtre principale avec les paramètres par défaut.
      */
@@ -62,18 +620,25 @@ public class Main {
         frame.setLocationRelativeTo(null);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         
-        try {
-            Image icon = new ImageIcon(Main.class.getResource(ICON_PATH)).getImage();
-            frame.setIconImage(icon);
-        } catch (Exception e) {
-            System.err.println("L'icône de l'application n'a pas pu être chargée");
-        }
+        IconCache.shared().getImage(ICON_PATH, FRAME_ICON_SIZE)
+            .whenCompleteAsync((icon, error) -> {
+                if (error != null) {
+                    System.err.println("L'icône de l'application n'a pas pu être chargée");
+                } else {
+                    frame.setIconImage(icon);
+                }
+            }, SwingUtilities::invokeLater);
     }
 
     /**
-     * Affiche une boîte de dialogue d'erreur.
+     * Affiche une boîte de dialogue d'erreur (sortie d'erreur en mode serveur).
      */
     private static void showError(String title, Throwable e) {
+        if (headless) {
+            System.err.println(title + " : " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
         JOptionPane.showMessageDialog(
             null,
             title + " : " + e.getMessage(),
@@ -0,0 +1,102 @@
+package ucc.payment.system.ui;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.util.DialogUtils;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Panneau d'administration : latences (p50/p99/p999) et compteurs du processus,
+ * rafraîchis chaque seconde tant que le panneau est affiché.
+ */
+public class MetricsPanel extends JPanel {
+    private static final String[] COLUMNS = {"Mesure", "Nombre", "p50 (ms)", "p99 (ms)", "p999 (ms)", "max (ms)"};
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final MetricsRegistry registry;
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final Timer refresh = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public MetricsPanel(MetricsRegistry registry) {
+        super(new BorderLayout(10, 10));
+        this.registry = registry;
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        table.setRowHeight(22);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton copy = new JButton("Copier");
+        copy.addActionListener(e -> Toolkit.getDefaultToolkit().getSystemClipboard()
+            .setContents(new StringSelection(registry.scrape()), null));
+        JButton export = new JButton("Exporter...");
+        export.addActionListener(e -> exportToFile());
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        actions.add(copy);
+        actions.add(export);
+        add(actions, BorderLayout.SOUTH);
+
+        refresh();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refresh.stop();
+        super.removeNotify();
+    }
+
+    private void refresh() {
+        model.setRowCount(0);
+        for (LatencyHistogram histogram : registry.getHistograms()) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            model.addRow(new Object[] {
+                histogram.getHelp(),
+                snapshot.getCount(),
+                millis(snapshot.valueAtMillis(0.5)),
+                millis(snapshot.valueAtMillis(0.99)),
+                millis(snapshot.valueAtMillis(0.999)),
+                millis(snapshot.getMaxNanos() / 1e6)
+            });
+        }
+        for (Counter counter : registry.getCounters()) {
+            model.addRow(new Object[] {counter.getHelp(), counter.get(), "", "", "", ""});
+        }
+    }
+
+    private void exportToFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Exporter les métriques");
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Files.write(chooser.getSelectedFile().toPath(), registry.scrape().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            DialogUtils.showError(this, "Export impossible : " + e.getMessage());
+        }
+    }
+
+    private static String millis(double value) {
+        return String.format("%.2f", value);
+    }
+}
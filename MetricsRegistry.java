@@ -0,0 +1,85 @@
+package ucc.payment.system.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registre des métriques du processus. Les instruments sont créés une fois
+ * (champs statiques des classes instrumentées) puis mis à jour sans verrou.
+ *
+ * <p>{@link #scrape} produit le format texte d'exposition Prometheus : les histogrammes
+ * y sont des résumés (quantiles 0.5, 0.99, 0.999, en secondes).
+ */
+public final class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Histogramme de ce nom, créé au premier appel.
+     */
+    public LatencyHistogram histogram(String name, String help) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram(n, help));
+    }
+
+    public Counter counter(String name, String help) {
+        return counters.computeIfAbsent(name, n -> new Counter(n, help));
+    }
+
+    /** Histogrammes triés par nom. */
+    public List<LatencyHistogram> getHistograms() {
+        List<LatencyHistogram> list = new ArrayList<>(histograms.values());
+        list.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return list;
+    }
+
+    /** Compteurs triés par nom. */
+    public List<Counter> getCounters() {
+        List<Counter> list = new ArrayList<>(counters.values());
+        list.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return list;
+    }
+
+    /**
+     * Export texte de toutes les métriques.
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(1024);
+        for (LatencyHistogram histogram : getHistograms()) {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            String name = histogram.getName();
+            header(out, name, histogram.getHelp(), "summary");
+            for (double quantile : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(snapshot.valueAt(quantile))).append('\n');
+            }
+            out.append(name).append("_sum ").append(seconds(snapshot.getTotalNanos())).append('\n');
+            out.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+            header(out, name + "_max", "Latence maximale observée", "gauge");
+            out.append(name).append("_max ").append(seconds(snapshot.getMaxNanos())).append('\n');
+        }
+        for (Counter counter : getCounters()) {
+            header(out, counter.getName(), counter.getHelp(), "counter");
+            out.append(counter.getName()).append(' ').append(counter.get()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
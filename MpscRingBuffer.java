@@ -0,0 +1,93 @@
+package ucc.payment.system.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * File circulaire bornée sans verrou, plusieurs producteurs / un seul consommateur.
+ * Chaque case porte un numéro de séquence qui indique si elle est libre ou publiée ;
+ * {@link #offer} ne bloque jamais et échoue quand la file est pleine.
+ *
+ * @param <T> type des éléments
+ */
+public class MpscRingBuffer<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Lu et écrit par le seul consommateur ; volatile pour size() depuis d'autres threads
+    private volatile long head;
+
+    /**
+     * @param capacity arrondie à la puissance de deux supérieure
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Ajoute un élément sans bloquer.
+     * @return false si la file est pleine
+     */
+    public boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+            // Sinon un autre producteur a pris la case : on réessaie
+        }
+    }
+
+    /**
+     * Retire jusqu'à max éléments publiés (consommateur unique).
+     * @return le nombre d'éléments transmis
+     */
+    public int drain(Consumer<T> consumer, int max) {
+        int count = 0;
+        long position = head;
+        while (count < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            T item = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            count++;
+            consumer.accept(item);
+        }
+        head = position;
+        return count;
+    }
+
+    /** Nombre approximatif d'éléments en attente. */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity(), tail.get() - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,159 @@
+package ucc.payment.system.offline;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.Student;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Opération mise en file par {@link OfflineQueue} : inscription, mise à jour d'un compte,
+ * nouveau paiement ou changement de statut. Immuable.
+ *
+ * <p>Encodage : un octet de type puis les champs, chacun en entier court (longueur,
+ * -1 pour null) suivi des octets UTF-8 ; la date d'un paiement est en secondes et nanosecondes.
+ */
+final class OfflineOperation {
+
+    enum Kind { REGISTRATION, STUDENT_UPDATE, PAYMENT, STATUS_CHANGE }
+
+    private final Kind kind;
+    private final Student student;
+    private final Payment payment;
+
+    private OfflineOperation(Kind kind, Student student, Payment payment) {
+        this.kind = kind;
+        this.student = student;
+        this.payment = payment;
+    }
+
+    static OfflineOperation registration(Student student) {
+        return new OfflineOperation(Kind.REGISTRATION, student, null);
+    }
+
+    static OfflineOperation studentUpdate(Student student) {
+        return new OfflineOperation(Kind.STUDENT_UPDATE, student, null);
+    }
+
+    static OfflineOperation payment(Payment payment) {
+        return new OfflineOperation(Kind.PAYMENT, null, payment);
+    }
+
+    static OfflineOperation statusChange(Payment payment) {
+        return new OfflineOperation(Kind.STATUS_CHANGE, null, payment);
+    }
+
+    // Getters
+    Kind getKind() { return kind; }
+    Student getStudent() { return student; }
+    Payment getPayment() { return payment; }
+
+    boolean isStudent() {
+        return student != null;
+    }
+
+    /**
+     * Clé de déduplication : email normalisé ou transaction_id.
+     */
+    String key() {
+        return student != null ? Student.normalizeEmail(student.getEmail()) : payment.getTransactionId();
+    }
+
+    byte[] encode() {
+        byte[][] fields = student != null
+            ? new byte[][] {
+                utf8(student.getName()),
+                utf8(student.getEmail()),
+                utf8(student.getPasswordHash()),
+                utf8(student.getPromotion()),
+                utf8(student.getFaculty())
+            }
+            : new byte[][] {
+                utf8(payment.getTransactionId()),
+                utf8(payment.getStudentEmail()),
+                utf8(payment.getAmount().toPlainString()),
+                utf8(payment.getMethod().name()),
+                utf8(payment.getStatus().getDbValue())
+            };
+        int size = 1 + (payment != null ? Long.BYTES + Integer.BYTES : 0);
+        for (byte[] field : fields) {
+            size += Short.BYTES + (field == null ? 0 : field.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) kind.ordinal());
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putShort((short) -1);
+            } else {
+                buffer.putShort((short) field.length);
+                buffer.put(field);
+            }
+        }
+        if (payment != null) {
+            buffer.putLong(payment.getPaymentDate().getEpochSecond());
+            buffer.putInt(payment.getPaymentDate().getNano());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Décode une opération depuis la position courante du buffer.
+     * @throws IllegalArgumentException si les données sont tronquées ou incohérentes
+     */
+    static OfflineOperation decode(ByteBuffer buffer) {
+        try {
+            int ordinal = buffer.get();
+            if (ordinal < 0 || ordinal >= Kind.values().length) {
+                throw new IllegalArgumentException("Type d'opération inconnu : " + ordinal);
+            }
+            Kind kind = Kind.values()[ordinal];
+            if (kind == Kind.REGISTRATION || kind == Kind.STUDENT_UPDATE) {
+                Student student = Student.restore(readString(buffer), readString(buffer),
+                    readString(buffer), readString(buffer), readString(buffer));
+                return new OfflineOperation(kind, student, null);
+            }
+            String transactionId = readString(buffer);
+            String email = readString(buffer);
+            BigDecimal amount = new BigDecimal(readString(buffer));
+            PaymentMethod method = PaymentMethod.valueOf(readString(buffer));
+            PaymentStatus status = PaymentStatus.fromDbValue(readString(buffer));
+            Instant date = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new OfflineOperation(kind, null,
+                new Payment(transactionId, email, amount, method, status, date));
+        } catch (BufferUnderflowException | NullPointerException e) {
+            throw new IllegalArgumentException("Opération tronquée", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + (student != null ? student.getEmail() : payment.toString());
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Champ trop long pour la file locale");
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,829 @@
+package ucc.payment.system.offline;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.payment.PaymentStore;
+import ucc.payment.system.store.PersistenceBackend;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * File locale des écritures pour travailler quand la base de données est injoignable.
+ *
+ * <p>{@link #paymentStore()} et {@link #studentBackend()} enveloppent les supports distants.
+ * Tant qu'ils répondent, les écritures leur sont transmises directement. Au premier échec,
+ * la file passe hors ligne : le lot en échec et toutes les écritures suivantes sont ajoutées
+ * au journal local (write-ahead log) et confirmées sans passer par le réseau. Un thread de
+ * rejeu retente le support avec un délai croissant ; dès qu'il répond, les opérations sont
+ * rejouées par lots (inscriptions d'abord, puis paiements) et la file repasse en ligne une
+ * fois vide. Si le support est injoignable dès le chargement, la file démarre hors ligne
+ * et ne sert que ses propres opérations.
+ *
+ * <p>Le rejeu est idempotent : les opérations d'un tour sont fusionnées par clé (email,
+ * transaction_id), puis celles que le support connaît déjà sont écartées ; un tour
+ * interrompu peut être rejoué sans créer de doublon. Au plus {@value #REPLAY_PARALLELISM}
+ * lots de {@value #REPLAY_BATCH_SIZE} opérations partent en même temps, pour ne pas
+ * submerger la base à la reconnexion. Une opération que le support refuse alors qu'il
+ * répond (donnée invalide) est écartée dans {@value #REJECTED_FILE}.
+ *
+ * <p>Le journal reprend le format de {@code JournalBackend} ([longueur][crc32][données]),
+ * avec validation groupée des ajouts ; un fichier de reprise mémorise la position déjà
+ * rejouée. Chaque ajout est durable avant d'être confirmé : un arrêt sans {@link #close}
+ * ne perd rien, la file reprend au prochain démarrage.
+ */
+public class OfflineQueue implements AutoCloseable {
+    private static final String LOG_FILE = "offline.wal";
+    private static final String CHECKPOINT_FILE = "offline.checkpoint";
+    private static final String REJECTED_FILE = "offline-rejets.log";
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int REPLAY_BATCH_SIZE = 500;
+    private static final int REPLAY_PARALLELISM = 4;
+    private static final int MAX_ROUND_OPERATIONS = 50_000;
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private static final Counter QUEUED = MetricsRegistry.shared()
+        .counter("ucc_offline_queued_total", "Opérations mises en file locale (support injoignable)");
+    private static final Counter REPLAYED = MetricsRegistry.shared()
+        .counter("ucc_offline_replayed_total", "Opérations de la file locale rejouées vers le support");
+    private static final Counter DUPLICATES = MetricsRegistry.shared()
+        .counter("ucc_offline_duplicates_total", "Opérations écartées au rejeu (transaction_id ou email déjà présent)");
+    private static final Counter RECONNECTIONS = MetricsRegistry.shared()
+        .counter("ucc_offline_reconnections_total", "Retours en ligne après rejeu de la file locale");
+    private static final Counter REJECTED = MetricsRegistry.shared()
+        .counter("ucc_offline_rejected_total", "Opérations refusées par le support au rejeu");
+    private static final LatencyHistogram BATCH_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_offline_replay_batch_seconds", "Rejeu d'un lot de la file locale");
+
+    private final Path directory;
+    private final FileChannel log;
+    private final PaymentStore payments;
+    private final PersistenceBackend students;
+    // Threads libérés après 30 s d'inactivité : le pool ne sert qu'aux reconnexions
+    private final ThreadPoolExecutor replayPool = new ThreadPoolExecutor(REPLAY_PARALLELISM, REPLAY_PARALLELISM,
+        30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), VirtualThreads.daemonFactory("offline-replay-batch"));
+    private final Thread replayThread;
+    private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    // Protégés par appendLock
+    private final Object appendLock = new Object();
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private volatile boolean offline;
+    private long appendedBytes; // position logique croissante, jamais remise à zéro
+    private long fileBase;      // position logique du début du fichier
+
+    // Protégé par syncLock ; lu sans verrou pour le chemin rapide
+    private final Object syncLock = new Object();
+    private volatile long durablePosition;
+
+    private OfflineQueue(Path directory, PaymentStore payments, PersistenceBackend students) throws IOException {
+        this.directory = directory;
+        this.payments = payments;
+        this.students = students;
+        Files.createDirectories(directory);
+        this.log = FileChannel.open(directory.resolve(LOG_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replayPool.allowCoreThreadTimeOut(true);
+        this.replayThread = new Thread(this::runReplay, "offline-replay");
+        this.replayThread.setDaemon(true);
+    }
+
+    /**
+     * Ouvre (ou crée) la file dans le répertoire donné. Des opérations restées en file
+     * au dernier arrêt sont rejouées dès que le support répond.
+     * @param students support des comptes, ou null si les inscriptions ne passent pas par la file
+     */
+    public static OfflineQueue open(Path directory, PaymentStore payments, PersistenceBackend students)
+            throws IOException {
+        OfflineQueue queue = new OfflineQueue(directory, payments, students);
+        try {
+            queue.recover();
+        } catch (IOException e) {
+            queue.log.close();
+            throw e;
+        }
+        queue.replayThread.start();
+        return queue;
+    }
+
+    /**
+     * Registre des paiements passant par la file. Sa fermeture ferme le support distant.
+     */
+    public PaymentStore paymentStore() {
+        return new QueuedPaymentStore();
+    }
+
+    /**
+     * Support des comptes passant par la file. Sa fermeture ferme le support distant.
+     * @throws IllegalStateException si la file a été ouverte sans support des comptes
+     */
+    public PersistenceBackend studentBackend() {
+        if (students == null) {
+            throw new IllegalStateException("File ouverte sans support des comptes");
+        }
+        return new QueuedStudentBackend();
+    }
+
+    /**
+     * true tant que des écritures sont mises en file au lieu d'être envoyées au support.
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public int getPendingCount() {
+        synchronized (appendLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Abonne un écouteur au retour en ligne, une fois la file rejouée. Il est appelé
+     * sur le thread de rejeu.
+     */
+    public void addReconnectListener(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    /**
+     * Attend que la file soit vide et de nouveau en ligne.
+     * @return false si le délai a expiré avant
+     */
+    public boolean awaitDrained(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (appendLock) {
+            while (offline || !pending.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || closed) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(appendLock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Arrête le rejeu et ferme le journal. Les opérations restantes seront rejouées
+     * au prochain démarrage.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appendLock.notifyAll();
+        }
+        replayThread.interrupt();
+        try {
+            replayThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        replayPool.shutdownNow();
+        log.close();
+    }
+
+    /**
+     * Écrit le lot sur le support, ou le met en file si le support est (ou vient de se
+     * révéler) injoignable. Toute erreur du support fait passer la file hors ligne : un
+     * doublon réel sera écarté au rejeu.
+     */
+    private void write(IoAction remote, List<OfflineOperation> operations) throws IOException {
+        while (true) {
+            if (!offline) {
+                try {
+                    remote.run();
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    goOffline(e);
+                }
+            }
+            if (enqueue(operations)) {
+                return;
+            }
+        }
+    }
+
+    private void goOffline(Exception cause) {
+        synchronized (appendLock) {
+            if (!offline) {
+                offline = true;
+                System.err.println("Base de données injoignable, écritures mises en file locale : " + cause.getMessage());
+                appendLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Ajoute les opérations au journal et attend qu'elles soient durables.
+     * @return false si la file est repassée en ligne entre-temps (rien n'est ajouté)
+     */
+    private boolean enqueue(List<OfflineOperation> operations) throws IOException {
+        byte[][] payloads = new byte[operations.size()][];
+        int size = 0;
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = operations.get(i).encode();
+            size += HEADER_SIZE + payloads[i].length;
+        }
+        ByteBuffer records = ByteBuffer.allocate(size);
+        long[] ends = new long[payloads.length];
+        CRC32 crc = new CRC32();
+        long end;
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IOException("File locale fermée");
+            }
+            if (!offline) {
+                return false;
+            }
+            for (int i = 0; i < payloads.length; i++) {
+                crc.reset();
+                crc.update(payloads[i]);
+                records.putInt(payloads[i].length).putInt((int) crc.getValue()).put(payloads[i]);
+                ends[i] = appendedBytes + records.position();
+            }
+            records.flip();
+            long position = appendedBytes - fileBase;
+            try {
+                while (records.hasRemaining()) {
+                    position += log.write(records, position);
+                }
+            } catch (IOException e) {
+                // Rien en file : inutile de rester hors ligne, la prochaine écriture retentera le support
+                if (pending.isEmpty()) {
+                    offline = false;
+                }
+                throw e;
+            }
+            appendedBytes += size;
+            end = appendedBytes;
+            for (int i = 0; i < payloads.length; i++) {
+                pending.add(new Entry(operations.get(i), ends[i]));
+            }
+            appendLock.notifyAll();
+        }
+        awaitDurable(end);
+        QUEUED.add(operations.size());
+        return true;
+    }
+
+    private void awaitDurable(long end) throws IOException {
+        if (durablePosition >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            // Un autre thread a pu forcer le disque pendant l'attente du verrou
+            if (durablePosition >= end) {
+                return;
+            }
+            long target;
+            synchronized (appendLock) {
+                target = appendedBytes;
+            }
+            log.force(false);
+            if (target > durablePosition) {
+                durablePosition = target;
+            }
+        }
+    }
+
+    private void runReplay() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!closed) {
+            try {
+                synchronized (appendLock) {
+                    while (!closed && (!offline || pending.isEmpty())) {
+                        appendLock.wait();
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                if (replayRound()) {
+                    backoff = MIN_BACKOFF_MILLIS;
+                } else {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rejoue les plus anciennes opérations en file (au plus {@value #MAX_ROUND_OPERATIONS}).
+     * @return false si le support est toujours injoignable
+     */
+    private boolean replayRound() throws InterruptedException {
+        List<Entry> round = new ArrayList<>();
+        synchronized (appendLock) {
+            for (Entry entry : pending) {
+                if (round.size() == MAX_ROUND_OPERATIONS) {
+                    break;
+                }
+                round.add(entry);
+            }
+        }
+
+        // Fusion par clé : la dernière version d'un compte, le dernier statut d'un paiement
+        Map<String, OfflineOperation> registrations = new LinkedHashMap<>();
+        Map<String, OfflineOperation> studentUpdates = new LinkedHashMap<>();
+        Map<String, OfflineOperation> inserts = new LinkedHashMap<>();
+        Map<String, OfflineOperation> statusChanges = new LinkedHashMap<>();
+        int duplicates = 0;
+        for (Entry entry : round) {
+            OfflineOperation operation = entry.operation;
+            String key = operation.key();
+            switch (operation.getKind()) {
+                case REGISTRATION:
+                    if (registrations.putIfAbsent(key, operation) != null) {
+                        duplicates++;
+                    }
+                    break;
+                case STUDENT_UPDATE:
+                    if (registrations.containsKey(key)) {
+                        registrations.put(key, OfflineOperation.registration(operation.getStudent()));
+                    } else {
+                        studentUpdates.put(key, operation);
+                    }
+                    break;
+                case PAYMENT:
+                    if (inserts.putIfAbsent(key, operation) != null) {
+                        duplicates++;
+                    }
+                    break;
+                case STATUS_CHANGE:
+                    OfflineOperation insert = inserts.get(key);
+                    if (insert == null) {
+                        statusChanges.put(key, operation);
+                    } else if (insert.getPayment().getStatus() == PaymentStatus.PENDING) {
+                        inserts.put(key, OfflineOperation.payment(operation.getPayment()));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        try {
+            // Les paiements référencent l'étudiant par son email : inscriptions d'abord
+            if (!registrations.isEmpty() || !studentUpdates.isEmpty()) {
+                for (String email : students.findExisting(registrations.keySet())) {
+                    registrations.remove(email);
+                    duplicates++;
+                }
+                List<OfflineOperation> operations = new ArrayList<>(registrations.values());
+                operations.addAll(studentUpdates.values());
+                replay(operations, this::writeStudents, students::findExisting);
+            }
+            if (!inserts.isEmpty() || !statusChanges.isEmpty()) {
+                for (String transactionId : payments.findExisting(inserts.keySet())) {
+                    // Déjà inséré (tour précédent interrompu) : seul le statut final reste à écrire
+                    Payment payment = inserts.remove(transactionId).getPayment();
+                    duplicates++;
+                    if (payment.getStatus() != PaymentStatus.PENDING) {
+                        statusChanges.putIfAbsent(transactionId, OfflineOperation.statusChange(payment));
+                    }
+                }
+                List<OfflineOperation> operations = new ArrayList<>(inserts.values());
+                operations.addAll(statusChanges.values());
+                replay(operations, this::writePayments, payments::findExisting);
+            }
+            DUPLICATES.add(duplicates);
+            commit(round);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Envoie les opérations par lots, au plus {@value #REPLAY_PARALLELISM} à la fois.
+     * Les clés sont toutes distinctes après fusion : les lots sont indépendants.
+     */
+    private void replay(List<OfflineOperation> operations, BatchWriter writer, ExistenceCheck check)
+            throws IOException, InterruptedException {
+        List<List<OfflineOperation>> batches = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < operations.size(); from += REPLAY_BATCH_SIZE) {
+            List<OfflineOperation> batch = operations.subList(from, Math.min(operations.size(), from + REPLAY_BATCH_SIZE));
+            batches.add(batch);
+            futures.add(replayPool.submit(() -> {
+                long start = System.nanoTime();
+                writer.write(batch);
+                BATCH_LATENCY.recordSince(start);
+                return null;
+            }));
+        }
+        List<OfflineOperation> failed = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+                REPLAYED.add(batches.get(i).size());
+            } catch (ExecutionException e) {
+                failed.addAll(batches.get(i));
+            }
+        }
+        if (!failed.isEmpty()) {
+            isolate(failed, writer, check);
+        }
+    }
+
+    /**
+     * Des lots ont échoué. Si le support répond à une lecture, leurs opérations sont
+     * retentées une à une et celles qu'il refuse encore sont écartées ; sinon (panne,
+     * lecture en échec) le tour est abandonné et sera rejoué plus tard.
+     */
+    private void isolate(List<OfflineOperation> failed, BatchWriter writer, ExistenceCheck check)
+            throws IOException {
+        Set<String> existing = check.findExisting(keys(failed));
+        List<OfflineOperation> rejected = new ArrayList<>();
+        Exception lastError = null;
+        for (OfflineOperation operation : failed) {
+            boolean insert = operation.getKind() == OfflineOperation.Kind.REGISTRATION
+                || operation.getKind() == OfflineOperation.Kind.PAYMENT;
+            if (insert && existing.contains(operation.key())
+                    && (operation.isStudent() || operation.getPayment().getStatus() == PaymentStatus.PENDING)) {
+                // Écrit malgré l'erreur (lot sans transaction)
+                DUPLICATES.increment();
+                continue;
+            }
+            try {
+                writer.write(List.of(insert && existing.contains(operation.key())
+                    ? OfflineOperation.statusChange(operation.getPayment()) : operation));
+                REPLAYED.increment();
+            } catch (IOException | RuntimeException e) {
+                rejected.add(operation);
+                lastError = e;
+            }
+        }
+        if (rejected.isEmpty()) {
+            return;
+        }
+        // Seconde lecture : une panne pendant les essais abandonne le tour au lieu d'écarter
+        check.findExisting(keys(rejected));
+        reject(rejected, lastError);
+    }
+
+    private void reject(List<OfflineOperation> rejected, Exception error) {
+        REJECTED.add(rejected.size());
+        System.err.println(rejected.size() + " opération(s) de la file locale refusée(s) par la base : "
+            + error.getMessage() + " (voir " + REJECTED_FILE + ")");
+        StringBuilder lines = new StringBuilder();
+        for (OfflineOperation operation : rejected) {
+            lines.append(Instant.now()).append('\t').append(operation).append('\t')
+                .append(error.getMessage()).append(System.lineSeparator());
+        }
+        try {
+            Files.writeString(directory.resolve(REJECTED_FILE), lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Fichier des rejets inaccessible : " + e.getMessage() + System.lineSeparator() + lines);
+        }
+    }
+
+    /**
+     * Retire le tour rejoué de la file : point de reprise après sa dernière opération, ou
+     * journal vidé et retour en ligne si plus rien n'attend.
+     */
+    private void commit(List<Entry> round) throws IOException {
+        boolean reconnected = false;
+        synchronized (appendLock) {
+            if (round.size() == pending.size()) {
+                // Point de reprise supprimé d'abord : un arrêt entre les deux rejoue tout, sans doublon
+                Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+                log.truncate(0);
+                fileBase = appendedBytes;
+                pending.clear();
+                offline = false;
+                reconnected = !round.isEmpty();
+            } else {
+                writeCheckpoint(round.get(round.size() - 1).end - fileBase);
+                for (int i = 0; i < round.size(); i++) {
+                    pending.poll();
+                }
+            }
+            appendLock.notifyAll();
+        }
+        if (reconnected) {
+            RECONNECTIONS.increment();
+            for (Runnable listener : reconnectListeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Écouteur de la file locale en échec : " + e);
+                }
+            }
+        }
+    }
+
+    private void writeStudents(List<OfflineOperation> batch) throws IOException {
+        List<Student> registrations = new ArrayList<>();
+        for (OfflineOperation operation : batch) {
+            if (operation.getKind() == OfflineOperation.Kind.REGISTRATION) {
+                registrations.add(operation.getStudent());
+            }
+        }
+        if (!registrations.isEmpty()) {
+            students.saveAll(registrations);
+        }
+        for (OfflineOperation operation : batch) {
+            if (operation.getKind() == OfflineOperation.Kind.STUDENT_UPDATE) {
+                students.update(operation.getStudent());
+            }
+        }
+    }
+
+    private void writePayments(List<OfflineOperation> batch) throws IOException {
+        List<Payment> inserts = new ArrayList<>();
+        List<Payment> statusChanges = new ArrayList<>();
+        for (OfflineOperation operation : batch) {
+            (operation.getKind() == OfflineOperation.Kind.PAYMENT ? inserts : statusChanges).add(operation.getPayment());
+        }
+        payments.writeBatch(inserts, statusChanges);
+    }
+
+    /**
+     * Relit les opérations non rejouées ; le premier enregistrement tronqué ou corrompu
+     * termine le journal et la suite est effacée.
+     */
+    private void recover() throws IOException {
+        long size = log.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal de la file locale trop volumineux : " + size + " octets");
+        }
+        ByteBuffer records = ByteBuffer.allocate((int) size);
+        while (records.hasRemaining() && log.read(records, records.position()) >= 0) {
+            // lecture complète
+        }
+        records.flip();
+        long checkpoint = readCheckpoint();
+        // Point de reprise au-delà du journal : fichiers incohérents, tout est rejoué
+        records.position(checkpoint <= size ? (int) checkpoint : 0);
+
+        CRC32 crc = new CRC32();
+        while (records.remaining() >= HEADER_SIZE) {
+            int start = records.position();
+            int length = records.getInt(start);
+            int checksum = records.getInt(start + Integer.BYTES);
+            if (length <= 0 || length > records.limit() - start - HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer payload = records.duplicate();
+            payload.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            OfflineOperation operation;
+            try {
+                operation = OfflineOperation.decode(payload);
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            records.position(start + HEADER_SIZE + length);
+            pending.add(new Entry(operation, records.position()));
+        }
+        if (records.position() < size) {
+            log.truncate(records.position());
+            log.force(true);
+        }
+        appendedBytes = records.position();
+        durablePosition = appendedBytes;
+        offline = !pending.isEmpty();
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        return bytes.length == Long.BYTES ? Math.max(0, ByteBuffer.wrap(bytes).getLong()) : 0;
+    }
+
+    private void writeCheckpoint(long position) throws IOException {
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, position);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<OfflineOperation> snapshot() {
+        synchronized (appendLock) {
+            List<OfflineOperation> operations = new ArrayList<>(pending.size());
+            for (Entry entry : pending) {
+                operations.add(entry.operation);
+            }
+            return operations;
+        }
+    }
+
+    private static List<String> keys(List<OfflineOperation> operations) {
+        List<String> keys = new ArrayList<>(operations.size());
+        for (OfflineOperation operation : operations) {
+            keys.add(operation.key());
+        }
+        return keys;
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(List<OfflineOperation> batch) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ExistenceCheck {
+        Set<String> findExisting(Collection<String> keys) throws IOException;
+    }
+
+    private static final class Entry {
+        final OfflineOperation operation;
+        final long end; // position logique de fin dans le journal
+
+        Entry(OfflineOperation operation, long end) {
+            this.operation = operation;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Lit le support distant ; s'il est injoignable, la file passe hors ligne et seules
+     * les opérations en file sont servies (le démarrage pendant une panne garde les
+     * écritures dans le journal local au lieu de les perdre).
+     */
+    private void loadRemote(IoAction load) {
+        try {
+            load.run();
+        } catch (IOException | RuntimeException e) {
+            goOffline(e);
+            System.err.println("Chargement depuis la base impossible, seule la file locale est relue");
+        }
+    }
+
+    /**
+     * Registre des paiements vu à travers la file : le support distant, complété par les
+     * opérations encore en file (relecture au démarrage comprise).
+     */
+    private final class QueuedPaymentStore implements PaymentStore {
+
+        @Override
+        public void loadAll(Consumer<Payment> sink) throws IOException {
+            List<OfflineOperation> queued = new ArrayList<>();
+            for (OfflineOperation operation : snapshot()) {
+                if (!operation.isStudent()) {
+                    queued.add(operation);
+                }
+            }
+            if (queued.isEmpty()) {
+                loadRemote(() -> payments.loadAll(sink));
+                return;
+            }
+            Map<String, Payment> rows = new LinkedHashMap<>();
+            loadRemote(() -> payments.loadAll(payment -> rows.put(payment.getTransactionId(), payment)));
+            for (OfflineOperation operation : queued) {
+                if (operation.getKind() == OfflineOperation.Kind.PAYMENT) {
+                    rows.putIfAbsent(operation.key(), operation.getPayment());
+                } else {
+                    rows.computeIfPresent(operation.key(), (id, row) ->
+                        row.getStatus() == PaymentStatus.PENDING ? operation.getPayment() : row);
+                }
+            }
+            rows.values().forEach(sink);
+        }
+
+        @Override
+        public void writeBatch(List<Payment> inserts, List<Payment> statusChanges) throws IOException {
+            List<OfflineOperation> operations = new ArrayList<>(inserts.size() + statusChanges.size());
+            inserts.forEach(payment -> operations.add(OfflineOperation.payment(payment)));
+            statusChanges.forEach(payment -> operations.add(OfflineOperation.statusChange(payment)));
+            write(() -> payments.writeBatch(inserts, statusChanges), operations);
+        }
+
+        @Override
+        public Set<String> findExisting(Collection<String> transactionIds) throws IOException {
+            Set<String> existing = new HashSet<>(payments.findExisting(transactionIds));
+            for (OfflineOperation operation : snapshot()) {
+                if (operation.getKind() == OfflineOperation.Kind.PAYMENT && transactionIds.contains(operation.key())) {
+                    existing.add(operation.key());
+                }
+            }
+            return existing;
+        }
+
+        @Override
+        public void close() throws IOException {
+            payments.close();
+        }
+    }
+
+    /**
+     * Support des comptes vu à travers la file.
+     */
+    private final class QueuedStudentBackend implements PersistenceBackend {
+
+        @Override
+        public void loadAll(Consumer<Student> sink) throws IOException {
+            List<OfflineOperation> queued = new ArrayList<>();
+            for (OfflineOperation operation : snapshot()) {
+                if (operation.isStudent()) {
+                    queued.add(operation);
+                }
+            }
+            if (queued.isEmpty()) {
+                loadRemote(() -> students.loadAll(sink));
+                return;
+            }
+            Map<String, Student> rows = new LinkedHashMap<>();
+            loadRemote(() -> students.loadAll(student -> rows.put(Student.normalizeEmail(student.getEmail()), student)));
+            for (OfflineOperation operation : queued) {
+                if (operation.getKind() == OfflineOperation.Kind.REGISTRATION) {
+                    rows.putIfAbsent(operation.key(), operation.getStudent());
+                } else {
+                    rows.replace(operation.key(), operation.getStudent());
+                }
+            }
+            rows.values().forEach(sink);
+        }
+
+        @Override
+        public void save(Student student) throws IOException {
+            write(() -> students.save(student), List.of(OfflineOperation.registration(student)));
+        }
+
+        @Override
+        public void saveAll(List<Student> batch) throws IOException {
+            List<OfflineOperation> operations = new ArrayList<>(batch.size());
+            batch.forEach(student -> operations.add(OfflineOperation.registration(student)));
+            write(() -> students.saveAll(batch), operations);
+        }
+
+        @Override
+        public void update(Student student) throws IOException {
+            write(() -> students.update(student), List.of(OfflineOperation.studentUpdate(student)));
+        }
+
+        @Override
+        public Set<String> findExisting(Collection<String> emails) throws IOException {
+            Set<String> existing = new HashSet<>(students.findExisting(emails));
+            for (OfflineOperation operation : snapshot()) {
+                if (operation.getKind() == OfflineOperation.Kind.REGISTRATION && emails.contains(operation.key())) {
+                    existing.add(operation.key());
+                }
+            }
+            return existing;
+        }
+
+        @Override
+        public void close() throws IOException {
+            students.close();
+        }
+    }
+}
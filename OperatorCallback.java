@@ -0,0 +1,40 @@
+package ucc.payment.system.gateway;
+
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+
+import java.time.Instant;
+
+/**
+ * Notification d'un opérateur mobile sur l'état d'une transaction.
+ * Les opérateurs peuvent l'envoyer plusieurs fois et dans le désordre.
+ */
+public class OperatorCallback {
+    private final String transactionId;
+    private final PaymentMethod method;
+    private final PaymentStatus status;
+    private final String operatorReference;
+    private final Instant sentAt;
+
+    public OperatorCallback(String transactionId, PaymentMethod method, PaymentStatus status,
+                            String operatorReference, Instant sentAt) {
+        this.transactionId = transactionId;
+        this.method = method;
+        this.status = status;
+        this.operatorReference = operatorReference;
+        this.sentAt = sentAt;
+    }
+
+    // Getters
+    public String getTransactionId() { return transactionId; }
+    public PaymentMethod getMethod() { return method; }
+    public PaymentStatus getStatus() { return status; }
+    public String getOperatorReference() { return operatorReference; }
+    public Instant getSentAt() { return sentAt; }
+
+    @Override
+    public String toString() {
+        return String.format("Notification[%s, %s, %s, %s]", transactionId, method.getLabel(),
+            status.getDbValue(), operatorReference);
+    }
+}
@@ -0,0 +1,20 @@
+package ucc.payment.system.gateway;
+
+import ucc.payment.system.model.Payment;
+
+/**
+ * Passerelle vers les opérateurs mobile money. La demande de paiement part
+ * immédiatement ; le résultat arrive plus tard par notification
+ * ({@link OperatorCallback}) au destinataire fourni à la construction.
+ */
+public interface OperatorGateway extends AutoCloseable {
+
+    /**
+     * Transmet une demande de paiement "pending" à l'opérateur de sa méthode.
+     * @throws IllegalArgumentException si la méthode n'est pas un opérateur mobile
+     */
+    void requestPayment(Payment payment);
+
+    @Override
+    default void close() {}
+}
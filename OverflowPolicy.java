@@ -0,0 +1,13 @@
+package ucc.payment.system.audit;
+
+/**
+ * Comportement du journal d'activité quand les producteurs vont plus vite que l'écriture.
+ */
+public enum OverflowPolicy {
+    /** File pleine : l'événement est abandonné (compté). Ne bloque jamais. */
+    DROP,
+    /** Au-delà de 75 % de remplissage, seul un événement sur N est gardé ; file pleine : abandon. */
+    SAMPLE,
+    /** File pleine : le producteur attend une place. À éviter sur l'EDT. */
+    BLOCK
+}
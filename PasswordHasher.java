@@ -0,0 +1,243 @@
+package ucc.payment.system.security;
+
+import ucc.payment.system.util.VirtualThreads;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service de hashage des mots de passe (PBKDF2-HMAC-SHA256).
+ *
+ * <p>Le calcul, volontairement coûteux, s'exécute sur un pool borné dimensionné
+ * sur le nombre de cœurs : une rafale d'inscriptions ou de connexions ne peut pas
+ * saturer la machine. Quand la file est pleine, l'appelant attend (contre-pression)
+ * puis reçoit une {@link RejectedExecutionException} si le délai est dépassé.
+ *
+ * <p>Format stocké : {@code pbkdf2-sha256$<itérations>$<sel base64>$<hash base64>}.
+ * Les anciens hashs (String.hashCode) restent vérifiables et sont signalés par
+ * {@link #needsRehash} pour être mis à niveau à la connexion, comme les hashs sous le
+ * plancher d'itérations fixe (propriété système ucc.hash.min.iterations, 10 000 par
+ * défaut) : le facteur calibré varie d'un démarrage à l'autre et ne sert pas de seuil.
+ */
+public class PasswordHasher implements AutoCloseable {
+    public static final String ALGORITHM_ID = "pbkdf2-sha256";
+    private static final String JCA_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MIN_ITERATIONS = Math.max(1, Integer.getInteger("ucc.hash.min.iterations", 10_000));
+    private static final int CALIBRATION_ITERATIONS = 5_000;
+    private static final int CALIBRATION_ROUNDS = 8;
+    private static final long DEFAULT_TARGET_MILLIS = 50;
+    private static final long QUEUE_TIMEOUT_SECONDS = 10;
+
+    private static PasswordHasher defaultInstance;
+
+    private final int iterations;
+    private final ThreadPoolExecutor pool;
+    private final SecureRandom random = new SecureRandom();
+    private final String dummyHash;
+
+    /**
+     * @param threads       nombre de threads de calcul
+     * @param queueCapacity nombre de demandes en attente avant contre-pression
+     * @param iterations    facteur de travail PBKDF2
+     */
+    public PasswordHasher(int threads, int queueCapacity, int iterations) {
+        this.iterations = Math.max(MIN_ITERATIONS, iterations);
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), VirtualThreads.daemonFactory("password-hasher"),
+            PasswordHasher::waitForRoom);
+        this.dummyHash = computeHash("dummy-password", newSalt(), this.iterations);
+    }
+
+    /**
+     * Instance partagée, calibrée au premier appel sur une latence cible
+     * (propriété système ucc.hash.target.ms, 50 ms par défaut).
+     */
+    public static synchronized PasswordHasher getDefault() {
+        if (defaultInstance == null) {
+            long target = Long.getLong("ucc.hash.target.ms", DEFAULT_TARGET_MILLIS);
+            defaultInstance = calibrated(target);
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Crée un service dont le facteur de travail vise la latence donnée sur cette machine.
+     */
+    public static PasswordHasher calibrated(long targetMillis) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new PasswordHasher(cores, cores * 64, calibrate(targetMillis));
+    }
+
+    /**
+     * Mesure le coût d'un hash et en déduit le nombre d'itérations pour la latence cible.
+     * On retient la mesure la plus rapide : les premières tournées servent de préchauffage JIT.
+     */
+    public static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+            long start = System.nanoTime();
+            derive("calibration", salt, CALIBRATION_ITERATIONS);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        double perIteration = (double) Math.max(1, bestNanos) / CALIBRATION_ITERATIONS;
+        long iterations = (long) (TimeUnit.MILLISECONDS.toNanos(targetMillis) / perIteration);
+        return (int) Math.max(MIN_ITERATIONS, Math.min(Integer.MAX_VALUE, iterations));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Hashe un mot de passe avec un sel aléatoire (bloque l'appelant, pas l'EDT
+     * si l'appel vient d'un thread virtuel).
+     */
+    public String hash(String password) {
+        return await(() -> computeHash(password, newSalt(), iterations));
+    }
+
+    /**
+     * Hashe sur le thread appelant, sans passer par le pool : réservé aux traitements
+     * par lots qui dimensionnent eux-mêmes leur parallélisme (import des inscriptions).
+     */
+    public String hashInCallerThread(String password) {
+        return computeHash(password, newSalt(), iterations);
+    }
+
+    public CompletableFuture<String> hashAsync(String password) {
+        return CompletableFuture.supplyAsync(() -> computeHash(password, newSalt(), iterations), pool);
+    }
+
+    /**
+     * Vérifie un mot de passe contre un hash stocké, en temps constant
+     * vis-à-vis du contenu du hash.
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (isLegacy(stored)) {
+            byte[] expected = stored.getBytes(StandardCharsets.UTF_8);
+            byte[] actual = Integer.toString(password.hashCode()).getBytes(StandardCharsets.UTF_8);
+            return MessageDigest.isEqual(expected, actual);
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !ALGORITHM_ID.equals(parts[0])) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            byte[] actual = await(() -> derive(password, salt, storedIterations));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Effectue une vérification factice de même coût, pour qu'un email inconnu
+     * ne se distingue pas d'un mot de passe faux par le temps de réponse.
+     */
+    public void dummyVerify(String password) {
+        verify(password == null ? "" : password, dummyHash);
+    }
+
+    /**
+     * Indique si le hash doit être recalculé : ancien format ou facteur de travail
+     * inférieur au plancher fixe. Tout hash produit ici atteint ce plancher : une
+     * connexion ne déclenche donc jamais deux recalculs de suite.
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null || isLegacy(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || !ALGORITHM_ID.equals(parts[0])
+                || Integer.parseInt(parts[1]) < MIN_ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static boolean isLegacy(String stored) {
+        return stored.indexOf('$') < 0;
+    }
+
+    private byte[] newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return salt;
+    }
+
+    private static String computeHash(String password, byte[] salt, int iterations) {
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return ALGORITHM_ID + "$" + iterations + "$" + encoder.encodeToString(salt)
+            + "$" + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(JCA_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 indisponible", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private <T> T await(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hashage interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                ? (RuntimeException) cause
+                : new IllegalStateException("Échec du hashage", cause);
+        }
+    }
+
+    /**
+     * Contre-pression : attend une place dans la file au lieu de rejeter immédiatement.
+     */
+    private static void waitForRoom(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Service de hashage arrêté");
+        }
+        try {
+            if (!executor.getQueue().offer(task, QUEUE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new RejectedExecutionException("Service de hashage surchargé, réessayez");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Attente interrompue", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ucc.payment.system.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Paiement de frais académiques (une ligne de la table payments).
+ * Immuable : un changement de statut produit une nouvelle instance.
+ */
+public class Payment {
+    // Colonne amount DECIMAL(10, 2)
+    public static final int AMOUNT_SCALE = 2;
+    public static final BigDecimal MAX_AMOUNT = new BigDecimal("99999999.99");
+
+    private final String transactionId;
+    private final String studentEmail;
+    private final BigDecimal amount;
+    private final PaymentMethod method;
+    private final PaymentStatus status;
+    private final Instant paymentDate;
+
+    public Payment(String transactionId, String studentEmail, BigDecimal amount,
+                   PaymentMethod method, PaymentStatus status, Instant paymentDate) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Le montant doit être positif");
+        }
+        if (amount.compareTo(MAX_AMOUNT) > 0) {
+            throw new IllegalArgumentException("Le montant ne peut pas dépasser " + MAX_AMOUNT.toPlainString());
+        }
+        if (amount.stripTrailingZeros().scale() > AMOUNT_SCALE) {
+            throw new IllegalArgumentException("Le montant ne peut pas avoir plus de " + AMOUNT_SCALE + " décimales");
+        }
+        this.transactionId = transactionId;
+        this.studentEmail = studentEmail;
+        this.amount = amount;
+        this.method = method;
+        this.status = status;
+        this.paymentDate = paymentDate;
+    }
+
+    // Getters
+    public String getTransactionId() { return transactionId; }
+    public String getStudentEmail() { return studentEmail; }
+    public BigDecimal getAmount() { return amount; }
+    public PaymentMethod getMethod() { return method; }
+    public PaymentStatus getStatus() { return status; }
+    public Instant getPaymentDate() { return paymentDate; }
+
+    public Payment withStatus(PaymentStatus newStatus) {
+        return new Payment(transactionId, studentEmail, amount, method, newStatus, paymentDate);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Paiement[%s, %s, %s, %s, %s]",
+            transactionId, studentEmail, amount, method.getLabel(), status.getDbValue()
+        );
+    }
+}
@@ -0,0 +1,29 @@
+package ucc.payment.system.payment;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Parcours page par page du registre des paiements, pour l'administration.
+ *
+ * <p>Les pages sont lues par clé (keyset) sur (payment_date, payment_id) : la page suivante
+ * part de la dernière ligne de la précédente, sans relire ni compter ce qui la précède,
+ * quelle que soit la profondeur dans le registre. Filtres et ordre sont appliqués par le
+ * support (clause WHERE et ORDER BY pour la base).
+ */
+public interface PaymentBrowser {
+
+    /**
+     * Nombre de paiements correspondant au filtre.
+     */
+    long count(PaymentFilter filter) throws IOException;
+
+    /**
+     * Lignes qui suivent {@code after} dans l'ordre du filtre.
+     * @param after dernière ligne déjà lue, ou null pour partir du début
+     * @param skip lignes à sauter après {@code after} (saut vers une page dont la
+     *             précédente n'a pas été lue ; 0 pour la lecture suivie)
+     * @param limit nombre maximal de lignes
+     */
+    List<PaymentRow> page(PaymentFilter filter, PaymentRow after, int skip, int limit) throws IOException;
+}
@@ -0,0 +1,143 @@
+package ucc.payment.system.ui;
+
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.payment.PaymentBrowser;
+import ucc.payment.system.payment.PaymentFilter;
+import ucc.payment.system.util.DialogUtils;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Panneau d'administration : parcours du registre des paiements, filtré par statut,
+ * méthode, filière et période. La table est alimentée page par page par un
+ * {@link PaymentTableModel} : elle reste fluide quel que soit le nombre de paiements.
+ */
+public class PaymentBrowserPanel extends JPanel {
+    private static final String ANY = "Tous";
+    private static final String[] ORDERS = {"Plus récents d'abord", "Plus anciens d'abord"};
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final PaymentTableModel model;
+    private final JComboBox<String> statusBox = new JComboBox<>();
+    private final JComboBox<String> methodBox = new JComboBox<>();
+    private final JComboBox<String> facultyBox = new JComboBox<>();
+    private final JComboBox<String> orderBox = new JComboBox<>(ORDERS);
+    private final JTextField fromField = new JTextField(8);
+    private final JTextField toField = new JTextField(8);
+    private final JLabel countLabel = new JLabel(" ");
+
+    public PaymentBrowserPanel(PaymentBrowser browser) {
+        super(new BorderLayout(10, 10));
+        this.model = new PaymentTableModel(browser);
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        statusBox.addItem(ANY);
+        for (PaymentStatus status : PaymentStatus.values()) {
+            statusBox.addItem(status.getDbValue());
+        }
+        methodBox.addItem(ANY);
+        for (PaymentMethod method : PaymentMethod.values()) {
+            methodBox.addItem(method.getLabel());
+        }
+        facultyBox.addItem(ANY);
+        ReferenceData.FACULTIES.forEach(facultyBox::addItem);
+        fromField.setToolTipText("jj/mm/aaaa");
+        toField.setToolTipText("jj/mm/aaaa (inclus)");
+
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filters.add(new JLabel("Statut :"));
+        filters.add(statusBox);
+        filters.add(new JLabel("Méthode :"));
+        filters.add(methodBox);
+        filters.add(new JLabel("Filière :"));
+        filters.add(facultyBox);
+        filters.add(new JLabel("Du :"));
+        filters.add(fromField);
+        filters.add(new JLabel("Au :"));
+        filters.add(toField);
+        filters.add(orderBox);
+        JButton search = new JButton("Rechercher");
+        search.addActionListener(e -> applyFilter());
+        filters.add(search);
+        add(filters, BorderLayout.NORTH);
+
+        JTable table = new JTable(model);
+        table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        // Hauteur fixe : la table ne calcule et ne demande que les lignes visibles
+        table.setRowHeight(22);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton refresh = new JButton("Actualiser");
+        refresh.addActionListener(e -> show(model.getFilter()));
+        JPanel footer = new JPanel(new BorderLayout());
+        footer.add(countLabel, BorderLayout.WEST);
+        footer.add(refresh, BorderLayout.EAST);
+        add(footer, BorderLayout.SOUTH);
+
+        show(PaymentFilter.all());
+    }
+
+    private void applyFilter() {
+        PaymentFilter filter = PaymentFilter.all()
+            .withDescending(orderBox.getSelectedIndex() == 0);
+        if (statusBox.getSelectedIndex() > 0) {
+            filter = filter.withStatus(PaymentStatus.values()[statusBox.getSelectedIndex() - 1]);
+        }
+        if (methodBox.getSelectedIndex() > 0) {
+            filter = filter.withMethod(PaymentMethod.values()[methodBox.getSelectedIndex() - 1]);
+        }
+        if (facultyBox.getSelectedIndex() > 0) {
+            filter = filter.withFaculty((String) facultyBox.getSelectedItem());
+        }
+        try {
+            Instant from = parseDay(fromField.getText(), 0);
+            Instant to = parseDay(toField.getText(), 1);
+            if (from != null && to != null && !from.isBefore(to)) {
+                DialogUtils.showError(this, "La date de fin précède la date de début");
+                return;
+            }
+            filter = filter.withPeriod(from, to);
+        } catch (DateTimeParseException e) {
+            DialogUtils.showError(this, "Date invalide (format jj/mm/aaaa) : " + e.getParsedString());
+            return;
+        }
+        show(filter);
+    }
+
+    private void show(PaymentFilter filter) {
+        countLabel.setText("Comptage en cours...");
+        model.setFilter(filter).whenComplete((count, error) -> SwingUtilities.invokeLater(() -> {
+            if (model.getFilter() != filter) {
+                return;
+            }
+            if (error != null) {
+                countLabel.setText("Registre indisponible");
+                DialogUtils.showError(this, "Lecture des paiements impossible : " + error.getMessage());
+            } else {
+                countLabel.setText(String.format("%,d paiement(s)", count));
+            }
+        }));
+    }
+
+    /**
+     * @param plusDays 0 pour le début du jour, 1 pour une fin de période incluant ce jour
+     * @return null si le champ est vide
+     */
+    private static Instant parseDay(String text, int plusDays) {
+        if (text.isBlank()) {
+            return null;
+        }
+        return LocalDate.parse(text.trim(), DAY_FORMAT).plusDays(plusDays)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,86 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Critères de parcours du registre des paiements, appliqués par la requête elle-même.
+ * Immuable ; un champ null ne filtre pas. L'ordre est celui de (payment_date, payment_id).
+ */
+public final class PaymentFilter {
+    private static final PaymentFilter ALL = new PaymentFilter(null, null, null, null, null, true);
+
+    private final PaymentStatus status;
+    private final PaymentMethod method;
+    private final String faculty;
+    private final Instant from;
+    private final Instant to;
+    private final boolean descending;
+
+    private PaymentFilter(PaymentStatus status, PaymentMethod method, String faculty,
+                          Instant from, Instant to, boolean descending) {
+        this.status = status;
+        this.method = method;
+        this.faculty = faculty;
+        this.from = from;
+        this.to = to;
+        this.descending = descending;
+    }
+
+    /** Tous les paiements, les plus récents d'abord. */
+    public static PaymentFilter all() {
+        return ALL;
+    }
+
+    public PaymentFilter withStatus(PaymentStatus status) {
+        return new PaymentFilter(status, method, faculty, from, to, descending);
+    }
+
+    /** Méthode de paiement, c'est-à-dire l'opérateur pour le mobile money. */
+    public PaymentFilter withMethod(PaymentMethod method) {
+        return new PaymentFilter(status, method, faculty, from, to, descending);
+    }
+
+    /** Filière de l'étudiant, telle qu'affichée par le formulaire (voir ReferenceData). */
+    public PaymentFilter withFaculty(String faculty) {
+        return new PaymentFilter(status, method, faculty, from, to, descending);
+    }
+
+    /**
+     * @param from début inclus, ou null
+     * @param to fin exclue, ou null
+     */
+    public PaymentFilter withPeriod(Instant from, Instant to) {
+        return new PaymentFilter(status, method, faculty, from, to, descending);
+    }
+
+    public PaymentFilter withDescending(boolean descending) {
+        return new PaymentFilter(status, method, faculty, from, to, descending);
+    }
+
+    // Getters
+    public PaymentStatus getStatus() { return status; }
+    public PaymentMethod getMethod() { return method; }
+    public String getFaculty() { return faculty; }
+    public Instant getFrom() { return from; }
+    public Instant getTo() { return to; }
+    public boolean isDescending() { return descending; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PaymentFilter)) {
+            return false;
+        }
+        PaymentFilter other = (PaymentFilter) o;
+        return status == other.status && method == other.method && Objects.equals(faculty, other.faculty)
+            && Objects.equals(from, other.from) && Objects.equals(to, other.to) && descending == other.descending;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, method, faculty, from, to, descending);
+    }
+}
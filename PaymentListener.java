@@ -0,0 +1,17 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.Payment;
+
+/**
+ * Notifié par {@link PaymentService} quand un paiement est créé ou change de statut,
+ * une fois l'écriture persistée.
+ */
+@FunctionalInterface
+public interface PaymentListener {
+
+    /**
+     * @param previous version précédente, ou null pour une création
+     * @param current  nouvelle version du paiement
+     */
+    void paymentChanged(Payment previous, Payment current);
+}
@@ -0,0 +1,59 @@
+package ucc.payment.system.model;
+
+/**
+ * Méthodes de paiement et opérateurs mobiles, alignés sur les données de référence
+ * des tables payment_methods et mobile_operators.
+ */
+public enum PaymentMethod {
+    ORANGE_MONEY("Orange Money", 1, 1, "Orange"),
+    AIRTEL_MONEY("Airtel Money", 2, 2, "Airtel"),
+    M_PESA("M-Pesa", 3, 3, "Vodacom"),
+    AFRICELL("Africell", 4, 4, "Africell"),
+    PHYSICAL("Paiement Physique", 5, 0, null);
+
+    private final String label;
+    private final int methodId;
+    private final int operatorId;
+    private final String operatorName;
+
+    PaymentMethod(String label, int methodId, int operatorId, String operatorName) {
+        this.label = label;
+        this.methodId = methodId;
+        this.operatorId = operatorId;
+        this.operatorName = operatorName;
+    }
+
+    public String getLabel() { return label; }
+    public int getMethodId() { return methodId; }
+
+    /** @return l'identifiant mobile_operators, ou 0 pour le paiement physique */
+    public int getOperatorId() { return operatorId; }
+
+    /** @return le nom mobile_operators.operator_name, ou null pour le paiement physique */
+    public String getOperatorName() { return operatorName; }
+
+    public boolean isMobileMoney() {
+        return operatorId != 0;
+    }
+
+    /**
+     * Retrouve une méthode à partir du libellé affiché dans le tableau de bord.
+     */
+    public static PaymentMethod fromLabel(String label) {
+        for (PaymentMethod method : values()) {
+            if (method.label.equalsIgnoreCase(label)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("Méthode de paiement inconnue : " + label);
+    }
+
+    public static PaymentMethod fromMethodId(int methodId) {
+        for (PaymentMethod method : values()) {
+            if (method.methodId == methodId) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("Méthode de paiement inconnue : " + methodId);
+    }
+}
@@ -0,0 +1,21 @@
+package ucc.payment.system.payment;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Historique des paiements d'un étudiant, du plus récent au plus ancien.
+ *
+ * <p>Les pages sont lues par clé (keyset) sur (payment_date, payment_id) décroissants,
+ * comme pour {@link PaymentBrowser} : la page suivante part de la dernière ligne de la
+ * précédente.
+ */
+public interface PaymentRepository {
+
+    /**
+     * @param email email de l'étudiant
+     * @param after dernière ligne déjà lue, ou null pour la page la plus récente
+     * @param limit nombre maximal de lignes
+     */
+    List<PaymentRow> history(String email, PaymentRow after, int limit) throws IOException;
+}
@@ -0,0 +1,78 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.VerificationStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Ligne du registre des paiements telle qu'affichée au parcours : le paiement,
+ * l'étudiant concerné et, pour l'historique d'un étudiant, la dernière vérification.
+ * (payment_date, payment_id) sert de curseur pour la page suivante.
+ */
+public final class PaymentRow {
+    private final long paymentId;
+    private final String transactionId;
+    private final String studentEmail;
+    private final String studentName;
+    private final String faculty;
+    private final BigDecimal amount;
+    private final PaymentMethod method;
+    private final PaymentStatus status;
+    private final Instant paymentDate;
+    private final VerificationStatus verification;
+
+    public PaymentRow(long paymentId, String transactionId, String studentEmail, String studentName,
+                      String faculty, BigDecimal amount, PaymentMethod method, PaymentStatus status,
+                      Instant paymentDate) {
+        this(paymentId, transactionId, studentEmail, studentName, faculty, amount, method, status,
+            paymentDate, null);
+    }
+
+    /**
+     * @param verification dernière vérification du paiement, null s'il n'a jamais été vérifié
+     */
+    public PaymentRow(long paymentId, String transactionId, String studentEmail, String studentName,
+                      String faculty, BigDecimal amount, PaymentMethod method, PaymentStatus status,
+                      Instant paymentDate, VerificationStatus verification) {
+        this.paymentId = paymentId;
+        this.transactionId = transactionId;
+        this.studentEmail = studentEmail;
+        this.studentName = studentName;
+        this.faculty = faculty;
+        this.amount = amount;
+        this.method = method;
+        this.status = status;
+        this.paymentDate = paymentDate;
+        this.verification = verification;
+    }
+
+    /**
+     * Ligne réduite à sa position, pour reprendre un parcours à partir d'un curseur.
+     */
+    public static PaymentRow position(Instant paymentDate, long paymentId) {
+        return new PaymentRow(paymentId, null, null, null, null, null, null, null, paymentDate);
+    }
+
+    // Getters
+    public long getPaymentId() { return paymentId; }
+    public String getTransactionId() { return transactionId; }
+    public String getStudentEmail() { return studentEmail; }
+    public String getStudentName() { return studentName; }
+    public String getFaculty() { return faculty; }
+    public BigDecimal getAmount() { return amount; }
+    public PaymentMethod getMethod() { return method; }
+    public PaymentStatus getStatus() { return status; }
+    public Instant getPaymentDate() { return paymentDate; }
+    public VerificationStatus getVerification() { return verification; }
+
+    /**
+     * Position dans l'ordre (payment_date, payment_id) croissant.
+     */
+    int compareKey(PaymentRow other) {
+        int byDate = paymentDate.compareTo(other.paymentDate);
+        return byDate != 0 ? byDate : Long.compare(paymentId, other.paymentId);
+    }
+}
@@ -0,0 +1,234 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.util.BatchingWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registre des paiements : création des lignes payments et transitions de statut.
+ *
+ * <p>L'état courant est indexé en mémoire par transaction_id ; les écritures passent
+ * par un {@link BatchingWriter} qui regroupe les insertions et mises à jour
+ * concurrentes en un seul aller-retour vers le {@link PaymentStore}.
+ *
+ * <p>Les transitions sont idempotentes : appliquer deux fois le même statut à une
+ * transaction ne produit qu'une écriture ; seul "pending" peut évoluer.
+ *
+ * <p>Les transactions rejouées sont écartées par l'index en mémoire, et les demandes
+ * répétées par un {@link DuplicateDetector}, avant d'atteindre le lot d'écriture, où un
+ * doublon ferait échouer tout le lot sur l'index unique de transaction_id.
+ */
+public class PaymentService implements AutoCloseable {
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final long MAX_BATCH_DELAY_MILLIS = 5;
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private static final Counter REPLAYS = MetricsRegistry.shared()
+        .counter("ucc_payment_replays_total", "Transactions refusées car déjà enregistrées");
+
+    private final Map<String, Payment> byTransaction = new ConcurrentHashMap<>();
+    private final PaymentStore store;
+    private final BatchingWriter<LedgerWrite> writer;
+    private final List<PaymentListener> listeners = new CopyOnWriteArrayList<>();
+    private final DuplicateDetector duplicates;
+
+    public PaymentService(PaymentStore store) {
+        this(store, new DuplicateDetector());
+    }
+
+    public PaymentService(PaymentStore store, DuplicateDetector duplicates) {
+        this.store = store;
+        this.duplicates = duplicates;
+        try {
+            store.loadAll(payment -> byTransaction.put(payment.getTransactionId(), payment));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Chargement des paiements impossible", e);
+        }
+        this.writer = new BatchingWriter<>("payment-writer", MAX_BATCH_SIZE, MAX_BATCH_DELAY_MILLIS,
+            QUEUE_CAPACITY, this::writeBatch);
+    }
+
+    /**
+     * Crée un paiement "pending" pour l'étudiant.
+     * @return un futur terminé quand la ligne est persistée
+     */
+    public CompletableFuture<Payment> createPayment(Student student, BigDecimal amount, PaymentMethod method) {
+        if (method == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Méthode de paiement obligatoire"));
+        }
+        String transactionId = newTransactionId(method);
+        return create(student.getEmail(), amount, method, transactionId);
+    }
+
+    /**
+     * Comme {@link #createPayment(Student, BigDecimal, PaymentMethod)}, pour une demande
+     * venue d'un bouton ou d'un formulaire : refuse (DuplicatePaymentException dans le
+     * futur) la même demande du même étudiant soumise il y a quelques secondes.
+     */
+    public CompletableFuture<Payment> submitPayment(Student student, BigDecimal amount, PaymentMethod method) {
+        if (amount != null && method != null
+                && duplicates.isRepeatedSubmission(student.getEmail(), amount, method)) {
+            return CompletableFuture.failedFuture(new DuplicatePaymentException(
+                "Paiement identique déjà soumis, veuillez patienter avant de le renouveler"));
+        }
+        return createPayment(student, amount, method);
+    }
+
+    /**
+     * Crée un paiement avec un transaction_id fourni (par l'opérateur par exemple).
+     * Échoue (DuplicatePaymentException dans le futur) si la transaction existe déjà.
+     */
+    public CompletableFuture<Payment> createPayment(String studentEmail, BigDecimal amount,
+                                                    PaymentMethod method, String transactionId) {
+        return create(studentEmail, amount, method, transactionId);
+    }
+
+    private CompletableFuture<Payment> create(String studentEmail, BigDecimal amount,
+                                              PaymentMethod method, String transactionId) {
+        // Le registre en mémoire est indexé par transaction_id
+        if (transactionId == null || transactionId.isBlank()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Identifiant de transaction obligatoire"));
+        }
+        if (method == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Méthode de paiement obligatoire"));
+        }
+        Payment payment;
+        try {
+            payment = new Payment(transactionId, studentEmail, amount, method, PaymentStatus.PENDING, Instant.now());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // Transaction rejouée, ou deux demandes simultanées de la même transaction
+        if (byTransaction.putIfAbsent(transactionId, payment) != null) {
+            REPLAYS.increment();
+            return CompletableFuture.failedFuture(
+                new DuplicatePaymentException("Transaction déjà enregistrée : " + transactionId));
+        }
+
+        return writer.submit(new LedgerWrite(payment, true)).handle((ignored, error) -> {
+            if (error != null) {
+                byTransaction.remove(transactionId, payment);
+                throw new IllegalStateException("Enregistrement du paiement impossible", error);
+            }
+            notifyListeners(null, payment);
+            return payment;
+        });
+    }
+
+    /**
+     * Applique un statut à une transaction, de façon idempotente.
+     * @throws IllegalArgumentException (dans le futur) si la transaction est inconnue
+     * @throws IllegalStateException (dans le futur) si la transaction a déjà un autre statut final
+     */
+    public CompletableFuture<Payment> updateStatus(String transactionId, PaymentStatus status) {
+        Payment[] previous = new Payment[1];
+        Payment updated;
+        try {
+            updated = byTransaction.compute(transactionId, (id, current) -> {
+                if (current == null) {
+                    throw new IllegalArgumentException("Transaction inconnue : " + id);
+                }
+                previous[0] = current;
+                if (current.getStatus() == status) {
+                    return current;
+                }
+                if (current.getStatus().isFinal()) {
+                    throw new IllegalStateException(
+                        "Transaction " + id + " déjà " + current.getStatus().getDbValue());
+                }
+                return current.withStatus(status);
+            });
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (updated == previous[0]) {
+            return CompletableFuture.completedFuture(updated);
+        }
+        return writer.submit(new LedgerWrite(updated, false)).handle((ignored, error) -> {
+            if (error != null) {
+                byTransaction.replace(transactionId, updated, previous[0]);
+                throw new IllegalStateException("Mise à jour du paiement impossible", error);
+            }
+            notifyListeners(previous[0], updated);
+            return updated;
+        });
+    }
+
+    /**
+     * Abonne un écouteur aux créations et changements de statut persistés. Il est appelé
+     * sur le thread d'écriture : il doit être rapide et ne pas bloquer.
+     */
+    public void addListener(PaymentListener listener) {
+        listeners.add(listener);
+    }
+
+    public Payment find(String transactionId) {
+        return byTransaction.get(transactionId);
+    }
+
+    /**
+     * Vue non modifiable de tous les paiements connus (ordre non garanti).
+     */
+    public Collection<Payment> all() {
+        return Collections.unmodifiableCollection(byTransaction.values());
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        store.close();
+    }
+
+    private void writeBatch(List<LedgerWrite> batch) throws IOException {
+        List<Payment> inserts = new ArrayList<>();
+        List<Payment> statusChanges = new ArrayList<>();
+        for (LedgerWrite write : batch) {
+            (write.insert ? inserts : statusChanges).add(write.payment);
+        }
+        store.writeBatch(inserts, statusChanges);
+    }
+
+    private void notifyListeners(Payment previous, Payment current) {
+        for (PaymentListener listener : listeners) {
+            try {
+                listener.paymentChanged(previous, current);
+            } catch (RuntimeException e) {
+                System.err.println("Écouteur de paiements en échec : " + e);
+            }
+        }
+    }
+
+    private static String newTransactionId(PaymentMethod method) {
+        String random = UUID.randomUUID().toString().replace("-", "").substring(0, 20).toUpperCase();
+        return "UCC-" + method.name().charAt(0) + "-" + random;
+    }
+
+    private static final class LedgerWrite {
+        final Payment payment;
+        final boolean insert;
+
+        LedgerWrite(Payment payment, boolean insert) {
+            this.payment = payment;
+            this.insert = insert;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ucc.payment.system.model;
+
+/**
+ * Statut d'un paiement, tel que défini par la contrainte CHECK de la table payments.
+ */
+public enum PaymentStatus {
+    PENDING("pending"),
+    COMPLETED("completed"),
+    FAILED("failed");
+
+    private final String dbValue;
+
+    PaymentStatus(String dbValue) {
+        this.dbValue = dbValue;
+    }
+
+    public String getDbValue() { return dbValue; }
+
+    public boolean isFinal() {
+        return this != PENDING;
+    }
+
+    public static PaymentStatus fromDbValue(String value) {
+        for (PaymentStatus status : values()) {
+            if (status.dbValue.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Statut de paiement inconnu : " + value);
+    }
+}
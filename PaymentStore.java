@@ -0,0 +1,46 @@
+package ucc.payment.system.payment;
+
+import ucc.payment.system.model.Payment;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Persistance du registre des paiements (table payments).
+ * Chaque appel à {@link #writeBatch} correspond à un aller-retour vers le support.
+ */
+public interface PaymentStore extends AutoCloseable {
+
+    /**
+     * Relit tous les paiements persistés.
+     */
+    void loadAll(Consumer<Payment> sink) throws IOException;
+
+    /**
+     * Écrit un lot : d'abord les nouveaux paiements, puis les changements de statut.
+     * Un changement de statut ne s'applique qu'à un paiement encore "pending".
+     */
+    void writeBatch(List<Payment> inserts, List<Payment> statusChanges) throws IOException;
+
+    /**
+     * Parmi les transaction_id donnés, ceux déjà présents dans le support (rejeu sans doublon).
+     * Par défaut une relecture complète ; les supports qui le peuvent interrogent leur index.
+     */
+    default Set<String> findExisting(Collection<String> transactionIds) throws IOException {
+        Set<String> wanted = new HashSet<>(transactionIds);
+        Set<String> existing = new HashSet<>();
+        loadAll(payment -> {
+            if (wanted.contains(payment.getTransactionId())) {
+                existing.add(payment.getTransactionId());
+            }
+        });
+        return existing;
+    }
+
+    @Override
+    default void close() throws IOException {}
+}
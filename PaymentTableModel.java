@@ -0,0 +1,255 @@
+package ucc.payment.system.ui;
+
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.payment.PaymentBrowser;
+import ucc.payment.system.payment.PaymentFilter;
+import ucc.payment.system.payment.PaymentRow;
+import ucc.payment.system.util.VirtualThreads;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modèle de table des paiements chargé page par page, à la demande.
+ *
+ * <p>La table ne demande que les lignes visibles : une page absente du cache est lue en
+ * arrière-plan (la cellule affiche "Chargement..." d'ici là) et les pages suivantes, dans
+ * le sens du défilement, sont préchargées. Seules les {@value #CACHED_PAGES} dernières
+ * pages utilisées restent en mémoire (LRU), quelle que soit la taille du registre.
+ *
+ * <p>Chaque page lue mémorise ses première et dernière lignes, d'où partent les lectures
+ * des pages voisines (pagination par clé, dans les deux sens de défilement). Seul un saut
+ * loin de toute page connue (glissement de l'ascenseur) saute des lignes (OFFSET).
+ *
+ * <p>Le cache, l'ensemble des pages en cours de lecture et le nombre de lignes ne sont
+ * manipulés que sur l'EDT ; les lectures passent par un unique thread de chargement.
+ */
+public class PaymentTableModel extends AbstractTableModel {
+    static final int PAGE_SIZE = 100;
+    private static final int PREFETCH_PAGES = 2;
+    private static final int CACHED_PAGES = 32;
+    private static final String[] COLUMNS = {"Date", "Transaction", "Étudiant", "Email", "Filière", "Montant", "Méthode", "Statut"};
+    private static final String LOADING = "Chargement...";
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.systemDefault());
+    private static final LatencyHistogram PAGE_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_payment_page_seconds", "Lecture d'une page de paiements (PaymentTableModel)");
+
+    private final PaymentBrowser browser;
+    // Un seul thread, libéré après 30 s d'inactivité : rien à fermer avec la fenêtre
+    private final ThreadPoolExecutor loader = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), VirtualThreads.daemonFactory("payment-pages"));
+
+    private final Map<Integer, List<PaymentRow>> pages = new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<PaymentRow>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    private volatile Query query = new Query(PaymentFilter.all());
+    private int rowCount;
+
+    public PaymentTableModel(PaymentBrowser browser) {
+        this.browser = browser;
+        loader.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Applique un filtre : vide le cache et recompte les lignes en arrière-plan.
+     * À appeler sur l'EDT.
+     * @return le nombre de lignes, une fois la table mise à jour (sur l'EDT)
+     */
+    public CompletableFuture<Long> setFilter(PaymentFilter filter) {
+        Query next = new Query(filter);
+        query = next;
+        pages.clear();
+        loading.clear();
+        rowCount = 0;
+        fireTableDataChanged();
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return browser.count(filter);
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }, loader).thenApplyAsync(count -> {
+            if (next == query) {
+                rowCount = (int) Math.min(count, Integer.MAX_VALUE);
+                fireTableDataChanged();
+            }
+            return count;
+        }, SwingUtilities::invokeLater);
+    }
+
+    public PaymentFilter getFilter() {
+        return query.filter;
+    }
+
+    /**
+     * Ligne affichée, ou null si sa page n'est pas encore chargée.
+     */
+    public PaymentRow getRow(int row) {
+        List<PaymentRow> page = pages.get(row / PAGE_SIZE);
+        int index = row % PAGE_SIZE;
+        return page == null || index >= page.size() ? null : page.get(index);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        List<PaymentRow> rows = pages.get(page);
+        focus(page);
+        if (rows == null) {
+            return columnIndex == 0 ? LOADING : "";
+        }
+        int index = rowIndex % PAGE_SIZE;
+        if (index >= rows.size()) {
+            // Registre raccourci depuis le comptage
+            return "";
+        }
+        PaymentRow row = rows.get(index);
+        switch (columnIndex) {
+            case 0: return DATE_FORMAT.format(row.getPaymentDate());
+            case 1: return row.getTransactionId();
+            case 2: return row.getStudentName();
+            case 3: return row.getStudentEmail();
+            case 4: return row.getFaculty() == null ? "" : row.getFaculty();
+            case 5: return row.getAmount();
+            case 6: return row.getMethod().getLabel();
+            case 7: return row.getStatus().getDbValue();
+            default: return "";
+        }
+    }
+
+    /**
+     * Page affichée : la charge si besoin, puis précharge dans le sens du défilement.
+     */
+    private void focus(int page) {
+        Query current = query;
+        int previous = current.focus;
+        if (page == previous && pages.containsKey(page)) {
+            return;
+        }
+        current.focus = page;
+        request(current, page);
+        int direction = page >= previous ? 1 : -1;
+        for (int i = 1; i <= PREFETCH_PAGES; i++) {
+            request(current, page + direction * i);
+        }
+    }
+
+    private void request(Query current, int page) {
+        if (page < 0 || (long) page * PAGE_SIZE >= rowCount || pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        loader.execute(() -> load(current, page));
+    }
+
+    /**
+     * Lecture d'une page (thread de chargement). Une page qui n'est plus proche de la
+     * position affichée quand vient son tour est abandonnée : après un glissement rapide,
+     * seules les pages de l'arrivée sont lues.
+     */
+    private void load(Query current, int page) {
+        List<PaymentRow> rows = null;
+        if (current == query && Math.abs(page - current.focus) <= PREFETCH_PAGES + 1) {
+            long start = System.nanoTime();
+            try {
+                rows = read(current, page);
+                if (!rows.isEmpty()) {
+                    current.firstRows.put(page, rows.get(0));
+                    current.lastRows.put(page, rows.get(rows.size() - 1));
+                }
+                PAGE_LATENCY.recordSince(start);
+            } catch (IOException e) {
+                System.err.println("Page de paiements " + page + " illisible : " + e.getMessage());
+            }
+        }
+        List<PaymentRow> loaded = rows;
+        SwingUtilities.invokeLater(() -> {
+            if (current != query) {
+                return;
+            }
+            loading.remove(page);
+            if (loaded != null) {
+                pages.put(page, loaded);
+                int first = page * PAGE_SIZE;
+                int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                if (last >= first) {
+                    fireTableRowsUpdated(first, last);
+                }
+            }
+        });
+    }
+
+    /**
+     * Lit une page à partir de la page connue la plus proche : après la précédente,
+     * avant la suivante (en lisant à rebours) ou, à défaut, en sautant les lignes qui
+     * la séparent de la dernière page connue au-dessus.
+     */
+    private List<PaymentRow> read(Query current, int page) throws IOException {
+        Map.Entry<Integer, PaymentRow> known = current.lastRows.floorEntry(page - 1);
+        if (known == null || known.getKey() != page - 1) {
+            PaymentRow next = current.firstRows.get(page + 1);
+            if (next != null) {
+                PaymentFilter reversed = current.filter.withDescending(!current.filter.isDescending());
+                List<PaymentRow> rows = new ArrayList<>(browser.page(reversed, next, 0, PAGE_SIZE));
+                Collections.reverse(rows);
+                return rows;
+            }
+        }
+        PaymentRow after = known == null ? null : known.getValue();
+        int skip = (page - (known == null ? 0 : known.getKey() + 1)) * PAGE_SIZE;
+        return browser.page(current.filter, after, skip, PAGE_SIZE);
+    }
+
+    /**
+     * État d'un filtre appliqué ; remplacé à chaque changement de filtre, ce qui
+     * écarte les lectures encore en cours pour l'ancien.
+     */
+    private static final class Query {
+        final PaymentFilter filter;
+        // Première et dernière lignes de chaque page lue : bornes des pages voisines
+        final Map<Integer, PaymentRow> firstRows = new ConcurrentHashMap<>();
+        final ConcurrentSkipListMap<Integer, PaymentRow> lastRows = new ConcurrentSkipListMap<>();
+        volatile int focus;
+
+        Query(PaymentFilter filter) {
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ucc.payment.system.model;
+
+import java.time.Instant;
+
+/**
+ * Vérification d'un paiement contre le relevé d'un opérateur (une ligne de payment_verifications).
+ */
+public class PaymentVerification {
+    private final String transactionId;
+    private final VerificationStatus status;
+    private final String verifiedBy;
+    private final Instant verificationDate;
+
+    public PaymentVerification(String transactionId, VerificationStatus status,
+                               String verifiedBy, Instant verificationDate) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.verifiedBy = verifiedBy;
+        this.verificationDate = verificationDate;
+    }
+
+    // Getters
+    public String getTransactionId() { return transactionId; }
+    public VerificationStatus getStatus() { return status; }
+    public String getVerifiedBy() { return verifiedBy; }
+    public Instant getVerificationDate() { return verificationDate; }
+
+    @Override
+    public String toString() {
+        return String.format("Vérification[%s, %s, %s]", transactionId, status.getDbValue(), verifiedBy);
+    }
+}
@@ -0,0 +1,140 @@
+package ucc.payment.system.cluster;
+
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connexion vers un autre nœud : les appels de tous les threads partagent une seule
+ * connexion TCP ; un thread dédié lit les réponses et termine le futur de la requête
+ * correspondante (par son numéro), dans l'ordre où elles arrivent.
+ *
+ * <p>Les nœuds ne s'authentifient pas entre eux : les adresses hors de la boucle locale
+ * sont refusées, à l'écoute comme à la connexion (voir {@link #loopback}).
+ */
+final class PeerConnection implements AutoCloseable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+
+    private final String address;
+    private final SocketChannel channel;
+    private final Map<Long, CompletableFuture<ClusterMessage>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final Object writeLock = new Object();
+    private volatile boolean closed;
+
+    private PeerConnection(String address, SocketChannel channel) {
+        this.address = address;
+        this.channel = channel;
+        VirtualThreads.daemonFactory("cluster-peer-" + address).newThread(this::readReplies).start();
+    }
+
+    static PeerConnection open(String address) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.socket().connect(loopback(address), CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            channel.close();
+            throw new IOException("Nœud " + address + " injoignable : " + e.getMessage(), e);
+        }
+        return new PeerConnection(address, channel);
+    }
+
+    /**
+     * Adresse d'un nœud, limitée à la boucle locale : sans authentification des pairs, un
+     * nœud joignable depuis le réseau livrerait les comptes (hashs compris) et les
+     * sessions à n'importe quel client TCP.
+     * @throws IOException si l'adresse ne désigne pas la boucle locale
+     */
+    static InetSocketAddress loopback(String address) throws IOException {
+        InetSocketAddress socketAddress = parse(address);
+        if (socketAddress.getAddress() == null || !socketAddress.getAddress().isLoopbackAddress()) {
+            throw new IOException("Adresse de nœud hors de la boucle locale refusée, les nœuds ne "
+                + "s'authentifiant pas entre eux : " + address);
+        }
+        return socketAddress;
+    }
+
+    /**
+     * "host:port" → adresse de socket.
+     * @throws IllegalArgumentException si l'adresse est mal formée
+     */
+    static InetSocketAddress parse(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Adresse de nœud attendue sous la forme host:port : " + address);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Envoie une requête.
+     * @return un futur terminé par la réponse, ou en échec si la connexion se ferme avant
+     */
+    CompletableFuture<ClusterMessage> call(byte op, int hops, String... fields) {
+        long id = nextId.incrementAndGet();
+        CompletableFuture<ClusterMessage> reply = new CompletableFuture<>();
+        pending.put(id, reply);
+        ByteBuffer frame = new ClusterMessage(id, op, hops, fields).encode(id);
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(id);
+            close();
+            reply.completeExceptionally(e);
+        }
+        // Fermée entre l'enregistrement et l'écriture : le lecteur a pu ne pas voir ce futur
+        if (closed && pending.remove(id) != null) {
+            reply.completeExceptionally(new IOException("Connexion vers " + address + " fermée"));
+        }
+        return reply;
+    }
+
+    boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // fermeture au mieux
+        }
+    }
+
+    private void readReplies() {
+        IOException failure;
+        try {
+            while (true) {
+                ClusterMessage reply = ClusterMessage.read(channel);
+                CompletableFuture<ClusterMessage> future = pending.remove(reply.getId());
+                if (future != null) {
+                    future.complete(reply);
+                }
+            }
+        } catch (IOException e) {
+            failure = new IOException("Connexion vers " + address + " perdue : " + e.getMessage(), e);
+        }
+        close();
+        for (Long id : pending.keySet()) {
+            CompletableFuture<ClusterMessage> future = pending.remove(id);
+            if (future != null) {
+                future.completeExceptionally(failure);
+            }
+        }
+    }
+}
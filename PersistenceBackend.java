@@ -0,0 +1,63 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.Student;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Support de persistance des comptes étudiants utilisé par {@link UserStore}.
+ * Permet de faire tourner le même store en mémoire, sur fichier local ou sur base de données.
+ */
+public interface PersistenceBackend extends AutoCloseable {
+
+    /**
+     * Relit tous les étudiants persistés, dans l'ordre d'inscription.
+     */
+    void loadAll(Consumer<Student> sink) throws IOException;
+
+    /**
+     * Persiste un nouvel étudiant. Appelé après l'insertion en mémoire ;
+     * une exception annule l'inscription.
+     */
+    void save(Student student) throws IOException;
+
+    /**
+     * Persiste un lot de nouveaux étudiants (import). Par défaut un {@link #save}
+     * par étudiant ; les supports qui le peuvent écrivent le lot en une fois.
+     */
+    default void saveAll(List<Student> students) throws IOException {
+        for (Student student : students) {
+            save(student);
+        }
+    }
+
+    /**
+     * Persiste la nouvelle version d'un étudiant existant (même email),
+     * par exemple après la mise à niveau de son hash de mot de passe.
+     */
+    void update(Student student) throws IOException;
+
+    /**
+     * Parmi les emails donnés (normalisés), ceux qui ont déjà un compte persisté.
+     * Par défaut une relecture complète ; les supports qui le peuvent interrogent leur index.
+     */
+    default Set<String> findExisting(Collection<String> emails) throws IOException {
+        Set<String> wanted = new HashSet<>(emails);
+        Set<String> existing = new HashSet<>();
+        loadAll(student -> {
+            String email = Student.normalizeEmail(student.getEmail());
+            if (wanted.contains(email)) {
+                existing.add(email);
+            }
+        });
+        return existing;
+    }
+
+    @Override
+    default void close() throws IOException {}
+}
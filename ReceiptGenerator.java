@@ -0,0 +1,291 @@
+package ucc.payment.system.receipt;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.payment.PaymentListener;
+import ucc.payment.system.store.UserStore;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Reçus des paiements "completed", un fichier HTML par paiement :
+ * {@code <dossier>/<aaaa-mm>/<transaction_id>.html}.
+ *
+ * <ul>
+ *   <li>après chaque paiement ({@link PaymentListener}) : le reçu est écrit en
+ *       arrière-plan dès que le paiement passe à "completed" ;</li>
+ *   <li>en fin de session ({@link #generateAll}) : les paiements sont répartis par blocs
+ *       entre un thread par cœur (le nombre de blocs en vol est borné, la mémoire reste
+ *       constante quel que soit le nombre de reçus) ; chaque thread réutilise son tampon
+ *       de texte et son tampon d'octets, et écrit chaque reçu dès qu'il est produit.</li>
+ * </ul>
+ *
+ * <p>Le modèle est analysé une fois ({@link ReceiptTemplate}) ; un reçu existant est
+ * remplacé.
+ */
+public class ReceiptGenerator implements PaymentListener, AutoCloseable {
+    private static final int CHUNK_SIZE = 256;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final DateTimeFormatter MONTH_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneId.systemDefault());
+
+    private static final Counter GENERATED = MetricsRegistry.shared()
+        .counter("ucc_receipts_generated_total", "Reçus de paiement écrits");
+    private static final Counter FAILURES = MetricsRegistry.shared()
+        .counter("ucc_receipts_failures_total", "Reçus de paiement non écrits (erreur d'écriture)");
+
+    private final UserStore students;
+    private final Path directory;
+    private final ReceiptTemplate template;
+    private final int parallelism;
+    private final ExecutorService workers;
+    private final Set<Path> months = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Renderer> renderers;
+
+    public ReceiptGenerator(UserStore students, Path directory, ReceiptTemplate template) {
+        this(students, directory, template, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism nombre de threads de rendu
+     */
+    public ReceiptGenerator(UserStore students, Path directory, ReceiptTemplate template, int parallelism) {
+        this.students = students;
+        this.directory = directory;
+        this.template = template;
+        this.parallelism = parallelism;
+        this.workers = Executors.newFixedThreadPool(parallelism, VirtualThreads.daemonFactory("receipts"));
+        this.renderers = ThreadLocal.withInitial(() -> new Renderer(template.getSizeHint()));
+    }
+
+    @Override
+    public void paymentChanged(Payment previous, Payment current) {
+        if (current.getStatus() != PaymentStatus.COMPLETED
+                || (previous != null && previous.getStatus() == PaymentStatus.COMPLETED)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    write(current, Instant.now());
+                } catch (IOException e) {
+                    FAILURES.increment();
+                    System.err.println("Reçu " + current.getTransactionId() + " non écrit : " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Générateur fermé : le reçu sera produit par la prochaine génération complète
+        }
+    }
+
+    /**
+     * Écrit le reçu de chaque paiement "completed" ; bloque jusqu'à la fin.
+     * @param progress reçoit un bilan partiel environ chaque seconde (sur le thread appelant)
+     */
+    public ReceiptReport generateAll(Collection<Payment> payments, Consumer<ReceiptReport> progress) {
+        Instant issuedAt = Instant.now();
+        Tally tally = new Tally();
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long lastReport = start;
+
+        List<Payment> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (Payment payment : payments) {
+            if (payment.getStatus() != PaymentStatus.COMPLETED) {
+                tally.skipped.increment();
+                continue;
+            }
+            chunk.add(payment);
+            if (chunk.size() == CHUNK_SIZE) {
+                submit(chunk, issuedAt, tally, inFlight);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+                if (System.nanoTime() - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = System.nanoTime();
+                    progress.accept(tally.report(start));
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submit(chunk, issuedAt, tally, inFlight);
+        }
+
+        // Attend les derniers blocs
+        boolean done = false;
+        while (!done) {
+            try {
+                done = inFlight.tryAcquire(maxInFlight, PROGRESS_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (!done) {
+                progress.accept(tally.report(start));
+            }
+        }
+        if (done) {
+            inFlight.release(maxInFlight);
+        }
+        return tally.report(start);
+    }
+
+    /**
+     * Attend la fin des reçus en cours (quelques secondes au plus).
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(List<Payment> chunk, Instant issuedAt, Tally tally, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        try {
+            workers.execute(() -> {
+                try {
+                    for (Payment payment : chunk) {
+                        try {
+                            tally.bytes.add(write(payment, issuedAt));
+                            tally.generated.increment();
+                        } catch (IOException e) {
+                            FAILURES.increment();
+                            // Un disque plein échoue pour tous les reçus : une seule ligne
+                            if (tally.failed.getAndIncrement() == 0) {
+                                System.err.println("Reçu " + payment.getTransactionId() + " non écrit : "
+                                    + e.getMessage());
+                            }
+                        }
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            tally.failed.addAndGet(chunk.size());
+        }
+    }
+
+    /**
+     * Rend et écrit un reçu.
+     * @return le nombre d'octets écrits
+     */
+    private int write(Payment payment, Instant issuedAt) throws IOException {
+        Renderer renderer = renderers.get();
+        StringBuilder text = renderer.text;
+        text.setLength(0);
+        template.render(payment, students.find(payment.getStudentEmail()), issuedAt, text);
+        ByteBuffer bytes = renderer.encode();
+        int length = bytes.remaining();
+
+        try (FileChannel channel = FileChannel.open(fileFor(payment), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        GENERATED.increment();
+        return length;
+    }
+
+    private Path fileFor(Payment payment) throws IOException {
+        Path month = directory.resolve(MONTH_FORMAT.format(payment.getPaymentDate()));
+        if (!months.contains(month)) {
+            Files.createDirectories(month);
+            months.add(month);
+        }
+        return month.resolve(fileName(payment.getTransactionId()) + ".html");
+    }
+
+    /**
+     * transaction_id réduit aux caractères sûrs dans un nom de fichier.
+     */
+    private static String fileName(String transactionId) {
+        StringBuilder name = new StringBuilder(transactionId.length());
+        for (int i = 0; i < transactionId.length(); i++) {
+            char c = transactionId.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '-' ? c : '_');
+        }
+        return name.toString();
+    }
+
+    /**
+     * Tampons d'un thread de rendu, réutilisés d'un reçu à l'autre.
+     */
+    private static final class Renderer {
+        final StringBuilder text;
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes;
+
+        Renderer(int sizeHint) {
+            text = new StringBuilder(sizeHint);
+            bytes = ByteBuffer.allocateDirect(sizeHint * 2);
+        }
+
+        /**
+         * Encode le texte en UTF-8 ; le tampon rendu est prêt à être lu.
+         */
+        ByteBuffer encode() {
+            while (true) {
+                CharBuffer chars = CharBuffer.wrap(text);
+                bytes.clear();
+                encoder.reset();
+                CoderResult result = encoder.encode(chars, bytes, true);
+                if (!result.isOverflow()) {
+                    result = encoder.flush(bytes);
+                }
+                if (!result.isOverflow()) {
+                    return bytes.flip();
+                }
+                bytes = ByteBuffer.allocateDirect(bytes.capacity() * 2);
+            }
+        }
+    }
+
+    private static final class Tally {
+        final LongAdder generated = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final AtomicLong failed = new AtomicLong();
+        final LongAdder bytes = new LongAdder();
+
+        ReceiptReport report(long start) {
+            return new ReceiptReport(generated.sum(), skipped.sum(), failed.get(), bytes.sum(),
+                System.nanoTime() - start);
+        }
+    }
+}
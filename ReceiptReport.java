@@ -0,0 +1,45 @@
+package ucc.payment.system.receipt;
+
+/**
+ * Bilan (partiel ou final) d'une génération de reçus.
+ */
+public final class ReceiptReport {
+    private final long generated;
+    private final long skipped;
+    private final long failed;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    /**
+     * @param generated    reçus écrits
+     * @param skipped      paiements sans reçu (non "completed")
+     * @param failed       reçus non écrits (erreur d'écriture)
+     * @param bytes        octets écrits
+     * @param elapsedNanos durée de la génération
+     */
+    ReceiptReport(long generated, long skipped, long failed, long bytes, long elapsedNanos) {
+        this.generated = generated;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Getters
+    public long getGenerated() { return generated; }
+    public long getSkipped() { return skipped; }
+    public long getFailed() { return failed; }
+    public long getBytes() { return bytes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Débit de la génération, en reçus écrits par seconde. */
+    public double getReceiptsPerSecond() {
+        return elapsedNanos == 0 ? 0 : generated * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reçus[générés=%d, ignorés=%d, échecs=%d, %.1f Mo, %.1f s, %.0f reçus/s]",
+            generated, skipped, failed, bytes / 1e6, elapsedNanos / 1e9, getReceiptsPerSecond());
+    }
+}
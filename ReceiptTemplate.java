@@ -0,0 +1,217 @@
+package ucc.payment.system.receipt;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.Student;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Modèle de reçu HTML autonome (styles en ligne, logo intégré en data URI).
+ *
+ * <p>Le texte est analysé une fois : les champs {@code {{nom}}} deviennent une suite de
+ * morceaux fixes et de champs, le logo (encodé une seule fois) étant intégré aux
+ * morceaux fixes. Un reçu ne coûte ensuite que l'ajout des morceaux et des valeurs
+ * échappées dans un tampon réutilisé.
+ * Immuable, partagé entre les threads.
+ */
+public final class ReceiptTemplate {
+    private static final String LOGO_RESOURCE = "/resources/ucc_logo.png";
+    private static final DateTimeFormatter DATE_FORMAT =
+        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.systemDefault());
+
+    private static final String DEFAULT_TEXT = "<!DOCTYPE html>\n"
+        + "<html lang=\"fr\"><head><meta charset=\"utf-8\"><title>Reçu {{transaction_id}}</title>\n"
+        + "<style>body{font-family:'Segoe UI',Arial,sans-serif;color:#2C3E50;max-width:640px;margin:24px auto}"
+        + "h1{font-size:22px;border-bottom:3px solid #3498DB;padding-bottom:8px}"
+        + "table{width:100%;border-collapse:collapse}td{padding:6px 4px;border-bottom:1px solid #ECF0F1}"
+        + "td.k{color:#7F8C8D;width:40%}.total{font-size:20px;font-weight:bold}"
+        + ".logo{height:64px;float:right}footer{margin-top:24px;font-size:12px;color:#7F8C8D}</style>\n"
+        + "</head><body>\n"
+        + "{{logo}}<h1>Université Catholique du Congo<br>Reçu de paiement</h1>\n"
+        + "<table>\n"
+        + "<tr><td class=\"k\">Transaction</td><td>{{transaction_id}}</td></tr>\n"
+        + "<tr><td class=\"k\">Date du paiement</td><td>{{payment_date}}</td></tr>\n"
+        + "<tr><td class=\"k\">Étudiant</td><td>{{student_name}}</td></tr>\n"
+        + "<tr><td class=\"k\">Email</td><td>{{student_email}}</td></tr>\n"
+        + "<tr><td class=\"k\">Promotion</td><td>{{promotion}}</td></tr>\n"
+        + "<tr><td class=\"k\">Filière</td><td>{{faculty}}</td></tr>\n"
+        + "<tr><td class=\"k\">Moyen de paiement</td><td>{{method}}</td></tr>\n"
+        + "<tr><td class=\"k\">Opérateur</td><td>{{operator}}</td></tr>\n"
+        + "<tr><td class=\"k\">Statut</td><td>{{status}}</td></tr>\n"
+        + "<tr><td class=\"k\">Montant</td><td class=\"total\">{{amount}}</td></tr>\n"
+        + "</table>\n"
+        + "<footer>Reçu émis le {{issued_at}} - UCC Payment System</footer>\n"
+        + "</body></html>\n";
+
+    private static final ReceiptTemplate DEFAULT = parse(DEFAULT_TEXT);
+
+    /**
+     * Champs d'un reçu, par leur nom dans le modèle.
+     */
+    enum Field {
+        TRANSACTION_ID, PAYMENT_DATE, STUDENT_NAME, STUDENT_EMAIL, PROMOTION, FACULTY,
+        METHOD, OPERATOR, STATUS, AMOUNT, ISSUED_AT;
+
+        static Field fromName(String name) {
+            for (Field field : values()) {
+                if (field.name().toLowerCase(Locale.ROOT).equals(name)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Champ de reçu inconnu : {{" + name + "}}");
+        }
+    }
+
+    // literals[i] précède fields[i] ; le dernier morceau fixe n'est suivi d'aucun champ
+    private final String[] literals;
+    private final Field[] fields;
+    private final int sizeHint;
+
+    private ReceiptTemplate(String[] literals, Field[] fields, int sizeHint) {
+        this.literals = literals;
+        this.fields = fields;
+        this.sizeHint = sizeHint;
+    }
+
+    /** Modèle intégré, analysé une seule fois. */
+    public static ReceiptTemplate defaultTemplate() {
+        return DEFAULT;
+    }
+
+    /**
+     * Lit et analyse un modèle (UTF-8).
+     * @throws IllegalArgumentException si un champ est inconnu ou mal fermé
+     */
+    public static ReceiptTemplate load(Path file) throws IOException {
+        return parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Analyse un modèle : champs {@code {{transaction_id}}, {{payment_date}},
+     * {{student_name}}, {{student_email}}, {{promotion}}, {{faculty}}, {{method}},
+     * {{operator}}, {{status}}, {{amount}}, {{issued_at}}} et {@code {{logo}}} (balise
+     * image du logo, remplacée dès l'analyse).
+     * @throws IllegalArgumentException si un champ est inconnu ou mal fermé
+     */
+    public static ReceiptTemplate parse(String text) {
+        List<String> literals = new ArrayList<>();
+        List<Field> fields = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        while (true) {
+            int open = text.indexOf("{{", pos);
+            if (open < 0) {
+                literal.append(text, pos, text.length());
+                break;
+            }
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Champ de reçu non fermé à la position " + open);
+            }
+            literal.append(text, pos, open);
+            String name = text.substring(open + 2, close).trim().toLowerCase(Locale.ROOT);
+            if (name.equals("logo")) {
+                literal.append(Logo.TAG);
+            } else {
+                literals.add(literal.toString());
+                fields.add(Field.fromName(name));
+                literal.setLength(0);
+            }
+            pos = close + 2;
+        }
+        literals.add(literal.toString());
+        int fixed = 0;
+        for (String part : literals) {
+            fixed += part.length();
+        }
+        return new ReceiptTemplate(literals.toArray(new String[0]), fields.toArray(new Field[0]),
+            fixed + fields.size() * 32);
+    }
+
+    /**
+     * Taille approximative d'un reçu, pour dimensionner les tampons.
+     */
+    public int getSizeHint() {
+        return sizeHint;
+    }
+
+    /**
+     * Ajoute le reçu d'un paiement à {@code out}.
+     * @param student étudiant du paiement, ou null s'il n'est pas (ou plus) inscrit
+     */
+    public void render(Payment payment, Student student, Instant issuedAt, StringBuilder out) {
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            appendEscaped(out, value(fields[i], payment, student, issuedAt));
+        }
+        out.append(literals[fields.length]);
+    }
+
+    private static String value(Field field, Payment payment, Student student, Instant issuedAt) {
+        switch (field) {
+            case TRANSACTION_ID: return payment.getTransactionId();
+            case PAYMENT_DATE: return DATE_FORMAT.format(payment.getPaymentDate());
+            case STUDENT_NAME: return student == null ? "" : student.getName();
+            case STUDENT_EMAIL: return payment.getStudentEmail();
+            case PROMOTION: return student == null ? "" : student.getPromotion();
+            case FACULTY: return student == null ? "" : student.getFaculty();
+            case METHOD: return payment.getMethod().getLabel();
+            case OPERATOR: return payment.getMethod().getOperatorName() == null
+                ? "Guichet UCC" : payment.getMethod().getOperatorName();
+            case STATUS: return payment.getStatus().getDbValue();
+            case AMOUNT: return payment.getAmount().setScale(2, RoundingMode.HALF_UP).toPlainString();
+            case ISSUED_AT: return DATE_FORMAT.format(issuedAt);
+            default: throw new IllegalStateException("Champ non géré : " + field);
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<': out.append("&lt;"); break;
+                case '>': out.append("&gt;"); break;
+                case '&': out.append("&amp;"); break;
+                case '"': out.append("&quot;"); break;
+                case '\'': out.append("&#39;"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Logo intégré au reçu (pas de fichier externe), lu et encodé une fois au premier
+     * modèle qui l'utilise ; rien si la ressource est absente.
+     */
+    private static final class Logo {
+        static final String TAG = logoTag();
+    }
+
+    private static String logoTag() {
+        try (InputStream in = ReceiptTemplate.class.getResourceAsStream(LOGO_RESOURCE)) {
+            if (in == null) {
+                return "";
+            }
+            return "<img class=\"logo\" alt=\"UCC\" src=\"data:image/png;base64,"
+                + Base64.getEncoder().encodeToString(in.readAllBytes()) + "\">";
+        } catch (IOException e) {
+            System.err.println("Logo des reçus illisible : " + e.getMessage());
+            return "";
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package ucc.payment.system.reconciliation;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.PaymentVerification;
+import ucc.payment.system.model.VerificationStatus;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.reconciliation.StatementFormat.StatementLine;
+import ucc.payment.system.util.BatchingWriter;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Rapprochement des relevés quotidiens des opérateurs mobile money avec le registre.
+ *
+ * <p>Le fichier est lu en flux par blocs de lignes ; chaque bloc est analysé et
+ * rapproché en parallèle (le nombre de blocs en vol est borné, la mémoire reste
+ * constante quelle que soit la taille du relevé). La correspondance se fait sur
+ * l'index en mémoire du {@link PaymentService} par transaction_id, et les lignes
+ * payment_verifications sont écrites par lots.
+ */
+public class ReconciliationEngine implements AutoCloseable {
+    private static final int CHUNK_LINES = 4096;
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final int WRITE_QUEUE_CAPACITY = 50_000;
+
+    private final PaymentService payments;
+    private final VerificationStore store;
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+    private final ExecutorService workers =
+        Executors.newFixedThreadPool(parallelism, VirtualThreads.daemonFactory("reconciliation"));
+    private final ExecutorService readers = VirtualThreads.newExecutor("reconciliation-reader");
+
+    public ReconciliationEngine(PaymentService payments, VerificationStore store) {
+        this.payments = payments;
+        this.store = store;
+    }
+
+    /**
+     * Prépare le suivi d'avancement d'un relevé (à passer à {@link #reconcile}).
+     */
+    public ReconciliationProgress newProgress(Path statement) throws IOException {
+        return new ReconciliationProgress(Files.size(statement));
+    }
+
+    /**
+     * Lance le rapprochement en arrière-plan.
+     */
+    public CompletableFuture<ReconciliationProgress> reconcileAsync(Path statement, StatementFormat format,
+                                                                    String verifiedBy,
+                                                                    ReconciliationProgress progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return reconcile(statement, format, verifiedBy, progress);
+            } catch (IOException e) {
+                throw new IllegalStateException("Lecture du relevé impossible : " + e.getMessage(), e);
+            }
+        }, readers);
+    }
+
+    /**
+     * Rapproche un relevé ; bloque jusqu'à ce que toutes les vérifications soient écrites.
+     * La première ligne (en-tête) est ignorée. Une transaction présente plusieurs fois
+     * dans le relevé n'est vérifiée qu'une fois.
+     */
+    public ReconciliationProgress reconcile(Path statement, StatementFormat format, String verifiedBy,
+                                            ReconciliationProgress progress) throws IOException {
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        try (BatchingWriter<PaymentVerification> writer = new BatchingWriter<>("verification-writer",
+                WRITE_BATCH_SIZE, 0, WRITE_QUEUE_CAPACITY, store::writeBatch);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                 new CountingInputStream(Files.newInputStream(statement), progress), StandardCharsets.UTF_8))) {
+
+            reader.readLine(); // en-tête
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    chunks.add(submitChunk(chunk, format, verifiedBy, progress, seen, writer, inFlight));
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(submitChunk(chunk, format, verifiedBy, progress, seen, writer, inFlight));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Rapprochement interrompu", e);
+        } finally {
+            progress.finish();
+        }
+        return progress;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+        readers.shutdown();
+    }
+
+    private CompletableFuture<Void> submitChunk(List<String> lines, StatementFormat format, String verifiedBy,
+                                                ReconciliationProgress progress, Set<String> seen,
+                                                BatchingWriter<PaymentVerification> writer,
+                                                Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        return CompletableFuture.runAsync(() -> {
+            List<CompletableFuture<Void>> writes = new ArrayList<>(lines.size());
+            Instant now = Instant.now();
+            for (String line : lines) {
+                PaymentVerification verification = match(line, format, verifiedBy, now, progress, seen);
+                if (verification != null) {
+                    writes.add(writer.submit(verification));
+                }
+            }
+            progress.addLinesProcessed(lines.size());
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+        }, workers).whenComplete((ignored, error) -> inFlight.release());
+    }
+
+    private PaymentVerification match(String line, StatementFormat format, String verifiedBy, Instant now,
+                                      ReconciliationProgress progress, Set<String> seen) {
+        if (line.isBlank()) {
+            return null;
+        }
+        StatementLine entry = format.parse(line);
+        if (entry == null) {
+            progress.incrementMalformed();
+            return null;
+        }
+        if (!seen.add(entry.getTransactionId())) {
+            progress.incrementDuplicates();
+            return null;
+        }
+        Payment payment = payments.find(entry.getTransactionId());
+        if (payment == null) {
+            progress.incrementUnknown();
+            return null;
+        }
+
+        VerificationStatus status = classify(payment, entry, format);
+        switch (status) {
+            case VERIFIED:
+                progress.incrementVerified();
+                break;
+            case DISPUTED:
+                progress.incrementDisputed();
+                break;
+            default:
+                progress.incrementUnverified();
+        }
+        return new PaymentVerification(payment.getTransactionId(), status, verifiedBy, now);
+    }
+
+    /**
+     * Litige si l'opérateur, le montant ou l'issue divergent ; vérifié si l'opérateur
+     * confirme un paiement non échoué ; non vérifié sinon.
+     */
+    private static VerificationStatus classify(Payment payment, StatementLine entry, StatementFormat format) {
+        if (payment.getMethod() != format.getMethod()
+                || payment.getAmount().compareTo(entry.getAmount()) != 0) {
+            return VerificationStatus.DISPUTED;
+        }
+        if (entry.isSuccessful()) {
+            return payment.getStatus() == PaymentStatus.FAILED
+                ? VerificationStatus.DISPUTED
+                : VerificationStatus.VERIFIED;
+        }
+        return payment.getStatus() == PaymentStatus.COMPLETED
+            ? VerificationStatus.DISPUTED
+            : VerificationStatus.UNVERIFIED;
+    }
+
+    /**
+     * Compte les octets lus pour l'avancement.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final ReconciliationProgress progress;
+
+        CountingInputStream(InputStream in, ReconciliationProgress progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                progress.addBytesRead(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                progress.addBytesRead(n);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ucc.payment.system.reconciliation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs d'avancement d'un rapprochement, lisibles depuis n'importe quel thread
+ * (par exemple un Timer Swing) pendant le traitement.
+ */
+public class ReconciliationProgress {
+    private final long totalBytes;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong linesProcessed = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong unverified = new AtomicLong();
+    private final AtomicLong disputed = new AtomicLong();
+    private final AtomicLong unknown = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private volatile long endNanos;
+
+    public ReconciliationProgress(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    // Mises à jour (moteur)
+    void addBytesRead(long bytes) { bytesRead.addAndGet(bytes); }
+    void addLinesProcessed(long lines) { linesProcessed.addAndGet(lines); }
+    void incrementVerified() { verified.incrementAndGet(); }
+    void incrementUnverified() { unverified.incrementAndGet(); }
+    void incrementDisputed() { disputed.incrementAndGet(); }
+    void incrementUnknown() { unknown.incrementAndGet(); }
+    void incrementMalformed() { malformed.incrementAndGet(); }
+    void incrementDuplicates() { duplicates.incrementAndGet(); }
+    void finish() { endNanos = System.nanoTime(); }
+
+    // Lecture
+    public long getLinesProcessed() { return linesProcessed.get(); }
+    public long getVerified() { return verified.get(); }
+    public long getUnverified() { return unverified.get(); }
+    public long getDisputed() { return disputed.get(); }
+    /** Lignes dont la transaction n'existe pas dans le registre. */
+    public long getUnknown() { return unknown.get(); }
+    public long getMalformed() { return malformed.get(); }
+    public long getDuplicates() { return duplicates.get(); }
+    public boolean isFinished() { return endNanos != 0; }
+
+    /** @return l'avancement en pourcentage (0-100) d'après les octets lus */
+    public int getPercent() {
+        return totalBytes <= 0 ? 0 : (int) Math.min(100, bytesRead.get() * 100 / totalBytes);
+    }
+
+    public double getElapsedSeconds() {
+        long end = isFinished() ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    public double getLinesPerSecond() {
+        double seconds = getElapsedSeconds();
+        return seconds <= 0 ? 0 : linesProcessed.get() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d lignes (%.0f/s) : %d vérifiées, %d non vérifiées, %d litigieuses, "
+                + "%d inconnues, %d mal formées, %d doublons",
+            getLinesProcessed(), getLinesPerSecond(), getVerified(), getUnverified(), getDisputed(),
+            getUnknown(), getMalformed(), getDuplicates()
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package ucc.payment.system.model;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Données de référence des inscriptions : promotions et filières proposées par le
+ * formulaire, rapprochées des tables promotions et faculties du schéma (fichier "java").
+ */
+public final class ReferenceData {
+    public static final List<String> PROMOTIONS = List.of("L1", "L2", "L3");
+    public static final List<String> FACULTIES = List.of(
+        "FTH", "FDC", "FPH", "FED", "FCS",
+        "FDR", "FSPO", "FSI", "Médecine"
+    );
+
+    // Libellés acceptés à l'import -> valeur du formulaire (clés sans accents, en minuscules)
+    private static final Map<String, String> FACULTY_ALIASES = new HashMap<>();
+    private static final Map<String, String> PROMOTION_ALIASES = new HashMap<>();
+
+    static {
+        for (String faculty : FACULTIES) {
+            FACULTY_ALIASES.put(key(faculty), faculty);
+        }
+        // Codes et noms de la table faculties
+        FACULTY_ALIASES.put(key("FM"), "Médecine");
+        FACULTY_ALIASES.put(key("Faculté de Théologie"), "FTH");
+        FACULTY_ALIASES.put(key("Faculté de Droit Canonique"), "FDC");
+        FACULTY_ALIASES.put(key("Faculté de Philosophie"), "FPH");
+        FACULTY_ALIASES.put(key("Faculté d'Économie et Développement"), "FED");
+        FACULTY_ALIASES.put(key("Faculté de Communication Sociale"), "FCS");
+        FACULTY_ALIASES.put(key("Faculté de Droit"), "FDR");
+        FACULTY_ALIASES.put(key("Faculté des Sciences Politiques"), "FSPO");
+        FACULTY_ALIASES.put(key("Faculté des Sciences Informatiques"), "FSI");
+        FACULTY_ALIASES.put(key("Faculté de Médecine"), "Médecine");
+
+        for (String promotion : PROMOTIONS) {
+            PROMOTION_ALIASES.put(key(promotion), promotion);
+            // "1", "L 1"...
+            PROMOTION_ALIASES.put(promotion.substring(1), promotion);
+            PROMOTION_ALIASES.put(key("L " + promotion.substring(1)), promotion);
+        }
+    }
+
+    private ReferenceData() {}
+
+    /**
+     * @return la filière du formulaire correspondant au code ou au nom donné
+     *         (casse et accents ignorés), ou null si elle est inconnue
+     */
+    public static String matchFaculty(String value) {
+        return value == null ? null : FACULTY_ALIASES.get(key(value));
+    }
+
+    /**
+     * @return la promotion du formulaire correspondante ("l2", "2"...), ou null si elle est inconnue
+     */
+    public static String matchPromotion(String value) {
+        return value == null ? null : PROMOTION_ALIASES.get(key(value));
+    }
+
+    private static String key(String value) {
+        String trimmed = value.trim();
+        boolean ascii = true;
+        for (int i = 0; i < trimmed.length() && ascii; i++) {
+            ascii = trimmed.charAt(i) < 128;
+        }
+        if (!ascii) {
+            trimmed = Normalizer.normalize(trimmed, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+}
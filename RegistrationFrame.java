@@ -1,36 +1,47 @@
 package ucc.payment.system.ui;
 
+import ucc.payment.system.AppContext;
 import ucc.payment.system.UserManager;
+import ucc.payment.system.audit.AuditLog;
+import ucc.payment.system.model.ReferenceData;
 import ucc.payment.system.model.Student;
 import ucc.payment.system.util.DialogUtils;
-import ucc.payment.system.util.ValidationUtils;
+import ucc.payment.system.util.ValidationError;
+import ucc.payment.system.util.Validators;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.function.Predicate;
+import java.util.concurrent.CompletionException;
+import java.nio.CharBuffer;
+import java.util.function.Function;
 
 /**
  * Fenêtre d'inscription pour le système de paiement UCC.
  */
 public class RegistrationFrame extends BaseFrame {
+    private final AppContext context;
     private final UserManager userManager;
+    private final AuditLog auditLog;
     
     // Composants UI
     private JTextField nameField, emailField;
     private JPasswordField passwordField;
     private JComboBox<String> promotionCombo, facultyCombo;
+    private JButton registerButton;
+
+    // Modifié uniquement sur l'EDT : empêche les doubles soumissions
+    private boolean registrationInProgress;
     
     // Données statiques
-    private static final String[] PROMOTIONS = {"L1", "L2", "L3"};
-    private static final String[] FACULTIES = {
-        "FTH", "FDC", "FPH", "FED", "FCS", 
-        "FDR", "FSPO", "FSI", "Médecine"
-    };
+    private static final String[] PROMOTIONS = ReferenceData.PROMOTIONS.toArray(new String[0]);
+    private static final String[] FACULTIES = ReferenceData.FACULTIES.toArray(new String[0]);
 
-    public RegistrationFrame(UserManager userManager) {
+    public RegistrationFrame(AppContext context) {
         super("Inscription UCC", new Dimension(500, 500));
-        this.userManager = userManager;
+        this.context = context;
+        this.userManager = context.getUserManager();
+        this.auditLog = context.getAuditLog();
         initUI();
     }
 
@@ -66,20 +77,20 @@ public class RegistrationFrame extends BaseFrame {
     }
 
     private void addNameField(GridBagConstraints gbc) {
-        nameField = createTextField(ValidationUtils::isValidName);
+        nameField = createTextField(Validators::checkName);
         gbc.gridy = 1;
         add(createInputPanel("Nom complet", nameField), gbc);
     }
 
     private void addEmailField(GridBagConstraints gbc) {
-        emailField = createTextField(ValidationUtils::isValidEmail);
+        emailField = createTextField(Validators::checkEmail);
         gbc.gridy = 2;
         add(createInputPanel("Email UCC", emailField), gbc);
     }
 
     private void addPasswordField(GridBagConstraints gbc) {
         passwordField = new JPasswordField();
-        passwordField.addFocusListener(new ValidationListener(ValidationUtils::isStrongPassword));
+        passwordField.addFocusListener(new ValidationListener(Validators::checkPassword));
         
         gbc.gridy = 3;
         add(createInputPanel("Mot de passe", passwordField), gbc);
@@ -101,7 +112,7 @@ public class RegistrationFrame extends BaseFrame {
         add(createInputPanel("Filière", facultyCombo), gbc);
     }
 
-    private JTextField createTextField(Predicate<String> validator) {
+    private JTextField createTextField(Function<CharSequence, ValidationError> validator) {
         JTextField field = new JTextField(20);
         field.addFocusListener(new ValidationListener(validator));
         return field;
@@ -141,6 +152,7 @@ public class RegistrationFrame extends BaseFrame {
         btn.setForeground(Color.WHITE);
         btn.setFocusPainted(false);
         btn.addActionListener(e -> registerUser());
+        registerButton = btn;
         
         gbc.gridy = 6;
         gbc.fill = GridBagConstraints.NONE;
@@ -163,51 +175,84 @@ public class RegistrationFrame extends BaseFrame {
     }
 
     private void registerUser() {
-        if (!validateInput()) {
-            DialogUtils.showError(this, "Veuillez corriger les erreurs!");
+        if (registrationInProgress) {
+            return;
+        }
+        ValidationError error = validateInput();
+        if (error != null) {
+            DialogUtils.showError(this, "Veuillez corriger les erreurs!\n" + error.getMessage());
             return;
         }
 
-        Student student = new Student(
+        setRegistrationInProgress(true);
+        userManager.registerAsync(
             nameField.getText().trim(),
             emailField.getText().trim(),
             new String(passwordField.getPassword()),
             (String) promotionCombo.getSelectedItem(),
             (String) facultyCombo.getSelectedItem()
-        );
+        ).whenCompleteAsync(this::onRegistrationCompleted, SwingUtilities::invokeLater);
+    }
 
-        userManager.addUser(student);
+    private void onRegistrationCompleted(Student student, Throwable error) {
+        setRegistrationInProgress(false);
+
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            DialogUtils.showError(this, cause.getMessage());
+            return;
+        }
+
+        auditLog.log(student.getEmail(), "REGISTER",
+            "promotion", student.getPromotion(), "faculty", student.getFaculty());
         DialogUtils.showInfo(this, "Inscription réussie!");
         openLogin();
         dispose();
     }
 
-    private boolean validateInput() {
-        return ValidationUtils.isValidName(nameField.getText())
-            && ValidationUtils.isValidEmail(emailField.getText())
-            && ValidationUtils.isStrongPassword(new String(passwordField.getPassword()));
+    private void setRegistrationInProgress(boolean inProgress) {
+        registrationInProgress = inProgress;
+        registerButton.setEnabled(!inProgress);
+        registerButton.setText(inProgress ? "Inscription..." : "S'inscrire");
+        setCursor(inProgress ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    /**
+     * @return la première erreur de champ, ou null si le formulaire est valide
+     */
+    private ValidationError validateInput() {
+        ValidationError error = Validators.checkName(nameField.getText());
+        if (error == null) {
+            error = Validators.checkEmail(emailField.getText());
+        }
+        if (error == null) {
+            error = Validators.checkPassword(CharBuffer.wrap(passwordField.getPassword()));
+        }
+        return error;
     }
 
     private void openLogin() {
-        new LoginFrame(userManager).setVisible(true);
+        new LoginFrame(context).setVisible(true);
     }
 
     private static class ValidationListener extends FocusAdapter {
-        private final Predicate<String> validator;
+        private final Function<CharSequence, ValidationError> validator;
 
-        ValidationListener(Predicate<String> validator) {
+        ValidationListener(Function<CharSequence, ValidationError> validator) {
             this.validator = validator;
         }
 
         @Override
         public void focusLost(FocusEvent e) {
             JComponent comp = (JComponent) e.getSource();
-            String value = comp instanceof JTextField 
-                ? ((JTextField) comp).getText() 
-                : new String(((JPasswordField) comp).getPassword());
-                
-            Color borderColor = validator.test(value) ? new Color(0x27AE60) : Color.RED;
+            CharSequence value = comp instanceof JPasswordField
+                ? CharBuffer.wrap(((JPasswordField) comp).getPassword())
+                : ((JTextField) comp).getText();
+
+            ValidationError error = validator.apply(value);
+            Color borderColor = error == null ? new Color(0x27AE60) : Color.RED;
             comp.setBorder(BorderFactory.createLineBorder(borderColor, 2));
+            comp.setToolTipText(error == null ? null : error.getMessage());
         }
     }
 }
\ No newline at end of file
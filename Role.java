@@ -0,0 +1,26 @@
+package ucc.payment.system.model;
+
+/**
+ * Rôle d'un compte, tel que défini par la contrainte CHECK de la table roles.
+ */
+public enum Role {
+    STUDENT("student"),
+    ADMIN("admin");
+
+    private final String dbValue;
+
+    Role(String dbValue) {
+        this.dbValue = dbValue;
+    }
+
+    public String getDbValue() { return dbValue; }
+
+    public static Role fromDbValue(String value) {
+        for (Role role : values()) {
+            if (role.dbValue.equals(value)) {
+                return role;
+            }
+        }
+        throw new IllegalArgumentException("Rôle inconnu : " + value);
+    }
+}
@@ -0,0 +1,18 @@
+package ucc.payment.system.security;
+
+import ucc.payment.system.model.Role;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Rôles des comptes (tables roles et student_roles).
+ */
+public interface RoleDirectory {
+
+    Set<Role> rolesOf(String email) throws IOException;
+
+    default boolean isAdmin(String email) throws IOException {
+        return rolesOf(email).contains(Role.ADMIN);
+    }
+}
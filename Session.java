@@ -0,0 +1,47 @@
+package ucc.payment.system.session;
+
+/**
+ * Session ouverte après une authentification réussie, identifiée par un jeton opaque.
+ * Les instants sont en System.nanoTime().
+ */
+public class Session {
+    private final String token;
+    private final String email;
+    private final int credentialVersion;
+    private final long createdNanos;
+    private final long absoluteExpiryNanos;
+    private final byte[] unlockDigest;
+    private volatile long lastAccessNanos;
+
+    Session(String token, String email, int credentialVersion, long createdNanos, long absoluteExpiryNanos,
+            byte[] unlockDigest) {
+        this.token = token;
+        this.email = email;
+        this.credentialVersion = credentialVersion;
+        this.createdNanos = createdNanos;
+        this.absoluteExpiryNanos = absoluteExpiryNanos;
+        this.unlockDigest = unlockDigest;
+        this.lastAccessNanos = createdNanos;
+    }
+
+    // Getters
+    public String getToken() { return token; }
+    public String getEmail() { return email; }
+    public long getCreatedNanos() { return createdNanos; }
+    public long getLastAccessNanos() { return lastAccessNanos; }
+    public long getAbsoluteExpiryNanos() { return absoluteExpiryNanos; }
+
+    /** Version des identifiants à l'ouverture : un changement de mot de passe invalide la session. */
+    int getCredentialVersion() { return credentialVersion; }
+
+    /** Empreinte du mot de passe saisi à l'ouverture (reprise au kiosque), null si absente. */
+    byte[] getUnlockDigest() { return unlockDigest; }
+
+    boolean isExpired(long now, long idleTtlNanos) {
+        return now - absoluteExpiryNanos >= 0 || now - lastAccessNanos >= idleTtlNanos;
+    }
+
+    void touch(long now) {
+        lastAccessNanos = now;
+    }
+}
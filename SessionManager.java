@@ -0,0 +1,311 @@
+package ucc.payment.system.session;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.UserStore;
+import ucc.payment.system.util.VirtualThreads;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sessions ouvertes après {@code UserManager.authenticate} : la reprise d'une session
+ * (kiosque, requêtes du mode serveur) coûte une recherche en table au lieu d'un hashage.
+ *
+ * <p>Une session expire après une période d'inactivité ou une durée absolue. Le nombre
+ * de sessions est borné : au-delà, les moins récemment utilisées d'un échantillon sont
+ * évincées. Un balayage périodique en arrière-plan retire les sessions expirées ; la
+ * validation vérifie aussi l'expiration, sans attendre le balayage.
+ *
+ * <p>La déconnexion invalide le jeton immédiatement ; un changement de mot de passe
+ * invalide toutes les sessions du compte (la version des identifiants ne correspond
+ * plus). La mise à niveau du hash à la connexion, même mot de passe, les laisse ouvertes.
+ *
+ * <p>Reprise d'une session verrouillée au kiosque : le mot de passe saisi à l'ouverture
+ * laisse une empreinte HMAC (clé aléatoire propre à ce gestionnaire, jamais persistée),
+ * comparée en quelques microsecondes au lieu d'un nouveau PBKDF2.
+ */
+public class SessionManager implements AutoCloseable {
+    public static final long DEFAULT_IDLE_MINUTES = 30;
+    public static final long DEFAULT_ABSOLUTE_HOURS = 12;
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+    private static final int TOKEN_BYTES = 32;
+    private static final String UNLOCK_ALGORITHM = "HmacSHA256";
+    private static final int EVICTION_SAMPLE = 16;
+    // Limite les écritures de la date d'accès quand un jeton est validé en rafale
+    private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Counter ISSUED = MetricsRegistry.shared()
+        .counter("ucc_sessions_issued_total", "Sessions ouvertes");
+    private static final Counter EXPIRED = MetricsRegistry.shared()
+        .counter("ucc_sessions_expired_total", "Sessions expirées");
+    private static final Counter EVICTED = MetricsRegistry.shared()
+        .counter("ucc_sessions_evicted_total", "Sessions évincées (limite atteinte)");
+
+    private final UserStore store;
+    private final long idleTtlNanos;
+    private final long absoluteTtlNanos;
+    private final int maxSessions;
+    private final long touchGranularityNanos;
+    private final Map<String, Session> byToken = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec unlockKey;
+    private final ScheduledExecutorService sweeper =
+        Executors.newSingleThreadScheduledExecutor(VirtualThreads.daemonFactory("session-sweeper"));
+
+    public SessionManager(UserStore store) {
+        this(store, TimeUnit.MINUTES.toNanos(Long.getLong("ucc.session.idle.minutes", DEFAULT_IDLE_MINUTES)),
+            TimeUnit.HOURS.toNanos(Long.getLong("ucc.session.absolute.hours", DEFAULT_ABSOLUTE_HOURS)),
+            DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * @param idleTtlNanos     durée d'inactivité au-delà de laquelle la session expire
+     * @param absoluteTtlNanos durée de vie maximale d'une session
+     * @param maxSessions      nombre maximal de sessions ouvertes
+     */
+    public SessionManager(UserStore store, long idleTtlNanos, long absoluteTtlNanos, int maxSessions) {
+        this.store = store;
+        this.idleTtlNanos = idleTtlNanos;
+        this.absoluteTtlNanos = absoluteTtlNanos;
+        this.maxSessions = maxSessions;
+        this.touchGranularityNanos = Math.min(TOUCH_GRANULARITY_NANOS, idleTtlNanos / 16);
+        byte[] key = new byte[TOKEN_BYTES];
+        random.nextBytes(key);
+        this.unlockKey = new SecretKeySpec(key, UNLOCK_ALGORITHM);
+        long sweepNanos = Math.max(TimeUnit.SECONDS.toNanos(1), idleTtlNanos / 4);
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepNanos, sweepNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Ouvre une session pour un étudiant qui vient de s'authentifier.
+     */
+    public Session open(Student student) {
+        return open(student, null);
+    }
+
+    /**
+     * Ouvre une session qui pourra être reprise par {@link #unlock} avec le même mot de passe.
+     * @param password mot de passe qui vient d'être vérifié, ou null (pas de reprise rapide)
+     */
+    public Session open(Student student, String password) {
+        if (byToken.size() >= maxSessions) {
+            evictOne();
+        }
+        String token = newToken();
+        long now = System.nanoTime();
+        Session session = new Session(token, Student.normalizeEmail(student.getEmail()),
+            student.getCredentialVersion(), now, now + absoluteTtlNanos,
+            password == null ? null : unlockDigest(token, password));
+        byToken.put(token, session);
+        ISSUED.increment();
+        return session;
+    }
+
+    /**
+     * Enregistre sous son jeton une session ouverte par un autre nœud du cluster
+     * (réplique, transfert de partition). L'inactivité repart de maintenant ; l'expiration
+     * absolue reste celle de l'ouverture, transmise en durée restante.
+     * @return la session, ou null si elle a déjà expiré
+     */
+    public Session adopt(String token, Student student, long remainingNanos) {
+        if (remainingNanos <= 0) {
+            return null;
+        }
+        if (byToken.size() >= maxSessions) {
+            evictOne();
+        }
+        long now = System.nanoTime();
+        Session session = new Session(token, Student.normalizeEmail(student.getEmail()),
+            student.getCredentialVersion(), now, now + Math.min(remainingNanos, absoluteTtlNanos), null);
+        byToken.put(token, session);
+        return session;
+    }
+
+    /**
+     * Vue non modifiable des sessions ouvertes (ordre non garanti).
+     */
+    public Collection<Session> all() {
+        return Collections.unmodifiableCollection(byToken.values());
+    }
+
+    /**
+     * Valide un jeton sans prolonger la session (affichage).
+     * @return l'étudiant à jour, ou null si le jeton est inconnu, expiré ou révoqué
+     */
+    public Student peek(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = byToken.get(token);
+        if (session == null || session.isExpired(System.nanoTime(), idleTtlNanos)) {
+            return null;
+        }
+        Student student = store.find(session.getEmail());
+        if (student == null || student.getCredentialVersion() != session.getCredentialVersion()) {
+            return null;
+        }
+        return student;
+    }
+
+    /**
+     * Valide un jeton et prolonge la session.
+     * @return l'étudiant à jour, ou null si le jeton est inconnu, expiré ou révoqué
+     */
+    public Student resume(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = byToken.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (session.isExpired(now, idleTtlNanos)) {
+            if (byToken.remove(token, session)) {
+                EXPIRED.increment();
+            }
+            return null;
+        }
+        Student student = store.find(session.getEmail());
+        // Compte supprimé ou mot de passe changé depuis l'ouverture
+        if (student == null || student.getCredentialVersion() != session.getCredentialVersion()) {
+            byToken.remove(token, session);
+            return null;
+        }
+        if (now - session.getLastAccessNanos() >= touchGranularityNanos) {
+            session.touch(now);
+        }
+        return student;
+    }
+
+    /**
+     * Reprise d'une session verrouillée : compare le mot de passe à l'empreinte gardée à
+     * l'ouverture (sans PBKDF2), puis valide et prolonge la session comme {@link #resume}.
+     * @return l'étudiant à jour, ou null si le mot de passe est faux, si la session n'a
+     *         pas d'empreinte, ou si le jeton est inconnu, expiré ou révoqué
+     */
+    public Student unlock(String token, String password) {
+        if (token == null || password == null) {
+            return null;
+        }
+        Session session = byToken.get(token);
+        if (session == null || session.getUnlockDigest() == null
+                || !MessageDigest.isEqual(session.getUnlockDigest(), unlockDigest(token, password))) {
+            return null;
+        }
+        return resume(token);
+    }
+
+    /**
+     * Déconnexion : le jeton n'est plus accepté.
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            byToken.remove(token);
+        }
+    }
+
+    /**
+     * Ferme toutes les sessions d'un compte.
+     * @return le nombre de sessions fermées
+     */
+    public int invalidateAll(String email) {
+        String key = Student.normalizeEmail(email);
+        int closed = 0;
+        for (Iterator<Session> it = byToken.values().iterator(); it.hasNext(); ) {
+            if (it.next().getEmail().equals(key)) {
+                it.remove();
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Retire les sessions expirées (thread de balayage).
+     */
+    void sweep() {
+        long now = System.nanoTime();
+        for (Iterator<Session> it = byToken.values().iterator(); it.hasNext(); ) {
+            if (it.next().isExpired(now, idleTtlNanos)) {
+                it.remove();
+                EXPIRED.increment();
+            }
+        }
+    }
+
+    /**
+     * Évince la session la moins récemment utilisée parmi un échantillon (éviction LRU
+     * approchée, en temps constant). Les jetons étant aléatoires, les premières entrées
+     * de la table forment un échantillon aléatoire.
+     */
+    private void evictOne() {
+        Session oldest = null;
+        int seen = 0;
+        for (Session session : byToken.values()) {
+            if (oldest == null || session.getLastAccessNanos() - oldest.getLastAccessNanos() < 0) {
+                oldest = session;
+            }
+            if (++seen >= EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (oldest != null && byToken.remove(oldest.getToken(), oldest)) {
+            EVICTED.increment();
+        }
+    }
+
+    /**
+     * Session décrite par un jeton, sans l'enregistrer (session tenue par un autre nœud du cluster).
+     */
+    protected Session describe(String token, Student student) {
+        long now = System.nanoTime();
+        return new Session(token, Student.normalizeEmail(student.getEmail()), student.getCredentialVersion(),
+            now, now + absoluteTtlNanos, null);
+    }
+
+    /**
+     * HMAC du jeton et du mot de passe : une empreinte ne sert que pour sa propre session.
+     */
+    private byte[] unlockDigest(String token, String password) {
+        try {
+            Mac mac = Mac.getInstance(UNLOCK_ALGORITHM);
+            mac.init(unlockKey);
+            mac.update(token.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponible", e);
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
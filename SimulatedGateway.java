@@ -0,0 +1,157 @@
+package ucc.payment.system.gateway;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Simulateur local des quatre opérateurs mobile money, pour tester hors ligne.
+ *
+ * <p>Chaque demande produit une notification finale après une latence tirée d'une loi
+ * log-normale autour de la médiane de l'opérateur. Selon le profil, la notification
+ * échoue, est dupliquée, est renvoyée plus tard (accusé de réception perdu) ou est
+ * suivie d'une notification "pending" périmée qui arrive après le résultat.
+ */
+public class SimulatedGateway implements OperatorGateway {
+
+    /**
+     * Comportement simulé d'un opérateur.
+     */
+    public static final class Profile {
+        final long medianLatencyMillis;
+        final double failureRate;
+        final double duplicateRate;
+        final double redeliveryRate;
+        final double staleRate;
+
+        /**
+         * @param medianLatencyMillis latence médiane entre la demande et la notification
+         * @param failureRate         proportion de paiements refusés
+         * @param duplicateRate       proportion de notifications envoyées en double (rafale)
+         * @param redeliveryRate      proportion de notifications renvoyées après plusieurs secondes
+         * @param staleRate           proportion de notifications "pending" arrivant après le résultat
+         */
+        public Profile(long medianLatencyMillis, double failureRate, double duplicateRate,
+                       double redeliveryRate, double staleRate) {
+            this.medianLatencyMillis = medianLatencyMillis;
+            this.failureRate = failureRate;
+            this.duplicateRate = duplicateRate;
+            this.redeliveryRate = redeliveryRate;
+            this.staleRate = staleRate;
+        }
+    }
+
+    private static final double LATENCY_SIGMA = 0.6;
+    private static final int MAX_DUPLICATES = 3;
+    private static final long DUPLICATE_JITTER_MILLIS = 50;
+    private static final long REDELIVERY_DELAY_MILLIS = 5_000;
+
+    private final Consumer<OperatorCallback> callbacks;
+    private final Map<PaymentMethod, Profile> profiles;
+    private final double timeScale;
+    private final Random random; // thread-safe ; graine fixe : scénario reproductible
+    private final ScheduledExecutorService scheduler =
+        Executors.newScheduledThreadPool(2, VirtualThreads.daemonFactory("gateway-simulator"));
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * @param callbacks destinataire des notifications (appelé sur les threads du simulateur)
+     * @param timeScale facteur d'accélération du temps (10 : dix fois plus rapide)
+     * @param seed      graine du tirage aléatoire, pour rejouer un scénario
+     */
+    public SimulatedGateway(Consumer<OperatorCallback> callbacks, Map<PaymentMethod, Profile> profiles,
+                            double timeScale, long seed) {
+        this.callbacks = callbacks;
+        this.profiles = new EnumMap<>(profiles);
+        this.timeScale = timeScale;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Simulateur aux profils par défaut, en temps réel.
+     */
+    public SimulatedGateway(Consumer<OperatorCallback> callbacks) {
+        this(callbacks, defaultProfiles(), 1.0, System.nanoTime());
+    }
+
+    /**
+     * Profils indicatifs : latences de quelques centaines de millisecondes à
+     * quelques secondes, 3 à 8 % d'échecs, doublons fréquents.
+     */
+    public static Map<PaymentMethod, Profile> defaultProfiles() {
+        Map<PaymentMethod, Profile> profiles = new EnumMap<>(PaymentMethod.class);
+        profiles.put(PaymentMethod.ORANGE_MONEY, new Profile(800, 0.05, 0.10, 0.03, 0.05));
+        profiles.put(PaymentMethod.AIRTEL_MONEY, new Profile(1200, 0.06, 0.15, 0.05, 0.08));
+        profiles.put(PaymentMethod.M_PESA, new Profile(600, 0.03, 0.08, 0.02, 0.03));
+        profiles.put(PaymentMethod.AFRICELL, new Profile(1500, 0.08, 0.20, 0.06, 0.10));
+        return profiles;
+    }
+
+    @Override
+    public void requestPayment(Payment payment) {
+        Profile profile = profiles.get(payment.getMethod());
+        if (profile == null) {
+            throw new IllegalArgumentException("Pas d'opérateur mobile pour " + payment.getMethod().getLabel());
+        }
+        long sequence = requests.incrementAndGet();
+
+        String transactionId = payment.getTransactionId();
+        PaymentMethod method = payment.getMethod();
+        String reference = method.name().charAt(0) + Long.toString(sequence, 36).toUpperCase();
+        long latency = (long) (profile.medianLatencyMillis * Math.exp(LATENCY_SIGMA * random.nextGaussian()));
+        PaymentStatus outcome = random.nextDouble() < profile.failureRate
+            ? PaymentStatus.FAILED
+            : PaymentStatus.COMPLETED;
+
+        schedule(latency, transactionId, method, outcome, reference);
+        if (random.nextDouble() < profile.duplicateRate) {
+            int copies = 1 + (int) (random.nextDouble() * MAX_DUPLICATES);
+            for (int i = 0; i < copies; i++) {
+                schedule(latency + (long) (random.nextDouble() * DUPLICATE_JITTER_MILLIS),
+                    transactionId, method, outcome, reference);
+            }
+        }
+        if (random.nextDouble() < profile.redeliveryRate) {
+            schedule(latency + REDELIVERY_DELAY_MILLIS, transactionId, method, outcome, reference);
+        }
+        if (random.nextDouble() < profile.staleRate) {
+            schedule(latency + 1 + (long) (random.nextDouble() * latency), transactionId, method,
+                PaymentStatus.PENDING, reference);
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /** Nombre de notifications émises (doublons compris). */
+    public long getCallbacksSent() {
+        return sent.get();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void schedule(long delayMillis, String transactionId, PaymentMethod method,
+                          PaymentStatus status, String reference) {
+        long delayMicros = (long) (delayMillis * 1000 / timeScale);
+        scheduler.schedule(() -> {
+            sent.incrementAndGet();
+            callbacks.accept(new OperatorCallback(transactionId, method, status, reference, Instant.now()));
+        }, delayMicros, TimeUnit.MICROSECONDS);
+    }
+}
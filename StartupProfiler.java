@@ -0,0 +1,79 @@
+package ucc.payment.system.util;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure du temps jusqu'au premier affichage (Main.main, LoginFrame, Dashboard),
+ * pour suivre les régressions de démarrage sur les machines des salles.
+ * Chaque mesure est écrite sur la sortie d'erreur, sauf avec -Ducc.startup.quiet=true.
+ */
+public final class StartupProfiler {
+    private static final boolean QUIET = Boolean.getBoolean("ucc.startup.quiet");
+    private static final List<String> REPORT = Collections.synchronizedList(new ArrayList<>());
+    private static volatile long mainStartNanos;
+
+    private StartupProfiler() {}
+
+    /**
+     * À appeler en toute première instruction de Main.main.
+     */
+    public static void markMainStarted() {
+        mainStartNanos = System.nanoTime();
+    }
+
+    public static long getMainStartNanos() {
+        return mainStartNanos;
+    }
+
+    /**
+     * Début d'une mesure (à passer à {@link #reportFirstFrame}).
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Enregistre le délai entre startNanos et le premier rendu de la fenêtre.
+     * La mesure est prise après le traitement des événements de peinture qui
+     * suivent l'ouverture.
+     */
+    public static void reportFirstFrame(Window window, String name, long startNanos) {
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                window.removeWindowListener(this);
+                SwingUtilities.invokeLater(() -> record(name, startNanos));
+            }
+        });
+    }
+
+    /**
+     * Mesures enregistrées depuis le lancement, dans l'ordre.
+     */
+    public static List<String> getReport() {
+        synchronized (REPORT) {
+            return new ArrayList<>(REPORT);
+        }
+    }
+
+    private static void record(String name, long startNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        String line = String.format("[démarrage] %s : premier affichage en %d ms", name, millis);
+        if ("Main.main".equals(name)) {
+            long sinceJvm = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            line += String.format(" (%d ms depuis le lancement de la JVM)", sinceJvm);
+        }
+        REPORT.add(line);
+        if (!QUIET) {
+            System.err.println(line);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ucc.payment.system.reconciliation;
+
+import ucc.payment.system.model.PaymentMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Disposition des colonnes des relevés quotidiens de chaque opérateur
+ * (export CSV avec une ligne d'en-tête). À ajuster si un opérateur change son export.
+ */
+public enum StatementFormat {
+    // date;transaction_id;msisdn;montant;statut
+    ORANGE_MONEY(PaymentMethod.ORANGE_MONEY, ';', 1, 3, 4),
+    // transaction_id,montant,date,statut
+    AIRTEL_MONEY(PaymentMethod.AIRTEL_MONEY, ',', 0, 1, 3),
+    // reçu,date,montant,statut
+    M_PESA(PaymentMethod.M_PESA, ',', 0, 2, 3),
+    // transaction_id;montant;statut
+    AFRICELL(PaymentMethod.AFRICELL, ';', 0, 1, 2);
+
+    private static final String[] SUCCESS_VALUES = {"SUCCESS", "SUCCES", "SUCCESSFUL", "COMPLETED", "OK"};
+
+    private final PaymentMethod method;
+    private final char delimiter;
+    private final int transactionColumn;
+    private final int amountColumn;
+    private final int statusColumn;
+    private final int columnCount;
+
+    StatementFormat(PaymentMethod method, char delimiter, int transactionColumn, int amountColumn,
+                    int statusColumn) {
+        this.method = method;
+        this.delimiter = delimiter;
+        this.transactionColumn = transactionColumn;
+        this.amountColumn = amountColumn;
+        this.statusColumn = statusColumn;
+        this.columnCount = Math.max(transactionColumn, Math.max(amountColumn, statusColumn)) + 1;
+    }
+
+    public PaymentMethod getMethod() { return method; }
+
+    public static StatementFormat forMethod(PaymentMethod method) {
+        for (StatementFormat format : values()) {
+            if (format.method == method) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Pas de relevé pour " + method.getLabel());
+    }
+
+    /**
+     * Découpe une ligne du relevé.
+     * @return la ligne analysée, ou null si elle est mal formée
+     */
+    public StatementLine parse(String line) {
+        String[] fields = new String[columnCount];
+        int field = 0;
+        int start = 0;
+        for (int i = 0; i <= line.length() && field < columnCount; i++) {
+            if (i == line.length() || line.charAt(i) == delimiter) {
+                fields[field++] = line.substring(start, i).trim();
+                start = i + 1;
+            }
+        }
+        if (field < columnCount || fields[transactionColumn].isEmpty()) {
+            return null;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(fields[amountColumn].replace(',', '.'));
+            return new StatementLine(fields[transactionColumn], amount, isSuccess(fields[statusColumn]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSuccess(String status) {
+        for (String value : SUCCESS_VALUES) {
+            if (value.equalsIgnoreCase(status)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ligne utile d'un relevé : transaction, montant et succès côté opérateur.
+     */
+    public static final class StatementLine {
+        private final String transactionId;
+        private final BigDecimal amount;
+        private final boolean successful;
+
+        StatementLine(String transactionId, BigDecimal amount, boolean successful) {
+            this.transactionId = transactionId;
+            this.amount = amount;
+            this.successful = successful;
+        }
+
+        public String getTransactionId() { return transactionId; }
+        public BigDecimal getAmount() { return amount; }
+        public boolean isSuccessful() { return successful; }
+    }
+}
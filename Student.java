@@ -1,15 +1,18 @@
 package ucc.payment.system.model;
 
-import java.util.regex.Pattern;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.security.PasswordHasher;
+import ucc.payment.system.util.ValidationError;
+import ucc.payment.system.util.ValidationException;
+import ucc.payment.system.util.Validators;
 
 /**
  * Représente un étudiant de l'UCC avec validation des données.
  */
 public class Student {
-    // Modèles de validation
-    private static final Pattern EMAIL_REGEX = Pattern.compile("^[a-zA-Z0-9._%+-]+@ucc\\.edu$");
-    private static final Pattern PASSWORD_REGEX = Pattern.compile("^(?=.*[A-Z])(?=.*[a-z])(?=.*\\d).{8,}$");
-    private static final Pattern NAME_REGEX = Pattern.compile("^[a-zA-Z\\s]{3,50}$");
+    private static final LatencyHistogram CREATE_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_student_create_seconds", "Construction d'un étudiant (validation et hashage)");
 
     // Données de l'étudiant
     private final String name;
@@ -17,13 +20,53 @@ public class Student {
     private final String passwordHash;
     private final String promotion;
     private final String faculty;
+    // Augmente à chaque changement de mot de passe, pas à une mise à niveau du hash.
+    // Non persistée : seules les sessions, tenues en mémoire, s'y réfèrent.
+    private final int credentialVersion;
 
     public Student(String name, String email, String password, String promotion, String faculty) {
+        long start = System.nanoTime();
         this.name = validateName(name);
         this.email = validateEmail(email);
         this.passwordHash = hashPassword(validatePassword(password));
         this.promotion = promotion;
         this.faculty = faculty;
+        this.credentialVersion = 0;
+        CREATE_LATENCY.recordSince(start);
+    }
+
+    private Student(String name, String email, String passwordHash, String promotion, String faculty,
+                    int credentialVersion) {
+        this.name = name;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.promotion = promotion;
+        this.faculty = faculty;
+        this.credentialVersion = credentialVersion;
+    }
+
+    /**
+     * Reconstruit un étudiant déjà validé à partir de son hash persisté
+     * (base de données, journal...). Aucun re-hashage n'est effectué.
+     */
+    public static Student restore(String name, String email, String passwordHash,
+                                  String promotion, String faculty) {
+        return new Student(name, email, passwordHash, promotion, faculty, 0);
+    }
+
+    /**
+     * Variante qui conserve la version des identifiants (réplication entre nœuds du cluster).
+     */
+    public static Student restore(String name, String email, String passwordHash,
+                                  String promotion, String faculty, int credentialVersion) {
+        return new Student(name, email, passwordHash, promotion, faculty, credentialVersion);
+    }
+
+    /**
+     * Normalise un email pour l'indexation (espaces retirés, minuscules).
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? "" : Validators.normalizeEmail(email);
     }
 
     // Getters
@@ -32,37 +75,72 @@ public class Student {
     public String getPasswordHash() { return passwordHash; }
     public String getPromotion() { return promotion; }
     public String getFaculty() { return faculty; }
+    public int getCredentialVersion() { return credentialVersion; }
+
+    /**
+     * Vérifie si le mot de passe fourni correspond au hash enregistré.
+     */
+    public boolean matchesPassword(String password) {
+        return PasswordHasher.getDefault().verify(password, passwordHash);
+    }
+
+    /**
+     * Copie de l'étudiant avec un hash recalculé pour le même mot de passe (mise à niveau
+     * du facteur de travail) : les sessions ouvertes restent valides.
+     */
+    public Student withPasswordHash(String newPasswordHash) {
+        return new Student(name, email, newPasswordHash, promotion, faculty, credentialVersion);
+    }
+
+    /**
+     * Copie de l'étudiant après un changement de mot de passe : la version des
+     * identifiants augmente et les sessions ouvertes avant ne sont plus acceptées.
+     */
+    public Student withNewPassword(String newPasswordHash) {
+        return new Student(name, email, newPasswordHash, promotion, faculty, credentialVersion + 1);
+    }
+
+    // Règles de validation, partagées avec les formulaires et les benchmarks
+    public static boolean isValidName(String name) {
+        return Validators.checkName(name) == null;
+    }
+
+    public static boolean isValidEmail(String email) {
+        return Validators.checkEmail(email) == null;
+    }
+
+    public static boolean isValidPassword(String password) {
+        return Validators.checkPassword(password) == null;
+    }
 
     // Méthodes de validation
     private String validateName(String name) {
-        if (!NAME_REGEX.matcher(name.trim()).matches()) {
-            throw new IllegalArgumentException("Nom invalide (3-50 lettres seulement)");
+        ValidationError error = Validators.checkName(name);
+        if (error != null) {
+            throw new ValidationException(error);
         }
         return name.trim();
     }
 
     private String validateEmail(String email) {
-        if (!EMAIL_REGEX.matcher(email.trim().toLowerCase()).matches()) {
-            throw new IllegalArgumentException("Email UCC invalide (ex: prenom.nom@ucc.edu)");
+        ValidationError error = Validators.checkEmail(email);
+        if (error != null) {
+            throw new ValidationException(error);
         }
-        return email.trim().toLowerCase();
+        return Validators.normalizeEmail(email);
     }
 
     private String validatePassword(String password) {
-        if (!PASSWORD_REGEX.matcher(password).matches()) {
-            throw new IllegalArgumentException(
-                "Mot de passe doit contenir:\n" +
-                "- 8 caractères minimum\n" +
-                "- 1 majuscule, 1 minuscule, 1 chiffre"
-            );
+        ValidationError error = Validators.checkPassword(password);
+        if (error != null) {
+            throw new ValidationException(error);
         }
         return password;
     }
 
-    // Hashage du mot de passe (simplifié)
+    // Hashage du mot de passe : PBKDF2 sur le pool borné du service de hashage
     private String hashPassword(String password) {
-        // En production, utiliser BCrypt ou Argon2
-        return Integer.toString(password.hashCode()); // Exemple simplifié
+        return PasswordHasher.getDefault().hash(password);
     }
 
     @Override
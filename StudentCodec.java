@@ -0,0 +1,80 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.Student;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodage binaire compact d'un étudiant pour le journal et les snapshots.
+ * Chaque champ est un entier court (longueur, -1 pour null) suivi des octets UTF-8.
+ */
+final class StudentCodec {
+
+    private StudentCodec() {}
+
+    static byte[] encode(Student student) {
+        byte[][] fields = {
+            utf8(student.getName()),
+            utf8(student.getEmail()),
+            utf8(student.getPasswordHash()),
+            utf8(student.getPromotion()),
+            utf8(student.getFaculty())
+        };
+        int size = 0;
+        for (byte[] field : fields) {
+            size += Short.BYTES + (field == null ? 0 : field.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putShort((short) -1);
+            } else {
+                buffer.putShort((short) field.length);
+                buffer.put(field);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Décode un étudiant depuis la position courante du buffer.
+     * @throws IllegalArgumentException si les données sont tronquées ou incohérentes
+     */
+    static Student decode(ByteBuffer buffer) {
+        try {
+            return Student.restore(
+                readString(buffer),
+                readString(buffer),
+                readString(buffer),
+                readString(buffer),
+                readString(buffer)
+            );
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Enregistrement étudiant tronqué", e);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Champ trop long pour le journal");
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
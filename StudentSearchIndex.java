@@ -0,0 +1,569 @@
+package ucc.payment.system.search;
+
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.UserStore;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Recherche d'étudiants par début de nom ou d'email, tolérante aux fautes de frappe,
+ * pour la caisse (onglet "Paiement Physique").
+ *
+ * <p>Les mots du nom et de l'email (partie avant "@", découpée sur les points, tirets...)
+ * sont ramenés en minuscules sans accents et rangés dans un arbre radix : chaque mot
+ * renvoie aux étudiants qui le portent. Une recherche descend l'arbre jusqu'au terme
+ * saisi puis parcourt le sous-arbre en largeur (mots les plus courts d'abord) jusqu'à
+ * avoir assez de candidats. Si rien ne correspond tel quel, l'arbre est parcouru avec
+ * une ligne de distance d'édition par caractère (Levenshtein), élaguée dès que la
+ * distance dépasse 1 (termes de 4 à 7 caractères) ou 2 (au-delà).
+ *
+ * <p>Les termes d'une requête à plusieurs mots doivent tous correspondre : le plus
+ * sélectif (chaque nœud compte les mots de son sous-arbre) sert à trouver les candidats,
+ * les autres sont vérifiés sur les mots du candidat.
+ * Classement : mot exact, puis début de mot, puis mot approché, puis nom.
+ *
+ * <p>L'index se complète au fil des inscriptions ({@link #add}) ; lectures concurrentes,
+ * écritures exclusives (verrou lecture/écriture).
+ */
+public class StudentSearchIndex {
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int FUZZY = 2;
+    // Candidats examinés au plus par recherche (requêtes à plusieurs termes peu sélectives)
+    private static final int MAX_EXAMINED = 4096;
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final UserStore students;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+
+    // Mots indexés et, pour chacun, les étudiants qui le portent
+    private final List<String> words = new ArrayList<>();
+    private int[][] postings = new int[1024][];
+    private int[] postingSizes = new int[1024];
+
+    // Étudiants indexés, par numéro d'ordre
+    private final List<String> emails = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<int[]> studentWords = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * @param students store où sont relus les comptes trouvés
+     */
+    public StudentSearchIndex(UserStore students) {
+        this.students = students;
+    }
+
+    /**
+     * Indexe un étudiant ; sans effet s'il l'est déjà.
+     */
+    public void add(Student student) {
+        String email = Student.normalizeEmail(student.getEmail());
+        Set<String> terms = new LinkedHashSet<>(tokenize(student.getName()));
+        terms.addAll(tokenize(localPart(email)));
+
+        lock.writeLock().lock();
+        try {
+            if (ids.containsKey(email)) {
+                return;
+            }
+            int id = emails.size();
+            ids.put(email, id);
+            emails.add(email);
+            names.add(student.getName());
+            int[] own = new int[terms.size()];
+            int i = 0;
+            for (String term : terms) {
+                own[i] = insert(term);
+                addPosting(own[i++], id);
+            }
+            studentWords.add(own);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexe une liste d'étudiants (chargement initial).
+     */
+    public void addAll(Collection<Student> all) {
+        for (Student student : all) {
+            add(student);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return emails.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Meilleurs résultats pour un début de nom ou d'email ("muk", "jean muk", "j.mukendi").
+     * @param limit nombre maximal de résultats
+     * @return les comptes trouvés, relus dans le store, les mieux classés d'abord
+     */
+    public List<Student> search(String query, int limit) {
+        List<String> terms = tokenize(localPart(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<String> found = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            // Terme principal : un terme mal tapé (sans aucun mot qui commence ainsi),
+            // sinon celui qui couvre le moins d'étudiants
+            int driver = -1;
+            Located driverNode = null;
+            int misspelt = -1;
+            for (int i = 0; i < terms.size(); i++) {
+                Located located = locate(terms.get(i));
+                if (located == null) {
+                    if (misspelt < 0 || terms.get(i).length() > terms.get(misspelt).length()) {
+                        misspelt = i;
+                    }
+                } else if (driverNode == null || located.node.count < driverNode.node.count) {
+                    driver = i;
+                    driverNode = located;
+                }
+            }
+            if (misspelt >= 0) {
+                driver = misspelt;
+                driverNode = null;
+            }
+            String term = terms.get(driver);
+
+            Hits hits = new Hits(terms, driver, limit * 4);
+            if (driverNode != null) {
+                collect(driverNode.node, driverNode.exact ? EXACT : PREFIX, PREFIX, hits);
+            }
+            // Recherche approchée seulement si rien ne correspond tel quel
+            if (hits.scores.isEmpty()) {
+                hits.settleDeferred();
+            }
+            int maxDistance = maxDistance(term);
+            if (hits.scores.isEmpty() && maxDistance > 0) {
+                fuzzy(root, initialRow(term), term, maxDistance, hits);
+                hits.settleDeferred();
+            }
+
+            List<Map.Entry<Integer, int[]>> ranked = new ArrayList<>(hits.scores.entrySet());
+            ranked.sort(Comparator.<Map.Entry<Integer, int[]>>comparingInt(e -> e.getValue()[0] + e.getValue()[1])
+                .thenComparing(e -> names.get(e.getKey()), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(e -> emails.get(e.getKey())));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                found.add(emails.get(ranked.get(i).getKey()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Student> results = new ArrayList<>(found.size());
+        for (String email : found) {
+            Student student = students.find(email);
+            if (student != null) {
+                results.add(student);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Meilleur rang d'un terme parmi les mots d'un étudiant, ou -1.
+     * @param fuzzy false pour ne chercher que les mots exacts et les débuts de mot
+     */
+    private int bestRank(String term, int[] own, boolean fuzzy) {
+        int best = -1;
+        int maxDistance = fuzzy ? maxDistance(term) : 0;
+        for (int word : own) {
+            String text = words.get(word);
+            int rank;
+            if (text.equals(term)) {
+                rank = EXACT;
+            } else if (text.startsWith(term)) {
+                rank = PREFIX;
+            } else {
+                int distance = prefixDistance(term, text, maxDistance);
+                rank = distance <= maxDistance ? FUZZY + distance : -1;
+            }
+            if (rank >= 0 && (best < 0 || rank < best)) {
+                best = rank;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Propose les étudiants du sous-arbre, mots les plus courts d'abord.
+     * @param rootRank rang des mots se terminant à la racine du sous-arbre
+     * @param rank rang des autres mots
+     */
+    private void collect(Node from, int rootRank, int rank, Hits hits) {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            if (node.word >= 0) {
+                int wordRank = node == from ? rootRank : rank;
+                int[] ids = postings[node.word];
+                for (int i = 0; i < postingSizes[node.word]; i++) {
+                    if (!hits.offer(ids[i], wordRank)) {
+                        return;
+                    }
+                }
+            }
+            queue.addAll(Arrays.asList(node.children));
+        }
+    }
+
+    /**
+     * Parcours approché : chaque caractère descendu calcule une nouvelle ligne de la
+     * matrice de Levenshtein entre le terme et le chemin. Quand le terme entier est à
+     * distance acceptable du chemin, tout le sous-arbre correspond ; quand plus aucune
+     * case ne l'est, la branche est abandonnée.
+     */
+    private void fuzzy(Node node, int[] row, String term, int maxDistance, Hits hits) {
+        int n = term.length();
+        for (Node child : node.children) {
+            int[] current = row;
+            boolean descend = true;
+            for (int i = 0; i < child.label.length() && descend; i++) {
+                current = nextRow(current, child.label.charAt(i), term);
+                if (current[n] <= maxDistance) {
+                    collect(child, FUZZY + current[n], FUZZY + current[n], hits);
+                    descend = false;
+                } else if (min(current) > maxDistance) {
+                    descend = false;
+                }
+            }
+            if (descend) {
+                fuzzy(child, current, term, maxDistance, hits);
+            }
+            if (hits.isFull()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Distance entre un terme et le plus proche début d'un mot.
+     * @return la distance, ou maxDistance + 1 si elle dépasse maxDistance
+     */
+    private static int prefixDistance(String term, String word, int maxDistance) {
+        int n = term.length();
+        if (maxDistance == 0) {
+            return maxDistance + 1;
+        }
+        int[] previous = initialRow(term);
+        int[] row = new int[n + 1];
+        int best = previous[n];
+        for (int i = 0; i < word.length() && best > 0; i++) {
+            char c = word.charAt(i);
+            row[0] = previous[0] + 1;
+            int min = row[0];
+            for (int j = 1; j <= n; j++) {
+                int substitution = previous[j - 1] + (term.charAt(j - 1) == c ? 0 : 1);
+                row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+                min = Math.min(min, row[j]);
+            }
+            best = Math.min(best, row[n]);
+            if (min > maxDistance) {
+                break;
+            }
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return Math.min(best, maxDistance + 1);
+    }
+
+    private static int[] initialRow(String term) {
+        int[] row = new int[term.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        return row;
+    }
+
+    private static int[] nextRow(int[] previous, char c, String term) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        for (int j = 1; j < row.length; j++) {
+            int substitution = previous[j - 1] + (term.charAt(j - 1) == c ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+        }
+        return row;
+    }
+
+    private static int min(int[] row) {
+        int min = row[0];
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    /** Fautes tolérées selon la longueur du terme. */
+    private static int maxDistance(String term) {
+        return term.length() <= 3 ? 0 : term.length() <= 7 ? 1 : 2;
+    }
+
+    /**
+     * Nœud où se termine le terme (ou l'arête qu'il coupe), ou null si aucun mot ne commence ainsi.
+     */
+    private Located locate(String term) {
+        Node node = root;
+        int i = 0;
+        while (true) {
+            int k = node.find(term.charAt(i));
+            if (k < 0) {
+                return null;
+            }
+            Node child = node.children[k];
+            int common = commonPrefix(child.label, term, i);
+            if (i + common == term.length()) {
+                return new Located(child, common == child.label.length());
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+    }
+
+    /**
+     * Ajoute une occurrence de mot à l'arbre (sous verrou d'écriture).
+     * @return le numéro du mot, existant ou nouveau
+     */
+    private int insert(String word) {
+        Node node = root;
+        int i = 0;
+        while (i < word.length()) {
+            int k = node.find(word.charAt(i));
+            if (k < 0) {
+                Node leaf = new Node(word.substring(i));
+                leaf.word = newWord(word);
+                leaf.count = 1;
+                node.insertChild(-k - 1, leaf);
+                return leaf.word;
+            }
+            Node child = node.children[k];
+            int common = commonPrefix(child.label, word, i);
+            if (common < child.label.length()) {
+                // Coupe l'arête au point de divergence
+                Node split = new Node(child.label.substring(0, common));
+                split.count = child.count;
+                child.label = child.label.substring(common);
+                split.children = new Node[] {child};
+                node.children[k] = split;
+                child = split;
+            }
+            node = child;
+            node.count++;
+            i += common;
+        }
+        if (node.word < 0) {
+            node.word = newWord(word);
+        }
+        return node.word;
+    }
+
+    private int newWord(String word) {
+        int id = words.size();
+        words.add(word);
+        if (id == postings.length) {
+            postings = Arrays.copyOf(postings, id * 2);
+            postingSizes = Arrays.copyOf(postingSizes, id * 2);
+        }
+        postings[id] = new int[2];
+        return id;
+    }
+
+    private void addPosting(int word, int student) {
+        int size = postingSizes[word];
+        if (size == postings[word].length) {
+            postings[word] = Arrays.copyOf(postings[word], size * 2);
+        }
+        postings[word][size] = student;
+        postingSizes[word] = size + 1;
+    }
+
+    private static int commonPrefix(String label, String word, int offset) {
+        int max = Math.min(label.length(), word.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == word.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String localPart(String text) {
+        int at = text.indexOf('@');
+        return at < 0 ? text : text.substring(0, at);
+    }
+
+    /**
+     * Mots d'un texte, en minuscules et sans accents ("Mukendi-Ngoy" : mukendi, ngoy).
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = text;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) >= 128) {
+                normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+                break;
+            }
+        }
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Nœud de l'arbre radix : arête d'entrée, enfants triés par premier caractère.
+     */
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        int word = -1;
+        // Occurrences de mots dans le sous-arbre (choix du terme le plus sélectif)
+        int count;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        /** Position de l'enfant commençant par c, ou -(point d'insertion) - 1. */
+        int find(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = children[mid].label.charAt(0);
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+    }
+
+    /**
+     * Candidats retenus d'une recherche : rang du terme principal et des autres termes,
+     * vérifiés sur les mots du candidat. Complet avec assez de candidats retenus, ou
+     * après {@value #MAX_EXAMINED} candidats examinés. Les autres termes sont d'abord
+     * cherchés tels quels ; la vérification approchée, plus coûteuse, n'est faite sur
+     * les candidats mis de côté qu'à défaut de tout résultat.
+     */
+    private final class Hits {
+        final List<String> terms;
+        final int driver;
+        final int wanted;
+        // Étudiant -> {rang du terme principal, rang cumulé des autres termes}
+        final Map<Integer, int[]> scores = new HashMap<>();
+        // Candidats écartés par la vérification exacte : {étudiant, rang du terme principal}
+        final List<int[]> deferred = new ArrayList<>();
+        int examined;
+
+        Hits(List<String> terms, int driver, int wanted) {
+            this.terms = terms;
+            this.driver = driver;
+            this.wanted = wanted;
+        }
+
+        /** @return false une fois la recherche complète */
+        boolean offer(int student, int rank) {
+            int[] score = scores.get(student);
+            if (score != null) {
+                score[0] = Math.min(score[0], rank);
+            } else {
+                examined++;
+                if (!verify(student, rank, false)) {
+                    deferred.add(new int[] {student, rank});
+                }
+            }
+            return !isFull();
+        }
+
+        /** Vérification approchée des candidats mis de côté. */
+        void settleDeferred() {
+            for (int[] candidate : deferred) {
+                if (!scores.containsKey(candidate[0])) {
+                    verify(candidate[0], candidate[1], true);
+                }
+            }
+            deferred.clear();
+        }
+
+        private boolean verify(int student, int rank, boolean fuzzy) {
+            int others = 0;
+            int[] own = studentWords.get(student);
+            for (int i = 0; i < terms.size() && others >= 0; i++) {
+                if (i != driver) {
+                    int other = bestRank(terms.get(i), own, fuzzy);
+                    others = other < 0 ? -1 : others + other;
+                }
+            }
+            if (others >= 0) {
+                scores.put(student, new int[] {rank, others});
+            }
+            return others >= 0;
+        }
+
+        boolean isFull() {
+            return scores.size() >= wanted || examined >= MAX_EXAMINED;
+        }
+    }
+
+    private static final class Located {
+        final Node node;
+        final boolean exact;
+
+        Located(Node node, boolean exact) {
+            this.node = node;
+            this.exact = exact;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ucc.payment.system.ui;
+
+import ucc.payment.system.fees.FeeLedger;
+import ucc.payment.system.fees.FeeTotals;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.search.StudentSearchIndex;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Recherche d'un étudiant à la caisse : les résultats s'affichent pendant la saisie,
+ * après une courte pause de frappe, et la sélection montre la situation de ses frais.
+ */
+public class StudentSearchPanel extends JPanel {
+    private static final int DEBOUNCE_MILLIS = 150;
+    private static final int MAX_RESULTS = 10;
+
+    private final StudentSearchIndex index;
+    private final FeeLedger feeLedger;
+    private final JTextField queryField = new JTextField(24);
+    private final DefaultListModel<Student> results = new DefaultListModel<>();
+    private final JList<Student> resultList = new JList<>(results);
+    private final JLabel detailLabel = new JLabel(" ");
+    private final Timer debounce = new Timer(DEBOUNCE_MILLIS, e -> search());
+    // Numéro de la dernière recherche lancée : les réponses plus anciennes sont ignorées
+    private int searchSequence;
+
+    public StudentSearchPanel(StudentSearchIndex index, FeeLedger feeLedger) {
+        super(new BorderLayout(5, 5));
+        this.index = index;
+        this.feeLedger = feeLedger;
+        setBorder(BorderFactory.createTitledBorder("Rechercher un étudiant (nom ou email)"));
+
+        debounce.setRepeats(false);
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+        // Entrée : pas d'attente
+        queryField.addActionListener(e -> {
+            debounce.stop();
+            search();
+        });
+
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setVisibleRowCount(5);
+        resultList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int i,
+                                                          boolean selected, boolean focused) {
+                Student student = (Student) value;
+                return super.getListCellRendererComponent(list, String.format("%s  <%s>  %s %s",
+                    student.getName(), student.getEmail(), student.getFaculty(), student.getPromotion()),
+                    i, selected, focused);
+            }
+        });
+        resultList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showDetail(resultList.getSelectedValue());
+            }
+        });
+
+        add(queryField, BorderLayout.NORTH);
+        add(new JScrollPane(resultList), BorderLayout.CENTER);
+        add(detailLabel, BorderLayout.SOUTH);
+    }
+
+    @Override
+    public void removeNotify() {
+        debounce.stop();
+        super.removeNotify();
+    }
+
+    private void search() {
+        int sequence = ++searchSequence;
+        String query = queryField.getText();
+        CompletableFuture.supplyAsync(() -> index.search(query, MAX_RESULTS))
+            .thenAcceptAsync(found -> {
+                if (sequence == searchSequence) {
+                    showResults(found);
+                }
+            }, SwingUtilities::invokeLater)
+            .exceptionally(error -> {
+                System.err.println("Recherche impossible : " + error.getMessage());
+                return null;
+            });
+    }
+
+    private void showResults(List<Student> found) {
+        results.clear();
+        found.forEach(results::addElement);
+        if (found.isEmpty()) {
+            detailLabel.setText(queryField.getText().isBlank() ? " " : "Aucun étudiant trouvé");
+        } else {
+            resultList.setSelectedIndex(0);
+        }
+    }
+
+    private void showDetail(Student student) {
+        if (student == null) {
+            detailLabel.setText(" ");
+            return;
+        }
+        FeeTotals balance = feeLedger.balance(student.getEmail());
+        detailLabel.setText(balance == null
+            ? student.getEmail()
+            : String.format("%s : %s payés sur %s, reste %s (%d paiement(s) en attente)", student.getEmail(),
+                balance.getPaid(), balance.getDue(), balance.getRemaining(), balance.getPendingPayments()));
+    }
+}
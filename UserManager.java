@@ -0,0 +1,217 @@
+package ucc.payment.system;
+
+import ucc.payment.system.metrics.Counter;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.metrics.MetricsRegistry;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.security.PasswordHasher;
+import ucc.payment.system.store.UserStore;
+import ucc.payment.system.util.ValidationError;
+import ucc.payment.system.util.ValidationException;
+import ucc.payment.system.util.Validators;
+import ucc.payment.system.util.VirtualThreads;
+
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Gestion des comptes étudiants : inscription et authentification.
+ * Les variantes asynchrones s'exécutent sur des threads virtuels pour ne jamais
+ * bloquer le thread Swing (EDT).
+ */
+public class UserManager {
+    private static final LatencyHistogram AUTHENTICATE_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_authenticate_seconds", "Durée de UserManager.authenticate");
+    private static final LatencyHistogram ADD_USER_LATENCY = MetricsRegistry.shared()
+        .histogram("ucc_add_user_seconds", "Durée de UserManager.addUser");
+    private static final Counter LOGIN_FAILURES = MetricsRegistry.shared()
+        .counter("ucc_login_failures_total", "Connexions refusées (identifiants incorrects)");
+    private static final Counter DUPLICATE_REGISTRATIONS = MetricsRegistry.shared()
+        .counter("ucc_duplicate_registrations_total", "Inscriptions refusées (email déjà utilisé)");
+
+    private final UserStore store;
+    private final ExecutorService executor = VirtualThreads.newExecutor("user-manager");
+    private final List<Consumer<Student>> registrationListeners = new CopyOnWriteArrayList<>();
+
+    public UserManager() {
+        this(new UserStore());
+    }
+
+    public UserManager(UserStore store) {
+        this.store = store;
+    }
+
+    public UserStore getStore() {
+        return store;
+    }
+
+    /**
+     * Recherche un compte par email.
+     * @return l'étudiant, ou null s'il n'existe pas
+     */
+    public Student find(String email) {
+        return store.find(email);
+    }
+
+    /**
+     * Enregistre un nouvel étudiant.
+     * @throws IllegalArgumentException si l'email est déjà utilisé
+     */
+    public void addUser(Student student) {
+        long start = System.nanoTime();
+        try {
+            if (!store.insertIfAbsent(student)) {
+                DUPLICATE_REGISTRATIONS.increment();
+                throw new IllegalArgumentException("Un compte existe déjà pour cet email");
+            }
+        } finally {
+            ADD_USER_LATENCY.recordSince(start);
+        }
+        notifyRegistered(student);
+    }
+
+    /**
+     * Enregistre un lot d'étudiants (import) en une écriture groupée. Les écouteurs
+     * d'inscription sont appelés pour chaque étudiant enregistré, comme avec
+     * {@link #addUser}.
+     * @return les étudiants refusés car leur email est déjà pris (y compris dans le lot)
+     * @throws UncheckedIOException si la persistance échoue (tout le lot est alors annulé)
+     */
+    public List<Student> addUsers(List<Student> students) {
+        List<Student> duplicates = store.insertAllIfAbsent(students);
+        DUPLICATE_REGISTRATIONS.add(duplicates.size());
+        if (registrationListeners.isEmpty()) {
+            return duplicates;
+        }
+        Set<Student> refused = Collections.newSetFromMap(new IdentityHashMap<>(duplicates.size() * 2));
+        refused.addAll(duplicates);
+        for (Student student : students) {
+            if (!refused.contains(student)) {
+                notifyRegistered(student);
+            }
+        }
+        return duplicates;
+    }
+
+    private void notifyRegistered(Student student) {
+        for (Consumer<Student> listener : registrationListeners) {
+            try {
+                listener.accept(student);
+            } catch (RuntimeException e) {
+                System.err.println("Écouteur d'inscriptions en échec : " + e);
+            }
+        }
+    }
+
+    /**
+     * Abonne un écouteur aux inscriptions réussies (index, agrégats...). Il est appelé
+     * sur le thread de l'inscription, après l'enregistrement.
+     */
+    public void addRegistrationListener(Consumer<Student> listener) {
+        registrationListeners.add(listener);
+    }
+
+    /**
+     * Authentifie un étudiant. La comparaison des hashs est en temps constant et un
+     * email inconnu coûte autant qu'un mot de passe faux. Un hash ancien ou trop
+     * faible est recalculé au passage.
+     * @return l'étudiant, ou null si les identifiants sont incorrects
+     */
+    public Student authenticate(String email, String password) {
+        long start = System.nanoTime();
+        try {
+            Student student = doAuthenticate(email, password);
+            if (student == null) {
+                LOGIN_FAILURES.increment();
+            }
+            return student;
+        } finally {
+            AUTHENTICATE_LATENCY.recordSince(start);
+        }
+    }
+
+    private Student doAuthenticate(String email, String password) {
+        PasswordHasher hasher = PasswordHasher.getDefault();
+        Student student = store.find(email);
+        if (student == null) {
+            hasher.dummyVerify(password);
+            return null;
+        }
+        if (!student.matchesPassword(password)) {
+            return null;
+        }
+        if (hasher.needsRehash(student.getPasswordHash())) {
+            return upgradeHash(student, hasher.hash(password));
+        }
+        return student;
+    }
+
+    private Student upgradeHash(Student student, String newHash) {
+        Student upgraded = student.withPasswordHash(newHash);
+        try {
+            return store.replace(student, upgraded) ? upgraded : student;
+        } catch (UncheckedIOException e) {
+            // La connexion reste valide ; la mise à niveau sera retentée à la prochaine connexion
+            System.err.println("Mise à niveau du hash impossible : " + e.getMessage());
+            return student;
+        }
+    }
+
+    /**
+     * Change le mot de passe d'un compte après vérification de l'actuel. Les sessions
+     * ouvertes avec l'ancien mot de passe ne sont plus acceptées.
+     * @return false si l'email ou le mot de passe actuel est incorrect, ou si le compte
+     *         a été modifié pendant l'opération
+     * @throws ValidationException si le nouveau mot de passe ne respecte pas les règles
+     */
+    public boolean changePassword(String email, String currentPassword, String newPassword) {
+        ValidationError error = Validators.checkPassword(newPassword);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+        Student student = authenticate(email, currentPassword);
+        if (student == null) {
+            return false;
+        }
+        // Échoue si le compte a changé entre-temps (autre changement de mot de passe)
+        return store.replace(student, student.withNewPassword(PasswordHasher.getDefault().hash(newPassword)));
+    }
+
+    /**
+     * Version asynchrone de {@link #authenticate}.
+     * Le futur se termine avec null si les identifiants sont incorrects.
+     */
+    public CompletableFuture<Student> authenticateAsync(String email, String password) {
+        return CompletableFuture.supplyAsync(() -> authenticate(email, password), executor);
+    }
+
+    /**
+     * Version asynchrone de {@link #addUser}.
+     */
+    public CompletableFuture<Student> addUserAsync(Student student) {
+        return CompletableFuture.supplyAsync(() -> {
+            addUser(student);
+            return student;
+        }, executor);
+    }
+
+    /**
+     * Construit (validation + hashage) puis enregistre un étudiant hors de l'EDT.
+     * Le futur échoue avec une IllegalArgumentException si les données sont invalides.
+     */
+    public CompletableFuture<Student> registerAsync(String name, String email, String password,
+                                                    String promotion, String faculty) {
+        return CompletableFuture.supplyAsync(() -> {
+            Student student = new Student(name, email, password, promotion, faculty);
+            addUser(student);
+            return student;
+        }, executor);
+    }
+}
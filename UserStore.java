@@ -0,0 +1,152 @@
+package ucc.payment.system.store;
+
+import ucc.payment.system.model.Student;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store concurrent des comptes étudiants, indexé par email normalisé.
+ * Lectures sans verrou (ConcurrentHashMap) et insertion atomique "si absent",
+ * équivalente à la contrainte UNIQUE sur students.email.
+ */
+public class UserStore implements AutoCloseable {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final Map<String, Student> byEmail = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+    private final PersistenceBackend backend;
+
+    public UserStore() {
+        this(new InMemoryBackend());
+    }
+
+    /**
+     * Crée le store et recharge les comptes déjà persistés par le support.
+     */
+    public UserStore(PersistenceBackend backend) {
+        this.backend = backend;
+        try {
+            backend.loadAll(student -> byEmail.put(Student.normalizeEmail(student.getEmail()), student));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Chargement des comptes impossible", e);
+        }
+    }
+
+    /**
+     * Recherche en O(1) par email (la casse et les espaces sont ignorés).
+     * @return l'étudiant, ou null s'il n'existe pas
+     */
+    public Student find(String email) {
+        return byEmail.get(Student.normalizeEmail(email));
+    }
+
+    /**
+     * Insère l'étudiant si aucun compte n'utilise déjà son email.
+     * Deux inscriptions concurrentes avec le même email ne peuvent pas réussir toutes les deux.
+     * @return false si l'email est déjà pris
+     * @throws UncheckedIOException si la persistance échoue (l'insertion est alors annulée)
+     */
+    public boolean insertIfAbsent(Student student) {
+        String key = Student.normalizeEmail(student.getEmail());
+        if (byEmail.putIfAbsent(key, student) != null) {
+            return false;
+        }
+        try {
+            backend.save(student);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            byEmail.remove(key, student);
+            throw e instanceof IOException
+                ? new UncheckedIOException("Enregistrement impossible", (IOException) e)
+                : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Insère un lot d'étudiants (import) : chaque email libre est réservé en mémoire,
+     * puis le lot est persisté en une écriture groupée.
+     * @return les étudiants non insérés car leur email est déjà pris (y compris dans le lot)
+     * @throws UncheckedIOException si la persistance échoue (tout le lot est alors annulé)
+     */
+    public List<Student> insertAllIfAbsent(List<Student> students) {
+        List<Student> inserted = new ArrayList<>(students.size());
+        List<Student> duplicates = new ArrayList<>();
+        for (Student student : students) {
+            if (byEmail.putIfAbsent(Student.normalizeEmail(student.getEmail()), student) == null) {
+                inserted.add(student);
+            } else {
+                duplicates.add(student);
+            }
+        }
+        if (inserted.isEmpty()) {
+            return duplicates;
+        }
+        try {
+            backend.saveAll(inserted);
+            return duplicates;
+        } catch (IOException | RuntimeException e) {
+            for (Student student : inserted) {
+                byEmail.remove(Student.normalizeEmail(student.getEmail()), student);
+            }
+            throw e instanceof IOException
+                ? new UncheckedIOException("Enregistrement du lot impossible", (IOException) e)
+                : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Remplace atomiquement un étudiant par sa nouvelle version, si l'entrée n'a pas changé entre-temps.
+     * @return false si l'entrée courante n'est plus {@code expected}
+     * @throws UncheckedIOException si la persistance échoue (le remplacement est alors annulé)
+     */
+    public boolean replace(Student expected, Student updated) {
+        String key = Student.normalizeEmail(expected.getEmail());
+        if (!byEmail.replace(key, expected, updated)) {
+            return false;
+        }
+        try {
+            backend.update(updated);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            byEmail.replace(key, updated, expected);
+            throw e instanceof IOException
+                ? new UncheckedIOException("Mise à jour impossible", (IOException) e)
+                : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Retire un compte de la mémoire sans toucher au support (mode cluster : la partition
+     * de cet email est désormais tenue par un autre nœud).
+     * @return false si l'email n'était pas présent
+     */
+    public boolean evict(String email) {
+        return byEmail.remove(Student.normalizeEmail(email)) != null;
+    }
+
+    public boolean contains(String email) {
+        return byEmail.containsKey(Student.normalizeEmail(email));
+    }
+
+    public int size() {
+        return byEmail.size();
+    }
+
+    /**
+     * Vue non modifiable de tous les étudiants (ordre non garanti).
+     */
+    public Collection<Student> all() {
+        return Collections.unmodifiableCollection(byEmail.values());
+    }
+
+    @Override
+    public void close() throws IOException {
+        backend.close();
+    }
+}
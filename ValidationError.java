@@ -0,0 +1,36 @@
+package ucc.payment.system.util;
+
+/**
+ * Erreur de validation d'un champ du formulaire d'inscription.
+ * Les validateurs renvoient null quand la valeur est valide.
+ */
+public enum ValidationError {
+    NAME_MISSING(Field.NAME, "Nom obligatoire"),
+    NAME_LENGTH(Field.NAME, "Nom invalide (3-50 lettres seulement)"),
+    NAME_CHARACTER(Field.NAME, "Nom invalide (lettres et espaces seulement)"),
+
+    EMAIL_MISSING(Field.EMAIL, "Email obligatoire"),
+    EMAIL_LOCAL_PART(Field.EMAIL, "Email UCC invalide (ex: prenom.nom@ucc.edu)"),
+    EMAIL_DOMAIN(Field.EMAIL, "L'email doit se terminer par @ucc.edu"),
+
+    PASSWORD_MISSING(Field.PASSWORD, "Mot de passe obligatoire"),
+    PASSWORD_TOO_SHORT(Field.PASSWORD, "Mot de passe : 8 caractères minimum"),
+    PASSWORD_LINE_BREAK(Field.PASSWORD, "Mot de passe : retour à la ligne interdit"),
+    PASSWORD_NO_UPPERCASE(Field.PASSWORD, "Mot de passe : au moins 1 majuscule"),
+    PASSWORD_NO_LOWERCASE(Field.PASSWORD, "Mot de passe : au moins 1 minuscule"),
+    PASSWORD_NO_DIGIT(Field.PASSWORD, "Mot de passe : au moins 1 chiffre");
+
+    /** Champ concerné par l'erreur. */
+    public enum Field { NAME, EMAIL, PASSWORD }
+
+    private final Field field;
+    private final String message;
+
+    ValidationError(Field field, String message) {
+        this.field = field;
+        this.message = message;
+    }
+
+    public Field getField() { return field; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,17 @@
+package ucc.payment.system.util;
+
+/**
+ * Donnée d'inscription refusée, avec le code d'erreur du champ concerné.
+ */
+public class ValidationException extends IllegalArgumentException {
+    private final ValidationError error;
+
+    public ValidationException(ValidationError error) {
+        super(error.getMessage());
+        this.error = error;
+    }
+
+    public ValidationError getError() {
+        return error;
+    }
+}
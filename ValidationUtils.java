@@ -0,0 +1,22 @@
+package ucc.payment.system.util;
+
+/**
+ * Prédicats de validation des champs du formulaire d'inscription,
+ * appuyés sur les validateurs sans allocation de {@link Validators}.
+ */
+public final class ValidationUtils {
+
+    private ValidationUtils() {}
+
+    public static boolean isValidName(String name) {
+        return Validators.checkName(name) == null;
+    }
+
+    public static boolean isValidEmail(String email) {
+        return Validators.checkEmail(email) == null;
+    }
+
+    public static boolean isStrongPassword(String password) {
+        return Validators.checkPassword(password) == null;
+    }
+}
@@ -0,0 +1,180 @@
+package ucc.payment.system.util;
+
+/**
+ * Validateurs en une seule passe des règles d'inscription, sans allocation quand la
+ * valeur est valide. Ils reproduisent exactement les anciennes expressions régulières :
+ * <ul>
+ *   <li>nom : {@code ^[a-zA-Z\s]{3,50}$} sur la valeur sans espaces de bord (trim) ;</li>
+ *   <li>email : {@code ^[a-zA-Z0-9._%+-]+@ucc\.edu$} sur la valeur trim + minuscules ;</li>
+ *   <li>mot de passe : {@code ^(?=.*[A-Z])(?=.*[a-z])(?=.*\d).{8,}$}.</li>
+ * </ul>
+ * Chaque méthode renvoie null si la valeur est valide, sinon le code d'erreur du champ.
+ * Les minuscules suivent String.toLowerCase() hors locale turque.
+ */
+public final class Validators {
+    private static final String EMAIL_DOMAIN = "@ucc.edu";
+    private static final int NAME_MIN = 3;
+    private static final int NAME_MAX = 50;
+    private static final int PASSWORD_MIN = 8;
+
+    private Validators() {}
+
+    public static ValidationError checkName(CharSequence name) {
+        if (name == null) {
+            return ValidationError.NAME_MISSING;
+        }
+        int start = trimStart(name);
+        int end = trimEnd(name, start);
+        int length = end - start;
+        if (length == 0) {
+            return ValidationError.NAME_MISSING;
+        }
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (!isAsciiLetter(c) && !isRegexWhitespace(c)) {
+                return ValidationError.NAME_CHARACTER;
+            }
+        }
+        return length < NAME_MIN || length > NAME_MAX ? ValidationError.NAME_LENGTH : null;
+    }
+
+    public static ValidationError checkEmail(CharSequence email) {
+        if (email == null) {
+            return ValidationError.EMAIL_MISSING;
+        }
+        int start = trimStart(email);
+        int end = trimEnd(email, start);
+        if (start == end) {
+            return ValidationError.EMAIL_MISSING;
+        }
+
+        int at = end - EMAIL_DOMAIN.length();
+        if (at <= start || !domainMatches(email, at)) {
+            return hasAt(email, start, end) ? ValidationError.EMAIL_DOMAIN : ValidationError.EMAIL_LOCAL_PART;
+        }
+        for (int i = start; i < at; i++) {
+            if (!isEmailLocalChar(lowerCase(email.charAt(i)))) {
+                return ValidationError.EMAIL_LOCAL_PART;
+            }
+        }
+        return null;
+    }
+
+    public static ValidationError checkPassword(CharSequence password) {
+        if (password == null || password.length() == 0) {
+            return ValidationError.PASSWORD_MISSING;
+        }
+        boolean upper = false;
+        boolean lower = false;
+        boolean digit = false;
+        int codePoints = 0;
+        int length = password.length();
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (isLineTerminator(c)) {
+                return ValidationError.PASSWORD_LINE_BREAK;
+            }
+            // "." compte un point de code : une paire de substitution ne compte qu'une fois
+            if (!(Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(password.charAt(i - 1)))) {
+                codePoints++;
+            }
+            upper |= c >= 'A' && c <= 'Z';
+            lower |= c >= 'a' && c <= 'z';
+            digit |= c >= '0' && c <= '9';
+        }
+        if (codePoints < PASSWORD_MIN) {
+            return ValidationError.PASSWORD_TOO_SHORT;
+        }
+        if (!upper) {
+            return ValidationError.PASSWORD_NO_UPPERCASE;
+        }
+        if (!lower) {
+            return ValidationError.PASSWORD_NO_LOWERCASE;
+        }
+        return digit ? null : ValidationError.PASSWORD_NO_DIGIT;
+    }
+
+    /**
+     * Forme normalisée d'un email (trim + minuscules) ; renvoie la même instance
+     * quand elle est déjà normalisée.
+     */
+    public static String normalizeEmail(String email) {
+        int start = trimStart(email);
+        int end = trimEnd(email, start);
+        boolean lowerCase = true;
+        for (int i = start; i < end && lowerCase; i++) {
+            char c = email.charAt(i);
+            lowerCase = c < 128 ? !(c >= 'A' && c <= 'Z') : Character.toLowerCase(c) == c;
+        }
+        if (lowerCase) {
+            return start == 0 && end == email.length() ? email : email.substring(start, end);
+        }
+        return email.trim().toLowerCase();
+    }
+
+    // String.trim() : retire les caractères <= ' ' aux deux bouts
+    private static int trimStart(CharSequence value) {
+        int i = 0;
+        while (i < value.length() && value.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimEnd(CharSequence value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean domainMatches(CharSequence email, int at) {
+        for (int i = 0; i < EMAIL_DOMAIN.length(); i++) {
+            if (lowerCase(email.charAt(at + i)) != EMAIL_DOMAIN.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasAt(CharSequence value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == '@') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Équivalent caractère par caractère de String.toLowerCase() pour les caractères
+     * qui peuvent donner un caractère ASCII. U+0130 (I pointé) devient "i" + point
+     * combinant, qui ne passe jamais la règle : on le rejette.
+     */
+    private static char lowerCase(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return c == '\u0130' ? c : Character.toLowerCase(c);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // \s des expressions régulières Java : [ \t\n\x0B\f\r]
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+            || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    // Caractères que "." ne reconnaît pas (sans DOTALL)
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,27 @@
+package ucc.payment.system.model;
+
+/**
+ * Résultat d'une vérification, tel que défini par la table payment_verifications.
+ */
+public enum VerificationStatus {
+    VERIFIED("verified"),
+    UNVERIFIED("unverified"),
+    DISPUTED("disputed");
+
+    private final String dbValue;
+
+    VerificationStatus(String dbValue) {
+        this.dbValue = dbValue;
+    }
+
+    public String getDbValue() { return dbValue; }
+
+    public static VerificationStatus fromDbValue(String value) {
+        for (VerificationStatus status : values()) {
+            if (status.dbValue.equals(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Statut de vérification inconnu : " + value);
+    }
+}
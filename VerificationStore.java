@@ -0,0 +1,14 @@
+package ucc.payment.system.reconciliation;
+
+import ucc.payment.system.model.PaymentVerification;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Persistance des vérifications (table payment_verifications), par lots.
+ */
+public interface VerificationStore {
+
+    void writeBatch(List<PaymentVerification> verifications) throws IOException;
+}
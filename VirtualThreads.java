@@ -0,0 +1,41 @@
+package ucc.payment.system.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fabrique d'exécuteurs "un thread virtuel par tâche".
+ * Sur un JDK 21+, les threads virtuels sont utilisés ; sur le JDK 17 du projet,
+ * on se replie sur un pool de threads démons à la demande.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * Crée un exécuteur lançant chaque tâche sur son propre thread virtuel.
+     */
+    public static ExecutorService newExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonFactory(name));
+        }
+    }
+
+    /**
+     * Fabrique de threads démons nommés "name-N".
+     */
+    public static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.util.Json;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur de charge pour le mode serveur ({@code Main --server}).
+ *
+ * <p>Chaque session simulée s'inscrit et se connecte une fois, puis enchaîne les
+ * paiements avec son jeton de session jusqu'à la fin de la mesure. Les requêtes sont asynchrones (HttpClient du JDK,
+ * connexions keep-alive) : des milliers de sessions simultanées tiennent sur
+ * quelques threads.
+ *
+ * <p>Usage : {@code ApiLoadGenerator [url] [sessions] [secondes]}
+ * (par défaut http://localhost:8080, 2000 sessions, 30 s).
+ */
+public final class ApiLoadGenerator {
+    private static final String[] METHODS = {"Orange Money", "Airtel Money", "M-Pesa", "Africell"};
+
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    private final LatencyHistogram registerLatency = new LatencyHistogram("register", "Inscription");
+    private final LatencyHistogram loginLatency = new LatencyHistogram("login", "Connexion");
+    private final LatencyHistogram payLatency = new LatencyHistogram("pay", "Paiement");
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong activeSessions = new AtomicLong();
+    private final AtomicLong peakSessions = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private volatile long deadline;
+
+    private ApiLoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) {
+        String url = args.length > 0 ? args[0] : "http://localhost:8080";
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        new ApiLoadGenerator(url).run(sessions, seconds);
+    }
+
+    private void run(int sessions, int seconds) {
+        long start = System.nanoTime();
+        deadline = start + Duration.ofSeconds(seconds).toNanos();
+        CompletableFuture<?>[] running = new CompletableFuture<?>[sessions];
+        for (int i = 0; i < sessions; i++) {
+            running[i] = session(i);
+        }
+        CompletableFuture.allOf(running).join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d sessions (pic simultané : %d), %.1f s, %d erreurs%n",
+            sessions, peakSessions.get(), elapsed, errors.get());
+        report(registerLatency, elapsed);
+        report(loginLatency, elapsed);
+        report(payLatency, elapsed);
+    }
+
+    private CompletableFuture<Void> session(int id) {
+        String email = "charge" + runId + "x" + id + "@ucc.edu";
+        String password = "Kinshasa2024";
+        String credentials = Json.object("email", email, "password", password);
+        long active = activeSessions.incrementAndGet();
+        peakSessions.accumulateAndGet(active, Math::max);
+        return post("/api/register", Json.object("name", "Etudiant Charge", "email", email,
+                "password", password, "promotion", "L1", "faculty", "FSI"), registerLatency)
+            .thenCompose(ignored -> post("/api/login", credentials, null, loginLatency))
+            .thenCompose(body -> body == null
+                ? CompletableFuture.<Void>completedFuture(null)
+                : loop(Json.parseObject(body).get("token"), 0))
+            .whenComplete((ignored, error) -> activeSessions.decrementAndGet());
+    }
+
+    /**
+     * @param count paiements déjà faits : le montant change à chaque fois, sans quoi le
+     *              serveur refuserait une demande identique récente (double soumission)
+     */
+    private CompletableFuture<Void> loop(String token, int count) {
+        if (System.nanoTime() - deadline >= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String method = METHODS[ThreadLocalRandom.current().nextInt(METHODS.length)];
+        String payment = Json.object("amount", 50 + count % 100_000, "method", method);
+        return post("/api/payments", payment, token, payLatency)
+            .thenCompose(ignored -> loop(token, count + 1));
+    }
+
+    private CompletableFuture<String> post(String path, String body, LatencyHistogram latency) {
+        return post(path, body, null, latency);
+    }
+
+    /**
+     * @return le corps de la réponse, ou null en cas d'erreur
+     */
+    private CompletableFuture<String> post(String path, String body, String token, LatencyHistogram latency) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(60))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                latency.recordSince(start);
+                if (error != null || response.statusCode() >= 300) {
+                    if (errors.incrementAndGet() <= 5) {
+                        System.err.println(path + " : " + (error != null ? error : response.body()));
+                    }
+                    return null;
+                }
+                return response.body();
+            });
+    }
+
+    private static void report(LatencyHistogram histogram, double elapsed) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        System.out.printf("%-12s %,9d req  %,8.0f req/s  p50 %7.2f ms  p99 %7.2f ms  p999 %7.2f ms%n",
+            histogram.getHelp(), snapshot.getCount(), snapshot.getCount() / elapsed,
+            snapshot.valueAtMillis(0.5), snapshot.valueAtMillis(0.99), snapshot.valueAtMillis(0.999));
+    }
+}
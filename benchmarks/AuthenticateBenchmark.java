@@ -0,0 +1,71 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.UserManager;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.UserStore;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserManager.authenticate (succès et échec) et recherche seule dans le store,
+ * pour des tailles de store de 1k à 1M étudiants.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Ducc.hash.target.ms=" + BenchmarkData.HASH_TARGET_MS})
+@State(Scope.Benchmark)
+public class AuthenticateBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int storeSize;
+
+    private UserManager userManager;
+    private UserStore store;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        store = new UserStore();
+        String passwordHash = BenchmarkData.newStudent(0).getPasswordHash();
+        for (int i = 0; i < storeSize; i++) {
+            store.insertIfAbsent(Student.restore(BenchmarkData.NAME, BenchmarkData.email(i), passwordHash,
+                "L1", "FSI"));
+        }
+        userManager = new UserManager(store);
+    }
+
+    private String randomExistingEmail() {
+        return BenchmarkData.email(ThreadLocalRandom.current().nextInt(storeSize));
+    }
+
+    @Benchmark
+    public Student authenticateHit() {
+        return userManager.authenticate(randomExistingEmail(), BenchmarkData.PASSWORD);
+    }
+
+    @Benchmark
+    public Student authenticateWrongPassword() {
+        return userManager.authenticate(randomExistingEmail(), "Mauvais1Motdepasse");
+    }
+
+    @Benchmark
+    public Student authenticateUnknownEmail() {
+        return userManager.authenticate("inconnu@ucc.edu", BenchmarkData.PASSWORD);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Student lookupHit() {
+        return store.find(randomExistingEmail());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Student lookupMiss() {
+        return store.find("inconnu@ucc.edu");
+    }
+}
@@ -0,0 +1,23 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Student;
+
+/**
+ * Données communes aux benchmarks.
+ */
+final class BenchmarkData {
+    static final String NAME = "Jean Pierre Mukendi";
+    static final String PASSWORD = "Kinshasa2024";
+    // Latence de hashage réduite : on mesure le code autour du hash, pas PBKDF2
+    static final String HASH_TARGET_MS = "1";
+
+    private BenchmarkData() {}
+
+    static String email(int i) {
+        return "etudiant" + i + "@ucc.edu";
+    }
+
+    static Student newStudent(int i) {
+        return new Student(NAME, email(i), PASSWORD, "L1", "FSI");
+    }
+}
@@ -0,0 +1,30 @@
+package ucc.payment.system.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lance les benchmarks et écrit les résultats en JSON pour comparer les exécutions.
+ *
+ * <p>Usage : {@code BenchmarkRunner [regex des benchmarks] [fichier de résultats]}
+ * (par défaut tous les benchmarks, résultats dans jmh-result.json).
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "ucc\\.payment\\.system\\.benchmarks\\..*";
+        String output = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(output)
+            .build();
+        new Runner(options).run();
+    }
+}
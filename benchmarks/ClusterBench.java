@@ -0,0 +1,328 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.Main;
+import ucc.payment.system.metrics.LatencyHistogram;
+import ucc.payment.system.util.Json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Montée en charge du mode cluster : démarre des instances du serveur
+ * ({@code Main --server --cluster=...}) sur la boucle locale, une par palier, chacune
+ * dans sa propre JVM avec son répertoire de données.
+ *
+ * <p>À chaque palier : ajout d'un nœud (durée du rééquilibrage relevée sur le
+ * coordinateur), vérification que tous les comptes déjà créés se connectent encore et
+ * qu'une session ouverte sur un nœud est reconnue (puis fermée) par un autre, inscription
+ * d'un nouveau lot de comptes puis connexions en continu, chaque requête étant envoyée à
+ * un nœud au hasard.
+ *
+ * <p>Code de sortie 1 si un compte ou une session est perdu en route.
+ *
+ * <p>Usage : {@code ClusterBench [nœuds] [comptes par palier] [secondes par palier]}
+ * (3, 2000 et 10 par défaut).
+ */
+public final class ClusterBench {
+    private static final int HTTP_PORT = 18_080;
+    private static final int CLUSTER_PORT = 19_080;
+    private static final int IN_FLIGHT = 64;
+    private static final long START_TIMEOUT_SECONDS = 120;
+    private static final Pattern REBALANCE = Pattern.compile("rééquilibré en (\\d+) ms");
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<String> emails = new ArrayList<>();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong lastRebalanceMillis = new AtomicLong(-1);
+
+    private ClusterBench() {}
+
+    public static void main(String[] args) throws Exception {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int accounts = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        ClusterBench bench = new ClusterBench();
+        boolean lost;
+        try {
+            lost = bench.run(maxNodes, accounts, seconds);
+        } finally {
+            bench.stopAll();
+        }
+        System.exit(lost ? 1 : 0);
+    }
+
+    private boolean run(int maxNodes, int accounts, int seconds) throws Exception {
+        System.out.printf("%d cœur(s) disponible(s) : les JVM se partagent la même machine%n",
+            Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-6s %10s %12s %14s %12s %12s %10s%n", "nœuds", "arrivée", "rééquilibr.",
+            "inscriptions/s", "connexions/s", "p99 connex.", "perdus");
+        boolean lost = false;
+        for (int n = 1; n <= maxNodes; n++) {
+            lastRebalanceMillis.set(-1);
+            long start = System.nanoTime();
+            startNode(n - 1);
+            long joinMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            int missing = verify();
+            lost |= missing > 0;
+
+            LatencyHistogram registerLatency = new LatencyHistogram("register", "Inscription");
+            long registerStart = System.nanoTime();
+            List<String> batch = new ArrayList<>();
+            for (int i = 0; i < accounts; i++) {
+                batch.add("cluster" + runId + "n" + n + "x" + i + "@ucc.edu");
+            }
+            int registered = forEach(batch, email -> post(randomNode(), "/api/register",
+                Json.object("name", "Etudiant Cluster", "email", email, "password", BenchmarkData.PASSWORD,
+                    "promotion", "L1", "faculty", "FSI"), null, registerLatency)
+                .thenApply(response -> response != null));
+            double registerRate = registered / ((System.nanoTime() - registerStart) / 1e9);
+            emails.addAll(batch);
+
+            LatencyHistogram loginLatency = new LatencyHistogram("login", "Connexion");
+            long loginStart = System.nanoTime();
+            int logins = loginFor(seconds, loginLatency);
+            double loginRate = logins / ((System.nanoTime() - loginStart) / 1e9);
+
+            long rebalance = lastRebalanceMillis.get();
+            System.out.printf("%-6d %8d ms %12s %14.0f %12.0f %9.2f ms %10d%n", n, joinMillis,
+                rebalance < 0 ? "-" : rebalance + " ms", registerRate, loginRate,
+                loginLatency.snapshot().valueAtMillis(0.99), missing);
+            if (registered < accounts) {
+                System.out.printf("  %d inscriptions en échec%n", accounts - registered);
+                lost = true;
+            }
+        }
+        return lost;
+    }
+
+    /**
+     * Connecte chaque compte déjà créé sur un nœud au hasard ; pour un compte sur dix,
+     * fait aussi vérifier et fermer la session par d'autres nœuds.
+     * @return le nombre de comptes ou de sessions introuvables
+     */
+    private int verify() throws InterruptedException {
+        LatencyHistogram ignored = new LatencyHistogram("verify", "Vérification");
+        AtomicInteger index = new AtomicInteger();
+        int ok = forEach(emails, email -> {
+            boolean checkSession = index.getAndIncrement() % 10 == 0 && nodes.size() > 1;
+            return post(randomNode(), "/api/login", Json.object("email", email, "password", BenchmarkData.PASSWORD),
+                null, ignored).thenCompose(body -> {
+                    if (body == null || !checkSession) {
+                        return CompletableFuture.completedFuture(body != null);
+                    }
+                    return checkSession(Json.parseObject(body).get("token"));
+                });
+        });
+        return emails.size() - ok;
+    }
+
+    /**
+     * Présente le jeton à un nœud au hasard avec un paiement vide (400 si le jeton est
+     * accepté, 401 sinon), le ferme par un autre nœud au hasard, puis vérifie qu'il est refusé.
+     */
+    private CompletableFuture<Boolean> checkSession(String token) {
+        return status(randomNode(), "/api/payments", token)
+            .thenCompose(accepted -> accepted != 400
+                ? CompletableFuture.completedFuture(false)
+                : status(randomNode(), "/api/logout", token)
+                    .thenCompose(logout -> status(randomNode(), "/api/payments", token))
+                    .thenApply(refused -> refused == 401))
+            .exceptionally(error -> false);
+    }
+
+    private CompletableFuture<Integer> status(Node node, String path, String token) {
+        return client.sendAsync(request(node, path, "{}", token), HttpResponse.BodyHandlers.discarding())
+            .thenApply(HttpResponse::statusCode);
+    }
+
+    private int loginFor(int seconds, LatencyHistogram latency) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicInteger done = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(IN_FLIGHT);
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            loginLoop(deadline, latency, done, finished);
+        }
+        finished.await();
+        return done.get();
+    }
+
+    private void loginLoop(long deadline, LatencyHistogram latency, AtomicInteger done, CountDownLatch finished) {
+        if (System.nanoTime() - deadline >= 0) {
+            finished.countDown();
+            return;
+        }
+        String email = emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+        post(randomNode(), "/api/login", Json.object("email", email, "password", BenchmarkData.PASSWORD), null, latency)
+            .whenComplete((body, error) -> {
+                if (body != null) {
+                    done.incrementAndGet();
+                }
+                loginLoop(deadline, latency, done, finished);
+            });
+    }
+
+    /**
+     * Lance une requête par élément, au plus {@value #IN_FLIGHT} à la fois.
+     * @return le nombre de requêtes réussies
+     */
+    private static int forEach(List<String> items,
+                               Function<String, CompletableFuture<Boolean>> request)
+            throws InterruptedException {
+        Semaphore slots = new Semaphore(IN_FLIGHT);
+        AtomicInteger ok = new AtomicInteger();
+        for (String item : items) {
+            slots.acquire();
+            request.apply(item).whenComplete((success, error) -> {
+                if (Boolean.TRUE.equals(success)) {
+                    ok.incrementAndGet();
+                }
+                slots.release();
+            });
+        }
+        slots.acquire(IN_FLIGHT);
+        return ok.get();
+    }
+
+    /**
+     * @return le corps de la réponse, ou null en cas d'erreur
+     */
+    private CompletableFuture<String> post(Node node, String path, String body, String token,
+                                           LatencyHistogram latency) {
+        long start = System.nanoTime();
+        return client.sendAsync(request(node, path, body, token), HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                latency.recordSince(start);
+                if (error != null || response.statusCode() >= 300) {
+                    System.err.println(path + " sur " + node.httpPort + " : "
+                        + (error != null ? error : response.statusCode() + " " + response.body()));
+                    return null;
+                }
+                return response.body();
+            });
+    }
+
+    private HttpRequest request(Node node, String path, String body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + node.httpPort + path))
+            .timeout(Duration.ofSeconds(60))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private Node randomNode() {
+        return nodes.get(ThreadLocalRandom.current().nextInt(nodes.size()));
+    }
+
+    /**
+     * Démarre l'instance numéro {@code index} et attend que son API écoute ; les suivantes
+     * rejoignent le cluster par la première.
+     */
+    private void startNode(int index) throws IOException, InterruptedException {
+        Path dataDir = Files.createTempDirectory("ucc-cluster-" + index + "-");
+        String address = "127.0.0.1:" + (CLUSTER_PORT + index);
+        List<String> command = new ArrayList<>(List.of(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Dfile.encoding=UTF-8",
+            "-Ducc.data.dir=" + dataDir,
+            "-Ducc.hash.target.ms=" + BenchmarkData.HASH_TARGET_MS,
+            "-cp", System.getProperty("java.class.path"),
+            Main.class.getName(), "--server", "--port=" + (HTTP_PORT + index), "--cluster=" + address));
+        if (index > 0) {
+            command.add("--seed=127.0.0.1:" + CLUSTER_PORT);
+        }
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Node node = new Node(HTTP_PORT + index, process, dataDir);
+        CountDownLatch ready = new CountDownLatch(1);
+        Thread output = new Thread(() -> follow(node, ready), "cluster-node-" + index);
+        output.setDaemon(true);
+        output.start();
+        if (!ready.await(START_TIMEOUT_SECONDS, TimeUnit.SECONDS) || !process.isAlive()) {
+            throw new IllegalStateException("Le nœud " + address + " n'a pas démarré");
+        }
+        nodes.add(node);
+    }
+
+    /**
+     * Lit la sortie d'une instance : signale son démarrage, relève la durée des
+     * rééquilibrages qu'elle coordonne et recopie ses erreurs.
+     */
+    private void follow(Node node, CountDownLatch ready) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(node.process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher rebalance = REBALANCE.matcher(line);
+                if (rebalance.find()) {
+                    lastRebalanceMillis.set(Long.parseLong(rebalance.group(1)));
+                } else if (line.contains("API en écoute")) {
+                    ready.countDown();
+                } else if (!line.startsWith("Cluster :")) {
+                    System.err.println("[" + node.httpPort + "] " + line);
+                }
+            }
+        } catch (IOException e) {
+            // instance arrêtée
+        }
+        ready.countDown();
+    }
+
+    private void stopAll() {
+        for (Node node : nodes) {
+            node.process.destroy();
+        }
+        for (Node node : nodes) {
+            try {
+                node.process.waitFor(10, TimeUnit.SECONDS);
+                try (Stream<Path> files = Files.walk(node.dataDir)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Nettoyage de " + node.dataDir + " incomplet : " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Node {
+        final int httpPort;
+        final Process process;
+        final Path dataDir;
+
+        Node(int httpPort, Process process, Path dataDir) {
+            this.httpPort = httpPort;
+            this.process = process;
+            this.dataDir = dataDir;
+        }
+    }
+}
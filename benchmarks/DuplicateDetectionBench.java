@@ -0,0 +1,129 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.payment.DuplicateDetector;
+import ucc.payment.system.payment.DuplicatePaymentException;
+import ucc.payment.system.payment.InMemoryPaymentStore;
+import ucc.payment.system.payment.PaymentService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Détection des doublons de paiement : flux de notifications d'opérateur dont une part
+ * renvoie une transaction déjà enregistrée, refusée par l'index en mémoire du
+ * {@link PaymentService} sans aller-retour vers le stockage, puis refus des doubles clics
+ * par le {@link DuplicateDetector}.
+ *
+ * <p>Affiche le coût d'un renvoi refusé et les doubles clics refusés. Code de sortie 1 si
+ * un renvoi passe inaperçu, si une transaction nouvelle est refusée ou si un double clic
+ * est accepté.
+ *
+ * <p>Usage : {@code DuplicateDetectionBench [transactions enregistrées] [notifications]}
+ * (200000 et 1000000 par défaut).
+ */
+public final class DuplicateDetectionBench {
+    private static final double REPLAY_SHARE = 0.05;
+    private static final long WINDOW_MILLIS = 200;
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(150);
+
+    private DuplicateDetectionBench() {}
+
+    public static void main(String[] args) throws IOException {
+        int recorded = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int notifications = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        boolean failed = false;
+
+        DuplicateDetector detector = new DuplicateDetector(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS));
+        try (PaymentService service = new PaymentService(new InMemoryPaymentStore(), detector)) {
+            List<CompletableFuture<Payment>> pending = new ArrayList<>(recorded);
+            for (int i = 0; i < recorded; i++) {
+                pending.add(notify(service, i, transactionId(i)));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+            pending.clear();
+            System.out.printf("%,d transactions enregistrées%n", recorded);
+
+            // Flux : notifications nouvelles et renvois de transactions déjà enregistrées
+            Random random = new Random(42);
+            int replays = 0;
+            int detected = 0;
+            int refusedFresh = 0;
+            long replayNanos = 0;
+            for (int i = 0; i < notifications; i++) {
+                boolean replay = random.nextDouble() < REPLAY_SHARE;
+                String id = transactionId(replay ? random.nextInt(recorded) : recorded + i);
+                long start = System.nanoTime();
+                CompletableFuture<Payment> future = notify(service, i, id);
+                if (replay) {
+                    replayNanos += System.nanoTime() - start;
+                    replays++;
+                    detected += isDuplicate(future) ? 1 : 0;
+                } else {
+                    pending.add(future);
+                }
+            }
+            for (CompletableFuture<Payment> future : pending) {
+                refusedFresh += isDuplicate(future) ? 1 : 0;
+            }
+            System.out.printf("%,d notifications dont %,d renvois : %,d détectés (%.0f ns par renvoi), "
+                    + "%,d transactions nouvelles refusées%n", notifications, replays, detected,
+                (double) replayNanos / Math.max(1, replays), refusedFresh);
+            failed = detected != replays || refusedFresh != 0;
+        }
+
+        failed |= !doubleClicks(detector);
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static CompletableFuture<Payment> notify(PaymentService service, int i, String transactionId) {
+        return service.createPayment(BenchmarkData.email(i % 10_000), AMOUNT, PaymentMethod.M_PESA, transactionId);
+    }
+
+    private static boolean isDuplicate(CompletableFuture<Payment> future) {
+        try {
+            future.join();
+            return false;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DuplicatePaymentException) {
+                return true;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Chaque étudiant clique deux fois de suite (second refusé), paie un autre montant
+     * (accepté), puis reclique après la fenêtre (accepté).
+     */
+    private static boolean doubleClicks(DuplicateDetector detector) {
+        int students = 10_000;
+        int refused = 0;
+        int accepted = 0;
+        for (int i = 0; i < students; i++) {
+            String email = BenchmarkData.email(i);
+            accepted += detector.isRepeatedSubmission(email, AMOUNT, PaymentMethod.M_PESA) ? 0 : 1;
+            refused += detector.isRepeatedSubmission(email, new BigDecimal("150.00"), PaymentMethod.M_PESA) ? 1 : 0;
+            accepted += detector.isRepeatedSubmission(email, AMOUNT, PaymentMethod.AIRTEL_MONEY) ? 0 : 1;
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(WINDOW_MILLIS + 50));
+        for (int i = 0; i < students; i++) {
+            accepted += detector.isRepeatedSubmission(BenchmarkData.email(i), AMOUNT, PaymentMethod.M_PESA) ? 0 : 1;
+        }
+        System.out.printf("Doubles clics : %,d refusés sur %,d, %,d demandes distinctes ou hors fenêtre acceptées "
+            + "sur %,d%n", refused, students, accepted, 3 * students);
+        return refused == students && accepted == 3 * students;
+    }
+
+    private static String transactionId(int i) {
+        return "UCC-O-" + String.format("%020X", i & 0xffffffffL);
+    }
+}
@@ -0,0 +1,90 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.gateway.CallbackProcessor;
+import ucc.payment.system.gateway.SimulatedGateway;
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.payment.InMemoryPaymentStore;
+import ucc.payment.system.payment.PaymentService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Simulation hors ligne d'un jour d'échéance : paiements mobile money en rafale,
+ * notifications simulées (latence, doublons, renvois, désordre, échecs) et
+ * application par le {@link CallbackProcessor}.
+ *
+ * <p>Usage : {@code GatewaySimulation [paiements] [accélération du temps]}
+ * (par défaut 100000 paiements, temps 20 fois plus rapide). Code de sortie 1 si un
+ * paiement reste "pending" ou si une notification a été perdue.
+ */
+public final class GatewaySimulation {
+    private static final PaymentMethod[] OPERATORS = {
+        PaymentMethod.ORANGE_MONEY, PaymentMethod.AIRTEL_MONEY, PaymentMethod.M_PESA, PaymentMethod.AFRICELL
+    };
+    private static final long TIMEOUT_MILLIS = 120_000;
+
+    private GatewaySimulation() {}
+
+    public static void main(String[] args) throws Exception {
+        int payments = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        double timeScale = args.length > 1 ? Double.parseDouble(args[1]) : 20;
+
+        try (PaymentService service = new PaymentService(new InMemoryPaymentStore());
+             CallbackProcessor processor = new CallbackProcessor(service);
+             SimulatedGateway gateway = new SimulatedGateway(processor::accept,
+                 SimulatedGateway.defaultProfiles(), timeScale, 42)) {
+
+            long start = System.nanoTime();
+            CompletableFuture<?>[] created = new CompletableFuture<?>[payments];
+            for (int i = 0; i < payments; i++) {
+                PaymentMethod method = OPERATORS[i % OPERATORS.length];
+                created[i] = service.createPayment(BenchmarkData.email(i), BigDecimal.valueOf(100 + i % 400),
+                        method, String.format("SIM-%s-%08d", method.name().charAt(0), i))
+                    .thenAccept(gateway::requestPayment);
+            }
+            CompletableFuture.allOf(created).join();
+            double submitSeconds = (System.nanoTime() - start) / 1e9;
+
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (countPending(service) > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            // Laisse arriver les renvois tardifs et les notifications périmées
+            while ((gateway.getCallbacksSent() > processor.getReceived() || processor.getInFlight() > 0)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            Thread.sleep((long) (6_000 / timeScale) + 200);
+            double totalSeconds = (System.nanoTime() - start) / 1e9;
+
+            long pending = countPending(service);
+            System.out.printf("%,d paiements soumis en %.2f s (%,.0f/s), simulation terminée en %.2f s%n",
+                payments, submitSeconds, payments / submitSeconds, totalSeconds);
+            System.out.printf("%,d notifications émises, %,.0f notifications/s%n",
+                gateway.getCallbacksSent(), processor.getReceived() / totalSeconds);
+            System.out.println(processor);
+            System.out.printf("Restés pending : %d%n", pending);
+
+            boolean consistent = pending == 0 && processor.getApplied() == payments
+                && processor.getReceived() == gateway.getCallbacksSent()
+                && processor.getConflicts() == 0 && processor.getFailed() == 0 && processor.getUnknown() == 0;
+            if (!consistent) {
+                System.out.println("INCOHÉRENCE");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static long countPending(PaymentService service) {
+        long pending = 0;
+        for (Payment payment : service.all()) {
+            if (payment.getStatus() == PaymentStatus.PENDING) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+}
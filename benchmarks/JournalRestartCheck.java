@@ -0,0 +1,155 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.JournalBackend;
+import ucc.payment.system.store.UserStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Redémarrage du {@link JournalBackend} : durée de {@code new UserStore(backend)} sur un
+ * répertoire de données réel, après une session terminée par une fermeture propre
+ * (tout dans le snapshot) puis après un arrêt brutal (tout dans le journal).
+ *
+ * <p>Les étudiants sont restaurés avec un hash au format stocké : on mesure la relecture,
+ * pas PBKDF2. Chaque scénario est relancé plusieurs fois et la meilleure durée est
+ * comparée à l'objectif.
+ *
+ * <p>Code de sortie 1 si un redémarrage dépasse l'objectif ou ne retrouve pas tous les
+ * comptes, ou si une seconde ouverture du même répertoire n'est pas refusée.
+ *
+ * <p>Usage : {@code JournalRestartCheck [étudiants] [objectif ms]} (100000 et 1000 par défaut).
+ */
+public final class JournalRestartCheck {
+    private static final int RUNS = 5;
+    private static final int BATCH_SIZE = 1_000;
+
+    private JournalRestartCheck() {}
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long targetMillis = args.length > 1 ? Long.parseLong(args[1]) : 1_000;
+        List<Student> students = generate(count);
+        boolean ok = true;
+
+        // Arrêt propre : close() compacte le journal dans le snapshot
+        Path snapshotDir = Files.createTempDirectory("ucc-restart");
+        try {
+            try (JournalBackend backend = JournalBackend.open(snapshotDir, Integer.MAX_VALUE)) {
+                write(backend, students);
+            }
+            ok &= restart("Snapshot", snapshotDir, count, targetMillis);
+            ok &= secondOpenRefused(snapshotDir);
+        } finally {
+            delete(snapshotDir);
+        }
+
+        // Arrêt brutal : le journal n'est jamais compacté, tout est rejoué
+        Path journalDir = Files.createTempDirectory("ucc-restart");
+        try {
+            JournalBackend crashed = JournalBackend.open(journalDir, Integer.MAX_VALUE);
+            write(crashed, students);
+            ok &= restartAfterCrash(journalDir, count, targetMillis);
+        } finally {
+            delete(journalDir);
+        }
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean restart(String label, Path directory, int count, long targetMillis) throws IOException {
+        long best = Long.MAX_VALUE;
+        int loaded = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            UserStore store = new UserStore(JournalBackend.open(directory, Integer.MAX_VALUE));
+            best = Math.min(best, System.nanoTime() - start);
+            loaded = store.size();
+            store.close();
+        }
+        return report(label, loaded, count, best, targetMillis);
+    }
+
+    /**
+     * Sans fermeture, le verrou du premier backend est tenu jusqu'à la fin du processus :
+     * la mesure se fait sur une copie du répertoire, comme après un redémarrage.
+     */
+    private static boolean restartAfterCrash(Path directory, int count, long targetMillis) throws IOException {
+        long best = Long.MAX_VALUE;
+        int loaded = 0;
+        for (int run = 0; run < RUNS; run++) {
+            Path copy = Files.createTempDirectory("ucc-restart");
+            try {
+                Files.copy(directory.resolve("students.journal"), copy.resolve("students.journal"));
+                long start = System.nanoTime();
+                // Seuil maximal : pas de compaction pendant la mesure
+                JournalBackend backend = JournalBackend.open(copy, Integer.MAX_VALUE);
+                UserStore store = new UserStore(backend);
+                best = Math.min(best, System.nanoTime() - start);
+                loaded = store.size();
+                store.close();
+            } finally {
+                delete(copy);
+            }
+        }
+        return report("Journal", loaded, count, best, targetMillis);
+    }
+
+    private static boolean report(String label, int loaded, int count, long bestNanos, long targetMillis) {
+        double millis = bestNanos / 1e6;
+        boolean ok = loaded == count && millis <= targetMillis;
+        System.out.printf("%-8s : %,d comptes relus en %,.0f ms (objectif %,d ms)%s%n",
+            label, loaded, millis, targetMillis, ok ? "" : "  ÉCHEC");
+        return ok;
+    }
+
+    private static boolean secondOpenRefused(Path directory) throws IOException {
+        try (JournalBackend first = JournalBackend.open(directory, Integer.MAX_VALUE)) {
+            try (JournalBackend second = JournalBackend.open(directory, Integer.MAX_VALUE)) {
+                System.out.println("Seconde ouverture du répertoire acceptée  ÉCHEC");
+                return false;
+            } catch (IOException e) {
+                System.out.println("Seconde ouverture refusée : " + e.getMessage());
+                return true;
+            }
+        }
+    }
+
+    private static void write(JournalBackend backend, List<Student> students) throws IOException {
+        for (int i = 0; i < students.size(); i += BATCH_SIZE) {
+            backend.saveAll(students.subList(i, Math.min(students.size(), i + BATCH_SIZE)));
+        }
+    }
+
+    private static List<Student> generate(int count) {
+        Random random = new Random(42);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] salt = new byte[16];
+            byte[] hash = new byte[32];
+            random.nextBytes(salt);
+            random.nextBytes(hash);
+            String passwordHash = "pbkdf2-sha256$210000$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+            students.add(Student.restore("Etudiant Numero " + i, BenchmarkData.email(i), passwordHash,
+                ReferenceData.PROMOTIONS.get(i % ReferenceData.PROMOTIONS.size()),
+                ReferenceData.FACULTIES.get(i % ReferenceData.FACULTIES.size())));
+        }
+        return students;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ucc.payment.system.benchmarks;
+
+import java.util.regex.Pattern;
+
+/**
+ * Expressions régulières historiques de Student, conservées comme référence
+ * pour la comparaison différentielle et les mesures de base.
+ */
+final class LegacyPatterns {
+    static final Pattern EMAIL_REGEX = Pattern.compile("^[a-zA-Z0-9._%+-]+@ucc\\.edu$");
+    static final Pattern PASSWORD_REGEX = Pattern.compile("^(?=.*[A-Z])(?=.*[a-z])(?=.*\\d).{8,}$");
+    static final Pattern NAME_REGEX = Pattern.compile("^[a-zA-Z\\s]{3,50}$");
+
+    private LegacyPatterns() {}
+
+    static boolean isValidName(String name) {
+        return NAME_REGEX.matcher(name.trim()).matches();
+    }
+
+    static boolean isValidEmail(String email) {
+        return EMAIL_REGEX.matcher(email.trim().toLowerCase()).matches();
+    }
+
+    static boolean isValidPassword(String password) {
+        return PASSWORD_REGEX.matcher(password).matches();
+    }
+}
@@ -0,0 +1,328 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.offline.OfflineQueue;
+import ucc.payment.system.payment.InMemoryPaymentStore;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.payment.PaymentStore;
+import ucc.payment.system.store.PersistenceBackend;
+import ucc.payment.system.store.UserStore;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Coupure de la base pendant une journée de caisse, avec la {@link OfflineQueue} devant
+ * une base de substitution en mémoire que l'on coupe et rétablit à volonté.
+ *
+ * <p>Déroulé : inscriptions et paiements en ligne, coupure, inscriptions et paiements
+ * (avec leurs statuts finaux) hors ligne, un lot écrit par la base mais dont l'accusé
+ * est perdu (rejeu à dédupliquer), rétablissement et rejeu, puis arrêt brutal avec des
+ * opérations en file et reprise par une nouvelle file sur le même répertoire.
+ *
+ * <p>Affiche la latence des écritures hors ligne, la durée du rejeu et le nombre maximal
+ * d'écritures simultanées reçues par la base. Code de sortie 1 si la base finale diffère
+ * de l'état du registre, si une écriture en double a atteint la base ou si le
+ * parallélisme du rejeu dépasse la borne.
+ *
+ * <p>Usage : {@code OfflineQueueSimulation [opérations hors ligne] [latence base ms]}
+ * (20000 et 2 par défaut).
+ */
+public final class OfflineQueueSimulation {
+    private static final int MAX_REPLAY_PARALLELISM = 4;
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private OfflineQueueSimulation() {}
+
+    public static void main(String[] args) throws Exception {
+        int offlineOperations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        Path directory = Files.createTempDirectory("ucc-offline");
+        StandInDatabase database = new StandInDatabase(latencyMillis);
+        boolean ok = true;
+
+        OfflineQueue queue = OfflineQueue.open(directory, database.paymentStore(), database.backend());
+        UserStore users = new UserStore(queue.studentBackend());
+        PaymentService service = new PaymentService(queue.paymentStore());
+
+        // En ligne
+        int next = writeDay(users, service, 0, 1_000, null);
+        System.out.printf("En ligne : %,d écritures reçues par la base%n", database.writes.get());
+
+        // Paiements en attente créés en ligne, confirmés pendant la coupure
+        List<Payment> waiting = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Student student = users.find(BenchmarkData.email(i));
+            waiting.add(service.createPayment(student, BigDecimal.valueOf(50), PaymentMethod.ORANGE_MONEY).join());
+        }
+
+        // Coupure : tout part dans la file locale
+        database.available = false;
+        for (Payment payment : waiting) {
+            service.updateStatus(payment.getTransactionId(), PaymentStatus.COMPLETED).join();
+        }
+        long[] nanos = new long[offlineOperations];
+        next = writeDay(users, service, next, offlineOperations, nanos);
+        System.out.printf("Hors ligne : %,d opérations en file%n", queue.getPendingCount());
+        printLatency("  inscription", nanos, 0);
+        printLatency("  paiement", nanos, 1);
+        printLatency("  statut", nanos, 2);
+
+        // Rétablissement : un lot est écrit mais son accusé se perd, puis rejeu complet
+        database.loseNextAcknowledgment = true;
+        database.firstCallNanos = 0;
+        database.available = true;
+        long restored = System.nanoTime();
+        if (!queue.awaitDrained(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            System.out.println("ÉCHEC : la file n'a pas été rejouée");
+            System.exit(1);
+        }
+        long drained = System.nanoTime();
+        System.out.printf("Rejeu : nouvelle tentative %.2f s après le rétablissement, file vidée en %.2f s, "
+                + "%d écritures simultanées au plus (borne %d)%n",
+            (database.firstCallNanos - restored) / 1e9, (drained - database.firstCallNanos) / 1e9,
+            database.maxInFlight.get(), MAX_REPLAY_PARALLELISM);
+        ok &= database.maxInFlight.get() <= MAX_REPLAY_PARALLELISM;
+        ok &= check("Après rejeu", database, users, service);
+
+        // Arrêt brutal avec des opérations en file, reprise par une nouvelle file
+        database.available = false;
+        next = writeDay(users, service, next, 1_000, null);
+        int leftBehind = queue.getPendingCount();
+        queue.close();
+        database.available = true;
+        OfflineQueue reopened = OfflineQueue.open(directory, database.paymentStore(), database.backend());
+        UserStore reloadedUsers = new UserStore(reopened.studentBackend());
+        PaymentService reloaded = new PaymentService(reopened.paymentStore());
+        if (!reopened.awaitDrained(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            System.out.println("ÉCHEC : la file reprise n'a pas été rejouée");
+            System.exit(1);
+        }
+        System.out.printf("Reprise après arrêt : %,d opérations retrouvées dans le journal%n", leftBehind);
+        ok &= check("Après reprise", database, reloadedUsers, reloaded);
+
+        reopened.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * Une inscription, un paiement et son statut final par étudiant, en attendant
+     * chaque écriture comme le ferait la caisse.
+     * @return l'indice du prochain étudiant
+     */
+    private static int writeDay(UserStore users, PaymentService service, int from, int operations, long[] nanos) {
+        int i = from;
+        for (int done = 0; done < operations; i++) {
+            Student student = Student.restore(BenchmarkData.NAME, BenchmarkData.email(i), "x", "L1", "FSI");
+            long start = System.nanoTime();
+            users.insertIfAbsent(student);
+            record(nanos, done++, start);
+            if (done == operations) {
+                break;
+            }
+            start = System.nanoTime();
+            CompletableFuture<Payment> created = service.createPayment(student.getEmail(),
+                BigDecimal.valueOf(100 + i % 400), PaymentMethod.M_PESA, String.format("OFF-%08d", i));
+            created.join();
+            record(nanos, done++, start);
+            if (done == operations) {
+                break;
+            }
+            start = System.nanoTime();
+            PaymentStatus status = i % 10 == 0 ? PaymentStatus.FAILED : PaymentStatus.COMPLETED;
+            service.updateStatus(created.join().getTransactionId(), status).join();
+            record(nanos, done++, start);
+        }
+        return i + 1;
+    }
+
+    /**
+     * Latences d'une sorte d'opération : writeDay les enchaîne par trois (inscription, paiement, statut).
+     */
+    private static void printLatency(String label, long[] nanos, int kind) {
+        long[] selected = new long[(nanos.length - kind + 2) / 3];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = nanos[kind + 3 * i];
+        }
+        Arrays.sort(selected);
+        System.out.printf("%-14s p50 %8.1f µs  p99 %8.1f µs%n", label,
+            selected[selected.length / 2] / 1e3, selected[(int) (selected.length * 0.99)] / 1e3);
+    }
+
+    private static void record(long[] nanos, int index, long start) {
+        if (nanos != null) {
+            nanos[index] = System.nanoTime() - start;
+        }
+    }
+
+    private static boolean check(String label, StandInDatabase database, UserStore users, PaymentService service) {
+        int missingStudents = 0;
+        for (Student student : users.all()) {
+            if (!database.students.containsKey(Student.normalizeEmail(student.getEmail()))) {
+                missingStudents++;
+            }
+        }
+        int wrongPayments = 0;
+        for (Payment payment : service.all()) {
+            Payment row = database.payments.get(payment.getTransactionId());
+            if (row == null || row.getStatus() != payment.getStatus()) {
+                wrongPayments++;
+            }
+        }
+        boolean ok = missingStudents == 0 && wrongPayments == 0 && database.duplicateWrites.get() == 0
+            && database.students.size() == users.size();
+        System.out.printf("%s : %s (%,d étudiants, %,d paiements ; %d absents, %d différents, %d doublons)%n",
+            label, ok ? "base cohérente" : "ÉCHEC", database.students.size(), service.all().size(),
+            missingStudents, wrongPayments, database.duplicateWrites.get());
+        return ok;
+    }
+
+    /**
+     * Base de substitution : contraintes d'unicité (email, transaction_id), clé étrangère
+     * étudiant des paiements, latence fixe par appel et coupure à la demande.
+     */
+    private static final class StandInDatabase {
+        final Map<String, Student> students = new ConcurrentHashMap<>();
+        final InMemoryPaymentStore payments = new InMemoryPaymentStore();
+        final AtomicInteger writes = new AtomicInteger();
+        final AtomicInteger duplicateWrites = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final long latencyMillis;
+        volatile boolean available = true;
+        volatile boolean loseNextAcknowledgment;
+        volatile long firstCallNanos;
+
+        StandInDatabase(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        PaymentStore paymentStore() {
+            return new PaymentStore() {
+                @Override
+                public void loadAll(Consumer<Payment> sink) throws IOException {
+                    call(() -> payments.loadAll(sink));
+                }
+
+                @Override
+                public void writeBatch(List<Payment> inserts, List<Payment> statusChanges) throws IOException {
+                    write(() -> {
+                        for (Payment payment : inserts) {
+                            if (!students.containsKey(Student.normalizeEmail(payment.getStudentEmail()))) {
+                                throw new IOException("Étudiant inconnu : " + payment.getStudentEmail());
+                            }
+                            if (payments.get(payment.getTransactionId()) != null) {
+                                duplicateWrites.incrementAndGet();
+                            }
+                        }
+                        payments.writeBatch(inserts, statusChanges);
+                    });
+                }
+
+                @Override
+                public Set<String> findExisting(Collection<String> transactionIds) throws IOException {
+                    Set<String> existing = new HashSet<>();
+                    call(() -> existing.addAll(payments.findExisting(transactionIds)));
+                    return existing;
+                }
+            };
+        }
+
+        PersistenceBackend backend() {
+            return new PersistenceBackend() {
+                @Override
+                public void loadAll(Consumer<Student> sink) throws IOException {
+                    call(() -> students.values().forEach(sink));
+                }
+
+                @Override
+                public void save(Student student) throws IOException {
+                    saveAll(List.of(student));
+                }
+
+                @Override
+                public synchronized void saveAll(List<Student> batch) throws IOException {
+                    write(() -> {
+                        for (Student student : batch) {
+                            if (students.containsKey(Student.normalizeEmail(student.getEmail()))) {
+                                duplicateWrites.incrementAndGet();
+                                throw new IOException("email en double : " + student.getEmail());
+                            }
+                        }
+                        batch.forEach(student -> students.put(Student.normalizeEmail(student.getEmail()), student));
+                    });
+                }
+
+                @Override
+                public void update(Student student) throws IOException {
+                    write(() -> students.replace(Student.normalizeEmail(student.getEmail()), student));
+                }
+
+                @Override
+                public Set<String> findExisting(Collection<String> emails) throws IOException {
+                    Set<String> existing = new HashSet<>();
+                    call(() -> emails.stream().filter(students::containsKey).forEach(existing::add));
+                    return existing;
+                }
+            };
+        }
+
+        private void write(Call call) throws IOException {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                call(call);
+                writes.incrementAndGet();
+                if (loseNextAcknowledgment) {
+                    loseNextAcknowledgment = false;
+                    throw new IOException("Connexion perdue avant l'accusé de réception");
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private void call(Call call) throws IOException {
+            if (!available) {
+                throw new IOException("Base injoignable");
+            }
+            if (firstCallNanos == 0) {
+                firstCallNanos = System.nanoTime();
+            }
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrompu", e);
+            }
+            call.run();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,150 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.payment.CachedPaymentRepository;
+import ucc.payment.system.payment.InMemoryPaymentRepository;
+import ucc.payment.system.payment.InMemoryPaymentStore;
+import ucc.payment.system.payment.PaymentRepository;
+import ucc.payment.system.payment.PaymentRow;
+import ucc.payment.system.payment.PaymentService;
+import ucc.payment.system.store.UserStore;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Historique des paiements par étudiant ({@link CachedPaymentRepository}) : consultations
+ * répétées ("Vérifier les Paiements") servies par le registre à latence simulée (aller-retour
+ * vers la base) puis à travers le cache, parcours page par page comparé à la liste
+ * complète et invalidation après un nouveau paiement.
+ *
+ * <p>Code de sortie 1 si une page diffère de la liste complète ou si un nouveau paiement
+ * n'apparaît pas dans l'historique suivant.
+ *
+ * <p>Usage : {@code PaymentHistoryBench [étudiants] [paiements par étudiant]
+ * [consultations] [latence du registre µs]} (1000, 20, 5000 et 500 par défaut).
+ */
+public final class PaymentHistoryBench {
+    private static final int PAGE = 10;
+
+    private PaymentHistoryBench() {}
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int perStudent = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+        long latencyMicros = args.length > 3 ? Long.parseLong(args[3]) : 500;
+        boolean failed = false;
+
+        InMemoryPaymentStore store = new InMemoryPaymentStore();
+        List<Payment> rows = new ArrayList<>(students * perStudent);
+        Instant base = Instant.parse("2025-09-01T08:00:00Z");
+        for (int i = 0; i < students * perStudent; i++) {
+            rows.add(new Payment(String.format("HIST-%010d", i), BenchmarkData.email(i % students),
+                BigDecimal.valueOf(50 + i % 450), PaymentMethod.M_PESA, PaymentStatus.COMPLETED,
+                base.plusSeconds(i / 3)));
+        }
+        store.writeBatch(rows, List.of());
+
+        try (PaymentService service = new PaymentService(store)) {
+            InMemoryPaymentRepository scan = new InMemoryPaymentRepository(service, new UserStore());
+            AtomicLong queries = new AtomicLong();
+            long latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+            PaymentRepository remote = (email, after, limit) -> {
+                queries.incrementAndGet();
+                LockSupport.parkNanos(latencyNanos);
+                return scan.history(email, after, limit);
+            };
+            CachedPaymentRepository cached = new CachedPaymentRepository(remote);
+            service.addListener(cached);
+            System.out.printf("%,d paiements pour %,d étudiants, registre à %d µs par requête%n",
+                rows.size(), students, latencyMicros);
+
+            // Chaque étudiant consulte plusieurs fois ses derniers paiements
+            int viewers = Math.max(1, Math.min(students, lookups / 5));
+            long direct = measure(remote, lookups, viewers);
+            long directQueries = queries.getAndSet(0);
+            long viaCache = measure(cached, lookups, viewers);
+            System.out.printf("Sans cache : %,d requêtes, %.1f µs par consultation%n",
+                directQueries, direct / 1e3 / lookups);
+            System.out.printf("Avec cache : %,d requêtes (%.1f %% évitées), %.1f µs par consultation, "
+                    + "%,d étudiants en cache%n", queries.get(), 100.0 * (lookups - queries.get()) / lookups,
+                viaCache / 1e3 / lookups, cached.size());
+
+            // Parcours complet page par page : mêmes lignes que la liste entière
+            int mismatches = 0;
+            for (int s = 0; s < Math.min(students, 200); s++) {
+                String email = BenchmarkData.email(s);
+                List<PaymentRow> all = scan.history(email, null, Integer.MAX_VALUE);
+                List<PaymentRow> paged = new ArrayList<>();
+                PaymentRow after = null;
+                List<PaymentRow> page;
+                do {
+                    page = cached.history(email, after, PAGE);
+                    paged.addAll(page);
+                    after = page.isEmpty() ? after : page.get(page.size() - 1);
+                } while (page.size() == PAGE);
+                if (!sameTransactions(all, paged)) {
+                    mismatches++;
+                }
+            }
+            System.out.printf("Pagination par clé : %d étudiant(s) dont le parcours diffère de la liste complète%n",
+                mismatches);
+            failed |= mismatches > 0;
+
+            // Un paiement créé efface l'entrée de l'étudiant
+            int stale = 0;
+            int checked = Math.min(students, 500);
+            for (int s = 0; s < checked; s++) {
+                String email = BenchmarkData.email(s);
+                cached.history(email, null, PAGE);
+                Payment created = service.createPayment(
+                    new Student(BenchmarkData.NAME, email, BenchmarkData.PASSWORD, "L1", "FSI"),
+                    BigDecimal.valueOf(1000 + s), PaymentMethod.AIRTEL_MONEY).join();
+                List<PaymentRow> latest = cached.history(email, null, 1);
+                if (latest.isEmpty() || !latest.get(0).getTransactionId().equals(created.getTransactionId())) {
+                    stale++;
+                }
+            }
+            System.out.printf("Invalidation : %d historique(s) périmé(s) sur %d après un nouveau paiement%n",
+                stale, checked);
+            failed |= stale > 0;
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Consultations de la première page par un nombre limité d'étudiants, tirés au hasard.
+     * @return durée totale en nanosecondes
+     */
+    private static long measure(PaymentRepository repository, int lookups, int viewers) throws IOException {
+        Random random = new Random(7);
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            repository.history(BenchmarkData.email(random.nextInt(viewers)), null, PAGE);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static boolean sameTransactions(List<PaymentRow> expected, List<PaymentRow> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!expected.get(i).getTransactionId().equals(actual.get(i).getTransactionId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Payment;
+import ucc.payment.system.model.PaymentMethod;
+import ucc.payment.system.model.PaymentStatus;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.receipt.ReceiptGenerator;
+import ucc.payment.system.receipt.ReceiptReport;
+import ucc.payment.system.receipt.ReceiptTemplate;
+import ucc.payment.system.store.UserStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Génération des reçus de fin de session ({@link ReceiptGenerator}) : coût de l'analyse
+ * du modèle comparé au rendu d'un reçu, puis génération complète sur un thread et sur
+ * tous les cœurs, dans un dossier temporaire supprimé ensuite.
+ *
+ * <p>Code de sortie 1 si le nombre de fichiers écrits diffère du nombre de paiements
+ * "completed" ou si un reçu ne contient pas sa transaction et son étudiant.
+ *
+ * <p>Usage : {@code ReceiptBench [paiements] [étudiants]} (50000 et 5000 par défaut) ;
+ * un paiement sur dix reste "pending" et n'a pas de reçu.
+ */
+public final class ReceiptBench {
+    private static final String[] FACULTIES = {"FSI", "FED", "FDR", "Médecine"};
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+
+    private ReceiptBench() {}
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int studentCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        UserStore students = new UserStore();
+        for (int i = 0; i < studentCount; i++) {
+            students.insertIfAbsent(Student.restore(BenchmarkData.NAME + " " + i, BenchmarkData.email(i),
+                "x", "L" + (1 + i % 3), FACULTIES[i % FACULTIES.length]));
+        }
+        List<Payment> payments = new ArrayList<>(count);
+        Instant base = Instant.parse("2025-09-01T08:00:00Z");
+        int completed = 0;
+        for (int i = 0; i < count; i++) {
+            PaymentStatus status = i % 10 == 9 ? PaymentStatus.PENDING : PaymentStatus.COMPLETED;
+            completed += status == PaymentStatus.COMPLETED ? 1 : 0;
+            payments.add(new Payment(String.format("UCC-R-%014d", i), BenchmarkData.email(i % studentCount),
+                BigDecimal.valueOf(50 + i % 450), METHODS[i % METHODS.length], status,
+                base.plusSeconds(i * 97L)));
+        }
+
+        templateCost(payments.get(0), students.find(payments.get(0).getStudentEmail()));
+
+        boolean failed = false;
+        for (int threads : cores == 1 ? new int[] {1} : new int[] {1, cores}) {
+            Path directory = Files.createTempDirectory("ucc-receipts");
+            try (ReceiptGenerator generator = new ReceiptGenerator(students, directory,
+                    ReceiptTemplate.defaultTemplate(), threads)) {
+                ReceiptReport report = generator.generateAll(payments, progress -> { });
+                long files = countFiles(directory);
+                System.out.printf("%d thread(s) : %s, %,d fichiers%n", threads, report, files);
+                failed |= files != completed || report.getGenerated() != completed || report.getFailed() > 0;
+                failed |= !containsReceipt(directory, payments.get(0), students);
+            } finally {
+                delete(directory);
+            }
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Analyse d'un modèle à chaque reçu (ce que le cache évite) comparée au rendu seul.
+     */
+    private static void templateCost(Payment payment, Student student) {
+        String text = "<html><body><h1>Reçu {{transaction_id}}</h1>{{logo}}<p>{{student_name}} "
+            + "({{student_email}}), {{promotion}} {{faculty}}</p><p>{{amount}} par {{method}} "
+            + "({{operator}}) le {{payment_date}}, {{status}}</p><footer>{{issued_at}}</footer></body></html>";
+        ReceiptTemplate template = ReceiptTemplate.parse(text);
+        Instant now = Instant.now();
+        StringBuilder out = new StringBuilder(4096);
+        int rounds = 200_000;
+        long sink = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                sink += ReceiptTemplate.parse(text).getSizeHint();
+            }
+            long parse = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                out.setLength(0);
+                template.render(payment, student, now, out);
+                sink += out.length();
+            }
+            long render = System.nanoTime() - start;
+            if (pass == 1) {
+                System.out.printf("Analyse du modèle : %.2f µs, rendu d'un reçu : %.2f µs%n",
+                    parse / 1e3 / rounds, render / 1e3 / rounds);
+            }
+        }
+        Reference.reachabilityFence(sink);
+    }
+
+    private static boolean containsReceipt(Path directory, Payment payment, UserStore students) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            Path file = files.filter(path -> path.getFileName().toString().equals(payment.getTransactionId() + ".html"))
+                .findFirst().orElse(null);
+            if (file == null) {
+                return false;
+            }
+            String html = Files.readString(file, StandardCharsets.UTF_8);
+            return html.contains(payment.getTransactionId())
+                && html.contains(students.find(payment.getStudentEmail()).getName());
+        }
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
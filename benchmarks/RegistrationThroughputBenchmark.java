@@ -0,0 +1,74 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.UserManager;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.JournalBackend;
+import ucc.payment.system.store.UserStore;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Débit d'inscriptions concurrentes (8 threads) : store en mémoire ou journal
+ * sur disque (validation groupée), avec ou sans hashage du mot de passe.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Ducc.hash.target.ms=" + BenchmarkData.HASH_TARGET_MS)
+@State(Scope.Benchmark)
+public class RegistrationThroughputBenchmark {
+
+    @Param({"memory", "journal"})
+    public String backend;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private UserManager userManager;
+    private UserStore store;
+    private Path directory;
+    private String passwordHash;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        passwordHash = BenchmarkData.newStudent(0).getPasswordHash();
+        if ("journal".equals(backend)) {
+            directory = Files.createTempDirectory("ucc-bench");
+            store = new UserStore(JournalBackend.open(directory));
+        } else {
+            store = new UserStore();
+        }
+        userManager = new UserManager(store);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        store.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+            directory = null;
+        }
+    }
+
+    @Benchmark
+    public void addUserPrehashed() {
+        userManager.addUser(Student.restore(BenchmarkData.NAME,
+            BenchmarkData.email(sequence.incrementAndGet()), passwordHash, "L2", "FSI"));
+    }
+
+    @Benchmark
+    public void addUserWithHashing() {
+        userManager.addUser(new Student(BenchmarkData.NAME,
+            BenchmarkData.email(sequence.incrementAndGet()), BenchmarkData.PASSWORD, "L2", "FSI"));
+    }
+}
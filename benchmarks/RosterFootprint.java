@@ -0,0 +1,112 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.store.CompactRoster;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Empreinte mémoire d'une liste d'étudiants : graphe d'objets actuel du {@code UserStore}
+ * (ConcurrentHashMap d'objets Student, cinq String chacun) comparé à {@link CompactRoster}.
+ *
+ * <p>Les étudiants sont générés comme au chargement du journal ou de la base : chaque
+ * champ est une String distincte, hash PBKDF2 au format stocké. Mesure du tas après GC,
+ * puis coût d'une recherche par email dans chaque représentation.
+ *
+ * <p>Usage : {@code RosterFootprint [étudiants]} (200000 par défaut). Lancer avec un tas
+ * fixe (par exemple {@code -Xms2g -Xmx2g}) pour des mesures stables.
+ */
+public final class RosterFootprint {
+    private static final int LOOKUPS = 1_000_000;
+
+    private RosterFootprint() {}
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long baseline = usedAfterGc(memory);
+        Map<String, Student> graph = new ConcurrentHashMap<>(1 << 16);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            Student student = generate(i, random);
+            graph.put(Student.normalizeEmail(student.getEmail()), student);
+        }
+        long graphBytes = usedAfterGc(memory) - baseline;
+        long graphNanos = lookups(count, email -> graph.get(email));
+        Reference.reachabilityFence(graph);
+        graph.clear();
+
+        baseline = usedAfterGc(memory);
+        CompactRoster roster = new CompactRoster(count);
+        random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            roster.add(generate(i, random));
+        }
+        roster.trimToSize();
+        long rosterBytes = usedAfterGc(memory) - baseline;
+        long rosterNanos = lookups(count, roster::find);
+        Reference.reachabilityFence(roster);
+
+        System.out.printf("%,d étudiants%n", count);
+        System.out.printf("Graphe d'objets : %,12d octets  %6.1f o/étudiant  recherche %5.0f ns%n",
+            graphBytes, (double) graphBytes / count, (double) graphNanos / LOOKUPS);
+        System.out.printf("Liste compacte  : %,12d octets  %6.1f o/étudiant  recherche %5.0f ns (vue créée)%n",
+            rosterBytes, (double) rosterBytes / count, (double) rosterNanos / LOOKUPS);
+        System.out.printf("Gain : %.1fx%n", (double) graphBytes / Math.max(1, rosterBytes));
+    }
+
+    private static Student generate(int i, Random random) {
+        byte[] salt = new byte[16];
+        byte[] hash = new byte[32];
+        random.nextBytes(salt);
+        random.nextBytes(hash);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        String passwordHash = "pbkdf2-sha256$210000$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+        // new String : valeurs distinctes, comme après lecture du journal ou d'un ResultSet
+        String promotion = new String(ReferenceData.PROMOTIONS.get(i % ReferenceData.PROMOTIONS.size()));
+        String faculty = new String(ReferenceData.FACULTIES.get(i % ReferenceData.FACULTIES.size()));
+        return Student.restore("Etudiant Numero " + i, BenchmarkData.email(i), passwordHash, promotion, faculty);
+    }
+
+    private static long lookups(int count, Function<String, Student> find) {
+        String[] emails = new String[1024];
+        Random random = new Random(7);
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = BenchmarkData.email(random.nextInt(count));
+        }
+        int found = 0;
+        for (int i = 0; i < LOOKUPS / 4; i++) {
+            found += find.apply(emails[i & 1023]) != null ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += find.apply(emails[i & 1023]) != null ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found == 0) {
+            throw new IllegalStateException("Aucun étudiant trouvé");
+        }
+        return elapsed;
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,36 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Student;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de construction d'un Student : validation (3 regex) + hashage,
+ * comparé à la restauration depuis un hash déjà calculé.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Ducc.hash.target.ms=" + BenchmarkData.HASH_TARGET_MS)
+@State(Scope.Benchmark)
+public class StudentBenchmark {
+    private String passwordHash;
+
+    @Setup
+    public void setup() {
+        passwordHash = BenchmarkData.newStudent(0).getPasswordHash();
+    }
+
+    @Benchmark
+    public Student construct() {
+        return new Student(BenchmarkData.NAME, BenchmarkData.email(1), BenchmarkData.PASSWORD, "L2", "FSI");
+    }
+
+    @Benchmark
+    public Student restore() {
+        return Student.restore(BenchmarkData.NAME, BenchmarkData.email(1), passwordHash, "L2", "FSI");
+    }
+}
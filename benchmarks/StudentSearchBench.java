@@ -0,0 +1,126 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.ReferenceData;
+import ucc.payment.system.model.Student;
+import ucc.payment.system.search.StudentSearchIndex;
+import ucc.payment.system.store.UserStore;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Latence de la recherche d'étudiants de la caisse ({@link StudentSearchIndex}) :
+ * débuts de nom, requêtes à deux mots, débuts d'email et termes avec une faute de frappe,
+ * top 10 sur une liste d'étudiants aux noms réalistes (prénoms et noms répétés).
+ *
+ * <p>Affiche le temps d'indexation, les latences p50/p99/max par type de requête et,
+ * pour les fautes de frappe, la part des recherches qui retrouvent l'étudiant visé.
+ *
+ * <p>Usage : {@code StudentSearchBench [étudiants] [requêtes]} (100000 et 20000 par défaut).
+ */
+public final class StudentSearchBench {
+    private static final int LIMIT = 10;
+    private static final String[] FIRST_NAMES = {
+        "Jean", "Pierre", "Marie", "Joseph", "Grâce", "Patrick", "Christelle", "Emmanuel", "Ruth",
+        "Daniel", "Esther", "Jonathan", "Bénédicte", "Cédric", "Divine", "Fiston", "Gloire", "Héritier",
+        "Josué", "Merveille", "Nathan", "Orphée", "Prisca", "Rachel", "Sarah", "Trésor", "Yannick"
+    };
+    private static final String[] LAST_NAMES = {
+        "Mukendi", "Kabila", "Tshisekedi", "Mbuyi", "Kalala", "Ilunga", "Ngoy", "Kasongo", "Lukusa",
+        "Mwamba", "Nzuzi", "Makiese", "Lumumba", "Kayembe", "Banza", "Mbala", "Kabamba", "Tshibangu",
+        "Ntumba", "Mutombo", "Kanku", "Mpiana", "Bokele", "Lokwa", "Ekofo", "Matondo", "Nsimba"
+    };
+
+    private StudentSearchBench() {}
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        UserStore store = new UserStore();
+        Random random = new Random(42);
+        Student[] all = new Student[count];
+        for (int i = 0; i < count; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String middle = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (random.nextInt(4) == 0 ? "a" : "");
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = ascii(first + "." + last) + i + "@ucc.ac.cd";
+            all[i] = Student.restore(first + " " + middle + " " + last, email, "x",
+                ReferenceData.PROMOTIONS.get(i % ReferenceData.PROMOTIONS.size()),
+                ReferenceData.FACULTIES.get(i % ReferenceData.FACULTIES.size()));
+            store.insertIfAbsent(all[i]);
+        }
+
+        StudentSearchIndex index = new StudentSearchIndex(store);
+        long start = System.nanoTime();
+        index.addAll(store.all());
+        System.out.printf("%,d étudiants indexés en %,d ms%n", index.size(), (System.nanoTime() - start) / 1_000_000);
+
+        run("Début de nom", queries, index, r -> {
+            String word = words(all[r.nextInt(count)]).get(r.nextInt(3));
+            return word.substring(0, 1 + r.nextInt(Math.min(6, word.length())));
+        });
+        run("Deux mots", queries, index, r -> {
+            List<String> words = words(all[r.nextInt(count)]);
+            String last = words.get(2);
+            return words.get(0) + " " + last.substring(0, 1 + r.nextInt(last.length()));
+        });
+        run("Début d'email", queries, index, r -> {
+            String email = all[r.nextInt(count)].getEmail();
+            return email.substring(0, 3 + r.nextInt(email.indexOf('@') - 2));
+        });
+
+        int[] hits = new int[1];
+        run("Faute de frappe", queries, index, r -> {
+            Student target = all[r.nextInt(count)];
+            String last = words(target).get(2);
+            char[] typo = last.toCharArray();
+            typo[1 + r.nextInt(typo.length - 1)] = 'x';
+            // Prénom + nom mal tapé + numéro de l'email : une seule bonne réponse
+            String email = target.getEmail();
+            String number = email.substring(email.indexOf(last.toLowerCase()) + last.length(), email.indexOf('@'));
+            String query = words(target).get(0) + " " + new String(typo) + number;
+            if (index.search(query, LIMIT).contains(target)) {
+                hits[0]++;
+            }
+            return query;
+        });
+        System.out.printf("Fautes de frappe retrouvées : %.1f %%%n", 100.0 * hits[0] / queries);
+    }
+
+    private static void run(String label, int queries, StudentSearchIndex index,
+                            Function<Random, String> generator) {
+        Random random = new Random(label.hashCode());
+        String[] texts = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            texts[i] = generator.apply(random);
+        }
+        // Préchauffage puis mesure sur les mêmes requêtes
+        for (String text : texts) {
+            index.search(text, LIMIT);
+        }
+        long[] nanos = new long[queries];
+        int results = 0;
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            results += index.search(texts[i], LIMIT).size();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-16s p50 %6.1f µs  p99 %6.1f µs  max %7.1f µs  %.1f résultats/requête%n", label,
+            nanos[queries / 2] / 1e3, nanos[(int) (queries * 0.99)] / 1e3, nanos[queries - 1] / 1e3,
+            (double) results / queries);
+    }
+
+    private static List<String> words(Student student) {
+        return Arrays.asList(student.getName().split(" "));
+    }
+
+    private static String ascii(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,82 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.model.Student;
+import ucc.payment.system.util.ValidationUtils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Règles de validation de Student et prédicats de ValidationUtils utilisés par
+ * RegistrationFrame, sur des entrées valides et invalides, comparés aux
+ * expressions régulières historiques.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private String name;
+    private String email;
+    private String password;
+
+    @Setup
+    public void setup() {
+        boolean valid = "valid".equals(input);
+        name = valid ? "Jean Pierre Mukendi" : "J3an";
+        email = valid ? "  Jean.Mukendi@UCC.edu " : "jean.mukendi@gmail.com";
+        password = valid ? "Kinshasa2024" : "kinshasa";
+    }
+
+    @Benchmark
+    public boolean studentName() {
+        return Student.isValidName(name);
+    }
+
+    @Benchmark
+    public boolean studentEmail() {
+        return Student.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean studentPassword() {
+        return Student.isValidPassword(password);
+    }
+
+    @Benchmark
+    public boolean regexName() {
+        return LegacyPatterns.isValidName(name);
+    }
+
+    @Benchmark
+    public boolean regexEmail() {
+        return LegacyPatterns.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean regexPassword() {
+        return LegacyPatterns.isValidPassword(password);
+    }
+
+    @Benchmark
+    public boolean formName() {
+        return ValidationUtils.isValidName(name);
+    }
+
+    @Benchmark
+    public boolean formEmail() {
+        return ValidationUtils.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean formPassword() {
+        return ValidationUtils.isStrongPassword(password);
+    }
+}
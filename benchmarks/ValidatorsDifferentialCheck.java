@@ -0,0 +1,78 @@
+package ucc.payment.system.benchmarks;
+
+import ucc.payment.system.util.Validators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Comparaison différentielle entre {@link Validators} et les expressions régulières
+ * historiques : cas limites puis chaînes aléatoires sur un alphabet piégeux.
+ * Termine avec le code 1 à la première divergence.
+ *
+ * <p>Usage : {@code ValidatorsDifferentialCheck [nombre de chaînes aléatoires]}
+ */
+public final class ValidatorsDifferentialCheck {
+    private static final String ALPHABET = "aZz09 ._%+-@ucedUCED\t\n\r\u000B\f\u0001\u0085\u2028\u2029"
+        + "éÉİıKſ😀\uD800";
+    private static final String[] EDGE_CASES = {
+        "", " ", "ab", "abc", "  abc  ", "a b", "a\tb c", "a\u0001bc", "Jérôme",
+        "Jean Pierre Mukendi", "x".repeat(50), "x".repeat(51), " " + "x".repeat(50) + " ",
+        "a@ucc.edu", "@ucc.edu", "A.B@UCC.EDU", " jean@ucc.edu ", "jean@ucc.edu\n", "jean@ucc.edu.cd",
+        "jean@@ucc.edu", "je an@ucc.edu", "Kevin@ucc.edu", "İnes@ucc.edu", "jean@gmail.com",
+        "jean%+_-.@ucc.edu", "jeané@ucc.edu", "jean@uccKedu",
+        "Abcdefg1", "Abcdef1", "abcdefg1", "ABCDEFG1", "Abcdefgh", "Abcdefg1\n", "Ab\ncdefg1",
+        "Abcdefg1\r\n", "Abcdef😀1", "Abcdef😀12", "Abc\u0085defg1", "Ébcdefg1",
+        "Abcde fg1", "        Ab1"
+    };
+
+    private ValidatorsDifferentialCheck() {}
+
+    public static void main(String[] args) {
+        Locale.setDefault(Locale.ROOT);
+        int randomCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        List<String> failures = new ArrayList<>();
+        for (String value : EDGE_CASES) {
+            compare(value, failures);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < randomCount && failures.isEmpty(); n++) {
+            sb.setLength(0);
+            int length = random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            if (random.nextInt(3) == 0) {
+                sb.append(random.nextBoolean() ? "@ucc.edu" : "@UCC.EDU");
+            }
+            compare(sb.toString(), failures);
+        }
+
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.printf("OK : %d cas limites et %d chaînes aléatoires identiques%n",
+            EDGE_CASES.length, randomCount);
+    }
+
+    private static void compare(String value, List<String> failures) {
+        check("nom", value, LegacyPatterns.isValidName(value), Validators.checkName(value) == null, failures);
+        check("email", value, LegacyPatterns.isValidEmail(value), Validators.checkEmail(value) == null, failures);
+        check("mot de passe", value, LegacyPatterns.isValidPassword(value),
+            Validators.checkPassword(value) == null, failures);
+    }
+
+    private static void check(String rule, String value, boolean expected, boolean actual, List<String> failures) {
+        if (expected != actual) {
+            failures.add(String.format("Divergence (%s) sur \"%s\" : regex=%b, validateur=%b",
+                rule, value.codePoints().mapToObj(cp -> cp < 32 || cp > 126
+                    ? String.format("\\u%04X", cp) : String.valueOf((char) cp))
+                    .reduce("", String::concat), expected, actual));
+        }
+    }
+}